@@ -1,6 +1,34 @@
 package com.biblioteca;
 
+import com.biblioteca.api.ServidorBiblioteca;
+import com.biblioteca.concurrencia.Ejecutores;
+import com.biblioteca.service.LibroService;
+import com.biblioteca.service.PrestamoService;
+
+import java.io.IOException;
+
 public class Biblioteca {
-    public static void main(String[] args) {
+
+    private static final int PUERTO_POR_DEFECTO = 8080;
+    private static final String MAX_CONEXIONES_OCIOSAS = "sun.net.httpserver.maxIdleConnections";
+
+    /**
+     * Levanta el API HTTP de la biblioteca
+     *
+     * @param args Puerto opcional (por defecto 8080)
+     */
+    public static void main(String[] args) throws IOException {
+        int puerto = args.length > 0 ? Integer.parseInt(args[0]) : PUERTO_POR_DEFECTO;
+        // Por omisión el HttpServer del JDK conserva solo 200 conexiones keep-alive ociosas;
+        // se lee al crear el primer servidor, así que se fija antes de crearlo
+        if (System.getProperty(MAX_CONEXIONES_OCIOSAS) == null) {
+            System.setProperty(MAX_CONEXIONES_OCIOSAS, "20000");
+        }
+        LibroService libroService = new LibroService();
+        PrestamoService prestamoService = new PrestamoService(libroService);
+        ServidorBiblioteca servidor = new ServidorBiblioteca(libroService, prestamoService, puerto).iniciar();
+        Runtime.getRuntime().addShutdownHook(new Thread(servidor::close));
+        System.out.println("API de la biblioteca en http://localhost:" + servidor.getPuerto()
+                + (Ejecutores.hilosVirtualesDisponibles() ? " (hilos virtuales)" : " (hilos de plataforma)"));
     }
 }
@@ -0,0 +1,89 @@
+package com.biblioteca.api;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias en nanosegundos, seguro para registrar desde muchos hilos.
+ *
+ * Usa buckets log-lineales: cada potencia de 2 se divide en 16 partes, así el error
+ * de un percentil queda por debajo del 6,25% con un arreglo fijo de 960 contadores
+ * (sin asignaciones al registrar).
+ */
+public class HistogramaLatencia {
+
+    private static final int SUBDIVISIONES_BITS = 4;
+    private static final int SUBDIVISIONES = 1 << SUBDIVISIONES_BITS;
+    private static final int BUCKETS = (64 - SUBDIVISIONES_BITS) * SUBDIVISIONES;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder cantidad = new LongAdder();
+    private final LongAdder suma = new LongAdder();
+    private final LongAccumulator maximo = new LongAccumulator(Math::max, 0);
+
+    public void registrar(long nanos) {
+        long valor = Math.max(nanos, 0);
+        buckets.incrementAndGet(indice(valor));
+        cantidad.increment();
+        suma.add(valor);
+        maximo.accumulate(valor);
+    }
+
+    public long getCantidad() {
+        return cantidad.sum();
+    }
+
+    public long getMaximo() {
+        return maximo.get();
+    }
+
+    public double getPromedio() {
+        long n = cantidad.sum();
+        return n == 0 ? 0 : (double) suma.sum() / n;
+    }
+
+    /**
+     * @param percentil Entre 0 y 100 (p. ej. 99.9)
+     * @return Cota superior del bucket que contiene el percentil, en nanosegundos
+     */
+    public long percentil(double percentil) {
+        long total = 0;
+        long[] copia = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copia[i] = buckets.get(i);
+            total += copia[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long objetivo = Math.max(1, (long) Math.ceil(total * percentil / 100.0));
+        long acumulado = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            acumulado += copia[i];
+            if (acumulado >= objetivo) {
+                return Math.min(cotaSuperior(i), getMaximo());
+            }
+        }
+        return getMaximo();
+    }
+
+    static int indice(long valor) {
+        if (valor < SUBDIVISIONES) {
+            return (int) valor;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(valor);
+        int sub = (int) (valor >>> (exponente - SUBDIVISIONES_BITS)) & (SUBDIVISIONES - 1);
+        return (exponente - SUBDIVISIONES_BITS + 1) * SUBDIVISIONES + sub;
+    }
+
+    static long cotaSuperior(int indice) {
+        if (indice < SUBDIVISIONES) {
+            return indice;
+        }
+        int exponente = indice / SUBDIVISIONES + SUBDIVISIONES_BITS - 1;
+        int sub = indice % SUBDIVISIONES;
+        long ancho = 1L << (exponente - SUBDIVISIONES_BITS);
+        return ((long) (SUBDIVISIONES + sub) << (exponente - SUBDIVISIONES_BITS)) + ancho - 1;
+    }
+}
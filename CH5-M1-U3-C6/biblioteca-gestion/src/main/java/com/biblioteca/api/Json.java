@@ -0,0 +1,163 @@
+package com.biblioteca.api;
+
+import com.biblioteca.estadisticas.EstadisticasCirculacion;
+import com.biblioteca.estadisticas.Frecuencia;
+import com.biblioteca.model.Libro;
+import com.biblioteca.model.Prestamo;
+import com.biblioteca.model.Reserva;
+import com.biblioteca.service.Pagina;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Serialización JSON mínima de las respuestas del API (sin dependencias externas)
+ */
+final class Json {
+
+    private Json() {
+    }
+
+    static String libro(Libro libro) {
+        return libro(new StringBuilder(), libro).toString();
+    }
+
+    static String prestamo(Prestamo prestamo) {
+        return prestamo(new StringBuilder(), prestamo).toString();
+    }
+
+    static String reserva(Reserva reserva) {
+        StringBuilder sb = new StringBuilder("{\"isbn\":");
+        texto(sb, reserva.getIsbn()).append(",\"idUsuario\":");
+        texto(sb, reserva.getIdUsuario()).append(",\"estado\":");
+        texto(sb, reserva.getEstado().name()).append(",\"prestamo\":");
+        Prestamo prestamo = reserva.getPrestamo();
+        if (prestamo == null) {
+            sb.append("null");
+        } else {
+            prestamo(sb, prestamo);
+        }
+        return sb.append('}').toString();
+    }
+
+    static String libros(List<Libro> libros) {
+        return lista(libros, Json::libro);
+    }
+
+    static String prestamos(List<Prestamo> prestamos) {
+        return lista(prestamos, Json::prestamo);
+    }
+
+    static String paginaLibros(Pagina<Libro> pagina) {
+        return pagina(pagina, Json::libro);
+    }
+
+    static String paginaPrestamos(Pagina<Prestamo> pagina) {
+        return pagina(pagina, Json::prestamo);
+    }
+
+    static String estadisticas(EstadisticasCirculacion estadisticas, int top) {
+        return new StringBuilder("{\"prestamosTotales\":").append(estadisticas.getPrestamosTotales())
+                .append(",\"prestamosActivos\":").append(estadisticas.getPrestamosActivos())
+                .append(",\"ejemplares\":").append(estadisticas.getEjemplaresTotales())
+                .append(",\"porcentajeEnPrestamo\":")
+                .append(Math.round(estadisticas.porcentajeEnPrestamo() * 100) / 100.0)
+                .append(",\"masPrestados\":").append(lista(estadisticas.masPrestados(top), Json::frecuencia))
+                .append(",\"autoresMasPrestados\":")
+                .append(lista(estadisticas.autoresMasPrestados(top), Json::frecuencia))
+                .append('}').toString();
+    }
+
+    static String error(String mensaje) {
+        return texto(new StringBuilder("{\"error\":"), mensaje).append('}').toString();
+    }
+
+    static StringBuilder libro(StringBuilder sb, Libro libro) {
+        sb.append("{\"isbn\":");
+        texto(sb, libro.getIsbn()).append(",\"titulo\":");
+        texto(sb, libro.getTitulo()).append(",\"autor\":");
+        texto(sb, libro.getAutor())
+                .append(",\"cantidadTotal\":").append(libro.getCantidadTotal())
+                .append(",\"cantidadDisponible\":").append(libro.getCantidadDisponible());
+        return sb.append('}');
+    }
+
+    static StringBuilder prestamo(StringBuilder sb, Prestamo prestamo) {
+        sb.append("{\"id\":");
+        texto(sb, prestamo.getId()).append(",\"isbn\":");
+        texto(sb, prestamo.getIsbnLibro()).append(",\"idUsuario\":");
+        texto(sb, prestamo.getIdUsuario()).append(",\"fechaPrestamo\":");
+        texto(sb, String.valueOf(prestamo.getFechaPrestamo())).append(",\"fechaDevolucion\":");
+        if (prestamo.getFechaDevolucion() == null) {
+            sb.append("null");
+        } else {
+            texto(sb, prestamo.getFechaDevolucion().toString());
+        }
+        sb.append(",\"fechaVencimiento\":");
+        if (prestamo.getFechaVencimiento() == null) {
+            sb.append("null");
+        } else {
+            texto(sb, prestamo.getFechaVencimiento().toString());
+        }
+        return sb.append(",\"renovaciones\":").append(prestamo.getRenovaciones())
+                .append(",\"activo\":").append(prestamo.isActivo()).append('}');
+    }
+
+    static StringBuilder frecuencia(StringBuilder sb, Frecuencia frecuencia) {
+        sb.append("{\"clave\":");
+        return texto(sb, frecuencia.getClave())
+                .append(",\"prestamos\":").append(frecuencia.getCantidad())
+                .append(",\"errorMaximo\":").append(frecuencia.getErrorMaximo()).append('}');
+    }
+
+    static StringBuilder texto(StringBuilder sb, String texto) {
+        if (texto == null) {
+            return sb.append("null");
+        }
+        sb.append('"');
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"');
+    }
+
+    private static <T> String pagina(Pagina<T> pagina, BiConsumer<StringBuilder, T> escritor) {
+        StringBuilder sb = new StringBuilder("{\"elementos\":")
+                .append(lista(pagina.getElementos(), escritor)).append(",\"siguienteCursor\":");
+        return texto(sb, pagina.getSiguienteCursor()).append('}').toString();
+    }
+
+    private static <T> String lista(List<T> elementos, BiConsumer<StringBuilder, T> escritor) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < elementos.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            escritor.accept(sb, elementos.get(i));
+        }
+        return sb.append(']').toString();
+    }
+}
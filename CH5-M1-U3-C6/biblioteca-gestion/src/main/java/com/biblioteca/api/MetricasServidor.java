@@ -0,0 +1,102 @@
+package com.biblioteca.api;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas por endpoint del servidor HTTP: peticiones, rechazos (4xx),
+ * errores (5xx), throughput desde el arranque e histograma de latencias.
+ */
+public class MetricasServidor {
+
+    /**
+     * Métricas de un endpoint
+     */
+    public static class Endpoint {
+        private final LongAdder peticiones = new LongAdder();
+        private final LongAdder rechazos = new LongAdder();
+        private final LongAdder errores = new LongAdder();
+        private final HistogramaLatencia latencias = new HistogramaLatencia();
+
+        void registrar(long nanos, int estado) {
+            peticiones.increment();
+            if (estado >= 500) {
+                errores.increment();
+            } else if (estado >= 400) {
+                rechazos.increment();
+            }
+            latencias.registrar(nanos);
+        }
+
+        public long getPeticiones() {
+            return peticiones.sum();
+        }
+
+        public long getRechazos() {
+            return rechazos.sum();
+        }
+
+        public long getErrores() {
+            return errores.sum();
+        }
+
+        public HistogramaLatencia getLatencias() {
+            return latencias;
+        }
+    }
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final long inicio = System.nanoTime();
+
+    void registrar(String endpoint, long nanos, int estado) {
+        endpoints.computeIfAbsent(endpoint, e -> new Endpoint()).registrar(nanos, estado);
+    }
+
+    /**
+     * @return Métricas del endpoint (p. ej. "POST /prestamos"), o null si no recibió peticiones
+     */
+    public Endpoint getEndpoint(String endpoint) {
+        return endpoints.get(endpoint);
+    }
+
+    /**
+     * @return Peticiones por segundo del endpoint desde que arrancó el servidor
+     */
+    public double throughput(String endpoint) {
+        Endpoint e = endpoints.get(endpoint);
+        double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+        return e == null || segundos <= 0 ? 0 : e.getPeticiones() / segundos;
+    }
+
+    /**
+     * Métricas de todos los endpoints en JSON, con latencias en microsegundos
+     */
+    public String aJson() {
+        StringBuilder sb = new StringBuilder("{");
+        boolean primero = true;
+        for (Map.Entry<String, Endpoint> entrada : new TreeMap<>(endpoints).entrySet()) {
+            Endpoint e = entrada.getValue();
+            HistogramaLatencia h = e.getLatencias();
+            if (!primero) {
+                sb.append(',');
+            }
+            primero = false;
+            Json.texto(sb, entrada.getKey()).append(":{")
+                    .append("\"peticiones\":").append(e.getPeticiones())
+                    .append(",\"rechazos\":").append(e.getRechazos())
+                    .append(",\"errores\":").append(e.getErrores())
+                    .append(",\"porSegundo\":").append(Math.round(throughput(entrada.getKey())))
+                    .append(",\"latenciaUs\":{")
+                    .append("\"promedio\":").append(Math.round(h.getPromedio() / 1_000))
+                    .append(",\"p50\":").append(h.percentil(50) / 1_000)
+                    .append(",\"p90\":").append(h.percentil(90) / 1_000)
+                    .append(",\"p99\":").append(h.percentil(99) / 1_000)
+                    .append(",\"p999\":").append(h.percentil(99.9) / 1_000)
+                    .append(",\"max\":").append(h.getMaximo() / 1_000)
+                    .append("}}");
+        }
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,352 @@
+package com.biblioteca.api;
+
+import com.biblioteca.concurrencia.Ejecutores;
+import com.biblioteca.estadisticas.EstadisticasCirculacion;
+import com.biblioteca.exception.LibroNoDisponibleException;
+import com.biblioteca.exception.LibroNoEncontradoException;
+import com.biblioteca.exception.LimitePrestamosException;
+import com.biblioteca.exception.PrestamoNoEncontradoException;
+import com.biblioteca.exception.RenovacionNoPermitidaException;
+import com.biblioteca.model.Libro;
+import com.biblioteca.model.Prestamo;
+import com.biblioteca.model.Reserva;
+import com.biblioteca.service.LibroService;
+import com.biblioteca.service.PrestamoService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * API HTTP de la biblioteca sobre com.sun.net.httpserver, con un hilo (virtual
+ * si el JDK lo permite) por petición.
+ *
+ * Endpoints (los POST reciben application/x-www-form-urlencoded, todo responde JSON):
+ * <pre>
+ * POST /libros                 isbn, titulo, autor, cantidad  -> 201 libro
+ * GET  /libros/{isbn}                                          -> 200 libro
+ * GET  /libros?titulo=...  |  /libros?autor=...                -> 200 [libros]
+ * GET  /libros[?cursor=...&amp;limite=...]                         -> 200 página de libros
+ * POST /prestamos              isbn, idUsuario                 -> 201 préstamo
+ * GET  /prestamos?idUsuario=...                                -> 200 [préstamos activos]
+ * GET  /prestamos[?cursor=...&amp;limite=...]                      -> 200 página de préstamos
+ * POST /devoluciones           isbn, idUsuario                 -> 204
+ * POST /renovaciones           isbn, idUsuario                 -> 200 préstamo
+ * POST /reservas               isbn, idUsuario                 -> 201 reserva (atendida o en espera)
+ * GET  /estadisticas[?top=...]                                 -> 200 circulación y más prestados
+ * GET  /metricas                                               -> 200 métricas por endpoint
+ * </pre>
+ *
+ * Los listados completos se paginan: {"elementos":[...],"siguienteCursor":...}; el
+ * cursor se pasa tal cual para pedir la página siguiente y es null en la última.
+ * El límite por omisión es LIMITE_PAGINA.
+ *
+ * El servidor conecta unas EstadisticasCirculacion a los servicios al crearse:
+ * /estadisticas lee contadores ya calculados y se puede consultar cada segundo.
+ *
+ * Con miles de clientes keep-alive conviene lanzar la JVM con
+ * -Dsun.net.httpserver.maxIdleConnections=20000: por omisión el HttpServer del JDK
+ * conserva solo 200 conexiones ociosas y cierra el resto. La propiedad es global y se
+ * lee al crear el primer HttpServer del proceso; Biblioteca.main la fija si no se pasó.
+ *
+ * Errores: 400 datos inválidos, 404 libro o préstamo inexistente,
+ * 409 sin disponibilidad, límite de préstamos o renovación no permitida, 405 método no soportado.
+ */
+public class ServidorBiblioteca implements Closeable {
+
+    private static final int BACKLOG = 4096;
+    private static final int LIMITE_PAGINA = 100;
+    private static final int TOP_POR_DEFECTO = 10;
+    private static final int MAX_TOP = 50;
+
+    private final LibroService libroService;
+    private final PrestamoService prestamoService;
+    private final HttpServer servidor;
+    private final ExecutorService ejecutor;
+    private final MetricasServidor metricas = new MetricasServidor();
+    private final EstadisticasCirculacion estadisticas;
+
+    /**
+     * Crea el servidor sin iniciarlo
+     *
+     * @param puerto Puerto TCP; 0 para elegir uno libre
+     */
+    public ServidorBiblioteca(LibroService libroService, PrestamoService prestamoService, int puerto)
+            throws IOException {
+        this.libroService = libroService;
+        this.prestamoService = prestamoService;
+        this.estadisticas = EstadisticasCirculacion.conectar(libroService, prestamoService);
+        this.servidor = HttpServer.create(new InetSocketAddress(puerto), BACKLOG);
+        this.ejecutor = Ejecutores.unHiloPorTarea("http-biblioteca");
+        servidor.setExecutor(ejecutor);
+        servidor.createContext("/libros", this::atenderLibros);
+        servidor.createContext("/prestamos", this::atenderPrestamos);
+        servidor.createContext("/devoluciones", this::atenderDevoluciones);
+        servidor.createContext("/renovaciones", this::atenderRenovaciones);
+        servidor.createContext("/reservas", this::atenderReservas);
+        servidor.createContext("/estadisticas", this::atenderEstadisticas);
+        servidor.createContext("/metricas", this::atenderMetricas);
+    }
+
+    public ServidorBiblioteca iniciar() {
+        servidor.start();
+        return this;
+    }
+
+    public int getPuerto() {
+        return servidor.getAddress().getPort();
+    }
+
+    public MetricasServidor getMetricas() {
+        return metricas;
+    }
+
+    public EstadisticasCirculacion getEstadisticas() {
+        return estadisticas;
+    }
+
+    @Override
+    public void close() {
+        servidor.stop(0);
+        ejecutor.shutdown();
+        try {
+            ejecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // --- Endpoints ---
+
+    private void atenderLibros(HttpExchange intercambio) throws IOException {
+        String ruta = intercambio.getRequestURI().getPath();
+        String metodo = intercambio.getRequestMethod();
+        if ("POST".equals(metodo) && ruta.equals("/libros")) {
+            medir(intercambio, "POST /libros", () -> {
+                Map<String, String> p = formulario(intercambio);
+                Libro libro = libroService.registrarLibro(requerido(p, "isbn"), requerido(p, "titulo"),
+                        requerido(p, "autor"), entero(requerido(p, "cantidad")));
+                return new Respuesta(201, Json.libro(libro));
+            });
+        } else if ("GET".equals(metodo) && ruta.startsWith("/libros/")) {
+            medir(intercambio, "GET /libros/{isbn}", () ->
+                    new Respuesta(200, Json.libro(libroService.buscarPorISBN(ruta.substring("/libros/".length())))));
+        } else if ("GET".equals(metodo) && ruta.equals("/libros")) {
+            Map<String, String> q = parametros(intercambio.getRequestURI().getRawQuery());
+            if (q.containsKey("titulo")) {
+                medir(intercambio, "GET /libros?titulo",
+                        () -> new Respuesta(200, Json.libros(libroService.buscarPorTitulo(q.get("titulo")))));
+            } else if (q.containsKey("autor")) {
+                medir(intercambio, "GET /libros?autor",
+                        () -> new Respuesta(200, Json.libros(libroService.buscarPorAutor(q.get("autor")))));
+            } else {
+                medir(intercambio, "GET /libros", () -> new Respuesta(200, Json.paginaLibros(
+                        libroService.listarLibros(q.get("cursor"), limite(q)))));
+            }
+        } else {
+            noSoportado(intercambio);
+        }
+    }
+
+    private void atenderPrestamos(HttpExchange intercambio) throws IOException {
+        String metodo = intercambio.getRequestMethod();
+        if ("POST".equals(metodo)) {
+            medir(intercambio, "POST /prestamos", () -> {
+                Map<String, String> p = formulario(intercambio);
+                Prestamo prestamo = prestamoService.prestarLibro(requerido(p, "isbn"), requerido(p, "idUsuario"));
+                return new Respuesta(201, Json.prestamo(prestamo));
+            });
+        } else if ("GET".equals(metodo)) {
+            Map<String, String> q = parametros(intercambio.getRequestURI().getRawQuery());
+            if (q.containsKey("idUsuario")) {
+                medir(intercambio, "GET /prestamos", () -> new Respuesta(200, Json.prestamos(
+                        prestamoService.obtenerPrestamosActivos(requerido(q, "idUsuario")))));
+            } else {
+                medir(intercambio, "GET /prestamos (todos)", () -> new Respuesta(200, Json.paginaPrestamos(
+                        prestamoService.listarPrestamos(q.get("cursor"), limite(q)))));
+            }
+        } else {
+            noSoportado(intercambio);
+        }
+    }
+
+    private void atenderDevoluciones(HttpExchange intercambio) throws IOException {
+        if ("POST".equals(intercambio.getRequestMethod())) {
+            medir(intercambio, "POST /devoluciones", () -> {
+                Map<String, String> p = formulario(intercambio);
+                prestamoService.devolverLibro(requerido(p, "isbn"), requerido(p, "idUsuario"));
+                return new Respuesta(204, null);
+            });
+        } else {
+            noSoportado(intercambio);
+        }
+    }
+
+    private void atenderRenovaciones(HttpExchange intercambio) throws IOException {
+        if ("POST".equals(intercambio.getRequestMethod())) {
+            medir(intercambio, "POST /renovaciones", () -> {
+                Map<String, String> p = formulario(intercambio);
+                Prestamo prestamo = prestamoService.renovarPrestamo(requerido(p, "isbn"), requerido(p, "idUsuario"));
+                return new Respuesta(200, Json.prestamo(prestamo));
+            });
+        } else {
+            noSoportado(intercambio);
+        }
+    }
+
+    private void atenderReservas(HttpExchange intercambio) throws IOException {
+        if ("POST".equals(intercambio.getRequestMethod())) {
+            medir(intercambio, "POST /reservas", () -> {
+                Map<String, String> p = formulario(intercambio);
+                Reserva reserva = prestamoService.reservarLibro(requerido(p, "isbn"), requerido(p, "idUsuario"));
+                return new Respuesta(201, Json.reserva(reserva));
+            });
+        } else {
+            noSoportado(intercambio);
+        }
+    }
+
+    private void atenderEstadisticas(HttpExchange intercambio) throws IOException {
+        if ("GET".equals(intercambio.getRequestMethod())) {
+            medir(intercambio, "GET /estadisticas", () -> {
+                String valor = parametros(intercambio.getRequestURI().getRawQuery()).get("top");
+                int top = valor == null ? TOP_POR_DEFECTO : entero(valor);
+                if (top < 1 || top > MAX_TOP) {
+                    throw new IllegalArgumentException("top debe estar entre 1 y " + MAX_TOP + ": " + top);
+                }
+                return new Respuesta(200, Json.estadisticas(estadisticas, top));
+            });
+        } else {
+            noSoportado(intercambio);
+        }
+    }
+
+    private void atenderMetricas(HttpExchange intercambio) throws IOException {
+        if ("GET".equals(intercambio.getRequestMethod())) {
+            enviar(intercambio, new Respuesta(200, metricas.aJson()));
+        } else {
+            noSoportado(intercambio);
+        }
+    }
+
+    // --- Infraestructura ---
+
+    private static final class Respuesta {
+        final int estado;
+        final String cuerpo;
+
+        Respuesta(int estado, String cuerpo) {
+            this.estado = estado;
+            this.cuerpo = cuerpo;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Operacion {
+        Respuesta ejecutar() throws IOException;
+    }
+
+    /**
+     * Ejecuta la operación, traduce las excepciones de negocio a códigos HTTP
+     * y registra la latencia completa (incluido el envío de la respuesta)
+     */
+    private void medir(HttpExchange intercambio, String endpoint, Operacion operacion) throws IOException {
+        long inicio = System.nanoTime();
+        Respuesta respuesta;
+        try {
+            respuesta = operacion.ejecutar();
+        } catch (LibroNoEncontradoException | PrestamoNoEncontradoException e) {
+            respuesta = new Respuesta(404, Json.error(e.getMessage()));
+        } catch (LibroNoDisponibleException | LimitePrestamosException | RenovacionNoPermitidaException e) {
+            respuesta = new Respuesta(409, Json.error(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            respuesta = new Respuesta(400, Json.error(e.getMessage()));
+        } catch (RuntimeException e) {
+            respuesta = new Respuesta(500, Json.error("Error interno: " + e));
+        }
+        try {
+            enviar(intercambio, respuesta);
+        } finally {
+            metricas.registrar(endpoint, System.nanoTime() - inicio, respuesta.estado);
+        }
+    }
+
+    private static void noSoportado(HttpExchange intercambio) throws IOException {
+        enviar(intercambio, new Respuesta(405, Json.error("Método o ruta no soportados: "
+                + intercambio.getRequestMethod() + " " + intercambio.getRequestURI().getPath())));
+    }
+
+    private static void enviar(HttpExchange intercambio, Respuesta respuesta) throws IOException {
+        try (intercambio) {
+            if (respuesta.cuerpo == null) {
+                intercambio.sendResponseHeaders(respuesta.estado, -1);
+                return;
+            }
+            byte[] bytes = respuesta.cuerpo.getBytes(StandardCharsets.UTF_8);
+            intercambio.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            intercambio.sendResponseHeaders(respuesta.estado, bytes.length);
+            try (OutputStream salida = intercambio.getResponseBody()) {
+                salida.write(bytes);
+            }
+        }
+    }
+
+    private static Map<String, String> formulario(HttpExchange intercambio) throws IOException {
+        try (InputStream entrada = intercambio.getRequestBody()) {
+            return parametros(new String(entrada.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    static Map<String, String> parametros(String codificados) {
+        Map<String, String> parametros = new HashMap<>();
+        if (codificados == null || codificados.isEmpty()) {
+            return parametros;
+        }
+        for (String par : codificados.split("&")) {
+            int igual = par.indexOf('=');
+            String clave = igual < 0 ? par : par.substring(0, igual);
+            String valor = igual < 0 ? "" : par.substring(igual + 1);
+            parametros.put(URLDecoder.decode(clave, StandardCharsets.UTF_8),
+                    URLDecoder.decode(valor, StandardCharsets.UTF_8));
+        }
+        return parametros;
+    }
+
+    private static String requerido(Map<String, String> parametros, String nombre) {
+        String valor = parametros.get(nombre);
+        if (valor == null || valor.isEmpty()) {
+            throw new IllegalArgumentException("Falta el parámetro " + nombre);
+        }
+        return valor;
+    }
+
+    private static int limite(Map<String, String> parametros) {
+        String valor = parametros.get("limite");
+        if (valor == null) {
+            return LIMITE_PAGINA;
+        }
+        try {
+            return Integer.parseInt(valor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("El límite debe ser un número entero: " + valor);
+        }
+    }
+
+    private static int entero(String valor) {
+        try {
+            return Integer.parseInt(valor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("La cantidad debe ser un número entero: " + valor);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.biblioteca.busqueda;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache de lectura (read-through) de resultados de búsqueda parcial, por consulta normalizada.
+ *
+ * <ul>
+ *   <li>Tamaño acotado: segmentos LRU (LinkedHashMap en orden de acceso), cada uno con su
+ *   lock; consultas distintas rara vez compiten por el mismo segmento.</li>
+ *   <li>TTL: una entrada vencida se descarta al consultarla.</li>
+ *   <li>Invalidación precisa: al cambiar un texto (alta, título o autor) solo se descartan
+ *   las consultas contenidas en el texto anterior o en el nuevo. Las consultas en cache
+ *   se indexan por su primer trigrama, así que encontrarlas cuesta O(largo del texto)
+ *   y no O(tamaño de la cache).</li>
+ * </ul>
+ *
+ * Quien modifica el índice de búsqueda debe llamar a invalidar después de modificarlo.
+ * Una carga que se solapa con una invalidación no deja su resultado en la cache.
+ *
+ * @param <V> Resultado cacheado; debe ser inmutable porque se comparte entre llamadas
+ */
+public class CacheBusquedas<V> {
+
+    private static final int SEGMENTOS = 16;
+
+    private static final class Entrada<V> {
+        final V valor;
+        final long expira;
+
+        Entrada(V valor, long expira) {
+            this.valor = valor;
+            this.expira = expira;
+        }
+    }
+
+    /**
+     * LRU de un segmento; todos los accesos se hacen con el monitor del segmento tomado
+     */
+    private static final class Segmento<V> extends LinkedHashMap<String, Entrada<V>> {
+        private static final long serialVersionUID = 1L;
+        private final CacheBusquedas<V> cache;
+        private final int capacidad;
+
+        Segmento(CacheBusquedas<V> cache, int capacidad) {
+            super(16, 0.75f, true);
+            this.cache = cache;
+            this.capacidad = capacidad;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entrada<V>> mayor) {
+            if (size() <= capacidad) {
+                return false;
+            }
+            cache.desindexar(mayor.getKey());
+            cache.desalojos.increment();
+            return true;
+        }
+    }
+
+    private final List<Segmento<V>> segmentos;
+    private final long ttlNanos;
+    private final LongSupplier reloj;
+    // Primer trigrama de la consulta -> consultas en cache; las de menos de 3 caracteres aparte
+    // Altas y bajas de cada trigrama se hacen dentro de compute: el conjunto se quita solo si
+    // sigue vacío con la clave bloqueada, así una consulta de otro segmento no se pierde
+    private final ConcurrentHashMap<Long, Set<String>> consultasPorTrigrama;
+    private final Set<String> consultasCortas = ConcurrentHashMap.newKeySet();
+    // Crece con cada invalidación: una carga que la ve cambiar descarta su resultado
+    private final AtomicLong version = new AtomicLong();
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder desalojos = new LongAdder();
+    private final LongAdder expiraciones = new LongAdder();
+    private final LongAdder invalidaciones = new LongAdder();
+
+    /**
+     * @param maxEntradas Cantidad máxima de consultas en cache (aproximada: se reparte entre segmentos)
+     * @param ttl Tiempo de vida de cada resultado
+     */
+    public CacheBusquedas(int maxEntradas, Duration ttl) {
+        this(maxEntradas, ttl, System::nanoTime);
+    }
+
+    CacheBusquedas(int maxEntradas, Duration ttl, LongSupplier reloj) {
+        this(maxEntradas, ttl, reloj, new ConcurrentHashMap<>());
+    }
+
+    CacheBusquedas(int maxEntradas, Duration ttl, LongSupplier reloj,
+                   ConcurrentHashMap<Long, Set<String>> consultasPorTrigrama) {
+        if (maxEntradas <= 0) {
+            throw new IllegalArgumentException("La cache debe admitir al menos una entrada");
+        }
+        this.ttlNanos = ttl.toNanos();
+        this.reloj = reloj;
+        this.consultasPorTrigrama = consultasPorTrigrama;
+        int porSegmento = Math.max(1, (maxEntradas + SEGMENTOS - 1) / SEGMENTOS);
+        List<Segmento<V>> nuevos = new ArrayList<>(SEGMENTOS);
+        for (int i = 0; i < SEGMENTOS; i++) {
+            nuevos.add(new Segmento<>(this, porSegmento));
+        }
+        this.segmentos = List.copyOf(nuevos);
+    }
+
+    /**
+     * Devuelve el resultado cacheado de la consulta o lo calcula y lo guarda
+     *
+     * @param consulta Consulta tal como llegó; la clave es su versión normalizada
+     * @param cargar Calcula el resultado a partir de la consulta original
+     */
+    public V obtener(String consulta, Function<String, V> cargar) {
+        String clave = IndiceTrigramas.normalizar(consulta).trim();
+        Segmento<V> segmento = segmento(clave);
+        long ahora = reloj.getAsLong();
+        synchronized (segmento) {
+            Entrada<V> entrada = segmento.get(clave);
+            if (entrada != null) {
+                if (ahora - entrada.expira < 0) {
+                    aciertos.increment();
+                    return entrada.valor;
+                }
+                segmento.remove(clave);
+                desindexar(clave);
+                expiraciones.increment();
+            }
+        }
+        fallos.increment();
+
+        long versionInicial = version.get();
+        V valor = cargar.apply(consulta);
+        Entrada<V> nueva = new Entrada<>(valor, ahora + ttlNanos);
+        synchronized (segmento) {
+            indexar(clave);
+            segmento.put(clave, nueva);
+        }
+        // Hubo una invalidación durante la carga: el resultado puede no incluirla
+        if (version.get() != versionInicial) {
+            synchronized (segmento) {
+                if (segmento.remove(clave, nueva)) {
+                    desindexar(clave);
+                }
+            }
+        }
+        return valor;
+    }
+
+    /**
+     * Descarta las consultas cuyo resultado cambia porque un texto indexado pasó de
+     * textoAnterior a textoNuevo (cualquiera de los dos puede ser null)
+     */
+    public void invalidar(String textoAnterior, String textoNuevo) {
+        version.incrementAndGet();
+        invalidarContenidasEn(textoAnterior);
+        invalidarContenidasEn(textoNuevo);
+    }
+
+    /**
+     * Vacía la cache (por ejemplo, después de una carga masiva)
+     */
+    public void limpiar() {
+        version.incrementAndGet();
+        for (Segmento<V> segmento : segmentos) {
+            synchronized (segmento) {
+                invalidaciones.add(segmento.size());
+                for (String clave : segmento.keySet()) {
+                    desindexar(clave);
+                }
+                segmento.clear();
+            }
+        }
+    }
+
+    public EstadisticasCache estadisticas() {
+        return new EstadisticasCache(aciertos.sum(), fallos.sum(), desalojos.sum(),
+                expiraciones.sum(), invalidaciones.sum(), tamanio());
+    }
+
+    public int tamanio() {
+        int total = 0;
+        for (Segmento<V> segmento : segmentos) {
+            synchronized (segmento) {
+                total += segmento.size();
+            }
+        }
+        return total;
+    }
+
+    private void invalidarContenidasEn(String texto) {
+        if (texto == null) {
+            return;
+        }
+        String t = IndiceTrigramas.normalizar(texto);
+        List<String> afectadas = new ArrayList<>();
+        for (String consulta : consultasCortas) {
+            if (t.contains(consulta)) {
+                afectadas.add(consulta);
+            }
+        }
+        for (int i = 0; i + IndiceTrigramas.N <= t.length(); i++) {
+            Set<String> consultas = consultasPorTrigrama.get(IndiceTrigramas.codificar(t, i));
+            if (consultas == null) {
+                continue;
+            }
+            for (String consulta : consultas) {
+                if (t.startsWith(consulta, i)) {
+                    afectadas.add(consulta);
+                }
+            }
+        }
+        for (String consulta : afectadas) {
+            Segmento<V> segmento = segmento(consulta);
+            synchronized (segmento) {
+                if (segmento.remove(consulta) != null) {
+                    desindexar(consulta);
+                    invalidaciones.increment();
+                }
+            }
+        }
+    }
+
+    /**
+     * Debe llamarse con el monitor del segmento de la consulta tomado
+     */
+    private void indexar(String consulta) {
+        if (consulta.length() < IndiceTrigramas.N) {
+            consultasCortas.add(consulta);
+        } else {
+            consultasPorTrigrama.compute(IndiceTrigramas.codificar(consulta, 0), (g, consultas) -> {
+                Set<String> conjunto = consultas != null ? consultas : ConcurrentHashMap.newKeySet();
+                conjunto.add(consulta);
+                return conjunto;
+            });
+        }
+    }
+
+    /**
+     * Debe llamarse con el monitor del segmento de la consulta tomado
+     */
+    private void desindexar(String consulta) {
+        if (consulta.length() < IndiceTrigramas.N) {
+            consultasCortas.remove(consulta);
+            return;
+        }
+        consultasPorTrigrama.computeIfPresent(IndiceTrigramas.codificar(consulta, 0), (g, consultas) -> {
+            consultas.remove(consulta);
+            return consultas.isEmpty() ? null : consultas;
+        });
+    }
+
+    private Segmento<V> segmento(String clave) {
+        int h = clave.hashCode();
+        return segmentos.get((h ^ (h >>> 16)) & (SEGMENTOS - 1));
+    }
+}
@@ -0,0 +1,80 @@
+package com.biblioteca.busqueda;
+
+/**
+ * Contadores de una CacheBusquedas en un momento dado
+ */
+public class EstadisticasCache {
+
+    private final long aciertos;
+    private final long fallos;
+    private final long desalojos;
+    private final long expiraciones;
+    private final long invalidaciones;
+    private final int tamanio;
+
+    EstadisticasCache(long aciertos, long fallos, long desalojos, long expiraciones,
+                      long invalidaciones, int tamanio) {
+        this.aciertos = aciertos;
+        this.fallos = fallos;
+        this.desalojos = desalojos;
+        this.expiraciones = expiraciones;
+        this.invalidaciones = invalidaciones;
+        this.tamanio = tamanio;
+    }
+
+    public long getAciertos() {
+        return aciertos;
+    }
+
+    /**
+     * Consultas que no estaban en la cache (incluye las vencidas por TTL)
+     */
+    public long getFallos() {
+        return fallos;
+    }
+
+    /**
+     * Entradas desalojadas por falta de espacio (las menos usadas recientemente)
+     */
+    public long getDesalojos() {
+        return desalojos;
+    }
+
+    /**
+     * Entradas descartadas por superar su tiempo de vida
+     */
+    public long getExpiraciones() {
+        return expiraciones;
+    }
+
+    /**
+     * Entradas descartadas porque un cambio del catálogo alteró su resultado
+     */
+    public long getInvalidaciones() {
+        return invalidaciones;
+    }
+
+    public int getTamanio() {
+        return tamanio;
+    }
+
+    /**
+     * @return aciertos / (aciertos + fallos), o 0 si no hubo consultas
+     */
+    public double getTasaAciertos() {
+        long total = aciertos + fallos;
+        return total == 0 ? 0 : (double) aciertos / total;
+    }
+
+    @Override
+    public String toString() {
+        return "EstadisticasCache{" +
+                "aciertos=" + aciertos +
+                ", fallos=" + fallos +
+                ", desalojos=" + desalojos +
+                ", expiraciones=" + expiraciones +
+                ", invalidaciones=" + invalidaciones +
+                ", tamanio=" + tamanio +
+                '}';
+    }
+}
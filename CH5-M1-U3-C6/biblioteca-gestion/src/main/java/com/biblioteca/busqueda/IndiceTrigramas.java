@@ -0,0 +1,138 @@
+package com.biblioteca.busqueda;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice invertido de trigramas para búsqueda parcial case-insensitive.
+ *
+ * Cada texto se normaliza (minúsculas) una sola vez al indexarlo. Una consulta
+ * toma el trigrama con menos candidatos y solo verifica esos con contains,
+ * en lugar de recorrer todo el catálogo. Las consultas de menos de 3 caracteres
+ * recorren los textos ya normalizados.
+ *
+ * Las escrituras están sincronizadas; las búsquedas no toman locks.
+ */
+public class IndiceTrigramas {
+
+    static final int N = 3;
+
+    // trigrama codificado -> ids que lo contienen
+    private final Map<Long, Set<String>> posteos = new ConcurrentHashMap<>();
+    // id -> texto normalizado
+    private final Map<String, String> textos = new ConcurrentHashMap<>();
+
+    /**
+     * Indexa o reindexa el texto asociado a un id
+     */
+    public synchronized void indexar(String id, String texto) {
+        String nuevo = normalizar(texto);
+        String anterior = textos.put(id, nuevo);
+        if (nuevo.equals(anterior)) {
+            return;
+        }
+
+        Set<Long> gramasNuevos = trigramas(nuevo);
+        if (anterior != null) {
+            for (Long gram : trigramas(anterior)) {
+                if (!gramasNuevos.contains(gram)) {
+                    quitarPosteo(gram, id);
+                }
+            }
+        }
+        for (Long gram : gramasNuevos) {
+            posteos.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    /**
+     * Quita un id del índice
+     */
+    public synchronized void quitar(String id) {
+        String anterior = textos.remove(id);
+        if (anterior != null) {
+            for (Long gram : trigramas(anterior)) {
+                quitarPosteo(gram, id);
+            }
+        }
+    }
+
+    /**
+     * Busca los ids cuyo texto contiene la consulta (parcial, case-insensitive)
+     *
+     * @param consulta Texto a buscar; se normaliza y se le quitan los espacios de los extremos
+     * @return Ids que coinciden, lista vacía si la consulta es null o vacía
+     */
+    public List<String> buscar(String consulta) {
+        List<String> resultado = new ArrayList<>();
+        if (consulta == null || consulta.trim().isEmpty()) {
+            return resultado;
+        }
+        String q = normalizar(consulta).trim();
+
+        if (q.length() < N) {
+            textos.forEach((id, texto) -> {
+                if (texto.contains(q)) {
+                    resultado.add(id);
+                }
+            });
+            return resultado;
+        }
+
+        // El trigrama más selectivo acota los candidatos
+        Set<String> candidatos = null;
+        for (int i = 0; i + N <= q.length(); i++) {
+            Set<String> ids = posteos.get(codificar(q, i));
+            if (ids == null || ids.isEmpty()) {
+                return resultado;
+            }
+            if (candidatos == null || ids.size() < candidatos.size()) {
+                candidatos = ids;
+            }
+        }
+
+        for (String id : candidatos) {
+            String texto = textos.get(id);
+            if (texto != null && texto.contains(q)) {
+                resultado.add(id);
+            }
+        }
+        return resultado;
+    }
+
+    public int cantidadTextos() {
+        return textos.size();
+    }
+
+    private void quitarPosteo(Long gram, String id) {
+        Set<String> ids = posteos.get(gram);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                posteos.remove(gram);
+            }
+        }
+    }
+
+    static String normalizar(String texto) {
+        return texto == null ? "" : texto.toLowerCase();
+    }
+
+    static Set<Long> trigramas(String texto) {
+        Set<Long> gramas = new HashSet<>();
+        for (int i = 0; i + N <= texto.length(); i++) {
+            gramas.add(codificar(texto, i));
+        }
+        return gramas;
+    }
+
+    static long codificar(String texto, int desde) {
+        return ((long) texto.charAt(desde) << 32)
+                | ((long) texto.charAt(desde + 1) << 16)
+                | texto.charAt(desde + 2);
+    }
+}
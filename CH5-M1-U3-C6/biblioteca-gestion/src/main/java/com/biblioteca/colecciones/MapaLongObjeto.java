@@ -0,0 +1,303 @@
+package com.biblioteca.colecciones;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Mapa de claves long no negativas a objetos, con direccionamiento abierto
+ * (sondeo lineal sobre dos arreglos paralelos).
+ *
+ * Frente a un ConcurrentHashMap&lt;String, V&gt; no crea un nodo por entrada ni
+ * guarda la clave como objeto: cada entrada ocupa un long y una referencia.
+ *
+ * Las lecturas no toman locks: ven siempre una tabla completa (al crecer se
+ * publica una tabla nueva) y cada celda se escribe valor primero y clave después,
+ * con semántica release/acquire. Las escrituras se serializan en el propio mapa.
+ * No admite borrado, que el catálogo no necesita.
+ *
+ * Además guarda los valores en orden de inserción en páginas de solo agregado
+ * (una referencia más por entrada): como no hay borrados, la posición de inserción
+ * es un cursor estable para paginar y recorrer sin copiar, aunque se sigan agregando
+ * entradas mientras tanto.
+ *
+ * @param <V> Tipo de los valores
+ */
+public class MapaLongObjeto<V> {
+
+    private static final long VACIO = -1L;
+    private static final int CAPACIDAD_MINIMA = 16;
+    private static final int BITS_PAGINA = 12;
+    private static final int TAMANIO_PAGINA = 1 << BITS_PAGINA;
+    private static final int MASCARA_PAGINA = TAMANIO_PAGINA - 1;
+
+    private static final VarHandle CLAVES = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle VALORES = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    private static final class Tabla {
+        final long[] claves;
+        final Object[] valores;
+        final int desplazamiento;
+
+        Tabla(int capacidad) {
+            claves = new long[capacidad];
+            valores = new Object[capacidad];
+            Arrays.fill(claves, VACIO);
+            desplazamiento = Long.numberOfLeadingZeros(capacidad - 1);
+        }
+
+        int posicion(long clave) {
+            // Hash multiplicativo: los ISBN suelen ser consecutivos
+            return (int) ((clave * 0x9E3779B97F4A7C15L) >>> desplazamiento);
+        }
+    }
+
+    private volatile Tabla tabla;
+    private int tamanio;
+    // Valores en orden de inserción; insertados se escribe después de la celda (publicación)
+    private volatile Object[][] paginasInsercion = new Object[0][];
+    private volatile int insertados;
+
+    public MapaLongObjeto() {
+        this(CAPACIDAD_MINIMA);
+    }
+
+    /**
+     * @param capacidadEsperada Cantidad de entradas prevista, para no crecer mientras se carga
+     */
+    public MapaLongObjeto(int capacidadEsperada) {
+        this.tabla = new Tabla(capacidadPara(capacidadEsperada));
+    }
+
+    /**
+     * @return El valor asociado, o null si no hay (o si la clave es negativa)
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long clave) {
+        if (clave < 0) {
+            return null;
+        }
+        Tabla t = tabla;
+        int mascara = t.claves.length - 1;
+        for (int i = t.posicion(clave); ; i = (i + 1) & mascara) {
+            long k = (long) CLAVES.getAcquire(t.claves, i);
+            if (k == clave) {
+                return (V) VALORES.getAcquire(t.valores, i);
+            }
+            if (k == VACIO) {
+                return null;
+            }
+        }
+    }
+
+    public boolean containsKey(long clave) {
+        return get(clave) != null;
+    }
+
+    /**
+     * @return El valor que ya estaba asociado a la clave (sin reemplazarlo), o null si se agregó
+     * @throws IllegalArgumentException Si la clave es negativa
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized V putIfAbsent(long clave, V valor) {
+        if (clave < 0) {
+            throw new IllegalArgumentException("La clave no puede ser negativa: " + clave);
+        }
+        if (valor == null) {
+            throw new NullPointerException("valor");
+        }
+        Tabla t = tabla;
+        int mascara = t.claves.length - 1;
+        int i = t.posicion(clave);
+        for (long k; (k = t.claves[i]) != VACIO; i = (i + 1) & mascara) {
+            if (k == clave) {
+                return (V) t.valores[i];
+            }
+        }
+        VALORES.setRelease(t.valores, i, valor);
+        CLAVES.setRelease(t.claves, i, clave);
+        registrarInsercion(valor);
+        tamanio++;
+        // Factor de carga máximo 1/2: sondeos cortos aun con claves consecutivas
+        if (tamanio * 2 > t.claves.length) {
+            crecer(t);
+        }
+        return null;
+    }
+
+    public synchronized int size() {
+        return tamanio;
+    }
+
+    /**
+     * @return Copia de los valores, en orden de la tabla (no de inserción)
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> valores() {
+        Tabla t = tabla;
+        List<V> resultado = new ArrayList<>();
+        for (int i = 0; i < t.claves.length; i++) {
+            if ((long) CLAVES.getAcquire(t.claves, i) != VACIO) {
+                resultado.add((V) VALORES.getAcquire(t.valores, i));
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Recorre los valores en orden de la tabla sin copiarlos.
+     * Ve los valores publicados antes de empezar; los agregados durante el recorrido
+     * pueden aparecer o no.
+     */
+    @SuppressWarnings("unchecked")
+    public void paraCada(Consumer<? super V> accion) {
+        Tabla t = tabla;
+        for (int i = 0; i < t.claves.length; i++) {
+            if ((long) CLAVES.getAcquire(t.claves, i) != VACIO) {
+                accion.accept((V) VALORES.getAcquire(t.valores, i));
+            }
+        }
+    }
+
+    /**
+     * @return Cantidad de entradas visibles en orden de inserción (sin tomar el lock de escritura)
+     */
+    public int insertados() {
+        return insertados;
+    }
+
+    /**
+     * @param desde Posición de inserción de la primera entrada (0 es la más antigua)
+     * @param maximo Cantidad máxima de valores a devolver
+     * @return Los valores insertados en [desde, desde + maximo), en orden de inserción
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> enOrdenDeInsercion(int desde, int maximo) {
+        int hasta = (int) Math.min((long) desde + maximo, insertados);
+        Object[][] paginas = paginasInsercion;
+        List<V> resultado = new ArrayList<>(Math.max(0, hasta - desde));
+        for (int posicion = desde; posicion < hasta; posicion++) {
+            resultado.add((V) paginas[posicion >>> BITS_PAGINA][posicion & MASCARA_PAGINA]);
+        }
+        return resultado;
+    }
+
+    /**
+     * Recorre los valores en orden de inserción sin copiarlos. Ve las entradas
+     * publicadas al empezar; se puede dividir para recorrerlo en paralelo.
+     */
+    public Spliterator<V> spliterator() {
+        // El tamaño se lee antes que las páginas: toda posición contada ya tiene su página
+        int fin = insertados;
+        return new Recorrido<>(paginasInsercion, 0, fin);
+    }
+
+    /**
+     * Recorre en orden de inserción solo las primeras entradas, por ejemplo las que
+     * había al tomar una instantánea
+     *
+     * @param hasta Cantidad de entradas a recorrer (a lo sumo insertados())
+     */
+    public Spliterator<V> spliterator(int hasta) {
+        if (hasta < 0 || hasta > insertados) {
+            throw new IllegalArgumentException("Posición fuera de rango: " + hasta);
+        }
+        return new Recorrido<>(paginasInsercion, 0, hasta);
+    }
+
+    private static final class Recorrido<V> implements Spliterator<V> {
+        private final Object[][] paginas;
+        private int posicion;
+        private final int fin;
+
+        Recorrido(Object[][] paginas, int posicion, int fin) {
+            this.paginas = paginas;
+            this.posicion = posicion;
+            this.fin = fin;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean tryAdvance(Consumer<? super V> accion) {
+            if (posicion >= fin) {
+                return false;
+            }
+            accion.accept((V) paginas[posicion >>> BITS_PAGINA][posicion & MASCARA_PAGINA]);
+            posicion++;
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void forEachRemaining(Consumer<? super V> accion) {
+            for (; posicion < fin; posicion++) {
+                accion.accept((V) paginas[posicion >>> BITS_PAGINA][posicion & MASCARA_PAGINA]);
+            }
+        }
+
+        @Override
+        public Spliterator<V> trySplit() {
+            int mitad = (posicion + fin) >>> 1;
+            if (mitad - posicion < TAMANIO_PAGINA) {
+                return null;
+            }
+            Recorrido<V> primera = new Recorrido<>(paginas, posicion, mitad);
+            posicion = mitad;
+            return primera;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fin - posicion;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
+    }
+
+    /**
+     * Agrega el valor al final del orden de inserción; se llama con el lock de escritura tomado
+     */
+    private void registrarInsercion(Object valor) {
+        int posicion = insertados;
+        Object[][] paginas = paginasInsercion;
+        if ((posicion & MASCARA_PAGINA) == 0) {
+            paginas = Arrays.copyOf(paginas, paginas.length + 1);
+            paginas[paginas.length - 1] = new Object[TAMANIO_PAGINA];
+            paginasInsercion = paginas;
+        }
+        paginas[posicion >>> BITS_PAGINA][posicion & MASCARA_PAGINA] = valor;
+        // Escritura volátil: publica la celda ya escrita
+        insertados = posicion + 1;
+    }
+
+    private void crecer(Tabla actual) {
+        Tabla nueva = new Tabla(actual.claves.length * 2);
+        int mascara = nueva.claves.length - 1;
+        for (int j = 0; j < actual.claves.length; j++) {
+            long clave = actual.claves[j];
+            if (clave == VACIO) {
+                continue;
+            }
+            int i = nueva.posicion(clave);
+            while (nueva.claves[i] != VACIO) {
+                i = (i + 1) & mascara;
+            }
+            nueva.claves[i] = clave;
+            nueva.valores[i] = actual.valores[j];
+        }
+        // Publicación volátil: los lectores ven la tabla nueva ya completa
+        tabla = nueva;
+    }
+
+    private static int capacidadPara(int entradas) {
+        int necesaria = Math.max(CAPACIDAD_MINIMA, entradas * 2);
+        return Integer.highestOneBit(necesaria - 1) << 1;
+    }
+}
@@ -0,0 +1,43 @@
+package com.biblioteca.concurrencia;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Conjunto fijo de locks repartidos por hash de clave (lock striping).
+ * Dos claves distintas solo compiten si caen en el mismo segmento,
+ * así se evita un lock global sin crear un lock por cada clave.
+ */
+public class BloqueosSegmentados {
+
+    private final ReentrantLock[] bloqueos;
+    private final int mascara;
+
+    public BloqueosSegmentados() {
+        this(Runtime.getRuntime().availableProcessors() * 16);
+    }
+
+    /**
+     * @param segmentos Cantidad mínima de segmentos (se redondea a potencia de 2)
+     */
+    public BloqueosSegmentados(int segmentos) {
+        int tamanio = Integer.highestOneBit(Math.max(segmentos, 2) - 1) << 1;
+        this.bloqueos = new ReentrantLock[tamanio];
+        for (int i = 0; i < tamanio; i++) {
+            bloqueos[i] = new ReentrantLock();
+        }
+        this.mascara = tamanio - 1;
+    }
+
+    /**
+     * Devuelve el lock del segmento al que pertenece la clave
+     */
+    public ReentrantLock bloqueoPara(Object clave) {
+        int h = clave.hashCode();
+        h ^= (h >>> 16);
+        return bloqueos[h & mascara];
+    }
+
+    public int cantidadSegmentos() {
+        return bloqueos.length;
+    }
+}
@@ -0,0 +1,50 @@
+package com.biblioteca.concurrencia;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fábrica de ejecutores de un hilo por tarea.
+ *
+ * En Java 21 o superior usa hilos virtuales (Executors.newVirtualThreadPerTaskExecutor).
+ * El proyecto compila para Java 17, así que el método se obtiene por reflexión y,
+ * si no existe, se usa un pool de hilos de plataforma que crece a demanda.
+ */
+public final class Ejecutores {
+
+    private Ejecutores() {
+    }
+
+    /**
+     * @param nombre Prefijo del nombre de los hilos (solo se usa sin hilos virtuales)
+     * @return Un ejecutor que corre cada tarea en su propio hilo
+     */
+    public static ExecutorService unHiloPorTarea(String nombre) {
+        if (hilosVirtualesDisponibles()) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                // Método presente pero no utilizable (p. ej. preview deshabilitado): se usa el pool
+            }
+        }
+        AtomicLong contador = new AtomicLong();
+        return Executors.newCachedThreadPool(r -> {
+            Thread hilo = new Thread(r, nombre + "-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * @return true si el JDK en ejecución ofrece hilos virtuales
+     */
+    public static boolean hilosVirtualesDisponibles() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.biblioteca.estadisticas;
+
+import com.biblioteca.model.Libro;
+import com.biblioteca.model.Prestamo;
+import com.biblioteca.service.LibroService;
+import com.biblioteca.service.ObservadorBiblioteca;
+import com.biblioteca.service.PrestamoService;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Estadísticas de circulación en tiempo real: libros y autores más prestados,
+ * préstamos por autor y porcentaje de ejemplares en préstamo.
+ *
+ * Se actualizan de a un préstamo o devolución, dentro de prestarLibro y devolverLibro
+ * (como observador), así que un tablero puede consultarlas cada segundo sin recorrer
+ * préstamos ni libros:
+ * <ul>
+ *   <li>Contadores globales y por autor: LongAdder, que reparte las sumas entre celdas
+ *   por hilo y no hace competir a préstamos concurrentes.</li>
+ *   <li>Más prestados: TopFrecuentes (Space-Saving) por ISBN y por autor, con memoria
+ *   fija aunque el catálogo tenga millones de títulos.</li>
+ * </ul>
+ *
+ * Cuentan desde que se conectan: la popularidad no se reconstruye desde el historial.
+ */
+public class EstadisticasCirculacion implements ObservadorBiblioteca {
+
+    private static final int CONTADORES_POR_FRANJA = 64;
+    private static final int FRANJAS = 16;
+
+    private final LibroService libroService;
+    private final LongAdder prestamosTotales = new LongAdder();
+    private final LongAdder prestamosActivos = new LongAdder();
+    private final LongAdder ejemplaresTotales = new LongAdder();
+    private final ConcurrentHashMap<String, LongAdder> prestamosPorAutor = new ConcurrentHashMap<>();
+    private final TopFrecuentes libros = new TopFrecuentes(CONTADORES_POR_FRANJA, FRANJAS);
+    private final TopFrecuentes autores = new TopFrecuentes(CONTADORES_POR_FRANJA, FRANJAS);
+
+    private EstadisticasCirculacion(LibroService libroService) {
+        this.libroService = libroService;
+    }
+
+    /**
+     * Crea las estadísticas a partir del estado actual (ejemplares y préstamos activos)
+     * y las suscribe a ambos servicios. Debe llamarse antes de que los servicios
+     * reciban tráfico: un cambio concurrente con la conexión puede no contarse.
+     */
+    public static EstadisticasCirculacion conectar(LibroService libroService, PrestamoService prestamoService) {
+        EstadisticasCirculacion estadisticas = new EstadisticasCirculacion(libroService);
+        libroService.recorrerLibros(libro -> estadisticas.ejemplaresTotales.add(libro.getCantidadTotal()));
+        estadisticas.prestamosActivos.add(prestamoService.listarPrestamosActivos().size());
+        libroService.agregarObservador(estadisticas);
+        prestamoService.agregarObservador(estadisticas);
+        return estadisticas;
+    }
+
+    @Override
+    public void libroRegistrado(Libro libro) {
+        ejemplaresTotales.add(libro.getCantidadTotal());
+    }
+
+    @Override
+    public void prestamoCreado(Prestamo prestamo) {
+        prestamosTotales.increment();
+        prestamosActivos.increment();
+        libros.registrar(prestamo.getIsbnLibro());
+        String autor = libroService.buscarPorISBN(prestamo.getIsbnLibro()).getAutor();
+        prestamosPorAutor.computeIfAbsent(autor, a -> new LongAdder()).increment();
+        autores.registrar(autor);
+    }
+
+    @Override
+    public void prestamoDevuelto(Prestamo prestamo) {
+        prestamosActivos.decrement();
+    }
+
+    /**
+     * @return Préstamos hechos desde que se conectaron las estadísticas
+     */
+    public long getPrestamosTotales() {
+        return prestamosTotales.sum();
+    }
+
+    public long getPrestamosActivos() {
+        return prestamosActivos.sum();
+    }
+
+    public long getEjemplaresTotales() {
+        return ejemplaresTotales.sum();
+    }
+
+    /**
+     * @return Porcentaje de los ejemplares del catálogo que están prestados (0 a 100)
+     */
+    public double porcentajeEnPrestamo() {
+        long ejemplares = ejemplaresTotales.sum();
+        return ejemplares == 0 ? 0 : 100.0 * prestamosActivos.sum() / ejemplares;
+    }
+
+    /**
+     * @param n Cantidad de libros (el top es fiable hasta unas decenas)
+     * @return Los ISBN más prestados con su cantidad estimada de préstamos, de mayor a menor
+     */
+    public List<Frecuencia> masPrestados(int n) {
+        return libros.top(n);
+    }
+
+    /**
+     * @return Los autores más prestados con su cantidad estimada de préstamos, de mayor a menor
+     */
+    public List<Frecuencia> autoresMasPrestados(int n) {
+        return autores.top(n);
+    }
+
+    /**
+     * @return Préstamos exactos de libros del autor
+     */
+    public long prestamosDeAutor(String autor) {
+        LongAdder prestamos = prestamosPorAutor.get(autor);
+        return prestamos == null ? 0 : prestamos.sum();
+    }
+}
@@ -0,0 +1,36 @@
+package com.biblioteca.estadisticas;
+
+/**
+ * Una clave con su cantidad estimada de apariciones en un TopFrecuentes.
+ *
+ * La cantidad real está entre getCantidad() - getErrorMaximo() y getCantidad().
+ */
+public final class Frecuencia {
+
+    private final String clave;
+    private final long cantidad;
+    private final long errorMaximo;
+
+    Frecuencia(String clave, long cantidad, long errorMaximo) {
+        this.clave = clave;
+        this.cantidad = cantidad;
+        this.errorMaximo = errorMaximo;
+    }
+
+    public String getClave() {
+        return clave;
+    }
+
+    public long getCantidad() {
+        return cantidad;
+    }
+
+    public long getErrorMaximo() {
+        return errorMaximo;
+    }
+
+    @Override
+    public String toString() {
+        return clave + "=" + cantidad + (errorMaximo > 0 ? "(±" + errorMaximo + ")" : "");
+    }
+}
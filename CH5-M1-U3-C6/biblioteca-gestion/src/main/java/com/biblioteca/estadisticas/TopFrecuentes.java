@@ -0,0 +1,109 @@
+package com.biblioteca.estadisticas;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Las claves más frecuentes de un flujo, con memoria fija (algoritmo Space-Saving).
+ *
+ * Cada franja guarda a lo sumo capacidadPorFranja contadores; una clave nueva con la
+ * franja llena reemplaza a la de menor cuenta y hereda esa cuenta como error. Así
+ * toda clave que aparece más de n/capacidadPorFranja veces en su franja está seguro
+ * entre los contadores, y la cuenta estimada nunca es menor que la real.
+ *
+ * Las claves se reparten en franjas por hash, cada una con su propio lock: registrar
+ * desde muchos hilos solo compite dentro de la misma franja. Una clave siempre cae en
+ * la misma franja, así que las garantías valen por franja. Leer el top recorre
+ * franjas * capacidadPorFranja contadores, sin depender del tamaño del catálogo.
+ */
+public class TopFrecuentes {
+
+    private static final Comparator<Frecuencia> MAYOR_PRIMERO =
+            Comparator.comparingLong(Frecuencia::getCantidad).reversed().thenComparing(Frecuencia::getClave);
+
+    private final Franja[] franjas;
+
+    /**
+     * @param capacidadPorFranja Contadores por franja; conviene varias veces el N del top pedido
+     * @param franjas Cantidad de franjas (potencia de 2)
+     */
+    public TopFrecuentes(int capacidadPorFranja, int franjas) {
+        if (capacidadPorFranja < 1 || franjas < 1 || Integer.bitCount(franjas) != 1) {
+            throw new IllegalArgumentException(
+                    "Capacidad o franjas inválidas: " + capacidadPorFranja + ", " + franjas);
+        }
+        this.franjas = new Franja[franjas];
+        for (int i = 0; i < franjas; i++) {
+            this.franjas[i] = new Franja(capacidadPorFranja);
+        }
+    }
+
+    public void registrar(String clave) {
+        int hash = clave.hashCode();
+        franjas[(hash ^ (hash >>> 16)) & (franjas.length - 1)].registrar(clave);
+    }
+
+    /**
+     * @return Las n claves con mayor cuenta estimada, de mayor a menor
+     */
+    public List<Frecuencia> top(int n) {
+        List<Frecuencia> candidatas = new ArrayList<>();
+        for (Franja franja : franjas) {
+            franja.copiar(candidatas);
+        }
+        candidatas.sort(MAYOR_PRIMERO);
+        return candidatas.size() <= n ? candidatas : new ArrayList<>(candidatas.subList(0, n));
+    }
+
+    private static final class Franja {
+        private final String[] claves;
+        private final long[] cuentas;
+        private final long[] errores;
+        private final Map<String, Integer> posiciones;
+        private int usados;
+
+        Franja(int capacidad) {
+            claves = new String[capacidad];
+            cuentas = new long[capacidad];
+            errores = new long[capacidad];
+            posiciones = new HashMap<>(capacidad * 2);
+        }
+
+        synchronized void registrar(String clave) {
+            Integer posicion = posiciones.get(clave);
+            if (posicion != null) {
+                cuentas[posicion]++;
+                return;
+            }
+            if (usados < claves.length) {
+                ocupar(usados++, clave, 0);
+                return;
+            }
+            // Franja llena: la clave nueva reemplaza a la de menor cuenta
+            int minima = 0;
+            for (int i = 1; i < usados; i++) {
+                if (cuentas[i] < cuentas[minima]) {
+                    minima = i;
+                }
+            }
+            posiciones.remove(claves[minima]);
+            ocupar(minima, clave, cuentas[minima]);
+        }
+
+        private void ocupar(int i, String clave, long cuentaHeredada) {
+            claves[i] = clave;
+            cuentas[i] = cuentaHeredada + 1;
+            errores[i] = cuentaHeredada;
+            posiciones.put(clave, i);
+        }
+
+        synchronized void copiar(List<Frecuencia> destino) {
+            for (int i = 0; i < usados; i++) {
+                destino.add(new Frecuencia(claves[i], cuentas[i], errores[i]));
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.biblioteca.eventos;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Buffer circular acotado, sin locks, de muchos productores y un consumidor.
+ *
+ * Cada celda tiene un número de secuencia que indica de quién es el turno: un
+ * productor reserva la posición con un CAS sobre la cola, escribe el elemento y
+ * publica la celda avanzando su secuencia; el consumidor lee solo celdas publicadas.
+ * Con el buffer lleno ofrecer devuelve false en vez de esperar.
+ *
+ * @param <T> Tipo de los elementos
+ */
+final class AnilloEventos<T> {
+
+    private final Object[] celdas;
+    private final AtomicLongArray secuencias;
+    private final int mascara;
+    private final AtomicLong cola = new AtomicLong();
+    // Solo la usa el consumidor
+    private long cabeza;
+
+    /**
+     * @param capacidad Potencia de 2
+     */
+    AnilloEventos(int capacidad) {
+        if (capacidad < 2 || Integer.bitCount(capacidad) != 1) {
+            throw new IllegalArgumentException("La capacidad debe ser una potencia de 2: " + capacidad);
+        }
+        celdas = new Object[capacidad];
+        secuencias = new AtomicLongArray(capacidad);
+        for (int i = 0; i < capacidad; i++) {
+            secuencias.set(i, i);
+        }
+        mascara = capacidad - 1;
+    }
+
+    /**
+     * @return false si el buffer está lleno
+     */
+    boolean ofrecer(T elemento) {
+        long posicion = cola.get();
+        while (true) {
+            long diferencia = secuencias.get((int) posicion & mascara) - posicion;
+            if (diferencia == 0) {
+                if (cola.compareAndSet(posicion, posicion + 1)) {
+                    break;
+                }
+                posicion = cola.get();
+            } else if (diferencia < 0) {
+                // La celda todavía tiene el elemento de una vuelta anterior
+                return false;
+            } else {
+                posicion = cola.get();
+            }
+        }
+        int i = (int) posicion & mascara;
+        celdas[i] = elemento;
+        secuencias.setRelease(i, posicion + 1);
+        return true;
+    }
+
+    /**
+     * Pasa al destino los elementos publicados, en orden, hasta el máximo dado.
+     * Solo debe llamarlo el hilo consumidor.
+     *
+     * @return Cantidad de elementos pasados
+     */
+    @SuppressWarnings("unchecked")
+    int drenar(List<? super T> destino, int maximo) {
+        int pasados = 0;
+        while (pasados < maximo) {
+            int i = (int) cabeza & mascara;
+            if (secuencias.getAcquire(i) != cabeza + 1) {
+                break;
+            }
+            destino.add((T) celdas[i]);
+            celdas[i] = null;
+            // La celda queda libre para la vuelta siguiente
+            secuencias.setRelease(i, cabeza + celdas.length);
+            cabeza++;
+            pasados++;
+        }
+        return pasados;
+    }
+}
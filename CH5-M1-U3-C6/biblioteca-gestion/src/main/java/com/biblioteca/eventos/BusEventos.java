@@ -0,0 +1,283 @@
+package com.biblioteca.eventos;
+
+import com.biblioteca.api.HistogramaLatencia;
+import com.biblioteca.concurrencia.Ejecutores;
+import com.biblioteca.model.Libro;
+import com.biblioteca.model.Prestamo;
+import com.biblioteca.service.ObservadorBiblioteca;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bus de eventos de cambio (CDC) de LibroService y PrestamoService.
+ *
+ * Los servicios publican cada cambio confirmado como un EventoCambio; los
+ * suscriptores (p. ej. analítica) los reciben en lotes y en orden, y procesan solo
+ * lo que cambió en lugar de releer todos los préstamos.
+ *
+ * <ul>
+ *   <li>Publicar no bloquea: el evento entra en un buffer circular acotado y sin locks
+ *   (AnilloEventos). Si el buffer está lleno el evento se descarta y se cuenta.</li>
+ *   <li>Un hilo despachador vacía el buffer en lotes de hasta tamanioLote eventos,
+ *   les asigna su secuencia y los entrega a un SubmissionPublisher.</li>
+ *   <li>Contrapresión: cada suscriptor es un Flow.Subscriber de lotes que pide con
+ *   request(n) cuántos lotes quiere recibir. Lo no pedido espera en su buffer propio
+ *   (bufferSuscriptor lotes); si ese buffer se llena, el despachador espera, el buffer
+ *   de publicación se llena y publicar empieza a descartar. Así un suscriptor lento
+ *   nunca pierde eventos en silencio: la pérdida queda en getDescartados.</li>
+ * </ul>
+ *
+ * Los servicios nunca esperan al bus. Al cerrarlo, los lotes que un suscriptor ya no
+ * puede recibir se descartan para él (getDescartadosPorSuscriptores).
+ *
+ * Uso:
+ * <pre>
+ * BusEventos bus = new BusEventos();
+ * libroService.agregarObservador(bus);
+ * prestamoService.agregarObservador(bus);
+ * bus.subscribe(suscriptor);
+ * </pre>
+ */
+public class BusEventos implements ObservadorBiblioteca, Flow.Publisher<List<EventoCambio>>, AutoCloseable {
+
+    private static final int CAPACIDAD_POR_DEFECTO = 1 << 16;
+    private static final int TAMANIO_LOTE_POR_DEFECTO = 1_024;
+    private static final long ESPERA_NANOS = 50_000;
+
+    private final AnilloEventos<EventoCambio> anillo;
+    private final int tamanioLote;
+    private final SubmissionPublisher<List<EventoCambio>> publicador;
+    private final Thread despachador;
+    private final long inicio = System.nanoTime();
+    private volatile boolean abierto = true;
+
+    private final LongAdder publicados = new LongAdder();
+    private final LongAdder descartados = new LongAdder();
+    private final LongAdder descartadosPorSuscriptores = new LongAdder();
+    private final HistogramaLatencia latencias = new HistogramaLatencia();
+    // Solo los escribe el despachador
+    private volatile long despachados;
+    private volatile long lotes;
+
+    public BusEventos() {
+        this(CAPACIDAD_POR_DEFECTO, TAMANIO_LOTE_POR_DEFECTO, Flow.defaultBufferSize());
+    }
+
+    /**
+     * @param capacidad Eventos que caben en el buffer de publicación (potencia de 2)
+     * @param tamanioLote Máximo de eventos por lote entregado
+     * @param bufferSuscriptor Lotes que puede tener pendientes cada suscriptor
+     */
+    public BusEventos(int capacidad, int tamanioLote, int bufferSuscriptor) {
+        if (tamanioLote < 1) {
+            throw new IllegalArgumentException("Tamaño de lote inválido: " + tamanioLote);
+        }
+        this.anillo = new AnilloEventos<>(capacidad);
+        this.tamanioLote = tamanioLote;
+        this.publicador = new SubmissionPublisher<>(Ejecutores.unHiloPorTarea("bus-eventos"), bufferSuscriptor);
+        this.despachador = new Thread(this::despachar, "bus-eventos-despachador");
+        despachador.setDaemon(true);
+        despachador.start();
+    }
+
+    /**
+     * Publica un evento sin bloquear
+     *
+     * @return false si el bus está lleno o cerrado y el evento se descartó
+     */
+    public boolean publicar(EventoCambio evento) {
+        if (!abierto || !anillo.ofrecer(evento)) {
+            descartados.increment();
+            return false;
+        }
+        publicados.increment();
+        return true;
+    }
+
+    /**
+     * Suscribe a los lotes de eventos publicados desde ahora
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super List<EventoCambio>> suscriptor) {
+        publicador.subscribe(new SuscriptorMedido(suscriptor));
+    }
+
+    @Override
+    public void libroRegistrado(Libro libro) {
+        publicar(EventoCambio.deLibro(TipoCambio.LIBRO_REGISTRADO, libro));
+    }
+
+    @Override
+    public void datosLibroActualizados(Libro libro) {
+        publicar(EventoCambio.deLibro(TipoCambio.LIBRO_ACTUALIZADO, libro));
+    }
+
+    @Override
+    public void disponibilidadActualizada(Libro libro) {
+        publicar(EventoCambio.deLibro(TipoCambio.DISPONIBILIDAD_CAMBIADA, libro));
+    }
+
+    @Override
+    public void prestamoCreado(Prestamo prestamo) {
+        publicar(EventoCambio.dePrestamo(TipoCambio.PRESTAMO_CREADO, prestamo));
+    }
+
+    @Override
+    public void prestamoDevuelto(Prestamo prestamo) {
+        publicar(EventoCambio.dePrestamo(TipoCambio.PRESTAMO_DEVUELTO, prestamo));
+    }
+
+    @Override
+    public void prestamoRenovado(Prestamo prestamo) {
+        publicar(EventoCambio.dePrestamo(TipoCambio.PRESTAMO_RENOVADO, prestamo));
+    }
+
+    /**
+     * @return Eventos aceptados por el bus
+     */
+    public long getPublicados() {
+        return publicados.sum();
+    }
+
+    /**
+     * @return Eventos rechazados al publicar (buffer lleno o bus cerrado)
+     */
+    public long getDescartados() {
+        return descartados.sum();
+    }
+
+    /**
+     * @return Eventos entregados al publicador, en lotes
+     */
+    public long getDespachados() {
+        return despachados;
+    }
+
+    public long getLotes() {
+        return lotes;
+    }
+
+    /**
+     * @return Eventos que algún suscriptor perdió por tener su buffer lleno al cerrar el bus
+     *         (uno por suscriptor)
+     */
+    public long getDescartadosPorSuscriptores() {
+        return descartadosPorSuscriptores.sum();
+    }
+
+    /**
+     * @return Eventos despachados por segundo desde que se creó el bus
+     */
+    public double throughput() {
+        double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+        return segundos <= 0 ? 0 : despachados / segundos;
+    }
+
+    /**
+     * @return Latencia de cada evento desde que se publicó hasta que lo recibió un suscriptor
+     */
+    public HistogramaLatencia getLatencias() {
+        return latencias;
+    }
+
+    /**
+     * Deja de aceptar eventos, entrega los pendientes y completa a los suscriptores
+     */
+    @Override
+    public void close() {
+        abierto = false;
+        LockSupport.unpark(despachador);
+        try {
+            despachador.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        publicador.close();
+    }
+
+    private void despachar() {
+        long secuencia = 0;
+        while (true) {
+            List<EventoCambio> lote = new ArrayList<>(Math.min(tamanioLote, 64));
+            if (anillo.drenar(lote, tamanioLote) == 0) {
+                if (!abierto) {
+                    // Un productor pudo reservar su celda justo antes del cierre
+                    LockSupport.parkNanos(ESPERA_NANOS);
+                    if (anillo.drenar(lote, tamanioLote) == 0) {
+                        return;
+                    }
+                } else {
+                    LockSupport.parkNanos(ESPERA_NANOS);
+                    continue;
+                }
+            }
+            for (EventoCambio evento : lote) {
+                evento.secuencia = ++secuencia;
+            }
+            // Con el buffer de un suscriptor lleno, se espera a que tenga lugar y se reintenta;
+            // solo se descarta para él si el bus se está cerrando
+            publicador.offer(Collections.unmodifiableList(lote), (suscriptor, perdido) -> {
+                if (esperarLugar()) {
+                    return true;
+                }
+                descartadosPorSuscriptores.add(perdido.size());
+                return false;
+            });
+            despachados = despachados + lote.size();
+            lotes = lotes + 1;
+        }
+    }
+
+    /**
+     * Espera a que todos los suscriptores tengan lugar en su buffer
+     *
+     * @return false si el bus se cerró mientras tanto
+     */
+    private boolean esperarLugar() {
+        while (abierto && publicador.estimateMaximumLag() >= publicador.getMaxBufferCapacity()) {
+            LockSupport.parkNanos(ESPERA_NANOS);
+        }
+        return abierto;
+    }
+
+    /**
+     * Registra la latencia de entrega de cada evento antes de pasarle el lote al suscriptor
+     */
+    private final class SuscriptorMedido implements Flow.Subscriber<List<EventoCambio>> {
+        private final Flow.Subscriber<? super List<EventoCambio>> destino;
+
+        SuscriptorMedido(Flow.Subscriber<? super List<EventoCambio>> destino) {
+            this.destino = destino;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription suscripcion) {
+            destino.onSubscribe(suscripcion);
+        }
+
+        @Override
+        public void onNext(List<EventoCambio> lote) {
+            long ahora = System.nanoTime();
+            for (EventoCambio evento : lote) {
+                latencias.registrar(ahora - evento.getNanosPublicacion());
+            }
+            destino.onNext(lote);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            destino.onError(error);
+        }
+
+        @Override
+        public void onComplete() {
+            destino.onComplete();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.biblioteca.eventos;
+
+import com.biblioteca.model.Libro;
+import com.biblioteca.model.Prestamo;
+
+import java.time.LocalDate;
+
+/**
+ * Un cambio confirmado en el catálogo o en los préstamos.
+ *
+ * Guarda una copia de los datos al momento del cambio (no el Libro ni el Prestamo,
+ * que siguen cambiando). Los campos que no aplican al tipo quedan en null o -1.
+ */
+public final class EventoCambio {
+
+    private final TipoCambio tipo;
+    private final long nanosPublicacion;
+    private final String isbn;
+    private final long numeroPrestamo;
+    private final String idUsuario;
+    private final int cantidad;
+    private final LocalDate fecha;
+    // La asigna el despachador del bus, antes de entregar el evento
+    long secuencia;
+
+    private EventoCambio(TipoCambio tipo, String isbn, long numeroPrestamo, String idUsuario, int cantidad,
+                         LocalDate fecha) {
+        this.tipo = tipo;
+        this.nanosPublicacion = System.nanoTime();
+        this.isbn = isbn;
+        this.numeroPrestamo = numeroPrestamo;
+        this.idUsuario = idUsuario;
+        this.cantidad = cantidad;
+        this.fecha = fecha;
+    }
+
+    /**
+     * LIBRO_REGISTRADO, LIBRO_ACTUALIZADO y DISPONIBILIDAD_CAMBIADA, con la cantidad disponible
+     */
+    public static EventoCambio deLibro(TipoCambio tipo, Libro libro) {
+        return new EventoCambio(tipo, libro.getIsbn(), -1, null, libro.getCantidadDisponible(), null);
+    }
+
+    /**
+     * PRESTAMO_CREADO (fecha de vencimiento), PRESTAMO_DEVUELTO (fecha de devolución)
+     * y PRESTAMO_RENOVADO (nuevo vencimiento)
+     */
+    public static EventoCambio dePrestamo(TipoCambio tipo, Prestamo prestamo) {
+        LocalDate fecha = tipo == TipoCambio.PRESTAMO_DEVUELTO
+                ? prestamo.getFechaDevolucion()
+                : prestamo.getFechaVencimiento();
+        return new EventoCambio(tipo, prestamo.getIsbnLibro(), prestamo.getNumero(), prestamo.getIdUsuario(),
+                -1, fecha);
+    }
+
+    public TipoCambio getTipo() {
+        return tipo;
+    }
+
+    /**
+     * @return Posición del evento en el bus: 1, 2, 3... en orden de entrega
+     */
+    public long getSecuencia() {
+        return secuencia;
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+
+    /**
+     * @return Id del préstamo ("PREST-n"), o null si el evento es de un libro
+     */
+    public String getIdPrestamo() {
+        return numeroPrestamo < 0 ? null : Prestamo.PREFIJO_ID + numeroPrestamo;
+    }
+
+    public long getNumeroPrestamo() {
+        return numeroPrestamo;
+    }
+
+    public String getIdUsuario() {
+        return idUsuario;
+    }
+
+    /**
+     * @return Ejemplares disponibles después del cambio (eventos de libro), o -1
+     */
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    public LocalDate getFecha() {
+        return fecha;
+    }
+
+    long getNanosPublicacion() {
+        return nanosPublicacion;
+    }
+
+    @Override
+    public String toString() {
+        return "EventoCambio{" +
+                "secuencia=" + secuencia +
+                ", tipo=" + tipo +
+                ", isbn='" + isbn + '\'' +
+                ", idPrestamo=" + getIdPrestamo() +
+                ", idUsuario=" + idUsuario +
+                ", cantidad=" + cantidad +
+                ", fecha=" + fecha +
+                '}';
+    }
+}
@@ -0,0 +1,16 @@
+package com.biblioteca.eventos;
+
+/**
+ * Tipos de cambio publicados por BusEventos.
+ *
+ * Prestar y devolver también cambian la disponibilidad del libro (un ejemplar menos
+ * o más); DISPONIBILIDAD_CAMBIADA es solo para los ajustes manuales de stock.
+ */
+public enum TipoCambio {
+    LIBRO_REGISTRADO,
+    LIBRO_ACTUALIZADO,
+    DISPONIBILIDAD_CAMBIADA,
+    PRESTAMO_CREADO,
+    PRESTAMO_DEVUELTO,
+    PRESTAMO_RENOVADO
+}
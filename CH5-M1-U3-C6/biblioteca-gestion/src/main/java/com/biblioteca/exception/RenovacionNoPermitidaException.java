@@ -0,0 +1,11 @@
+package com.biblioteca.exception;
+
+/**
+ * Excepción lanzada cuando un préstamo no puede renovarse (vencido o sin renovaciones disponibles)
+ */
+public class RenovacionNoPermitidaException extends RuntimeException {
+    
+    public RenovacionNoPermitidaException(String mensaje) {
+        super(mensaje);
+    }
+}
@@ -0,0 +1,395 @@
+package com.biblioteca.historial;
+
+import com.biblioteca.model.Prestamo;
+import com.biblioteca.service.CodecIsbn;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Archivo compacto de préstamos devueltos, de solo agregado.
+ *
+ * Cada préstamo ocupa una fila en columnas primitivas paralelas (id, ISBN codificado,
+ * código de usuario, fecha de préstamo y de devolución en días), ~28 bytes por préstamo
+ * en lugar de un objeto Prestamo con sus Strings y su nodo de mapa. Los Prestamo se
+ * reconstruyen solo al consultar.
+ *
+ * Índices:
+ * <ul>
+ *   <li>Por usuario: posiciones de sus préstamos, en orden de archivo.</li>
+ *   <li>Por fecha: mínimo y máximo de cada fecha por página; una consulta por rango
+ *   solo recorre las páginas que pueden contener fechas del rango. Como los préstamos
+ *   se archivan al devolverse, las páginas quedan casi ordenadas por fecha.</li>
+ *   <li>Por id: al llenarse, cada página guarda sus filas ordenadas por id (2 bytes por
+ *   fila). Listar desde un id es una búsqueda binaria por página y una mezcla.</li>
+ * </ul>
+ *
+ * Las filas se agregan bajo un lock y se publican con una escritura volátil del tamaño;
+ * las consultas no toman locks y nunca ven filas a medio escribir.
+ */
+public class HistorialPrestamos {
+
+    private static final int BITS_PAGINA = 14;
+    private static final int TAMANIO_PAGINA = 1 << BITS_PAGINA;
+    private static final int MASCARA_PAGINA = TAMANIO_PAGINA - 1;
+
+    private static final class Pagina {
+        final long[] ids = new long[TAMANIO_PAGINA];
+        final long[] isbns = new long[TAMANIO_PAGINA];
+        final int[] usuarios = new int[TAMANIO_PAGINA];
+        final int[] fechasPrestamo = new int[TAMANIO_PAGINA];
+        final int[] fechasDevolucion = new int[TAMANIO_PAGINA];
+        // Mapa de zonas: solo crecen, y se actualizan antes de publicar la fila
+        volatile int minPrestamo = Integer.MAX_VALUE;
+        volatile int maxPrestamo = Integer.MIN_VALUE;
+        volatile int minDevolucion = Integer.MAX_VALUE;
+        volatile int maxDevolucion = Integer.MIN_VALUE;
+        volatile long maxId = Long.MIN_VALUE;
+        // Filas de la página ordenadas por id; se calcula al llenarse la página
+        volatile char[] ordenPorId;
+
+        void ordenarPorId() {
+            ordenPorId = menoresMayoresQue(ids, TAMANIO_PAGINA, Long.MIN_VALUE, TAMANIO_PAGINA);
+        }
+
+        /**
+         * @return La primera posición de ordenPorId con id mayor que el dado
+         */
+        int primeroMayorQue(long id) {
+            char[] orden = ordenPorId;
+            int desde = 0;
+            int hasta = orden.length;
+            while (desde < hasta) {
+                int medio = (desde + hasta) >>> 1;
+                if (ids[orden[medio]] <= id) {
+                    desde = medio + 1;
+                } else {
+                    hasta = medio;
+                }
+            }
+            return desde;
+        }
+    }
+
+    /**
+     * Posiciones de los préstamos archivados de un usuario
+     */
+    private static final class PorUsuario {
+        final int codigo;
+        volatile int[] posiciones = new int[4];
+        volatile int tamanio;
+
+        PorUsuario(int codigo) {
+            this.codigo = codigo;
+        }
+
+        /**
+         * Debe llamarse con el lock del historial tomado
+         */
+        void agregar(int posicion) {
+            int[] actuales = posiciones;
+            if (tamanio == actuales.length) {
+                actuales = Arrays.copyOf(actuales, actuales.length * 2);
+                // El arreglo nuevo se publica antes que el tamaño que lo usa
+                posiciones = actuales;
+            }
+            actuales[tamanio] = posicion;
+            tamanio = tamanio + 1;
+        }
+    }
+
+    private final Map<String, PorUsuario> porUsuario = new ConcurrentHashMap<>();
+    private volatile String[] usuarios = new String[16];
+    private volatile Pagina[] paginas = new Pagina[0];
+    private volatile int tamanio;
+
+    /**
+     * Archiva un préstamo devuelto
+     *
+     * @throws IllegalArgumentException Si el préstamo sigue activo o su ID no tiene el formato esperado
+     */
+    public synchronized void archivar(Prestamo prestamo) {
+        if (prestamo.isActivo() || prestamo.getFechaDevolucion() == null) {
+            throw new IllegalArgumentException("Solo se archivan préstamos devueltos: " + prestamo.getId());
+        }
+        long id = prestamo.getNumero();
+        if (id < 0) {
+            throw new IllegalArgumentException("ID de préstamo inesperado: " + prestamo.getId());
+        }
+        PorUsuario usuario = porUsuario.get(prestamo.getIdUsuario());
+        if (usuario == null) {
+            usuario = registrarUsuario(prestamo.getIdUsuario());
+        }
+
+        int posicion = tamanio;
+        if ((posicion & MASCARA_PAGINA) == 0) {
+            Pagina[] actuales = paginas;
+            Pagina[] nuevas = Arrays.copyOf(actuales, actuales.length + 1);
+            nuevas[actuales.length] = new Pagina();
+            paginas = nuevas;
+        }
+        Pagina pagina = paginas[posicion >>> BITS_PAGINA];
+        int i = posicion & MASCARA_PAGINA;
+        int diaPrestamo = (int) prestamo.getFechaPrestamo().toEpochDay();
+        int diaDevolucion = (int) prestamo.getFechaDevolucion().toEpochDay();
+        pagina.ids[i] = id;
+        pagina.isbns[i] = CodecIsbn.codificar(prestamo.getIsbnLibro());
+        pagina.usuarios[i] = usuario.codigo;
+        pagina.fechasPrestamo[i] = diaPrestamo;
+        pagina.fechasDevolucion[i] = diaDevolucion;
+        pagina.minPrestamo = Math.min(pagina.minPrestamo, diaPrestamo);
+        pagina.maxPrestamo = Math.max(pagina.maxPrestamo, diaPrestamo);
+        pagina.minDevolucion = Math.min(pagina.minDevolucion, diaDevolucion);
+        pagina.maxDevolucion = Math.max(pagina.maxDevolucion, diaDevolucion);
+        pagina.maxId = Math.max(pagina.maxId, id);
+        if (i == MASCARA_PAGINA) {
+            pagina.ordenarPorId();
+        }
+        usuario.agregar(posicion);
+        // Escritura volátil: publica la fila ya completa
+        tamanio = posicion + 1;
+    }
+
+    /**
+     * @return Cantidad de préstamos archivados
+     */
+    public int tamanio() {
+        return tamanio;
+    }
+
+    /**
+     * @return Los préstamos devueltos del usuario, en orden de archivo
+     */
+    public List<Prestamo> buscarPorUsuario(String idUsuario) {
+        PorUsuario usuario = porUsuario.get(idUsuario);
+        if (usuario == null) {
+            return new ArrayList<>();
+        }
+        int n = usuario.tamanio;
+        int[] posiciones = usuario.posiciones;
+        Pagina[] ps = paginas;
+        List<Prestamo> resultado = new ArrayList<>(n);
+        for (int k = 0; k < n; k++) {
+            resultado.add(leer(ps, posiciones[k]));
+        }
+        return resultado;
+    }
+
+    /**
+     * @return Cantidad de préstamos devueltos por el usuario
+     */
+    public int contarPorUsuario(String idUsuario) {
+        PorUsuario usuario = porUsuario.get(idUsuario);
+        return usuario == null ? 0 : usuario.tamanio;
+    }
+
+    /**
+     * @param desde Fecha inicial (inclusive)
+     * @param hasta Fecha final (inclusive)
+     * @return Los préstamos devueltos entre ambas fechas
+     */
+    public List<Prestamo> buscarPorFechaDevolucion(LocalDate desde, LocalDate hasta) {
+        return buscarPorFecha(desde, hasta, true);
+    }
+
+    /**
+     * @param desde Fecha inicial (inclusive)
+     * @param hasta Fecha final (inclusive)
+     * @return Los préstamos archivados que se tomaron entre ambas fechas
+     */
+    public List<Prestamo> buscarPorFechaPrestamo(LocalDate desde, LocalDate hasta) {
+        return buscarPorFecha(desde, hasta, false);
+    }
+
+    /**
+     * @return Todos los préstamos archivados, en orden de archivo
+     */
+    public List<Prestamo> listarTodos() {
+        int n = tamanio;
+        Pagina[] ps = paginas;
+        List<Prestamo> resultado = new ArrayList<>(n);
+        for (int posicion = 0; posicion < n; posicion++) {
+            resultado.add(leer(ps, posicion));
+        }
+        return resultado;
+    }
+
+    /**
+     * @param idExclusivo Número de id desde el cual listar (sin incluirlo)
+     * @param maximo Cantidad máxima de préstamos
+     * @return Los préstamos archivados con número de id mayor que idExclusivo, ordenados por id
+     */
+    public List<Prestamo> listarDesde(long idExclusivo, int maximo) {
+        int n = tamanio;
+        Pagina[] ps = paginas;
+        int completas = n >>> BITS_PAGINA;
+        // Una fuente por página completa (ya ordenada) más la página en curso, ordenada aquí
+        PriorityQueue<FuenteIds> fuentes = new PriorityQueue<>();
+        for (int p = 0; p < completas; p++) {
+            Pagina pagina = ps[p];
+            if (pagina.maxId > idExclusivo) {
+                int k = pagina.primeroMayorQue(idExclusivo);
+                fuentes.add(new FuenteIds(p, pagina, pagina.ordenPorId, k, TAMANIO_PAGINA));
+            }
+        }
+        int enCurso = n & MASCARA_PAGINA;
+        if (enCurso > 0) {
+            char[] orden = menoresMayoresQue(ps[completas].ids, enCurso, idExclusivo, maximo);
+            if (orden.length > 0) {
+                fuentes.add(new FuenteIds(completas, ps[completas], orden, 0, orden.length));
+            }
+        }
+        List<Prestamo> resultado = new ArrayList<>(Math.min(maximo, n));
+        while (resultado.size() < maximo && !fuentes.isEmpty()) {
+            FuenteIds fuente = fuentes.poll();
+            resultado.add(leer(ps, (fuente.numeroPagina << BITS_PAGINA) + fuente.orden[fuente.siguiente]));
+            if (++fuente.siguiente < fuente.fin) {
+                fuentes.add(fuente);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Selecciona, entre las primeras filas de una página sin ordenar, las (como mucho)
+     * maximo de menor id mayor que idExclusivo, con un heap acotado: O(filas log maximo)
+     *
+     * @return Las filas elegidas, ordenadas por id
+     */
+    private static char[] menoresMayoresQue(long[] ids, int filas, long idExclusivo, int maximo) {
+        // Heap de máximos por id: la raíz es la peor candidata elegida hasta ahora
+        char[] heap = new char[Math.min(maximo, filas)];
+        int tamanio = 0;
+        for (int i = 0; i < filas; i++) {
+            long id = ids[i];
+            if (id <= idExclusivo) {
+                continue;
+            }
+            if (tamanio < heap.length) {
+                int k = tamanio++;
+                while (k > 0 && ids[heap[(k - 1) >>> 1]] < id) {
+                    heap[k] = heap[(k - 1) >>> 1];
+                    k = (k - 1) >>> 1;
+                }
+                heap[k] = (char) i;
+            } else if (tamanio > 0 && id < ids[heap[0]]) {
+                hundir(heap, tamanio, ids, (char) i);
+            }
+        }
+        // Se extrae la raíz (el mayor) hacia el final: queda ordenado de menor a mayor
+        char[] orden = new char[tamanio];
+        for (int fin = tamanio - 1; fin >= 0; fin--) {
+            orden[fin] = heap[0];
+            hundir(heap, fin, ids, heap[fin]);
+        }
+        return orden;
+    }
+
+    /**
+     * Coloca fila en la raíz de un heap de máximos de tamanio elementos y la hunde
+     */
+    private static void hundir(char[] heap, int tamanio, long[] ids, char fila) {
+        long id = ids[fila];
+        int k = 0;
+        while (true) {
+            int hijo = 2 * k + 1;
+            if (hijo >= tamanio) {
+                break;
+            }
+            if (hijo + 1 < tamanio && ids[heap[hijo + 1]] > ids[heap[hijo]]) {
+                hijo++;
+            }
+            if (ids[heap[hijo]] <= id) {
+                break;
+            }
+            heap[k] = heap[hijo];
+            k = hijo;
+        }
+        if (tamanio > 0) {
+            heap[k] = fila;
+        }
+    }
+
+    /**
+     * Filas de una página recorridas en orden de id, para la mezcla de listarDesde
+     */
+    private static final class FuenteIds implements Comparable<FuenteIds> {
+        final int numeroPagina;
+        final Pagina pagina;
+        final char[] orden;
+        int siguiente;
+        final int fin;
+
+        FuenteIds(int numeroPagina, Pagina pagina, char[] orden, int siguiente, int fin) {
+            this.numeroPagina = numeroPagina;
+            this.pagina = pagina;
+            this.orden = orden;
+            this.siguiente = siguiente;
+            this.fin = fin;
+        }
+
+        long idActual() {
+            return pagina.ids[orden[siguiente]];
+        }
+
+        @Override
+        public int compareTo(FuenteIds otra) {
+            return Long.compare(idActual(), otra.idActual());
+        }
+    }
+
+    private List<Prestamo> buscarPorFecha(LocalDate desde, LocalDate hasta, boolean porDevolucion) {
+        int inicio = (int) desde.toEpochDay();
+        int fin = (int) hasta.toEpochDay();
+        int n = tamanio;
+        Pagina[] ps = paginas;
+        List<Prestamo> resultado = new ArrayList<>();
+        for (int p = 0; p < ps.length && p * TAMANIO_PAGINA < n; p++) {
+            Pagina pagina = ps[p];
+            int min = porDevolucion ? pagina.minDevolucion : pagina.minPrestamo;
+            int max = porDevolucion ? pagina.maxDevolucion : pagina.maxPrestamo;
+            if (max < inicio || min > fin) {
+                continue;
+            }
+            int[] fechas = porDevolucion ? pagina.fechasDevolucion : pagina.fechasPrestamo;
+            int limite = Math.min(TAMANIO_PAGINA, n - p * TAMANIO_PAGINA);
+            for (int i = 0; i < limite; i++) {
+                if (fechas[i] >= inicio && fechas[i] <= fin) {
+                    resultado.add(leer(ps, p * TAMANIO_PAGINA + i));
+                }
+            }
+        }
+        return resultado;
+    }
+
+    private Prestamo leer(Pagina[] ps, int posicion) {
+        Pagina pagina = ps[posicion >>> BITS_PAGINA];
+        int i = posicion & MASCARA_PAGINA;
+        Prestamo prestamo = new Prestamo(pagina.ids[i], CodecIsbn.decodificar(pagina.isbns[i]),
+                usuarios[pagina.usuarios[i]], LocalDate.ofEpochDay(pagina.fechasPrestamo[i]));
+        prestamo.devolver(LocalDate.ofEpochDay(pagina.fechasDevolucion[i]));
+        return prestamo;
+    }
+
+    /**
+     * Debe llamarse con el lock del historial tomado
+     */
+    private PorUsuario registrarUsuario(String idUsuario) {
+        int codigo = porUsuario.size();
+        String[] actuales = usuarios;
+        if (codigo == actuales.length) {
+            actuales = Arrays.copyOf(actuales, actuales.length * 2);
+        }
+        actuales[codigo] = idUsuario;
+        // Se republica el arreglo para que la escritura sea visible antes que la fila que la usa
+        usuarios = actuales;
+        PorUsuario usuario = new PorUsuario(codigo);
+        porUsuario.put(idUsuario, usuario);
+        return usuario;
+    }
+}
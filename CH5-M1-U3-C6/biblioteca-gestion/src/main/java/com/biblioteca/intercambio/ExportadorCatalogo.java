@@ -0,0 +1,212 @@
+package com.biblioteca.intercambio;
+
+import com.biblioteca.model.Libro;
+import com.biblioteca.service.LibroService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Exporta el catálogo en streaming a un canal NIO.
+ *
+ * Recorre el mapa de libros con LibroService.recorrerLibros (sin copiarlo a una lista)
+ * y codifica cada fila a UTF-8 directamente en un buffer de 1 MB que se vacía al
+ * llenarse: la memoria no depende del tamaño del catálogo.
+ *
+ * La cantidad exportada es la total; los préstamos en curso no se exportan.
+ */
+public class ExportadorCatalogo {
+
+    private static final int TAMANIO_BUFFER = 1 << 20;
+    // Una fila nunca se corta: si lo que queda del buffer no alcanza para el peor caso, se vacía antes
+    private static final int BYTES_POR_CARACTER = 6;
+
+    private final LibroService libroService;
+
+    public ExportadorCatalogo(LibroService libroService) {
+        this.libroService = libroService;
+    }
+
+    /**
+     * @return Cantidad de libros exportados
+     */
+    public long exportar(Path archivo, FormatoCatalogo formato) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            return exportar(canal, formato);
+        }
+    }
+
+    /**
+     * @param canal Canal de destino (no se cierra)
+     * @return Cantidad de libros exportados
+     */
+    public long exportar(WritableByteChannel canal, FormatoCatalogo formato) throws IOException {
+        Escritor escritor = new Escritor(canal, formato);
+        try {
+            if (formato == FormatoCatalogo.CSV) {
+                escritor.asegurar(32);
+                escritor.ascii("isbn,titulo,autor,cantidad\n");
+            }
+            libroService.recorrerLibros(escritor::escribir);
+            escritor.vaciar();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return escritor.libros;
+    }
+
+    private static final class Escritor {
+        private final WritableByteChannel canal;
+        private final FormatoCatalogo formato;
+        private final ByteBuffer buffer = ByteBuffer.allocate(TAMANIO_BUFFER);
+        long libros;
+
+        Escritor(WritableByteChannel canal, FormatoCatalogo formato) {
+            this.canal = canal;
+            this.formato = formato;
+        }
+
+        void escribir(Libro libro) {
+            String titulo = libro.getTitulo() == null ? "" : libro.getTitulo();
+            String autor = libro.getAutor() == null ? "" : libro.getAutor();
+            try {
+                asegurar(64 + (libro.getIsbn().length() + titulo.length() + autor.length()) * BYTES_POR_CARACTER);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (formato == FormatoCatalogo.CSV) {
+                campoCsv(libro.getIsbn());
+                buffer.put((byte) ',');
+                campoCsv(titulo);
+                buffer.put((byte) ',');
+                campoCsv(autor);
+                buffer.put((byte) ',');
+                ascii(Integer.toString(libro.getCantidadTotal()));
+            } else {
+                ascii("{\"isbn\":");
+                textoJson(libro.getIsbn());
+                ascii(",\"titulo\":");
+                textoJson(titulo);
+                ascii(",\"autor\":");
+                textoJson(autor);
+                ascii(",\"cantidad\":");
+                ascii(Integer.toString(libro.getCantidadTotal()));
+                buffer.put((byte) '}');
+            }
+            buffer.put((byte) '\n');
+            libros++;
+        }
+
+        /**
+         * Entre comillas solo si el campo tiene separadores o comillas; los saltos de línea
+         * se escriben como espacios porque el formato no admite campos de varias líneas
+         */
+        private void campoCsv(String texto) {
+            boolean comillas = false;
+            for (int i = 0; i < texto.length() && !comillas; i++) {
+                char c = texto.charAt(i);
+                comillas = c == ',' || c == '"';
+            }
+            if (comillas) {
+                buffer.put((byte) '"');
+            }
+            for (int i = 0; i < texto.length(); i++) {
+                char c = texto.charAt(i);
+                if (c == '"') {
+                    buffer.put((byte) '"').put((byte) '"');
+                } else if (c == '\n' || c == '\r') {
+                    buffer.put((byte) ' ');
+                } else {
+                    i = caracter(texto, i);
+                }
+            }
+            if (comillas) {
+                buffer.put((byte) '"');
+            }
+        }
+
+        private void textoJson(String texto) {
+            buffer.put((byte) '"');
+            for (int i = 0; i < texto.length(); i++) {
+                char c = texto.charAt(i);
+                if (c == '"' || c == '\\') {
+                    buffer.put((byte) '\\').put((byte) c);
+                } else if (c == '\n') {
+                    buffer.put((byte) '\\').put((byte) 'n');
+                } else if (c == '\r') {
+                    buffer.put((byte) '\\').put((byte) 'r');
+                } else if (c == '\t') {
+                    buffer.put((byte) '\\').put((byte) 't');
+                } else if (c < 0x20) {
+                    ascii(String.format("\\u%04x", (int) c));
+                } else {
+                    i = caracter(texto, i);
+                }
+            }
+            buffer.put((byte) '"');
+        }
+
+        /**
+         * Codifica en UTF-8 el carácter en la posición i (o el par sustituto que empieza ahí)
+         *
+         * @return La posición del último char consumido
+         */
+        private int caracter(String texto, int i) {
+            char c = texto.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < texto.length()
+                    && Character.isLowSurrogate(texto.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, texto.charAt(i + 1));
+                buffer.put((byte) (0xF0 | (cp >> 18)));
+                buffer.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+                buffer.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (cp & 0x3F)));
+                return i + 1;
+            } else if (Character.isSurrogate(c)) {
+                // Sustituto suelto: mismo reemplazo que usa String.getBytes
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            }
+            return i;
+        }
+
+        void ascii(String texto) {
+            for (int i = 0; i < texto.length(); i++) {
+                buffer.put((byte) texto.charAt(i));
+            }
+        }
+
+        /**
+         * Vacía el buffer si no quedan al menos bytes libres
+         */
+        void asegurar(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                vaciar();
+                if (buffer.capacity() < bytes) {
+                    throw new IOException("Fila de más de " + buffer.capacity() + " bytes");
+                }
+            }
+        }
+
+        void vaciar() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
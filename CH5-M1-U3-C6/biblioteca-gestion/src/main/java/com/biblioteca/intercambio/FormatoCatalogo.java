@@ -0,0 +1,17 @@
+package com.biblioteca.intercambio;
+
+/**
+ * Formatos de archivo para importar y exportar el catálogo
+ */
+public enum FormatoCatalogo {
+    /**
+     * CSV de 4 columnas: isbn,titulo,autor,cantidad. Admite campos entre comillas
+     * (con "" para una comilla) y una fila de encabezado opcional que empiece con isbn.
+     * Un campo no puede contener saltos de línea: al exportar se escriben como espacios.
+     */
+    CSV,
+    /**
+     * JSON Lines: un objeto por línea con las claves isbn, titulo, autor y cantidad
+     */
+    JSON_LINES
+}
@@ -0,0 +1,296 @@
+package com.biblioteca.intercambio;
+
+import com.biblioteca.model.Libro;
+import com.biblioteca.service.LibroService;
+import com.biblioteca.service.ResultadoItem;
+import com.biblioteca.service.ResultadoLote;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Importa un catálogo en streaming desde un canal NIO, con memoria constante.
+ *
+ * Tres etapas:
+ * <ol>
+ *   <li>Lectura: el hilo que llama lee bloques de ~1 MB cortados en el último salto de línea.</li>
+ *   <li>Parseo: cada bloque se interpreta en un pool de hilos, sin regex ni String.split.</li>
+ *   <li>Registro: el hilo que llama registra los bloques en orden con LibroService.registrarLibros,
+ *   que valida y confirma el lote como único escritor.</li>
+ * </ol>
+ * Como mucho hay 2 bloques por hilo de parseo en vuelo, así que la memoria no depende
+ * del tamaño del archivo.
+ */
+public class ImportadorCatalogo {
+
+    private static final int TAMANIO_BLOQUE = 1 << 20;
+    private static final int MAX_ERRORES = 20;
+
+    /**
+     * Bloque de líneas completas leído del archivo
+     */
+    private static final class Bloque {
+        final byte[] datos;
+        final boolean primero;
+
+        Bloque(byte[] datos, boolean primero) {
+            this.datos = datos;
+            this.primero = primero;
+        }
+    }
+
+    /**
+     * Resultado del parseo de un bloque; las líneas son relativas al inicio del bloque
+     */
+    private static final class BloqueParseado {
+        final List<Libro> libros = new ArrayList<>();
+        int[] lineasLibros = new int[64];
+        final List<String> errores = new ArrayList<>();
+        final int[] lineasErrores = new int[MAX_ERRORES];
+        int lineas;
+        int filas;
+        int invalidas;
+
+        void agregar(Libro libro, int linea) {
+            if (libros.size() == lineasLibros.length) {
+                lineasLibros = Arrays.copyOf(lineasLibros, lineasLibros.length * 2);
+            }
+            lineasLibros[libros.size()] = linea;
+            libros.add(libro);
+        }
+    }
+
+    private final LibroService libroService;
+    private final int hilosParseo;
+
+    public ImportadorCatalogo(LibroService libroService) {
+        this(libroService, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param hilosParseo Hilos de la etapa de parseo
+     */
+    public ImportadorCatalogo(LibroService libroService, int hilosParseo) {
+        if (hilosParseo <= 0) {
+            throw new IllegalArgumentException("Se necesita al menos un hilo de parseo");
+        }
+        this.libroService = libroService;
+        this.hilosParseo = hilosParseo;
+    }
+
+    public ResumenImportacion importar(Path archivo, FormatoCatalogo formato) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            return importar(canal, formato);
+        }
+    }
+
+    /**
+     * Importa todas las filas del canal; las filas inválidas o rechazadas no detienen la importación
+     *
+     * @param canal Canal a leer hasta el final (no se cierra)
+     */
+    public ResumenImportacion importar(ReadableByteChannel canal, FormatoCatalogo formato) throws IOException {
+        long inicio = System.nanoTime();
+        ExecutorService pool = crearPool();
+        Deque<Future<BloqueParseado>> enVuelo = new ArrayDeque<>();
+        Totales totales = new Totales();
+        try {
+            LectorBloques lector = new LectorBloques(canal);
+            Bloque bloque;
+            while ((bloque = lector.siguiente()) != null) {
+                Bloque actual = bloque;
+                enVuelo.add(pool.submit(() -> parsear(actual, formato)));
+                if (enVuelo.size() >= hilosParseo * 2) {
+                    registrar(esperar(enVuelo.poll()), totales);
+                }
+            }
+            while (!enVuelo.isEmpty()) {
+                registrar(esperar(enVuelo.poll()), totales);
+            }
+        } finally {
+            for (Future<BloqueParseado> pendiente : enVuelo) {
+                pendiente.cancel(true);
+            }
+            pool.shutdownNow();
+        }
+        return new ResumenImportacion(totales.filas, totales.importados, totales.invalidas,
+                totales.rechazados, System.nanoTime() - inicio, totales.errores);
+    }
+
+    /**
+     * Acumulados de la etapa de registro (solo los toca el hilo que importa)
+     */
+    private static final class Totales {
+        long lineas;
+        long filas;
+        long importados;
+        long invalidas;
+        long rechazados;
+        final List<String> errores = new ArrayList<>();
+
+        void error(long linea, String motivo) {
+            if (errores.size() < MAX_ERRORES) {
+                errores.add("línea " + linea + ": " + motivo);
+            }
+        }
+    }
+
+    private void registrar(BloqueParseado parseado, Totales totales) {
+        long base = totales.lineas;
+        for (int i = 0; i < parseado.errores.size(); i++) {
+            totales.error(base + parseado.lineasErrores[i], parseado.errores.get(i));
+        }
+        if (!parseado.libros.isEmpty()) {
+            ResultadoLote<Libro> resultado = libroService.registrarLibros(parseado.libros);
+            totales.importados += resultado.getExitosos();
+            totales.rechazados += resultado.getRechazados();
+            for (ResultadoItem<Libro> rechazo : resultado.getRechazos()) {
+                totales.error(base + parseado.lineasLibros[rechazo.getIndice()],
+                        rechazo.getMotivo().getDescripcion());
+            }
+        }
+        totales.lineas += parseado.lineas;
+        totales.filas += parseado.filas;
+        totales.invalidas += parseado.invalidas;
+    }
+
+    /**
+     * Interpreta las líneas de un bloque (se ejecuta en el pool de parseo)
+     */
+    private static BloqueParseado parsear(Bloque bloque, FormatoCatalogo formato) {
+        ParserFilas parser = new ParserFilas(formato);
+        BloqueParseado resultado = new BloqueParseado();
+        byte[] datos = bloque.datos;
+        int inicioLinea = 0;
+        boolean buscarEncabezado = bloque.primero && formato == FormatoCatalogo.CSV;
+        // BOM de UTF-8 al principio del archivo
+        if (bloque.primero && datos.length >= 3
+                && datos[0] == (byte) 0xEF && datos[1] == (byte) 0xBB && datos[2] == (byte) 0xBF) {
+            inicioLinea = 3;
+        }
+        while (inicioLinea < datos.length) {
+            int finLinea = inicioLinea;
+            while (finLinea < datos.length && datos[finLinea] != '\n') {
+                finLinea++;
+            }
+            int siguiente = finLinea + 1;
+            if (finLinea > inicioLinea && datos[finLinea - 1] == '\r') {
+                finLinea--;
+            }
+            resultado.lineas++;
+            int linea = resultado.lineas;
+            if (finLinea > inicioLinea) {
+                if (buscarEncabezado && ParserFilas.esEncabezado(datos, inicioLinea, finLinea)) {
+                    buscarEncabezado = false;
+                } else {
+                    buscarEncabezado = false;
+                    resultado.filas++;
+                    Libro libro = parser.parsear(datos, inicioLinea, finLinea);
+                    if (libro != null) {
+                        resultado.agregar(libro, linea);
+                    } else {
+                        resultado.invalidas++;
+                        if (resultado.errores.size() < MAX_ERRORES) {
+                            resultado.lineasErrores[resultado.errores.size()] = linea;
+                            resultado.errores.add(parser.error);
+                        }
+                    }
+                }
+            }
+            inicioLinea = siguiente;
+        }
+        return resultado;
+    }
+
+    /**
+     * Lee el canal en bloques de líneas completas; lo que sigue al último salto de línea
+     * queda en el buffer para el bloque siguiente
+     */
+    private static final class LectorBloques {
+        private final ReadableByteChannel canal;
+        private ByteBuffer buffer = ByteBuffer.allocate(TAMANIO_BLOQUE);
+        private boolean primero = true;
+        private boolean finCanal;
+
+        LectorBloques(ReadableByteChannel canal) {
+            this.canal = canal;
+        }
+
+        /**
+         * @return El próximo bloque, o null si el canal terminó y no queda nada por devolver
+         */
+        Bloque siguiente() throws IOException {
+            while (true) {
+                while (!finCanal && buffer.hasRemaining()) {
+                    if (canal.read(buffer) < 0) {
+                        finCanal = true;
+                    }
+                }
+                int largo = buffer.position();
+                if (largo == 0) {
+                    return null;
+                }
+                int corte = finCanal ? largo : ultimoSaltoDeLinea(buffer.array(), largo) + 1;
+                if (corte == 0) {
+                    // Una sola línea ocupa todo el buffer: se agranda y se sigue leyendo
+                    ByteBuffer mayor = ByteBuffer.allocate(buffer.capacity() * 2);
+                    buffer.flip();
+                    buffer = mayor.put(buffer);
+                    continue;
+                }
+                byte[] datos = Arrays.copyOf(buffer.array(), corte);
+                buffer.flip().position(corte);
+                buffer.compact();
+                Bloque bloque = new Bloque(datos, primero);
+                primero = false;
+                return bloque;
+            }
+        }
+
+        private static int ultimoSaltoDeLinea(byte[] datos, int largo) {
+            for (int i = largo - 1; i >= 0; i--) {
+                if (datos[i] == '\n') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private static BloqueParseado esperar(Future<BloqueParseado> futuro) throws IOException {
+        try {
+            return futuro.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Importación interrumpida", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException("Error al parsear el catálogo", e.getCause());
+        }
+    }
+
+    private ExecutorService crearPool() {
+        AtomicLong contador = new AtomicLong();
+        return Executors.newFixedThreadPool(hilosParseo, r -> {
+            Thread hilo = new Thread(r, "importacion-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+}
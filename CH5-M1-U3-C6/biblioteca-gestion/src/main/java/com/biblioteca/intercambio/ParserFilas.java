@@ -0,0 +1,373 @@
+package com.biblioteca.intercambio;
+
+import com.biblioteca.model.Libro;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Interpreta una fila (CSV o JSON Lines) directamente sobre los bytes UTF-8 leídos,
+ * sin regex ni String.split: un solo recorrido por fila y un String por campo.
+ *
+ * No es thread-safe: cada tarea de parseo usa su propia instancia.
+ */
+final class ParserFilas {
+
+    private static final int COLUMNAS = 4;
+
+    private final FormatoCatalogo formato;
+    private final String[] campos = new String[COLUMNAS];
+    // Campos con escapes ("" en CSV, \ en JSON) se arman aquí
+    private byte[] auxiliar = new byte[256];
+    private int largoAuxiliar;
+    private int pos;
+    private int fin;
+    private byte[] b;
+
+    /** Motivo del último rechazo de parsear */
+    String error;
+
+    ParserFilas(FormatoCatalogo formato) {
+        this.formato = formato;
+    }
+
+    /**
+     * @return true si la fila es un encabezado CSV (primer campo "isbn")
+     */
+    static boolean esEncabezado(byte[] datos, int inicio, int fin) {
+        int largo = "isbn".length();
+        if (fin - inicio < largo) {
+            return false;
+        }
+        for (int i = 0; i < largo; i++) {
+            if (Character.toLowerCase(datos[inicio + i]) != "isbn".charAt(i)) {
+                return false;
+            }
+        }
+        return fin - inicio == largo || datos[inicio + largo] == ',';
+    }
+
+    /**
+     * @return El libro de la fila [inicio, fin), o null si no se pudo interpretar (ver error)
+     */
+    Libro parsear(byte[] datos, int inicio, int fin) {
+        this.b = datos;
+        this.pos = inicio;
+        this.fin = fin;
+        this.error = null;
+        Arrays.fill(campos, null);
+        try {
+            return formato == FormatoCatalogo.CSV ? parsearCsv() : parsearJson();
+        } finally {
+            this.b = null;
+        }
+    }
+
+    // --- CSV ---
+
+    private Libro parsearCsv() {
+        int n = 0;
+        while (true) {
+            if (n == COLUMNAS) {
+                return rechazar("se esperaban " + COLUMNAS + " columnas y hay más");
+            }
+            if (pos < fin && b[pos] == '"') {
+                pos++;
+                largoAuxiliar = 0;
+                while (true) {
+                    if (pos >= fin) {
+                        return rechazar("comillas sin cerrar");
+                    }
+                    byte c = b[pos++];
+                    if (c == '"') {
+                        if (pos < fin && b[pos] == '"') {
+                            agregar((byte) '"');
+                            pos++;
+                        } else {
+                            break;
+                        }
+                    } else {
+                        agregar(c);
+                    }
+                }
+                campos[n++] = new String(auxiliar, 0, largoAuxiliar, StandardCharsets.UTF_8);
+                if (pos == fin) {
+                    break;
+                }
+                if (b[pos] != ',') {
+                    return rechazar("se esperaba ',' después de un campo entre comillas");
+                }
+                pos++;
+            } else {
+                int inicioCampo = pos;
+                while (pos < fin && b[pos] != ',') {
+                    pos++;
+                }
+                campos[n++] = new String(b, inicioCampo, pos - inicioCampo, StandardCharsets.UTF_8);
+                if (pos == fin) {
+                    break;
+                }
+                pos++;
+            }
+        }
+        if (n != COLUMNAS) {
+            return rechazar("se esperaban " + COLUMNAS + " columnas y hay " + n);
+        }
+        return crearLibro(campos[0].trim(), campos[1], campos[2], campos[3].trim());
+    }
+
+    // --- JSON Lines ---
+
+    private Libro parsearJson() {
+        saltarEspacios();
+        if (!consumir('{')) {
+            return rechazar("se esperaba '{'");
+        }
+        saltarEspacios();
+        if (!consumir('}')) {
+            while (true) {
+                saltarEspacios();
+                if (pos >= fin || b[pos] != '"') {
+                    return rechazar("se esperaba el nombre de un campo");
+                }
+                String clave = leerTextoJson();
+                if (clave == null) {
+                    return null;
+                }
+                saltarEspacios();
+                if (!consumir(':')) {
+                    return rechazar("se esperaba ':' después de \"" + clave + "\"");
+                }
+                saltarEspacios();
+                String valor = leerValorJson();
+                if (error != null) {
+                    return null;
+                }
+                int columna = columna(clave);
+                if (columna >= 0) {
+                    campos[columna] = valor;
+                }
+                saltarEspacios();
+                if (consumir('}')) {
+                    break;
+                }
+                if (!consumir(',')) {
+                    return rechazar("se esperaba ',' o '}'");
+                }
+            }
+        }
+        saltarEspacios();
+        if (pos != fin) {
+            return rechazar("contenido después del objeto");
+        }
+        if (campos[0] == null || campos[3] == null) {
+            return rechazar("faltan isbn o cantidad");
+        }
+        return crearLibro(campos[0], campos[1], campos[2], campos[3]);
+    }
+
+    private static int columna(String clave) {
+        switch (clave) {
+            case "isbn":
+                return 0;
+            case "titulo":
+                return 1;
+            case "autor":
+                return 2;
+            case "cantidad":
+                return 3;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Lee un texto, un número o un literal; devuelve null para null/true/false y deja
+     * error si el valor no es válido (los objetos y arreglos anidados no se admiten)
+     */
+    private String leerValorJson() {
+        if (pos >= fin) {
+            rechazar("falta un valor");
+            return null;
+        }
+        byte c = b[pos];
+        if (c == '"') {
+            return leerTextoJson();
+        }
+        if (c == '-' || (c >= '0' && c <= '9')) {
+            int inicio = pos;
+            while (pos < fin && (b[pos] == '-' || b[pos] == '+' || b[pos] == '.'
+                    || b[pos] == 'e' || b[pos] == 'E' || (b[pos] >= '0' && b[pos] <= '9'))) {
+                pos++;
+            }
+            return new String(b, inicio, pos - inicio, StandardCharsets.US_ASCII);
+        }
+        if (literal("null") || literal("true") || literal("false")) {
+            return null;
+        }
+        rechazar("valor no soportado");
+        return null;
+    }
+
+    private boolean literal(String palabra) {
+        if (fin - pos < palabra.length()) {
+            return false;
+        }
+        for (int i = 0; i < palabra.length(); i++) {
+            if (b[pos + i] != palabra.charAt(i)) {
+                return false;
+            }
+        }
+        pos += palabra.length();
+        return true;
+    }
+
+    /**
+     * Lee un texto entre comillas con sus escapes; pos queda después de la comilla final
+     */
+    private String leerTextoJson() {
+        pos++;
+        int inicio = pos;
+        // Camino rápido: sin escapes, el String se crea directo de los bytes
+        while (pos < fin && b[pos] != '"' && b[pos] != '\\') {
+            pos++;
+        }
+        if (pos < fin && b[pos] == '"') {
+            return new String(b, inicio, pos++ - inicio, StandardCharsets.UTF_8);
+        }
+        largoAuxiliar = 0;
+        for (int i = inicio; i < pos; i++) {
+            agregar(b[i]);
+        }
+        while (pos < fin) {
+            byte c = b[pos++];
+            if (c == '"') {
+                return new String(auxiliar, 0, largoAuxiliar, StandardCharsets.UTF_8);
+            }
+            if (c != '\\') {
+                agregar(c);
+                continue;
+            }
+            if (pos >= fin) {
+                break;
+            }
+            byte escape = b[pos++];
+            switch (escape) {
+                case '"':
+                case '\\':
+                case '/':
+                    agregar(escape);
+                    break;
+                case 'n':
+                    agregar((byte) '\n');
+                    break;
+                case 't':
+                    agregar((byte) '\t');
+                    break;
+                case 'r':
+                    agregar((byte) '\r');
+                    break;
+                case 'b':
+                    agregar((byte) '\b');
+                    break;
+                case 'f':
+                    agregar((byte) '\f');
+                    break;
+                case 'u':
+                    if (!leerUnicode()) {
+                        rechazar("escape \\u inválido");
+                        return null;
+                    }
+                    break;
+                default:
+                    rechazar("escape inválido \\" + (char) escape);
+                    return null;
+            }
+        }
+        rechazar("texto sin cerrar");
+        return null;
+    }
+
+    /**
+     * Decodifica \\uXXXX (y el par sustituto siguiente, si corresponde) y lo agrega en UTF-8
+     */
+    private boolean leerUnicode() {
+        int unidad = hex4();
+        if (unidad < 0) {
+            return false;
+        }
+        int puntoCodigo = unidad;
+        if (Character.isHighSurrogate((char) unidad)
+                && fin - pos >= 6 && b[pos] == '\\' && b[pos + 1] == 'u') {
+            pos += 2;
+            int baja = hex4();
+            if (baja < 0 || !Character.isLowSurrogate((char) baja)) {
+                return false;
+            }
+            puntoCodigo = Character.toCodePoint((char) unidad, (char) baja);
+        }
+        byte[] utf8 = new String(Character.toChars(puntoCodigo)).getBytes(StandardCharsets.UTF_8);
+        for (byte x : utf8) {
+            agregar(x);
+        }
+        return true;
+    }
+
+    private int hex4() {
+        if (fin - pos < 4) {
+            return -1;
+        }
+        int valor = 0;
+        for (int i = 0; i < 4; i++) {
+            int digito = Character.digit(b[pos++], 16);
+            if (digito < 0) {
+                return -1;
+            }
+            valor = (valor << 4) | digito;
+        }
+        return valor;
+    }
+
+    private void saltarEspacios() {
+        while (pos < fin && (b[pos] == ' ' || b[pos] == '\t')) {
+            pos++;
+        }
+    }
+
+    private boolean consumir(char esperado) {
+        if (pos < fin && b[pos] == esperado) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    // --- Comunes ---
+
+    private Libro crearLibro(String isbn, String titulo, String autor, String cantidad) {
+        int valor = 0;
+        if (cantidad.isEmpty() || cantidad.length() > 9) {
+            return rechazar("cantidad inválida: " + cantidad);
+        }
+        for (int i = 0; i < cantidad.length(); i++) {
+            char c = cantidad.charAt(i);
+            if (c < '0' || c > '9') {
+                return rechazar("cantidad inválida: " + cantidad);
+            }
+            valor = valor * 10 + (c - '0');
+        }
+        return new Libro(isbn, titulo, autor, valor);
+    }
+
+    private void agregar(byte c) {
+        if (largoAuxiliar == auxiliar.length) {
+            auxiliar = Arrays.copyOf(auxiliar, auxiliar.length * 2);
+        }
+        auxiliar[largoAuxiliar++] = c;
+    }
+
+    private Libro rechazar(String motivo) {
+        error = motivo;
+        return null;
+    }
+}
@@ -0,0 +1,77 @@
+package com.biblioteca.intercambio;
+
+import java.util.List;
+
+/**
+ * Resultado de una importación del catálogo
+ */
+public class ResumenImportacion {
+
+    private final long filasLeidas;
+    private final long importados;
+    private final long filasInvalidas;
+    private final long rechazados;
+    private final long duracionNanos;
+    private final List<String> primerosErrores;
+
+    ResumenImportacion(long filasLeidas, long importados, long filasInvalidas, long rechazados,
+                       long duracionNanos, List<String> primerosErrores) {
+        this.filasLeidas = filasLeidas;
+        this.importados = importados;
+        this.filasInvalidas = filasInvalidas;
+        this.rechazados = rechazados;
+        this.duracionNanos = duracionNanos;
+        this.primerosErrores = List.copyOf(primerosErrores);
+    }
+
+    /**
+     * Filas de datos leídas (sin contar encabezado ni líneas vacías)
+     */
+    public long getFilasLeidas() {
+        return filasLeidas;
+    }
+
+    public long getImportados() {
+        return importados;
+    }
+
+    /**
+     * Filas que no se pudieron interpretar (columnas de más o de menos, comillas sin cerrar, etc.)
+     */
+    public long getFilasInvalidas() {
+        return filasInvalidas;
+    }
+
+    /**
+     * Filas bien formadas que el catálogo rechazó (ISBN inválido o duplicado, cantidad inválida)
+     */
+    public long getRechazados() {
+        return rechazados;
+    }
+
+    public long getDuracionNanos() {
+        return duracionNanos;
+    }
+
+    public double getFilasPorSegundo() {
+        return duracionNanos == 0 ? 0 : filasLeidas * 1_000_000_000.0 / duracionNanos;
+    }
+
+    /**
+     * Los primeros errores encontrados, con su número de línea
+     */
+    public List<String> getPrimerosErrores() {
+        return primerosErrores;
+    }
+
+    @Override
+    public String toString() {
+        return "ResumenImportacion{" +
+                "filasLeidas=" + filasLeidas +
+                ", importados=" + importados +
+                ", filasInvalidas=" + filasInvalidas +
+                ", rechazados=" + rechazados +
+                ", filasPorSegundo=" + String.format("%.0f", getFilasPorSegundo()) +
+                '}';
+    }
+}
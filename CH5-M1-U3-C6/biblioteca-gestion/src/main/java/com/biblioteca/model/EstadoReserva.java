@@ -0,0 +1,15 @@
+package com.biblioteca.model;
+
+/**
+ * Estado de una reserva en la cola de espera de un libro
+ */
+public enum EstadoReserva {
+    /** En espera de un ejemplar */
+    PENDIENTE,
+    /** Recibió un ejemplar: el préstamo ya está creado */
+    ATENDIDA,
+    /** El usuario la canceló antes de ser atendida */
+    CANCELADA,
+    /** Le tocó el turno pero el usuario tenía el máximo de préstamos activos */
+    RECHAZADA
+}
@@ -0,0 +1,223 @@
+package com.biblioteca.model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Almacenamiento columnar de los contadores de ejemplares del catálogo.
+ *
+ * Cada libro vinculado recibe un ordinal denso y sus cantidades total y disponible
+ * pasan a vivir en arreglos int[] paralelos; el Libro queda como una vista sobre
+ * esa posición. Los agregados (ejemplares prestados, libros sin disponibilidad)
+ * recorren los arreglos en bucles simples, sin pasar por los objetos Libro.
+ *
+ * Los arreglos se organizan en páginas de tamaño fijo que nunca se mueven, para
+ * que un CAS sobre un contador no se pierda mientras el inventario crece.
+ * Las operaciones sobre un libro son atómicas; los agregados leen sin sincronizar,
+ * por lo que con préstamos en curso reflejan un estado aproximado.
+ */
+public class InventarioColumnar {
+
+    private static final int BITS_PAGINA = 14;
+    private static final int TAMANIO_PAGINA = 1 << BITS_PAGINA;
+    private static final int MASCARA_PAGINA = TAMANIO_PAGINA - 1;
+
+    private static final VarHandle ENTERO = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private static final class Pagina {
+        final int[] totales = new int[TAMANIO_PAGINA];
+        final int[] disponibles = new int[TAMANIO_PAGINA];
+        final Libro[] libros = new Libro[TAMANIO_PAGINA];
+    }
+
+    private volatile Pagina[] paginas = new Pagina[0];
+    private volatile int tamanio;
+
+    /**
+     * Asigna un ordinal al libro y mueve sus contadores al inventario.
+     * Debe llamarse antes de publicar el libro a otros hilos.
+     *
+     * @throws IllegalStateException Si el libro ya estaba vinculado a un inventario
+     */
+    public synchronized void vincular(Libro libro) {
+        int ordinal = tamanio;
+        if ((ordinal & MASCARA_PAGINA) == 0) {
+            Pagina[] actuales = paginas;
+            Pagina[] nuevas = new Pagina[actuales.length + 1];
+            System.arraycopy(actuales, 0, nuevas, 0, actuales.length);
+            nuevas[actuales.length] = new Pagina();
+            paginas = nuevas;
+        }
+        Pagina pagina = paginas[ordinal >>> BITS_PAGINA];
+        int i = ordinal & MASCARA_PAGINA;
+        pagina.totales[i] = libro.getCantidadTotal();
+        pagina.disponibles[i] = libro.getCantidadDisponible();
+        pagina.libros[i] = libro;
+        libro.vincularInventario(this, ordinal);
+        // Escritura volátil: publica el ordinal ya inicializado a los recorridos
+        tamanio = ordinal + 1;
+    }
+
+    /**
+     * @return Cantidad de libros vinculados
+     */
+    public int tamanio() {
+        return tamanio;
+    }
+
+    /**
+     * @return Suma de la cantidad total de ejemplares de todos los libros
+     */
+    public long totalEjemplares() {
+        return sumar(true);
+    }
+
+    /**
+     * @return Suma de los ejemplares disponibles de todos los libros
+     */
+    public long ejemplaresDisponibles() {
+        return sumar(false);
+    }
+
+    /**
+     * @return Ejemplares prestados en este momento (total - disponibles)
+     */
+    public long ejemplaresPrestados() {
+        int n = tamanio;
+        Pagina[] ps = paginas;
+        long prestados = 0;
+        for (int p = 0; p < ps.length && p * TAMANIO_PAGINA < n; p++) {
+            int[] totales = ps[p].totales;
+            int[] disponibles = ps[p].disponibles;
+            int limite = Math.min(TAMANIO_PAGINA, n - p * TAMANIO_PAGINA);
+            for (int i = 0; i < limite; i++) {
+                prestados += totales[i] - disponibles[i];
+            }
+        }
+        return prestados;
+    }
+
+    /**
+     * @return Cantidad de libros sin ejemplares disponibles
+     */
+    public int contarSinDisponibilidad() {
+        int n = tamanio;
+        Pagina[] ps = paginas;
+        int cuenta = 0;
+        for (int p = 0; p < ps.length && p * TAMANIO_PAGINA < n; p++) {
+            int[] disponibles = ps[p].disponibles;
+            int limite = Math.min(TAMANIO_PAGINA, n - p * TAMANIO_PAGINA);
+            for (int i = 0; i < limite; i++) {
+                cuenta += disponibles[i] == 0 ? 1 : 0;
+            }
+        }
+        return cuenta;
+    }
+
+    /**
+     * @return Los libros sin ejemplares disponibles, en orden de vinculación
+     */
+    public List<Libro> listarSinDisponibilidad() {
+        int n = tamanio;
+        Pagina[] ps = paginas;
+        List<Libro> resultado = new ArrayList<>();
+        for (int p = 0; p < ps.length && p * TAMANIO_PAGINA < n; p++) {
+            Pagina pagina = ps[p];
+            int limite = Math.min(TAMANIO_PAGINA, n - p * TAMANIO_PAGINA);
+            for (int i = 0; i < limite; i++) {
+                if (pagina.disponibles[i] == 0) {
+                    resultado.add(pagina.libros[i]);
+                }
+            }
+        }
+        return resultado;
+    }
+
+    // --- Acceso por ordinal, usado por Libro ---
+
+    int total(int ordinal) {
+        return (int) ENTERO.getVolatile(pagina(ordinal).totales, ordinal & MASCARA_PAGINA);
+    }
+
+    void setTotal(int ordinal, int valor) {
+        ENTERO.setVolatile(pagina(ordinal).totales, ordinal & MASCARA_PAGINA, valor);
+    }
+
+    int disponible(int ordinal) {
+        return (int) ENTERO.getVolatile(pagina(ordinal).disponibles, ordinal & MASCARA_PAGINA);
+    }
+
+    void setDisponible(int ordinal, int valor) {
+        ENTERO.setVolatile(pagina(ordinal).disponibles, ordinal & MASCARA_PAGINA, valor);
+    }
+
+    int reemplazarDisponible(int ordinal, int valor) {
+        return (int) ENTERO.getAndSet(pagina(ordinal).disponibles, ordinal & MASCARA_PAGINA, valor);
+    }
+
+    /**
+     * Suma la diferencia a los disponibles, acotando el resultado entre 0 y el total
+     */
+    void ajustarDisponible(int ordinal, int diferencia) {
+        Pagina pagina = pagina(ordinal);
+        int i = ordinal & MASCARA_PAGINA;
+        int actual;
+        int nuevo;
+        do {
+            actual = (int) ENTERO.getVolatile(pagina.disponibles, i);
+            nuevo = Math.max(0, Math.min(actual + diferencia, (int) ENTERO.getVolatile(pagina.totales, i)));
+        } while (!ENTERO.compareAndSet(pagina.disponibles, i, actual, nuevo));
+    }
+
+    /**
+     * Toma un ejemplar si hay alguno disponible (CAS sobre la columna)
+     */
+    boolean prestar(int ordinal) {
+        int[] disponibles = pagina(ordinal).disponibles;
+        int i = ordinal & MASCARA_PAGINA;
+        int actual;
+        do {
+            actual = (int) ENTERO.getVolatile(disponibles, i);
+            if (actual <= 0) {
+                return false;
+            }
+        } while (!ENTERO.compareAndSet(disponibles, i, actual, actual - 1));
+        return true;
+    }
+
+    /**
+     * Repone un ejemplar sin superar la cantidad total
+     */
+    boolean devolver(int ordinal) {
+        Pagina pagina = pagina(ordinal);
+        int i = ordinal & MASCARA_PAGINA;
+        int actual;
+        do {
+            actual = (int) ENTERO.getVolatile(pagina.disponibles, i);
+            if (actual >= (int) ENTERO.getVolatile(pagina.totales, i)) {
+                return false;
+            }
+        } while (!ENTERO.compareAndSet(pagina.disponibles, i, actual, actual + 1));
+        return true;
+    }
+
+    private Pagina pagina(int ordinal) {
+        return paginas[ordinal >>> BITS_PAGINA];
+    }
+
+    private long sumar(boolean totales) {
+        int n = tamanio;
+        Pagina[] ps = paginas;
+        long resultado = 0;
+        for (int p = 0; p < ps.length && p * TAMANIO_PAGINA < n; p++) {
+            int[] columna = totales ? ps[p].totales : ps[p].disponibles;
+            int limite = Math.min(TAMANIO_PAGINA, n - p * TAMANIO_PAGINA);
+            for (int i = 0; i < limite; i++) {
+                resultado += columna[i];
+            }
+        }
+        return resultado;
+    }
+}
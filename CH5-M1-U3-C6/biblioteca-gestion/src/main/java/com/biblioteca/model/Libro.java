@@ -1,16 +1,43 @@
 package com.biblioteca.model;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.Objects;
 
 /**
  * Modelo que representa un libro en la biblioteca
  */
 public class Libro {
+
+    // CAS sobre estado: prestar/devolver son atómicos sin necesidad de locks
+    private static final VarHandle ESTADO;
+    // Bits de estado: versión del último cambio (32 altos), marca de lectura y disponibles
+    private static final long LEIDO = 1L << 31;
+    private static final long MASCARA_DISPONIBLE = LEIDO - 1;
+
+    static {
+        try {
+            ESTADO = MethodHandles.lookup().findVarHandle(Libro.class, "estado", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private String isbn;
-    private String titulo;
-    private String autor;
-    private int cantidadTotal;
-    private int cantidadDisponible;
+    // Volátiles: LibroService los relee al instalar el observador y al reindexar
+    private volatile String titulo;
+    private volatile String autor;
+    private volatile int cantidadTotal;
+    // Cantidad disponible, versión con que se escribió y si ya la leyó una instantánea
+    private volatile long estado;
+    // Disponibles anteriores que alguna instantánea abierta puede leer, del más nuevo al más viejo
+    private volatile VersionAnterior anteriores;
+    private RelojVersiones reloj;
+    // Servicio que indexa este libro (null mientras no esté registrado)
+    private volatile ObservadorLibro observador;
+    // Si no es null, las cantidades viven en el inventario columnar y estos campos no se usan
+    private InventarioColumnar inventario;
+    private int ordinal;
 
     public Libro() {
     }
@@ -20,7 +47,7 @@ public class Libro {
         this.titulo = titulo;
         this.autor = autor;
         this.cantidadTotal = cantidadTotal;
-        this.cantidadDisponible = cantidadTotal;
+        this.estado = cantidadTotal;
     }
 
     public String getIsbn() {
@@ -36,7 +63,19 @@ public class Libro {
     }
 
     public void setTitulo(String titulo) {
-        this.titulo = titulo;
+        ObservadorLibro o = observador;
+        if (o == null) {
+            this.titulo = titulo;
+            return;
+        }
+        String anterior;
+        // Aviso previo y escritura en un paso (mismo monitor que setAutor)
+        synchronized (this) {
+            o.tituloPorCambiar(this, titulo);
+            anterior = this.titulo;
+            this.titulo = titulo;
+        }
+        o.tituloCambiado(this, anterior);
     }
 
     public String getAutor() {
@@ -44,23 +83,148 @@ public class Libro {
     }
 
     public void setAutor(String autor) {
-        this.autor = autor;
+        ObservadorLibro o = observador;
+        if (o == null) {
+            this.autor = autor;
+            return;
+        }
+        String anterior;
+        synchronized (this) {
+            o.autorPorCambiar(this, autor);
+            anterior = this.autor;
+            this.autor = autor;
+        }
+        o.autorCambiado(this, anterior);
+    }
+
+    public void setObservador(ObservadorLibro observador) {
+        this.observador = observador;
+    }
+
+    /**
+     * Sella los cambios de disponibilidad con las versiones del reloj, para que las
+     * instantáneas abiertas con él puedan leerla. Debe llamarse antes de publicar el libro.
+     */
+    public void setRelojVersiones(RelojVersiones reloj) {
+        this.reloj = reloj;
+    }
+
+    /**
+     * Pasa las cantidades de este libro al inventario columnar (lo llama InventarioColumnar.vincular)
+     */
+    void vincularInventario(InventarioColumnar inventario, int ordinal) {
+        if (this.inventario != null) {
+            throw new IllegalStateException("El libro " + isbn + " ya está vinculado a un inventario");
+        }
+        this.ordinal = ordinal;
+        this.inventario = inventario;
     }
 
     public int getCantidadTotal() {
-        return cantidadTotal;
+        InventarioColumnar inv = inventario;
+        return inv != null ? inv.total(ordinal) : cantidadTotal;
     }
 
     public void setCantidadTotal(int cantidadTotal) {
-        this.cantidadTotal = cantidadTotal;
+        InventarioColumnar inv = inventario;
+        if (inv != null) {
+            inv.setTotal(ordinal, cantidadTotal);
+        } else {
+            this.cantidadTotal = cantidadTotal;
+        }
     }
 
     public int getCantidadDisponible() {
-        return cantidadDisponible;
+        InventarioColumnar inv = inventario;
+        return inv != null ? inv.disponible(ordinal) : disponibles(estado);
     }
 
     public void setCantidadDisponible(int cantidadDisponible) {
-        this.cantidadDisponible = cantidadDisponible;
+        InventarioColumnar inv = inventario;
+        if (inv != null) {
+            inv.setDisponible(ordinal, cantidadDisponible);
+        } else {
+            while (!escribir(estado, cantidadDisponible)) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * Fija la cantidad disponible en un solo paso atómico con la lectura de la anterior:
+     * la diferencia entre ambas es exacta aunque haya préstamos en curso
+     *
+     * @return La cantidad disponible reemplazada
+     */
+    public int reemplazarDisponible(int cantidadDisponible) {
+        InventarioColumnar inv = inventario;
+        if (inv != null) {
+            return inv.reemplazarDisponible(ordinal, cantidadDisponible);
+        }
+        long e;
+        do {
+            e = estado;
+        } while (!escribir(e, cantidadDisponible));
+        return disponibles(e);
+    }
+
+    /**
+     * Suma la diferencia a la cantidad disponible, sin bajar de 0 ni superar la cantidad total
+     */
+    public void ajustarDisponible(int diferencia) {
+        InventarioColumnar inv = inventario;
+        if (inv != null) {
+            inv.ajustarDisponible(ordinal, diferencia);
+            return;
+        }
+        long e;
+        do {
+            e = estado;
+        } while (!escribir(e, Math.max(0, Math.min(disponibles(e) + diferencia, cantidadTotal))));
+    }
+
+    /**
+     * Cantidad disponible que ve una instantánea: el último valor escrito con una
+     * versión menor a la suya. Dos lecturas con la misma versión dan siempre lo mismo,
+     * aunque haya préstamos en curso.
+     *
+     * @param version Versión de una instantánea abierta con el reloj de este libro
+     * @throws IllegalStateException Si el libro usa un inventario columnar o la versión
+     *                               ya no se conserva (instantánea cerrada)
+     */
+    public int getCantidadDisponibleEn(int version) {
+        if (inventario != null) {
+            throw new IllegalStateException("El libro " + isbn + " no guarda versiones en un inventario columnar");
+        }
+        long e = estado;
+        if (version(e) < version) {
+            return leerParaInstantanea(version);
+        }
+        for (VersionAnterior v = anteriores; v != null; v = v.siguiente) {
+            if (v.version < version) {
+                return v.disponible;
+            }
+        }
+        throw new IllegalStateException("La versión " + version + " del libro " + isbn + " ya no se conserva");
+    }
+
+    /**
+     * Lee el valor vigente y lo marca como leído. La marca hace fallar el CAS de un
+     * préstamo que empezó antes de abrirse la instantánea: al reintentar ve la versión
+     * nueva y conserva este valor antes de reemplazarlo. El lock excluye a los que ya
+     * estaban conservando un valor anterior con la versión vieja.
+     */
+    private synchronized int leerParaInstantanea(int version) {
+        while (true) {
+            long e = estado;
+            if (version(e) >= version) {
+                // Cambió entre la lectura sin lock y esta: el valor está en las anteriores
+                return getCantidadDisponibleEn(version);
+            }
+            if ((e & LEIDO) != 0 || ESTADO.compareAndSet(this, e, e | LEIDO)) {
+                return disponibles(e);
+            }
+        }
     }
 
     /**
@@ -68,29 +232,112 @@ public class Libro {
      */
     //true - false
     public boolean estaDisponible() {
-        return cantidadDisponible > 0;
+        return getCantidadDisponible() > 0;
     }
 
     /**
-     * Disminuye la cantidad disponible (cuando se presta)
+     * Disminuye la cantidad disponible (cuando se presta).
+     * La verificación y el decremento son un único paso atómico.
+     *
+     * @return true si se pudo tomar un ejemplar, false si no había disponibles
      */
-    public void prestar() {
-        if (cantidadDisponible > 0) {
-            cantidadDisponible--;
+    public boolean prestar() {
+        InventarioColumnar inv = inventario;
+        if (inv != null) {
+            return inv.prestar(ordinal);
         }
+        long e;
+        int actual;
+        do {
+            e = estado;
+            actual = disponibles(e);
+            if (actual <= 0) {
+                return false;
+            }
+        } while (!escribir(e, actual - 1));
+        return true;
     }
 
     /**
-     * Aumenta la cantidad disponible (cuando se devuelve)
+     * Aumenta la cantidad disponible (cuando se devuelve), sin superar la cantidad total
+     *
+     * @return true si se repuso el ejemplar, false si ya estaban todos disponibles
      */
 //    public void devolver() {
 //        if (cantidadDisponible < cantidadTotal) {
 //            cantidadDisponible++;
 //        }
 //    }
-    public void devolver() {
-        if (cantidadDisponible < cantidadTotal) {
-            cantidadDisponible++;
+    public boolean devolver() {
+        InventarioColumnar inv = inventario;
+        if (inv != null) {
+            return inv.devolver(ordinal);
+        }
+        long e;
+        int actual;
+        do {
+            e = estado;
+            actual = disponibles(e);
+            if (actual >= cantidadTotal) {
+                return false;
+            }
+        } while (!escribir(e, actual + 1));
+        return true;
+    }
+
+    /**
+     * Reemplaza el estado e por la nueva cantidad disponible
+     *
+     * @return false si el estado ya no era e
+     */
+    private boolean escribir(long e, int disponible) {
+        RelojVersiones r = reloj;
+        // Sin instantáneas nuevas desde el último cambio: un CAS, como siempre
+        if (r == null || ((e & LEIDO) == 0 && r.actual() <= version(e))) {
+            return ESTADO.compareAndSet(this, e, (e & ~MASCARA_DISPONIBLE) | disponible);
+        }
+        return escribirVersionNueva(e, disponible, r);
+    }
+
+    /**
+     * Primer cambio desde que se abrió una instantánea: conserva el valor que se
+     * reemplaza si alguna instantánea abierta lo puede necesitar
+     */
+    private synchronized boolean escribirVersionNueva(long e, int disponible, RelojVersiones r) {
+        int actual = Math.max(r.actual(), version(e));
+        int minima = r.minimaAbierta();
+        VersionAnterior previas = anteriores;
+        if (actual > version(e)) {
+            // Lo necesitan las instantáneas entre version(e) y actual; las anteriores, solo
+            // si alguna es más vieja que version(e)
+            anteriores = minima <= actual
+                    ? new VersionAnterior(version(e), disponibles(e), minima <= version(e) ? previas : null)
+                    : null;
+        }
+        if (ESTADO.compareAndSet(this, e, ((long) actual << 32) | disponible)) {
+            return true;
+        }
+        anteriores = previas;
+        return false;
+    }
+
+    private static int version(long e) {
+        return (int) (e >>> 32);
+    }
+
+    private static int disponibles(long e) {
+        return (int) (e & MASCARA_DISPONIBLE);
+    }
+
+    private static final class VersionAnterior {
+        final int version;
+        final int disponible;
+        final VersionAnterior siguiente;
+
+        VersionAnterior(int version, int disponible, VersionAnterior siguiente) {
+            this.version = version;
+            this.disponible = disponible;
+            this.siguiente = siguiente;
         }
     }
 
@@ -114,12 +361,12 @@ public class Libro {
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) return false;
         Libro libro = (Libro) o;
-        return cantidadTotal == libro.cantidadTotal && cantidadDisponible == libro.cantidadDisponible && Objects.equals(isbn, libro.isbn) && Objects.equals(titulo, libro.titulo) && Objects.equals(autor, libro.autor);
+        return getCantidadTotal() == libro.getCantidadTotal() && getCantidadDisponible() == libro.getCantidadDisponible() && Objects.equals(isbn, libro.isbn) && Objects.equals(titulo, libro.titulo) && Objects.equals(autor, libro.autor);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(isbn, titulo, autor, cantidadTotal, cantidadDisponible);
+        return Objects.hash(isbn, titulo, autor, getCantidadTotal(), getCantidadDisponible());
     }
 
     @Override
@@ -128,8 +375,8 @@ public class Libro {
                 "isbn='" + isbn + '\'' +
                 ", titulo='" + titulo + '\'' +
                 ", autor='" + autor + '\'' +
-                ", cantidadTotal=" + cantidadTotal +
-                ", cantidadDisponible=" + cantidadDisponible +
+                ", cantidadTotal=" + getCantidadTotal() +
+                ", cantidadDisponible=" + getCantidadDisponible() +
                 '}';
     }
 }
@@ -0,0 +1,23 @@
+package com.biblioteca.model;
+
+/**
+ * Recibe los cambios de los datos descriptivos de un libro ya registrado,
+ * para que los servicios mantengan al día sus índices.
+ */
+public interface ObservadorLibro {
+
+    /**
+     * Se llama antes de escribir el título, con el libro bloqueado: los cambios del
+     * mismo libro llegan acá en el orden en que se escriben. Si lanza, el título no cambia.
+     */
+    void tituloPorCambiar(Libro libro, String titulo);
+
+    void tituloCambiado(Libro libro, String tituloAnterior);
+
+    /**
+     * Como tituloPorCambiar, para el autor
+     */
+    void autorPorCambiar(Libro libro, String autor);
+
+    void autorCambiado(Libro libro, String autorAnterior);
+}
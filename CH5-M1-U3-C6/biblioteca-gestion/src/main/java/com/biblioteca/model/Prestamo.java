@@ -4,20 +4,34 @@ import java.time.LocalDate;
 
 /**
  * Modelo que representa un préstamo de libro
+ *
+ * El id es un número de 64 bits; el texto "PREST-n" se arma recién cuando alguien
+ * lo pide (API, persistencia, mensajes) y queda guardado.
  */
 public class Prestamo {
+    public static final String PREFIJO_ID = "PREST-";
+
+    // -1 si el id no tiene el formato PREFIJO_ID + número
+    private long numero = -1;
     private String id;
     private String isbnLibro;
     private String idUsuario;
     private LocalDate fechaPrestamo;
     private LocalDate fechaDevolucion;
+    private LocalDate fechaVencimiento;
+    private int renovaciones;
     private boolean activo;
     
     public Prestamo() {
     }
     
     public Prestamo(String id, String isbnLibro, String idUsuario, LocalDate fechaPrestamo) {
+        this(numeroDeId(id), isbnLibro, idUsuario, fechaPrestamo);
         this.id = id;
+    }
+    
+    public Prestamo(long numero, String isbnLibro, String idUsuario, LocalDate fechaPrestamo) {
+        this.numero = numero;
         this.isbnLibro = isbnLibro;
         this.idUsuario = idUsuario;
         this.fechaPrestamo = fechaPrestamo;
@@ -25,11 +39,25 @@ public class Prestamo {
     }
     
     public String getId() {
-        return id;
+        String texto = id;
+        if (texto == null && numero >= 0) {
+            // Carrera benigna: dos hilos pueden armar el mismo String
+            texto = PREFIJO_ID + numero;
+            id = texto;
+        }
+        return texto;
     }
     
     public void setId(String id) {
         this.id = id;
+        this.numero = numeroDeId(id);
+    }
+    
+    /**
+     * @return El número del id, o -1 si el id no tiene el formato "PREST-n"
+     */
+    public long getNumero() {
+        return numero;
     }
     
     public String getIsbnLibro() {
@@ -64,6 +92,37 @@ public class Prestamo {
         this.fechaDevolucion = fechaDevolucion;
     }
     
+    public LocalDate getFechaVencimiento() {
+        return fechaVencimiento;
+    }
+    
+    public void setFechaVencimiento(LocalDate fechaVencimiento) {
+        this.fechaVencimiento = fechaVencimiento;
+    }
+    
+    public int getRenovaciones() {
+        return renovaciones;
+    }
+    
+    public void setRenovaciones(int renovaciones) {
+        this.renovaciones = renovaciones;
+    }
+    
+    /**
+     * Verifica si el préstamo sigue activo después de su fecha de vencimiento
+     */
+    public boolean estaVencido(LocalDate hoy) {
+        return activo && fechaVencimiento != null && fechaVencimiento.isBefore(hoy);
+    }
+    
+    /**
+     * Extiende el préstamo hasta una nueva fecha de vencimiento
+     */
+    public void renovar(LocalDate nuevoVencimiento) {
+        this.fechaVencimiento = nuevoVencimiento;
+        this.renovaciones++;
+    }
+    
     public boolean isActivo() {
         return activo;
     }
@@ -80,14 +139,35 @@ public class Prestamo {
         this.fechaDevolucion = fechaDevolucion;
     }
     
+    /**
+     * @return El número de un id "PREST-n", o -1 si el id no tiene ese formato
+     */
+    public static long numeroDeId(String id) {
+        if (id == null || !id.startsWith(PREFIJO_ID) || id.length() == PREFIJO_ID.length()
+                || id.length() > PREFIJO_ID.length() + 19) {
+            return -1;
+        }
+        long numero = 0;
+        for (int i = PREFIJO_ID.length(); i < id.length(); i++) {
+            int digito = id.charAt(i) - '0';
+            if (digito < 0 || digito > 9 || numero > (Long.MAX_VALUE - digito) / 10) {
+                return -1;
+            }
+            numero = numero * 10 + digito;
+        }
+        return numero;
+    }
+    
     @Override
     public String toString() {
         return "Prestamo{" +
-                "id='" + id + '\'' +
+                "id='" + getId() + '\'' +
                 ", isbnLibro='" + isbnLibro + '\'' +
                 ", idUsuario='" + idUsuario + '\'' +
                 ", fechaPrestamo=" + fechaPrestamo +
                 ", fechaDevolucion=" + fechaDevolucion +
+                ", fechaVencimiento=" + fechaVencimiento +
+                ", renovaciones=" + renovaciones +
                 ", activo=" + activo +
                 '}';
     }
@@ -0,0 +1,62 @@
+package com.biblioteca.model;
+
+import java.util.TreeSet;
+
+/**
+ * Reloj de versiones del inventario para lecturas por instantánea (MVCC).
+ *
+ * Cada instantánea abierta avanza el reloj y se queda con la versión anterior a ese
+ * avance como punto de lectura. Los libros sellan cada cambio de disponibilidad con
+ * la versión actual y, en el primer cambio tras abrirse una instantánea, conservan el
+ * valor anterior para que ella lo siga viendo (ver Libro#getCantidadDisponibleEn).
+ *
+ * Abrir y cerrar instantáneas es raro (reportes) y se sincroniza; los préstamos solo
+ * leen dos campos volátiles.
+ */
+public final class RelojVersiones {
+
+    private volatile int actual = 1;
+    // Versión más antigua que alguna instantánea sigue leyendo (MAX_VALUE si no hay)
+    private volatile int minimaAbierta = Integer.MAX_VALUE;
+    private final TreeSet<Integer> abiertas = new TreeSet<>();
+
+    /**
+     * @return Versión con la que se sellan los cambios hechos ahora
+     */
+    public int actual() {
+        return actual;
+    }
+
+    /**
+     * @return La versión más baja que lee alguna instantánea abierta, o Integer.MAX_VALUE
+     */
+    public int minimaAbierta() {
+        return minimaAbierta;
+    }
+
+    /**
+     * Abre una instantánea: avanza el reloj y ve los cambios sellados con versiones
+     * menores a la devuelta
+     *
+     * @return Versión de lectura, que debe devolverse con cerrar
+     */
+    public synchronized int abrir() {
+        if (actual == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Se agotaron las versiones del inventario");
+        }
+        int version = actual + 1;
+        abiertas.add(version);
+        // Primero se anuncia la lectura y después se avanza el reloj: quien vea la
+        // versión nueva ya ve que hay una instantánea que necesita los valores previos
+        minimaAbierta = abiertas.first();
+        actual = version;
+        return version;
+    }
+
+    public synchronized void cerrar(int version) {
+        if (!abiertas.remove(version)) {
+            throw new IllegalArgumentException("No hay una instantánea abierta con versión " + version);
+        }
+        minimaAbierta = abiertas.isEmpty() ? Integer.MAX_VALUE : abiertas.first();
+    }
+}
@@ -0,0 +1,79 @@
+package com.biblioteca.model;
+
+import java.time.LocalDate;
+
+/**
+ * Lugar de un usuario en la cola de espera de un libro.
+ *
+ * PrestamoService cambia el estado con el lock del usuario tomado, así que una
+ * cancelación y la entrega de un ejemplar nunca se pisan; los campos son
+ * volátiles para que el usuario pueda consultar la reserva sin locks.
+ */
+public class Reserva {
+
+    private final String isbn;
+    private final String idUsuario;
+    private final LocalDate fechaReserva;
+    private volatile EstadoReserva estado = EstadoReserva.PENDIENTE;
+    private volatile Prestamo prestamo;
+
+    public Reserva(String isbn, String idUsuario, LocalDate fechaReserva) {
+        this.isbn = isbn;
+        this.idUsuario = idUsuario;
+        this.fechaReserva = fechaReserva;
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+
+    public String getIdUsuario() {
+        return idUsuario;
+    }
+
+    public LocalDate getFechaReserva() {
+        return fechaReserva;
+    }
+
+    public EstadoReserva getEstado() {
+        return estado;
+    }
+
+    /**
+     * @return El préstamo creado al atender la reserva, o null si no fue atendida
+     */
+    public Prestamo getPrestamo() {
+        return prestamo;
+    }
+
+    public boolean estaPendiente() {
+        return estado == EstadoReserva.PENDIENTE;
+    }
+
+    /**
+     * Marca la reserva como atendida con el préstamo creado.
+     * El préstamo se publica antes que el estado: quien ve ATENDIDA ve el préstamo.
+     */
+    public void atender(Prestamo prestamo) {
+        this.prestamo = prestamo;
+        this.estado = EstadoReserva.ATENDIDA;
+    }
+
+    public void cancelar() {
+        this.estado = EstadoReserva.CANCELADA;
+    }
+
+    public void rechazar() {
+        this.estado = EstadoReserva.RECHAZADA;
+    }
+
+    @Override
+    public String toString() {
+        return "Reserva{" +
+                "isbn='" + isbn + '\'' +
+                ", idUsuario='" + idUsuario + '\'' +
+                ", fechaReserva=" + fechaReserva +
+                ", estado=" + estado +
+                '}';
+    }
+}
@@ -0,0 +1,30 @@
+package com.biblioteca.model;
+
+/**
+ * Pedido de préstamo de un libro para un usuario, usado en los préstamos por lotes
+ */
+public class SolicitudPrestamo {
+    private final String isbn;
+    private final String idUsuario;
+
+    public SolicitudPrestamo(String isbn, String idUsuario) {
+        this.isbn = isbn;
+        this.idUsuario = idUsuario;
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+
+    public String getIdUsuario() {
+        return idUsuario;
+    }
+
+    @Override
+    public String toString() {
+        return "SolicitudPrestamo{" +
+                "isbn='" + isbn + '\'' +
+                ", idUsuario='" + idUsuario + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,195 @@
+package com.biblioteca.particionado;
+
+import com.biblioteca.concurrencia.Ejecutores;
+import com.biblioteca.model.Libro;
+import com.biblioteca.model.Prestamo;
+import com.biblioteca.model.Reserva;
+import com.biblioteca.service.CodecIsbn;
+import com.biblioteca.service.CupoPrestamos;
+import com.biblioteca.service.GeneradorIdPrestamo;
+import com.biblioteca.service.LibroService;
+import com.biblioteca.service.PrestamoService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Catálogo y préstamos repartidos en N particiones, cada una con su propio
+ * LibroService y PrestamoService, detrás de una capa de ruteo.
+ *
+ * <ul>
+ *   <li>Libros: cada ISBN vive en una sola partición, elegida por hash del ISBN.
+ *   Préstamos, devoluciones, renovaciones y reservas de un libro van a su partición,
+ *   así que operaciones sobre libros de particiones distintas no comparten nada.</li>
+ *   <li>Límite por usuario: cada usuario tiene una partición "de origen" (por hash
+ *   del id) que lleva la cuenta de sus préstamos activos en todas las particiones
+ *   (CuposUsuarios). Ocupar un lugar es un CAS, sin lock global.</li>
+ *   <li>Ids de préstamo: cada partición genera ids por nodo (su número), así que
+ *   no se repiten entre particiones.</li>
+ *   <li>Búsquedas por título o autor y préstamos de un usuario: se consultan todas
+ *   las particiones en paralelo y se juntan los resultados (scatter-gather).</li>
+ * </ul>
+ *
+ * Las particiones son instancias en el mismo proceso; CupoPrestamos es el punto
+ * donde iría la llamada remota a la partición de origen del usuario.
+ */
+public class BibliotecaParticionada {
+
+    private final LibroService[] libros;
+    private final PrestamoService[] prestamos;
+    private final CuposUsuarios[] cupos;
+    private final ExecutorService consultas;
+
+    /**
+     * @param particiones Cantidad de particiones (de 1 a GeneradorIdPrestamo.MAX_NODO + 1)
+     */
+    public BibliotecaParticionada(int particiones) {
+        this(particiones, 16);
+    }
+
+    /**
+     * @param capacidadPorParticion Libros previstos en cada partición
+     * @throws IllegalArgumentException Si la cantidad de particiones está fuera de rango
+     */
+    public BibliotecaParticionada(int particiones, int capacidadPorParticion) {
+        if (particiones < 1 || particiones > GeneradorIdPrestamo.MAX_NODO + 1) {
+            throw new IllegalArgumentException("Cantidad de particiones inválida: " + particiones);
+        }
+        libros = new LibroService[particiones];
+        prestamos = new PrestamoService[particiones];
+        cupos = new CuposUsuarios[particiones];
+        for (int i = 0; i < particiones; i++) {
+            cupos[i] = new CuposUsuarios();
+        }
+        CupoPrestamos cupoPorOrigen = new CupoPrestamos() {
+            @Override
+            public boolean ocupar(String idUsuario, int maximo) {
+                return cupoDe(idUsuario).ocupar(idUsuario, maximo);
+            }
+
+            @Override
+            public void liberar(String idUsuario) {
+                cupoDe(idUsuario).liberar(idUsuario);
+            }
+        };
+        for (int i = 0; i < particiones; i++) {
+            libros[i] = new LibroService(capacidadPorParticion);
+            prestamos[i] = new PrestamoService(libros[i], new GeneradorIdPrestamo(i), cupoPorOrigen);
+        }
+        consultas = Ejecutores.unHiloPorTarea("particion");
+    }
+
+    public int getCantidadParticiones() {
+        return libros.length;
+    }
+
+    /**
+     * @return La partición a la que pertenece el ISBN
+     */
+    public int particionDe(String isbn) {
+        long codigo = CodecIsbn.codificar(isbn);
+        long hash = codigo == CodecIsbn.INVALIDO ? isbn.hashCode() : codigo;
+        // Los ISBN suelen ser consecutivos: se mezclan los bits antes de repartir
+        return (int) Math.floorMod((hash * 0x9E3779B97F4A7C15L) >>> 32, (long) libros.length);
+    }
+
+    public LibroService getLibroService(int particion) {
+        return libros[particion];
+    }
+
+    public PrestamoService getPrestamoService(int particion) {
+        return prestamos[particion];
+    }
+
+    public Libro registrarLibro(String isbn, String titulo, String autor, int cantidad) {
+        return libros[particionDe(isbn)].registrarLibro(isbn, titulo, autor, cantidad);
+    }
+
+    /**
+     * @throws com.biblioteca.exception.LibroNoEncontradoException Si el libro no existe
+     */
+    public Libro buscarPorISBN(String isbn) {
+        return libros[particionDe(isbn)].buscarPorISBN(isbn);
+    }
+
+    /**
+     * Igual que PrestamoService.prestarLibro, con el límite por usuario contado
+     * en todas las particiones
+     */
+    public Prestamo prestarLibro(String isbn, String idUsuario) {
+        return prestamos[particionDe(isbn)].prestarLibro(isbn, idUsuario);
+    }
+
+    public void devolverLibro(String isbn, String idUsuario) {
+        prestamos[particionDe(isbn)].devolverLibro(isbn, idUsuario);
+    }
+
+    public Prestamo renovarPrestamo(String isbn, String idUsuario) {
+        return prestamos[particionDe(isbn)].renovarPrestamo(isbn, idUsuario);
+    }
+
+    public Reserva reservarLibro(String isbn, String idUsuario) {
+        return prestamos[particionDe(isbn)].reservarLibro(isbn, idUsuario);
+    }
+
+    /**
+     * @return Préstamos activos del usuario en todas las particiones (sin consultarlas)
+     */
+    public int contarPrestamosActivos(String idUsuario) {
+        return cupoDe(idUsuario).ocupados(idUsuario);
+    }
+
+    public List<Prestamo> obtenerPrestamosActivos(String idUsuario) {
+        return reunir(i -> prestamos[i].obtenerPrestamosActivos(idUsuario));
+    }
+
+    /**
+     * @return Los libros de todas las particiones que coinciden, partición por partición
+     */
+    public List<Libro> buscarPorTitulo(String titulo) {
+        return reunir(i -> libros[i].buscarPorTitulo(titulo));
+    }
+
+    public List<Libro> buscarPorAutor(String autor) {
+        return reunir(i -> libros[i].buscarPorAutor(autor));
+    }
+
+    private CuposUsuarios cupoDe(String idUsuario) {
+        int hash = idUsuario.hashCode();
+        return cupos[Math.floorMod(hash ^ (hash >>> 16), cupos.length)];
+    }
+
+    /**
+     * Consulta todas las particiones en paralelo (la primera en el hilo que llama)
+     * y concatena los resultados en orden de partición
+     */
+    private <T> List<T> reunir(Function<Integer, List<T>> consulta) {
+        if (libros.length == 1) {
+            return new ArrayList<>(consulta.apply(0));
+        }
+        List<Future<List<T>>> pendientes = new ArrayList<>(libros.length - 1);
+        for (int i = 1; i < libros.length; i++) {
+            int particion = i;
+            pendientes.add(consultas.submit(() -> consulta.apply(particion)));
+        }
+        List<T> resultado = new ArrayList<>(consulta.apply(0));
+        try {
+            for (Future<List<T>> pendiente : pendientes) {
+                resultado.addAll(pendiente.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Consulta interrumpida", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return resultado;
+    }
+}
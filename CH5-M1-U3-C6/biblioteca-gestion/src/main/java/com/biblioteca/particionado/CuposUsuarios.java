@@ -0,0 +1,47 @@
+package com.biblioteca.particionado;
+
+import com.biblioteca.service.CupoPrestamos;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Préstamos activos por usuario, contados con un AtomicInteger por usuario.
+ *
+ * Ocupar un lugar es un CAS que solo avanza si el usuario sigue por debajo del
+ * máximo: dos particiones que prestan al mismo usuario a la vez no pueden pasarse
+ * del límite y ninguna espera a la otra.
+ */
+public class CuposUsuarios implements CupoPrestamos {
+
+    private final ConcurrentHashMap<String, AtomicInteger> ocupados = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean ocupar(String idUsuario, int maximo) {
+        AtomicInteger contador = ocupados.computeIfAbsent(idUsuario, k -> new AtomicInteger());
+        int actual;
+        do {
+            actual = contador.get();
+            if (actual >= maximo) {
+                return false;
+            }
+        } while (!contador.compareAndSet(actual, actual + 1));
+        return true;
+    }
+
+    @Override
+    public void liberar(String idUsuario) {
+        AtomicInteger contador = ocupados.get(idUsuario);
+        if (contador != null) {
+            contador.decrementAndGet();
+        }
+    }
+
+    /**
+     * @return Préstamos activos del usuario en todas las particiones
+     */
+    public int ocupados(String idUsuario) {
+        AtomicInteger contador = ocupados.get(idUsuario);
+        return contador == null ? 0 : contador.get();
+    }
+}
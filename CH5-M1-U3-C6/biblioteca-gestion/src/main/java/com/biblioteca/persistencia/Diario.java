@@ -0,0 +1,333 @@
+package com.biblioteca.persistencia;
+
+import com.biblioteca.model.Libro;
+import com.biblioteca.model.Prestamo;
+import com.biblioteca.model.Reserva;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Diario de escritura anticipada (write-ahead log), de solo agregado.
+ *
+ * Cada evento se codifica fuera del lock en un buffer del hilo y se copia a un
+ * buffer compartido; el lock solo cubre esa copia. El buffer se vuelca al
+ * FileChannel cuando se llena o al sincronizar, y un único fsync cubre todos los
+ * eventos escritos hasta ese momento (group commit).
+ *
+ * Formato de cada registro: [int largo][int crc32c][long secuencia][payload],
+ * donde el CRC cubre la secuencia y el payload. Los préstamos y las reservas comparten
+ * el payload [idPrestamo][isbn][idUsuario][fecha]; en las reservas el préstamo es null
+ * salvo al atenderlas.
+ */
+public class Diario implements Closeable {
+
+    static final String PREFIJO_ARCHIVO = "diario-";
+    static final String EXTENSION = ".log";
+    static final int CABECERA = Integer.BYTES + Integer.BYTES;
+
+    private static final int TAMANIO_BUFFER = 1 << 20;
+    private static final int TAMANIO_BUFFER_HILO = 4 * 1024;
+
+    private static final ThreadLocal<ByteBuffer> BUFFER_HILO =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocate(TAMANIO_BUFFER_HILO));
+
+    private final Path directorio;
+    private final ReentrantLock bloqueo = new ReentrantLock();
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANIO_BUFFER);
+    private final CRC32C crc = new CRC32C();
+    private final Object monitorSincronizacion = new Object();
+
+    private FileChannel canal;
+    private long segmento;
+    private long secuencia;
+    private long secuenciaEscrita;
+    private volatile long secuenciaDurable;
+
+    /**
+     * @param directorio Directorio del diario
+     * @param segmento Número de segmento donde empezar a escribir (archivo nuevo o existente)
+     * @param ultimaSecuencia Última secuencia ya usada; la próxima será ultimaSecuencia + 1
+     */
+    public Diario(Path directorio, long segmento, long ultimaSecuencia) throws IOException {
+        this.directorio = directorio;
+        this.segmento = segmento;
+        this.secuencia = ultimaSecuencia;
+        this.secuenciaEscrita = ultimaSecuencia;
+        this.secuenciaDurable = ultimaSecuencia;
+        this.canal = abrirSegmento(segmento);
+    }
+
+    static Path archivoSegmento(Path directorio, long segmento) {
+        return directorio.resolve(String.format("%s%010d%s", PREFIJO_ARCHIVO, segmento, EXTENSION));
+    }
+
+    public long libroRegistrado(Libro libro) throws IOException {
+        ByteBuffer b = bufferHilo(TipoEvento.LIBRO_REGISTRADO);
+        b = escribirTexto(b, libro.getIsbn());
+        b = escribirTexto(b, libro.getTitulo());
+        b = escribirTexto(b, libro.getAutor());
+        b.putInt(libro.getCantidadTotal());
+        return agregar(b);
+    }
+
+    public long libroActualizado(String isbn, String titulo, String autor) throws IOException {
+        ByteBuffer b = bufferHilo(TipoEvento.LIBRO_ACTUALIZADO);
+        b = escribirTexto(b, isbn);
+        b = escribirTexto(b, titulo);
+        b = escribirTexto(b, autor);
+        return agregar(b);
+    }
+
+    /**
+     * Registra un cambio manual de la cantidad disponible como diferencia con la anterior
+     */
+    public long disponibilidadAjustada(String isbn, int diferencia) throws IOException {
+        ByteBuffer b = bufferHilo(TipoEvento.DISPONIBILIDAD_AJUSTADA);
+        b = escribirTexto(b, isbn);
+        b.putInt(diferencia);
+        return agregar(b);
+    }
+
+    public long prestamoCreado(Prestamo prestamo) throws IOException {
+        ByteBuffer b = escribirPrestamo(bufferHilo(TipoEvento.PRESTAMO_CREADO), prestamo,
+                prestamo.getFechaPrestamo());
+        return agregar(b);
+    }
+
+    public long prestamoDevuelto(Prestamo prestamo, LocalDate fechaDevolucion) throws IOException {
+        ByteBuffer b = escribirPrestamo(bufferHilo(TipoEvento.PRESTAMO_DEVUELTO), prestamo, fechaDevolucion);
+        return agregar(b);
+    }
+
+    /**
+     * Registra la renovación con la nueva fecha de vencimiento
+     */
+    public long prestamoRenovado(Prestamo prestamo, LocalDate fechaVencimiento) throws IOException {
+        ByteBuffer b = escribirPrestamo(bufferHilo(TipoEvento.PRESTAMO_RENOVADO), prestamo, fechaVencimiento);
+        return agregar(b);
+    }
+
+    public long reservaCreada(Reserva reserva) throws IOException {
+        return agregar(escribirReserva(bufferHilo(TipoEvento.RESERVA_CREADA), reserva, null));
+    }
+
+    public long reservaCancelada(Reserva reserva) throws IOException {
+        return agregar(escribirReserva(bufferHilo(TipoEvento.RESERVA_CANCELADA), reserva, null));
+    }
+
+    /**
+     * Registra la reserva atendida con el id del préstamo que recibió
+     */
+    public long reservaAtendida(Reserva reserva, String idPrestamo) throws IOException {
+        return agregar(escribirReserva(bufferHilo(TipoEvento.RESERVA_ATENDIDA), reserva, idPrestamo));
+    }
+
+    public long reservaRechazada(Reserva reserva) throws IOException {
+        return agregar(escribirReserva(bufferHilo(TipoEvento.RESERVA_RECHAZADA), reserva, null));
+    }
+
+    /**
+     * Vuelca el buffer al archivo y hace fsync. Si otro hilo ya sincronizó hasta
+     * esta secuencia, no repite el fsync.
+     *
+     * @return Última secuencia durable
+     */
+    public long sincronizar() throws IOException {
+        long hasta;
+        FileChannel canalActual;
+        bloqueo.lock();
+        try {
+            escribirBuffer();
+            hasta = secuenciaEscrita;
+            canalActual = canal;
+        } finally {
+            bloqueo.unlock();
+        }
+        synchronized (monitorSincronizacion) {
+            if (hasta > secuenciaDurable) {
+                try {
+                    canalActual.force(false);
+                } catch (ClosedChannelException e) {
+                    // El segmento se rotó y rotar() ya hizo el fsync
+                }
+                secuenciaDurable = Math.max(secuenciaDurable, hasta);
+            }
+        }
+        return secuenciaDurable;
+    }
+
+    /**
+     * Espera a que un evento sea durable (útil para confirmar una operación crítica)
+     *
+     * @param secuencia Secuencia devuelta al agregar el evento
+     */
+    public void esperarDurable(long secuencia) throws IOException {
+        if (secuenciaDurable < secuencia) {
+            sincronizar();
+        }
+    }
+
+    /**
+     * Cierra el segmento actual (con fsync) y continúa en uno nuevo
+     *
+     * @return Número del nuevo segmento; los anteriores ya no se modifican
+     */
+    public long rotar() throws IOException {
+        bloqueo.lock();
+        try {
+            // El segmento nuevo se abre primero: si falla, se sigue escribiendo en el actual
+            FileChannel nuevo = abrirSegmento(segmento + 1);
+            try {
+                escribirBuffer();
+                synchronized (monitorSincronizacion) {
+                    canal.force(false);
+                    secuenciaDurable = secuenciaEscrita;
+                }
+            } catch (IOException e) {
+                nuevo.close();
+                throw e;
+            }
+            canal.close();
+            segmento++;
+            canal = nuevo;
+            return segmento;
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+
+    public long getSecuencia() {
+        bloqueo.lock();
+        try {
+            return secuencia;
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+
+    public long getSecuenciaDurable() {
+        return secuenciaDurable;
+    }
+
+    @Override
+    public void close() throws IOException {
+        bloqueo.lock();
+        try {
+            if (canal.isOpen()) {
+                escribirBuffer();
+                canal.force(false);
+                secuenciaDurable = secuenciaEscrita;
+                canal.close();
+            }
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+
+    private long agregar(ByteBuffer payload) throws IOException {
+        payload.flip();
+        int largo = payload.remaining();
+        int tamanioRegistro = CABECERA + largo;
+        bloqueo.lock();
+        try {
+            if (!canal.isOpen()) {
+                throw new ClosedChannelException();
+            }
+            if (buffer.remaining() < tamanioRegistro) {
+                escribirBuffer();
+            }
+            long seq = ++secuencia;
+            payload.putLong(0, seq);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if (tamanioRegistro > buffer.capacity()) {
+                // Registro más grande que el buffer compartido: directo al canal
+                ByteBuffer registro = ByteBuffer.allocate(tamanioRegistro);
+                registro.putInt(largo).putInt((int) crc.getValue()).put(payload).flip();
+                while (registro.hasRemaining()) {
+                    canal.write(registro);
+                }
+            } else {
+                buffer.putInt(largo).putInt((int) crc.getValue()).put(payload);
+            }
+            secuenciaEscrita = seq;
+            return seq;
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+
+    /**
+     * Debe llamarse con el lock tomado
+     */
+    private void escribirBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private FileChannel abrirSegmento(long numero) throws IOException {
+        return FileChannel.open(archivoSegmento(directorio, numero),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static ByteBuffer bufferHilo(TipoEvento tipo) {
+        ByteBuffer b = BUFFER_HILO.get();
+        b.clear();
+        b.putLong(0L); // lugar para la secuencia
+        b.put(tipo.codigo);
+        return b;
+    }
+
+    private static ByteBuffer escribirPrestamo(ByteBuffer b, Prestamo prestamo, LocalDate fecha) {
+        b = escribirTexto(b, prestamo.getId());
+        b = escribirTexto(b, prestamo.getIsbnLibro());
+        b = escribirTexto(b, prestamo.getIdUsuario());
+        return b.putLong(fecha.toEpochDay());
+    }
+
+    private static ByteBuffer escribirReserva(ByteBuffer b, Reserva reserva, String idPrestamo) {
+        b = escribirTexto(b, idPrestamo);
+        b = escribirTexto(b, reserva.getIsbn());
+        b = escribirTexto(b, reserva.getIdUsuario());
+        return b.putLong(reserva.getFechaReserva().toEpochDay());
+    }
+
+    /**
+     * Escribe [int largo][bytes UTF-8] (largo -1 para null).
+     * Devuelve el buffer a usar de ahí en más, que puede ser uno más grande.
+     */
+    private static ByteBuffer escribirTexto(ByteBuffer b, String texto) {
+        if (texto == null) {
+            return conEspacio(b, Integer.BYTES).putInt(-1);
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        return conEspacio(b, Integer.BYTES + bytes.length).putInt(bytes.length).put(bytes);
+    }
+
+    /**
+     * Garantiza lugar para los bytes pedidos más un campo numérico final
+     */
+    private static ByteBuffer conEspacio(ByteBuffer b, int bytes) {
+        if (b.remaining() >= bytes + Long.BYTES) {
+            return b;
+        }
+        ByteBuffer mayor = ByteBuffer.allocate(Math.max(b.capacity() * 2, b.position() + bytes + 64));
+        b.flip();
+        mayor.put(b);
+        BUFFER_HILO.set(mayor);
+        return mayor;
+    }
+}
@@ -0,0 +1,33 @@
+package com.biblioteca.persistencia;
+
+import java.time.LocalDate;
+
+/**
+ * Registro leído del diario. El lector reutiliza la misma instancia para cada
+ * registro, por lo que no debe guardarse una referencia fuera del callback.
+ */
+final class EventoDiario {
+
+    TipoEvento tipo;
+    long secuencia;
+    String isbn;
+    String titulo;
+    String autor;
+    // Ejemplares: total, disponible o diferencia según el tipo
+    int cantidad;
+    String idPrestamo;
+    String idUsuario;
+    LocalDate fecha;
+
+    void limpiar() {
+        tipo = null;
+        secuencia = 0;
+        isbn = null;
+        titulo = null;
+        autor = null;
+        cantidad = 0;
+        idPrestamo = null;
+        idUsuario = null;
+        fecha = null;
+    }
+}
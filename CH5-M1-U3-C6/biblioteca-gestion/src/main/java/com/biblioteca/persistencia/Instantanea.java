@@ -0,0 +1,182 @@
+package com.biblioteca.persistencia;
+
+import com.biblioteca.model.Libro;
+import com.biblioteca.model.Prestamo;
+import com.biblioteca.model.Reserva;
+import com.biblioteca.service.LibroService;
+import com.biblioteca.service.PrestamoService;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Instantánea binaria compacta del estado completo de la biblioteca.
+ *
+ * Representa exactamente el estado al final del segmento anterior a
+ * {@code segmentoInicio}: al recuperar se carga la instantánea y se reaplican
+ * los segmentos desde {@code segmentoInicio} en adelante.
+ */
+final class Instantanea {
+
+    static final String PREFIJO_ARCHIVO = "instantanea-";
+    static final String EXTENSION = ".bin";
+
+    private static final int MAGICO = 0x42494253; // "BIBS"
+    // Versión 2: agrega vencimiento y renovaciones de cada préstamo
+    // Versión 3: agrega las reservas pendientes, en el orden de cada cola
+    private static final int VERSION = 3;
+    private static final int TAMANIO_BUFFER = 1 << 20;
+    private static final long SIN_FECHA = Long.MIN_VALUE;
+
+    private Instantanea() {
+    }
+
+    static Path archivo(Path directorio, long segmentoInicio) {
+        return directorio.resolve(String.format("%s%010d%s", PREFIJO_ARCHIVO, segmentoInicio, EXTENSION));
+    }
+
+    /**
+     * Escribe la instantánea en un archivo temporal y lo renombra al terminar,
+     * así nunca queda una instantánea a medio escribir con el nombre definitivo.
+     */
+    static void escribir(Path directorio, long segmentoInicio, long ultimaSecuencia,
+                         LibroService libroService, PrestamoService prestamoService) throws IOException {
+        Path destino = archivo(directorio, segmentoInicio);
+        Path temporal = destino.resolveSibling(destino.getFileName() + ".tmp");
+
+        List<Libro> libros = libroService.listarTodos();
+        List<Prestamo> prestamos = prestamoService.listarTodosLosPrestamos();
+        List<Reserva> reservas = prestamoService.listarTodasLasReservasPendientes();
+
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(canal), TAMANIO_BUFFER));
+            out.writeInt(MAGICO);
+            out.writeInt(VERSION);
+            out.writeLong(segmentoInicio);
+            out.writeLong(ultimaSecuencia);
+
+            out.writeInt(libros.size());
+            for (Libro libro : libros) {
+                out.writeUTF(libro.getIsbn());
+                escribirTexto(out, libro.getTitulo());
+                escribirTexto(out, libro.getAutor());
+                out.writeInt(libro.getCantidadTotal());
+                out.writeInt(libro.getCantidadDisponible());
+            }
+
+            out.writeInt(prestamos.size());
+            for (Prestamo prestamo : prestamos) {
+                out.writeUTF(prestamo.getId());
+                out.writeUTF(prestamo.getIsbnLibro());
+                out.writeUTF(prestamo.getIdUsuario());
+                out.writeLong(prestamo.getFechaPrestamo().toEpochDay());
+                LocalDate devolucion = prestamo.getFechaDevolucion();
+                out.writeLong(devolucion == null ? SIN_FECHA : devolucion.toEpochDay());
+                out.writeBoolean(prestamo.isActivo());
+                LocalDate vencimiento = prestamo.getFechaVencimiento();
+                out.writeLong(vencimiento == null ? SIN_FECHA : vencimiento.toEpochDay());
+                out.writeInt(prestamo.getRenovaciones());
+            }
+
+            out.writeInt(reservas.size());
+            for (Reserva reserva : reservas) {
+                out.writeUTF(reserva.getIsbn());
+                out.writeUTF(reserva.getIdUsuario());
+                out.writeLong(reserva.getFechaReserva().toEpochDay());
+            }
+
+            out.writeInt(MAGICO);
+            out.flush();
+            canal.force(true);
+        }
+        Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Carga una instantánea sobre servicios vacíos
+     *
+     * @return Última secuencia del diario incluida en la instantánea
+     * @throws IOException Si el archivo está incompleto o no es una instantánea
+     */
+    static long cargar(Path archivo, LibroService libroService, PrestamoService prestamoService) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(archivo), TAMANIO_BUFFER))) {
+            if (in.readInt() != MAGICO) {
+                throw new IOException("Formato de instantánea desconocido: " + archivo);
+            }
+            int version = in.readInt();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Formato de instantánea desconocido: " + archivo);
+            }
+            in.readLong(); // segmentoInicio, ya codificado en el nombre
+            long ultimaSecuencia = in.readLong();
+
+            int cantidadLibros = in.readInt();
+            for (int i = 0; i < cantidadLibros; i++) {
+                String isbn = in.readUTF();
+                String titulo = leerTexto(in);
+                String autor = leerTexto(in);
+                int total = in.readInt();
+                int disponible = in.readInt();
+                Libro libro = libroService.registrarLibro(isbn, titulo, autor, total);
+                libro.setCantidadDisponible(disponible);
+            }
+
+            int cantidadPrestamos = in.readInt();
+            for (int i = 0; i < cantidadPrestamos; i++) {
+                Prestamo prestamo = new Prestamo(in.readUTF(), in.readUTF(), in.readUTF(),
+                        LocalDate.ofEpochDay(in.readLong()));
+                long devolucion = in.readLong();
+                if (devolucion != SIN_FECHA) {
+                    prestamo.setFechaDevolucion(LocalDate.ofEpochDay(devolucion));
+                }
+                prestamo.setActivo(in.readBoolean());
+                if (version >= 2) {
+                    long vencimiento = in.readLong();
+                    if (vencimiento != SIN_FECHA) {
+                        prestamo.setFechaVencimiento(LocalDate.ofEpochDay(vencimiento));
+                    }
+                    prestamo.setRenovaciones(in.readInt());
+                }
+                prestamoService.restaurarPrestamo(prestamo);
+            }
+
+            if (version >= 3) {
+                int cantidadReservas = in.readInt();
+                for (int i = 0; i < cantidadReservas; i++) {
+                    prestamoService.restaurarReserva(new Reserva(in.readUTF(), in.readUTF(),
+                            LocalDate.ofEpochDay(in.readLong())));
+                }
+            }
+
+            if (in.readInt() != MAGICO) {
+                throw new IOException("Instantánea incompleta: " + archivo);
+            }
+            return ultimaSecuencia;
+        }
+    }
+
+    private static void escribirTexto(DataOutputStream out, String texto) throws IOException {
+        out.writeBoolean(texto != null);
+        if (texto != null) {
+            out.writeUTF(texto);
+        }
+    }
+
+    private static String leerTexto(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
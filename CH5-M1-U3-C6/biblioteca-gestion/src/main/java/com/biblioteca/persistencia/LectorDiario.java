@@ -0,0 +1,149 @@
+package com.biblioteca.persistencia;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Lee secuencialmente un segmento del diario.
+ *
+ * La lectura se detiene en el primer registro incompleto o con CRC inválido:
+ * es la cola de una escritura interrumpida por una caída y se descarta.
+ */
+final class LectorDiario {
+
+    private static final int TAMANIO_LECTURA = 4 << 20;
+    // Un largo mayor solo puede venir de bytes corruptos
+    private static final int MAX_REGISTRO = 64 << 20;
+
+    private LectorDiario() {
+    }
+
+    /**
+     * @param archivo Segmento a leer
+     * @param consumidor Recibe cada evento válido (la instancia se reutiliza)
+     * @return Última secuencia leída, o 0 si el segmento está vacío
+     */
+    static long leer(Path archivo, Consumer<EventoDiario> consumidor) throws IOException {
+        long ultimaSecuencia = 0;
+        EventoDiario evento = new EventoDiario();
+        CRC32C crc = new CRC32C();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANIO_LECTURA);
+
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            buffer.limit(0);
+            while (true) {
+                if (buffer.remaining() < Diario.CABECERA && !rellenar(canal, buffer, Diario.CABECERA)) {
+                    return ultimaSecuencia;
+                }
+                buffer.mark();
+                int largo = buffer.getInt();
+                int crcEsperado = buffer.getInt();
+                if (largo <= Long.BYTES || largo > MAX_REGISTRO) {
+                    return ultimaSecuencia;
+                }
+                if (largo > buffer.capacity()) {
+                    buffer.reset();
+                    ByteBuffer mayor = ByteBuffer.allocateDirect(largo + Diario.CABECERA);
+                    mayor.put(buffer).flip();
+                    buffer = mayor;
+                    buffer.getInt();
+                    buffer.getInt();
+                }
+                if (buffer.remaining() < largo && !rellenar(canal, buffer, largo)) {
+                    return ultimaSecuencia;
+                }
+
+                ByteBuffer payload = buffer.slice();
+                payload.limit(largo);
+                crc.reset();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != crcEsperado) {
+                    return ultimaSecuencia;
+                }
+                buffer.position(buffer.position() + largo);
+
+                if (!decodificar(payload, evento)) {
+                    return ultimaSecuencia;
+                }
+                ultimaSecuencia = evento.secuencia;
+                consumidor.accept(evento);
+            }
+        }
+    }
+
+    /**
+     * Compacta lo pendiente al inicio del buffer y lee más del canal
+     *
+     * @return false si el archivo terminó antes de tener los bytes necesarios
+     */
+    private static boolean rellenar(FileChannel canal, ByteBuffer buffer, int necesarios) throws IOException {
+        buffer.compact();
+        while (buffer.position() < necesarios) {
+            if (canal.read(buffer) < 0) {
+                buffer.flip();
+                return false;
+            }
+        }
+        buffer.flip();
+        return true;
+    }
+
+    private static boolean decodificar(ByteBuffer b, EventoDiario evento) {
+        evento.limpiar();
+        evento.secuencia = b.getLong();
+        evento.tipo = TipoEvento.deCodigo(b.get());
+        if (evento.tipo == null) {
+            return false;
+        }
+        switch (evento.tipo) {
+            case LIBRO_REGISTRADO:
+                evento.isbn = leerTexto(b);
+                evento.titulo = leerTexto(b);
+                evento.autor = leerTexto(b);
+                evento.cantidad = b.getInt();
+                break;
+            case LIBRO_ACTUALIZADO:
+                evento.isbn = leerTexto(b);
+                evento.titulo = leerTexto(b);
+                evento.autor = leerTexto(b);
+                break;
+            case DISPONIBILIDAD_ACTUALIZADA:
+            case DISPONIBILIDAD_AJUSTADA:
+                evento.isbn = leerTexto(b);
+                evento.cantidad = b.getInt();
+                break;
+            case PRESTAMO_CREADO:
+            case PRESTAMO_DEVUELTO:
+            case PRESTAMO_RENOVADO:
+            case RESERVA_CREADA:
+            case RESERVA_CANCELADA:
+            case RESERVA_ATENDIDA:
+            case RESERVA_RECHAZADA:
+                evento.idPrestamo = leerTexto(b);
+                evento.isbn = leerTexto(b);
+                evento.idUsuario = leerTexto(b);
+                evento.fecha = LocalDate.ofEpochDay(b.getLong());
+                break;
+            default:
+                return false;
+        }
+        return true;
+    }
+
+    private static String leerTexto(ByteBuffer b) {
+        int largo = b.getInt();
+        if (largo < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[largo];
+        b.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,465 @@
+package com.biblioteca.persistencia;
+
+import com.biblioteca.model.Libro;
+import com.biblioteca.model.Prestamo;
+import com.biblioteca.model.Reserva;
+import com.biblioteca.service.LibroService;
+import com.biblioteca.service.PrestamoService;
+import com.biblioteca.service.RegistroCambios;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Persistencia de la biblioteca: diario de eventos más instantáneas periódicas.
+ *
+ * Al abrir, reconstruye LibroService y PrestamoService desde la última instantánea
+ * válida más los segmentos del diario posteriores, y queda como registro de cambios
+ * de ambos servicios: cada cambio se agrega al diario antes de publicarse, y cada
+ * operación vuelve recién después del fsync que cubre sus eventos. Eso incluye las colas de reservas: al reabrir,
+ * las reservas pendientes vuelven a su lugar en la cola de cada libro.
+ *
+ * Las instantáneas se generan a partir del propio diario (instantánea anterior +
+ * segmentos cerrados) sobre servicios auxiliares, por lo que son exactas y no
+ * detienen ni bloquean a los servicios en uso.
+ *
+ * El fsync periódico y las instantáneas corren en segundo plano y un error no los
+ * detiene: se vuelven a intentar en la próxima vuelta. Una escritura o un fsync fallido
+ * deja los cambios sin garantía de durabilidad, así que desde entonces cada cambio se
+ * rechaza con UncheckedIOException (sin aplicarse) y close lanza el error. Una instantánea fallida solo se informa
+ * al cerrar, si ninguna posterior salió bien.
+ *
+ * Uso:
+ * <pre>
+ * try (PersistenciaBiblioteca persistencia = PersistenciaBiblioteca.abrir(directorio)) {
+ *     LibroService libros = persistencia.getLibroService();
+ *     PrestamoService prestamos = persistencia.getPrestamoService();
+ *     ...
+ * }
+ * </pre>
+ */
+public class PersistenciaBiblioteca implements RegistroCambios, Closeable {
+
+    private static final Duration SINCRONIZACION_POR_DEFECTO = Duration.ofMillis(10);
+    private static final Duration INSTANTANEA_POR_DEFECTO = Duration.ofMinutes(10);
+
+    private final Path directorio;
+    private final LibroService libroService;
+    private final PrestamoService prestamoService;
+    private final Diario diario;
+    private final ScheduledExecutorService tareas;
+    private final Object monitorInstantanea = new Object();
+    // Primera escritura o fsync fallido: desde ahí el diario no es confiable
+    private final AtomicReference<IOException> falloDiario = new AtomicReference<>();
+    // Secuencia del último evento que registró cada hilo y todavía no confirmó
+    private final ThreadLocal<long[]> ultimaSecuenciaHilo = ThreadLocal.withInitial(() -> new long[1]);
+    // Última instantánea periódica fallida, hasta que una posterior salga bien
+    private final AtomicReference<IOException> falloInstantanea = new AtomicReference<>();
+
+    private PersistenciaBiblioteca(Path directorio, LibroService libroService, PrestamoService prestamoService,
+                                   Diario diario) {
+        this.directorio = directorio;
+        this.libroService = libroService;
+        this.prestamoService = prestamoService;
+        this.diario = diario;
+        // Un hilo para el fsync periódico y otro para las instantáneas, que pueden demorar
+        this.tareas = Executors.newScheduledThreadPool(2, r -> {
+            Thread hilo = new Thread(r, "persistencia-biblioteca");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    public static PersistenciaBiblioteca abrir(Path directorio) throws IOException {
+        return abrir(directorio, SINCRONIZACION_POR_DEFECTO, INSTANTANEA_POR_DEFECTO);
+    }
+
+    /**
+     * @param directorio Directorio de datos (se crea si no existe)
+     * @param intervaloSincronizacion Cada cuánto se hace fsync del diario (ventana de group commit)
+     * @param intervaloInstantanea Cada cuánto se genera una instantánea; cero o negativo para desactivarlas
+     */
+    public static PersistenciaBiblioteca abrir(Path directorio, Duration intervaloSincronizacion,
+                                               Duration intervaloInstantanea) throws IOException {
+        Files.createDirectories(directorio);
+        LibroService libroService = new LibroService();
+        PrestamoService prestamoService = new PrestamoService(libroService);
+
+        Recuperacion recuperacion = recuperar(directorio, libroService, prestamoService);
+        // Siempre se escribe en un segmento nuevo: la cola del último pudo quedar truncada
+        Diario diario = new Diario(directorio, recuperacion.ultimoSegmento + 1, recuperacion.ultimaSecuencia);
+
+        PersistenciaBiblioteca persistencia =
+                new PersistenciaBiblioteca(directorio, libroService, prestamoService, diario);
+        libroService.setRegistroCambios(persistencia);
+        prestamoService.setRegistroCambios(persistencia);
+        persistencia.programarTareas(intervaloSincronizacion, intervaloInstantanea);
+        return persistencia;
+    }
+
+    public LibroService getLibroService() {
+        return libroService;
+    }
+
+    public PrestamoService getPrestamoService() {
+        return prestamoService;
+    }
+
+    /**
+     * Fuerza a disco todos los eventos registrados hasta ahora
+     */
+    public void sincronizar() throws IOException {
+        diario.sincronizar();
+    }
+
+    /**
+     * Rota el diario y genera una instantánea con todo lo anterior a la rotación.
+     * Después borra los segmentos y las instantáneas que quedaron cubiertos.
+     */
+    public void tomarInstantanea() throws IOException {
+        synchronized (monitorInstantanea) {
+            long segmentoNuevo = diario.rotar();
+
+            LibroService libros = new LibroService();
+            PrestamoService prestamos = new PrestamoService(libros);
+            long desde = 0;
+            long ultimaSecuencia = 0;
+            Path base = ultimaInstantanea(directorio);
+            if (base != null) {
+                ultimaSecuencia = Instantanea.cargar(base, libros, prestamos);
+                desde = numero(base, Instantanea.PREFIJO_ARCHIVO, Instantanea.EXTENSION);
+            }
+            Map<String, Integer> ajustesStock = new HashMap<>();
+            for (Path segmento : segmentos(directorio)) {
+                long n = numero(segmento, Diario.PREFIJO_ARCHIVO, Diario.EXTENSION);
+                if (n >= desde && n < segmentoNuevo) {
+                    ultimaSecuencia = Math.max(ultimaSecuencia,
+                            reaplicar(segmento, libros, prestamos, ajustesStock));
+                }
+            }
+            aplicarAjustesStock(libros, ajustesStock);
+            Instantanea.escribir(directorio, segmentoNuevo, ultimaSecuencia, libros, prestamos);
+
+            for (Path segmento : segmentos(directorio)) {
+                if (numero(segmento, Diario.PREFIJO_ARCHIVO, Diario.EXTENSION) < segmentoNuevo) {
+                    Files.deleteIfExists(segmento);
+                }
+            }
+            for (Path instantanea : instantaneas(directorio)) {
+                if (numero(instantanea, Instantanea.PREFIJO_ARCHIVO, Instantanea.EXTENSION) < segmentoNuevo) {
+                    Files.deleteIfExists(instantanea);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        tareas.shutdown();
+        try {
+            tareas.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        diario.close();
+        IOException fallo = falloDiario.get();
+        if (fallo != null) {
+            throw new IOException("Falló la escritura del diario", fallo);
+        }
+        fallo = falloInstantanea.get();
+        if (fallo != null) {
+            throw new IOException("Falló la última instantánea periódica", fallo);
+        }
+    }
+
+    /**
+     * Antes de registrar un evento: si una escritura o un fsync del diario falló, ya no
+     * garantiza durabilidad y se corta en lugar de seguir aceptando cambios
+     */
+    private void verificarDiario() {
+        IOException fallo = falloDiario.get();
+        if (fallo != null) {
+            throw new UncheckedIOException("El diario dejó de escribirse; los cambios no son durables", fallo);
+        }
+    }
+
+    // --- Registro anticipado: cada cambio se agrega al diario antes de publicarse ---
+
+    @Override
+    public void libroRegistrado(Libro libro) {
+        registrar(() -> diario.libroRegistrado(libro), "No se pudo registrar el libro en el diario");
+    }
+
+    @Override
+    public void datosLibroActualizados(Libro libro, String titulo, String autor) {
+        registrar(() -> diario.libroActualizado(libro.getIsbn(), titulo, autor),
+                "No se pudo registrar el cambio del libro en el diario");
+    }
+
+    @Override
+    public void disponibilidadAjustada(Libro libro, int diferencia) {
+        registrar(() -> diario.disponibilidadAjustada(libro.getIsbn(), diferencia),
+                "No se pudo registrar la disponibilidad en el diario");
+    }
+
+    @Override
+    public void prestamoCreado(Prestamo prestamo) {
+        registrar(() -> diario.prestamoCreado(prestamo), "No se pudo registrar el préstamo en el diario");
+    }
+
+    @Override
+    public void prestamoDevuelto(Prestamo prestamo, LocalDate fechaDevolucion) {
+        registrar(() -> diario.prestamoDevuelto(prestamo, fechaDevolucion),
+                "No se pudo registrar la devolución en el diario");
+    }
+
+    @Override
+    public void prestamoRenovado(Prestamo prestamo, LocalDate fechaVencimiento) {
+        registrar(() -> diario.prestamoRenovado(prestamo, fechaVencimiento),
+                "No se pudo registrar la renovación en el diario");
+    }
+
+    @Override
+    public void reservaCreada(Reserva reserva) {
+        registrar(() -> diario.reservaCreada(reserva), "No se pudo registrar la reserva en el diario");
+    }
+
+    @Override
+    public void reservaCancelada(Reserva reserva) {
+        registrar(() -> diario.reservaCancelada(reserva),
+                "No se pudo registrar la cancelación de la reserva en el diario");
+    }
+
+    @Override
+    public void reservaAtendida(Reserva reserva, Prestamo prestamo) {
+        registrar(() -> diario.reservaAtendida(reserva, prestamo.getId()),
+                "No se pudo registrar la atención de la reserva en el diario");
+    }
+
+    @Override
+    public void reservaRechazada(Reserva reserva) {
+        registrar(() -> diario.reservaRechazada(reserva),
+                "No se pudo registrar el rechazo de la reserva en el diario");
+    }
+
+    /**
+     * Espera el fsync que cubre el último evento registrado por este hilo. Varios hilos
+     * que confirman a la vez comparten el mismo fsync (group commit).
+     */
+    @Override
+    public void confirmar() {
+        long[] pendiente = ultimaSecuenciaHilo.get();
+        long secuencia = pendiente[0];
+        if (secuencia == 0) {
+            return;
+        }
+        pendiente[0] = 0;
+        try {
+            diario.esperarDurable(secuencia);
+        } catch (IOException e) {
+            falloDiario.compareAndSet(null, e);
+            throw new UncheckedIOException("No se pudo hacer durable el diario", e);
+        }
+        // Un fsync fallido en segundo plano pudo perder lo escrito antes de este
+        verificarDiario();
+    }
+
+    private interface Escritura {
+        long escribir() throws IOException;
+    }
+
+    private void registrar(Escritura escritura, String error) {
+        verificarDiario();
+        try {
+            ultimaSecuenciaHilo.get()[0] = escritura.escribir();
+        } catch (IOException e) {
+            falloDiario.compareAndSet(null, e);
+            throw new UncheckedIOException(error, e);
+        }
+    }
+
+    // --- Recuperación ---
+
+    private static final class Recuperacion {
+        long ultimoSegmento;
+        long ultimaSecuencia;
+    }
+
+    private static Recuperacion recuperar(Path directorio, LibroService libros, PrestamoService prestamos)
+            throws IOException {
+        Recuperacion r = new Recuperacion();
+        long desde = 0;
+        Path base = ultimaInstantanea(directorio);
+        if (base != null) {
+            r.ultimaSecuencia = Instantanea.cargar(base, libros, prestamos);
+            desde = numero(base, Instantanea.PREFIJO_ARCHIVO, Instantanea.EXTENSION);
+            r.ultimoSegmento = desde - 1;
+        }
+        Map<String, Integer> ajustesStock = new HashMap<>();
+        for (Path segmento : segmentos(directorio)) {
+            long n = numero(segmento, Diario.PREFIJO_ARCHIVO, Diario.EXTENSION);
+            if (n >= desde) {
+                r.ultimaSecuencia = Math.max(r.ultimaSecuencia,
+                        reaplicar(segmento, libros, prestamos, ajustesStock));
+            }
+            r.ultimoSegmento = Math.max(r.ultimoSegmento, n);
+        }
+        aplicarAjustesStock(libros, ajustesStock);
+        return r;
+    }
+
+    /**
+     * Reaplica un segmento sobre los servicios, sin volver a registrar en el diario.
+     *
+     * Los cambios de stock (préstamos, devoluciones y ajustes manuales) se acumulan como
+     * diferencias por ISBN y se aplican al final con aplicarAjustesStock. En el diario dos
+     * cambios concurrentes del mismo libro pueden quedar en otro orden que en memoria;
+     * sumados, el resultado es el mismo, mientras que aplicados uno por uno podrían tocar
+     * 0 o el total y perder un ejemplar.
+     *
+     * @return Última secuencia leída del segmento
+     */
+    private static long reaplicar(Path segmento, LibroService libros, PrestamoService prestamos,
+                                  Map<String, Integer> ajustesStock) throws IOException {
+        return LectorDiario.leer(segmento, evento -> {
+            switch (evento.tipo) {
+                case LIBRO_REGISTRADO:
+                    libros.registrarLibro(evento.isbn, evento.titulo, evento.autor, evento.cantidad);
+                    break;
+                case LIBRO_ACTUALIZADO: {
+                    Libro libro = libros.buscarPorISBN(evento.isbn);
+                    libro.setTitulo(evento.titulo);
+                    libro.setAutor(evento.autor);
+                    break;
+                }
+                case DISPONIBILIDAD_ACTUALIZADA:
+                    // Valor absoluto: reemplaza también lo acumulado hasta acá
+                    ajustesStock.remove(evento.isbn);
+                    libros.actualizarDisponibilidad(evento.isbn, evento.cantidad);
+                    break;
+                case DISPONIBILIDAD_AJUSTADA:
+                    ajustesStock.merge(evento.isbn, evento.cantidad, Integer::sum);
+                    break;
+                case PRESTAMO_CREADO:
+                    prestamos.restaurarPrestamo(
+                            new Prestamo(evento.idPrestamo, evento.isbn, evento.idUsuario, evento.fecha));
+                    ajustesStock.merge(evento.isbn, -1, Integer::sum);
+                    break;
+                case PRESTAMO_DEVUELTO:
+                    prestamos.restaurarDevolucion(evento.idPrestamo, evento.fecha);
+                    ajustesStock.merge(evento.isbn, 1, Integer::sum);
+                    break;
+                case PRESTAMO_RENOVADO:
+                    prestamos.restaurarRenovacion(evento.idPrestamo, evento.fecha);
+                    break;
+                case RESERVA_CREADA:
+                    prestamos.restaurarReserva(new Reserva(evento.isbn, evento.idUsuario, evento.fecha));
+                    break;
+                case RESERVA_CANCELADA:
+                    prestamos.restaurarCancelacionReserva(evento.isbn, evento.idUsuario);
+                    break;
+                case RESERVA_ATENDIDA:
+                    // El préstamo y su ejemplar ya se reaplicaron con el PRESTAMO_CREADO anterior
+                    prestamos.restaurarAtencionReserva(evento.isbn, evento.idUsuario, evento.idPrestamo);
+                    break;
+                case RESERVA_RECHAZADA:
+                    prestamos.restaurarRechazoReserva(evento.isbn, evento.idUsuario);
+                    break;
+                default:
+                    throw new IllegalStateException("Tipo de evento no soportado: " + evento.tipo);
+            }
+        });
+    }
+
+    /**
+     * Aplica las diferencias de stock acumuladas por reaplicar
+     *
+     * @throws IllegalArgumentException Si alguna deja la cantidad disponible fuera de rango
+     */
+    private static void aplicarAjustesStock(LibroService libros, Map<String, Integer> ajustesStock) {
+        for (Map.Entry<String, Integer> ajuste : ajustesStock.entrySet()) {
+            Libro libro = libros.buscarPorISBN(ajuste.getKey());
+            libros.actualizarDisponibilidad(ajuste.getKey(), libro.getCantidadDisponible() + ajuste.getValue());
+        }
+    }
+
+    /**
+     * Las instantáneas se publican con un rename atómico, así que la última siempre está completa
+     */
+    private static Path ultimaInstantanea(Path directorio) throws IOException {
+        List<Path> instantaneas = instantaneas(directorio);
+        return instantaneas.isEmpty() ? null : instantaneas.get(instantaneas.size() - 1);
+    }
+
+    private static List<Path> segmentos(Path directorio) throws IOException {
+        return listar(directorio, Diario.PREFIJO_ARCHIVO, Diario.EXTENSION);
+    }
+
+    private static List<Path> instantaneas(Path directorio) throws IOException {
+        return listar(directorio, Instantanea.PREFIJO_ARCHIVO, Instantanea.EXTENSION);
+    }
+
+    private static List<Path> listar(Path directorio, String prefijo, String extension) throws IOException {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            List<Path> resultado = new ArrayList<>();
+            archivos.filter(p -> {
+                String nombre = p.getFileName().toString();
+                return nombre.startsWith(prefijo) && nombre.endsWith(extension);
+            }).sorted().forEach(resultado::add);
+            return resultado;
+        }
+    }
+
+    private static long numero(Path archivo, String prefijo, String extension) {
+        String nombre = archivo.getFileName().toString();
+        return Long.parseLong(nombre.substring(prefijo.length(), nombre.length() - extension.length()));
+    }
+
+    private void programarTareas(Duration intervaloSincronizacion, Duration intervaloInstantanea) {
+        long sincronizacion = intervaloSincronizacion.toMillis();
+        // Las tareas no dejan escapar excepciones: scheduleWithFixedDelay cancelaría las vueltas siguientes
+        tareas.scheduleWithFixedDelay(() -> {
+            try {
+                diario.sincronizar();
+            } catch (IOException | RuntimeException e) {
+                falloDiario.compareAndSet(null, comoIOException(e));
+            }
+        }, sincronizacion, sincronizacion, TimeUnit.MILLISECONDS);
+
+        if (!intervaloInstantanea.isZero() && !intervaloInstantanea.isNegative()) {
+            long instantanea = intervaloInstantanea.toMillis();
+            tareas.scheduleWithFixedDelay(() -> {
+                try {
+                    tomarInstantanea();
+                    falloInstantanea.set(null);
+                } catch (IOException | RuntimeException e) {
+                    falloInstantanea.set(comoIOException(e));
+                }
+            }, instantanea, instantanea, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static IOException comoIOException(Exception e) {
+        if (e instanceof IOException io) {
+            return io;
+        }
+        if (e instanceof UncheckedIOException unchecked) {
+            return unchecked.getCause();
+        }
+        return new IOException(e);
+    }
+}
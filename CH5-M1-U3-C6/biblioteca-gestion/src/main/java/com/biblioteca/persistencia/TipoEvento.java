@@ -0,0 +1,38 @@
+package com.biblioteca.persistencia;
+
+/**
+ * Tipos de registro del diario. El código se guarda en disco: no reutilizar valores.
+ */
+enum TipoEvento {
+    LIBRO_REGISTRADO((byte) 1),
+    LIBRO_ACTUALIZADO((byte) 2),
+    // Cantidad disponible absoluta: solo aparece en diarios escritos antes de DISPONIBILIDAD_AJUSTADA
+    DISPONIBILIDAD_ACTUALIZADA((byte) 3),
+    PRESTAMO_CREADO((byte) 4),
+    PRESTAMO_DEVUELTO((byte) 5),
+    PRESTAMO_RENOVADO((byte) 6),
+    RESERVA_CREADA((byte) 7),
+    RESERVA_CANCELADA((byte) 8),
+    RESERVA_ATENDIDA((byte) 9),
+    RESERVA_RECHAZADA((byte) 10),
+    // Diferencia con la cantidad disponible anterior
+    DISPONIBILIDAD_AJUSTADA((byte) 11);
+
+    private static final TipoEvento[] POR_CODIGO = new TipoEvento[12];
+
+    static {
+        for (TipoEvento tipo : values()) {
+            POR_CODIGO[tipo.codigo] = tipo;
+        }
+    }
+
+    final byte codigo;
+
+    TipoEvento(byte codigo) {
+        this.codigo = codigo;
+    }
+
+    static TipoEvento deCodigo(byte codigo) {
+        return codigo > 0 && codigo < POR_CODIGO.length ? POR_CODIGO[codigo] : null;
+    }
+}
@@ -0,0 +1,119 @@
+package com.biblioteca.reservas;
+
+import com.biblioteca.model.Reserva;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Colas de espera FIFO por ISBN.
+ *
+ * Cada ISBN tiene su ConcurrentLinkedQueue: tomar el siguiente es una operación sin
+ * locks, así que devoluciones y reservas de un título muy pedido no compiten por un
+ * monitor. Encolar toma un momento el lock del ISBN en el mapa, para que quien registra
+ * las reservas (el diario) las vea en el mismo orden que la cola. Las reservas canceladas no se buscan dentro de la
+ * cola: quedan en su lugar y se descartan al llegar al frente.
+ *
+ * La cola de un ISBN se crea con su primera reserva y no se elimina al vaciarse
+ * (como mucho hay una por libro del catálogo).
+ */
+public class ColaReservas {
+
+    private final Map<String, Queue<Reserva>> colas = new ConcurrentHashMap<>();
+
+    /**
+     * Agrega la reserva al final de la cola de su ISBN
+     */
+    public void encolar(Reserva reserva) {
+        encolar(reserva, r -> {
+        });
+    }
+
+    /**
+     * Agrega la reserva al final de la cola de su ISBN, avisando antes a alEncolar.
+     * Los avisos de un mismo ISBN no se intercalan y siguen el orden de la cola; si
+     * alEncolar lanza una excepción, la reserva no se encola.
+     */
+    public void encolar(Reserva reserva, Consumer<Reserva> alEncolar) {
+        colas.compute(reserva.getIsbn(), (isbn, cola) -> {
+            Queue<Reserva> destino = cola != null ? cola : new ConcurrentLinkedQueue<>();
+            alEncolar.accept(reserva);
+            destino.add(reserva);
+            return destino;
+        });
+    }
+
+    /**
+     * Quita y devuelve la primera reserva pendiente del ISBN
+     *
+     * @return La reserva, o null si no hay reservas pendientes
+     */
+    public Reserva siguiente(String isbn) {
+        Queue<Reserva> cola = colas.get(isbn);
+        if (cola == null) {
+            return null;
+        }
+        Reserva reserva;
+        while ((reserva = cola.poll()) != null) {
+            if (reserva.estaPendiente()) {
+                return reserva;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Indica si hay alguien esperando el ISBN, descartando las canceladas del frente.
+     * Es O(1) salvo por esas canceladas, que se quitan una sola vez.
+     */
+    public boolean hayPendientes(String isbn) {
+        Queue<Reserva> cola = colas.get(isbn);
+        if (cola == null) {
+            return false;
+        }
+        Reserva primera;
+        while ((primera = cola.peek()) != null) {
+            if (primera.estaPendiente()) {
+                return true;
+            }
+            cola.remove(primera);
+        }
+        return false;
+    }
+
+    /**
+     * @return Las reservas pendientes del ISBN, en orden de llegada
+     */
+    public List<Reserva> listarPendientes(String isbn) {
+        List<Reserva> pendientes = new ArrayList<>();
+        Queue<Reserva> cola = colas.get(isbn);
+        if (cola != null) {
+            for (Reserva reserva : cola) {
+                if (reserva.estaPendiente()) {
+                    pendientes.add(reserva);
+                }
+            }
+        }
+        return pendientes;
+    }
+
+    /**
+     * @return Las reservas pendientes de todos los ISBN; las de un mismo ISBN, en orden de llegada
+     */
+    public List<Reserva> listarTodasPendientes() {
+        List<Reserva> pendientes = new ArrayList<>();
+        for (Queue<Reserva> cola : colas.values()) {
+            for (Reserva reserva : cola) {
+                if (reserva.estaPendiente()) {
+                    pendientes.add(reserva);
+                }
+            }
+        }
+        return pendientes;
+    }
+}
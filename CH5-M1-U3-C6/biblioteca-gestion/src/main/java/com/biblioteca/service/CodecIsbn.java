@@ -0,0 +1,58 @@
+package com.biblioteca.service;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Convierte un ISBN de 13 dígitos en un long y viceversa.
+ *
+ * 13 dígitos entran holgados en un long (10^13 &lt; 2^63), así que el catálogo puede
+ * indexarse por un primitivo en lugar de por un String de 13 caracteres.
+ * Los ceros a la izquierda se conservan porque el largo es fijo.
+ */
+public final class CodecIsbn {
+
+    /**
+     * Valor devuelto para un ISBN mal formado; ningún ISBN válido es negativo
+     */
+    public static final long INVALIDO = -1L;
+
+    private static final int LARGO = 13;
+
+    private CodecIsbn() {
+    }
+
+    /**
+     * @param isbn ISBN de 13 dígitos (sin guiones)
+     * @return El ISBN como número, o INVALIDO si no tiene exactamente 13 dígitos
+     */
+    public static long codificar(CharSequence isbn) {
+        if (isbn == null || isbn.length() != LARGO) {
+            return INVALIDO;
+        }
+        long valor = 0;
+        for (int i = 0; i < LARGO; i++) {
+            int digito = isbn.charAt(i) - '0';
+            if (digito < 0 || digito > 9) {
+                return INVALIDO;
+            }
+            valor = valor * 10 + digito;
+        }
+        return valor;
+    }
+
+    /**
+     * @param valor ISBN codificado con codificar
+     * @return El ISBN de 13 dígitos, con ceros a la izquierda si corresponde
+     */
+    public static String decodificar(long valor) {
+        if (valor < 0 || valor >= 10_000_000_000_000L) {
+            throw new IllegalArgumentException("Valor fuera de rango para un ISBN-13: " + valor);
+        }
+        byte[] digitos = new byte[LARGO];
+        for (int i = LARGO - 1; i >= 0; i--) {
+            digitos[i] = (byte) ('0' + (valor % 10));
+            valor /= 10;
+        }
+        return new String(digitos, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,37 @@
+package com.biblioteca.service;
+
+/**
+ * Cupo de préstamos activos por usuario compartido entre varios PrestamoService.
+ *
+ * Cada PrestamoService controla el límite con sus propios préstamos; cuando el
+ * catálogo está repartido entre varias instancias, un usuario puede tener préstamos
+ * en todas y el límite tiene que contarse en un solo lugar. PrestamoService ocupa
+ * un lugar antes de prestar (con el lock del usuario tomado) y lo libera al devolver
+ * o si el préstamo no llega a concretarse.
+ *
+ * Las implementaciones no deben bloquear: se llaman con el lock del usuario tomado.
+ */
+public interface CupoPrestamos {
+
+    /**
+     * Cupo de una sola instancia: no agrega nada al control local
+     */
+    CupoPrestamos LOCAL = new CupoPrestamos() {
+        @Override
+        public boolean ocupar(String idUsuario, int maximo) {
+            return true;
+        }
+
+        @Override
+        public void liberar(String idUsuario) {
+        }
+    };
+
+    /**
+     * @param maximo Préstamos activos permitidos al usuario, contando el que se ocupa
+     * @return true si el usuario tenía lugar y quedó ocupado; false si ya estaba en el máximo
+     */
+    boolean ocupar(String idUsuario, int maximo);
+
+    void liberar(String idUsuario);
+}
@@ -0,0 +1,104 @@
+package com.biblioteca.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Genera ids de préstamo de 64 bits, crecientes y sin locks.
+ *
+ * Hay dos modos:
+ * <ul>
+ *   <li>Secuencial (un solo nodo): 1, 2, 3... Es el modo por defecto.</li>
+ *   <li>Por nodo, al estilo Snowflake: 41 bits de milisegundos desde EPOCA,
+ *   10 bits de nodo y 12 de secuencia. Varios nodos de la biblioteca generan ids
+ *   sin coordinarse y sin repetirse.</li>
+ * </ul>
+ *
+ * En los dos modos el estado es un único AtomicLong con el último id emitido (sin los
+ * bits de nodo) y cada id cuesta un CAS. Si en un milisegundo se agota la secuencia,
+ * el contador sigue en el milisegundo siguiente en vez de esperar al reloj; por eso
+ * los ids nunca bajan, aunque el reloj retroceda.
+ */
+public class GeneradorIdPrestamo {
+
+    /**
+     * Origen de los milisegundos: 2024-01-01T00:00:00Z
+     */
+    public static final long EPOCA = 1_704_067_200_000L;
+    public static final int MAX_NODO = (1 << 10) - 1;
+
+    private static final int BITS_NODO = 10;
+    private static final int BITS_SECUENCIA = 12;
+    private static final long MASCARA_SECUENCIA = (1L << BITS_SECUENCIA) - 1;
+
+    private final AtomicLong ultimo = new AtomicLong();
+    private final boolean porNodo;
+    private final long bitsNodo;
+    private final LongSupplier reloj;
+
+    /**
+     * Generador secuencial
+     */
+    public GeneradorIdPrestamo() {
+        this.porNodo = false;
+        this.bitsNodo = 0;
+        this.reloj = null;
+    }
+
+    /**
+     * Generador por nodo
+     *
+     * @param nodo Número de nodo, de 0 a MAX_NODO; distinto en cada instancia de la biblioteca
+     * @throws IllegalArgumentException Si el nodo está fuera de rango
+     */
+    public GeneradorIdPrestamo(int nodo) {
+        this(nodo, System::currentTimeMillis);
+    }
+
+    GeneradorIdPrestamo(int nodo, LongSupplier reloj) {
+        if (nodo < 0 || nodo > MAX_NODO) {
+            throw new IllegalArgumentException("Nodo fuera de rango (0-" + MAX_NODO + "): " + nodo);
+        }
+        this.porNodo = true;
+        this.bitsNodo = (long) nodo << BITS_SECUENCIA;
+        this.reloj = reloj;
+    }
+
+    public long siguiente() {
+        if (!porNodo) {
+            return ultimo.incrementAndGet();
+        }
+        // Milisegundo actual con secuencia 0; el reloj se lee fuera del CAS
+        long minimo = Math.max(0, reloj.getAsLong() - EPOCA) << BITS_SECUENCIA;
+        long estado = ultimo.accumulateAndGet(minimo, (anterior, base) -> Math.max(anterior + 1, base));
+        return ((estado >>> BITS_SECUENCIA) << (BITS_NODO + BITS_SECUENCIA)) | bitsNodo
+                | (estado & MASCARA_SECUENCIA);
+    }
+
+    /**
+     * Registra un id ya emitido (al restaurar préstamos): los siguientes serán mayores
+     */
+    public void observar(long id) {
+        if (id < 0) {
+            return;
+        }
+        long estado = id;
+        if (porNodo) {
+            long milisegundo = id >>> (BITS_NODO + BITS_SECUENCIA);
+            // Un id de otro nodo con el mismo milisegundo puede ser mayor que cualquier
+            // secuencia propia: se salta al milisegundo siguiente
+            long secuencia = (id & (MAX_NODO << BITS_SECUENCIA)) == bitsNodo
+                    ? id & MASCARA_SECUENCIA
+                    : MASCARA_SECUENCIA;
+            estado = milisegundo << BITS_SECUENCIA | secuencia;
+        }
+        ultimo.accumulateAndGet(estado, Math::max);
+    }
+
+    /**
+     * @return El nodo que generó un id por nodo
+     */
+    public static int nodo(long id) {
+        return (int) (id >>> BITS_SECUENCIA) & MAX_NODO;
+    }
+}
@@ -0,0 +1,100 @@
+package com.biblioteca.service;
+
+import com.biblioteca.colecciones.MapaLongObjeto;
+import com.biblioteca.model.Libro;
+import com.biblioteca.model.RelojVersiones;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Vista de solo lectura del inventario en un instante (aislamiento por instantánea).
+ *
+ * Incluye los libros registrados al abrirla y, para cada uno, la cantidad disponible
+ * de ese momento, aunque los préstamos sigan mientras se recorre. Leerla no bloquea
+ * a prestarLibro/devolverLibro: cada libro conserva el valor anterior a su primer
+ * cambio posterior mientras la instantánea siga abierta, así que hay que cerrarla
+ * (try-with-resources) al terminar el reporte.
+ *
+ * La cantidad total no se versiona: solo cambia al restaurar una copia de seguridad.
+ */
+public final class InstantaneaCatalogo implements AutoCloseable {
+
+    private final RelojVersiones reloj;
+    private final int version;
+    private final MapaLongObjeto<Libro> libros;
+    private final int tamanio;
+    private final AtomicBoolean cerrada = new AtomicBoolean();
+
+    InstantaneaCatalogo(RelojVersiones reloj, MapaLongObjeto<Libro> libros) {
+        this.reloj = reloj;
+        this.version = reloj.abrir();
+        this.libros = libros;
+        this.tamanio = libros.insertados();
+    }
+
+    /**
+     * @return Cantidad de libros que había al abrir la instantánea
+     */
+    public int tamanio() {
+        return tamanio;
+    }
+
+    /**
+     * @return Cantidad disponible del libro al abrir la instantánea
+     */
+    public int disponibles(Libro libro) {
+        verificarAbierta();
+        return libro.getCantidadDisponibleEn(version);
+    }
+
+    /**
+     * Recorre los libros en orden de registro con su cantidad disponible al abrir la instantánea
+     */
+    public void recorrer(ObjIntConsumer<? super Libro> accion) {
+        verificarAbierta();
+        Spliterator<Libro> recorrido = libros.spliterator(tamanio);
+        recorrido.forEachRemaining(libro -> accion.accept(libro, libro.getCantidadDisponibleEn(version)));
+    }
+
+    /**
+     * @return Suma de (cantidad total - cantidad disponible) de todos los libros
+     */
+    public long contarEjemplaresPrestados() {
+        long[] prestados = new long[1];
+        recorrer((libro, disponibles) -> prestados[0] += libro.getCantidadTotal() - disponibles);
+        return prestados[0];
+    }
+
+    /**
+     * @return Libros sin ejemplares disponibles, en orden de registro
+     */
+    public List<Libro> listarSinDisponibilidad() {
+        List<Libro> resultado = new ArrayList<>();
+        recorrer((libro, disponibles) -> {
+            if (disponibles == 0) {
+                resultado.add(libro);
+            }
+        });
+        return resultado;
+    }
+
+    /**
+     * Libera los valores anteriores que solo esta instantánea necesitaba
+     */
+    @Override
+    public void close() {
+        if (cerrada.compareAndSet(false, true)) {
+            reloj.cerrar(version);
+        }
+    }
+
+    private void verificarAbierta() {
+        if (cerrada.get()) {
+            throw new IllegalStateException("La instantánea del catálogo está cerrada");
+        }
+    }
+}
@@ -1,22 +1,108 @@
 package com.biblioteca.service;
 
+import com.biblioteca.busqueda.CacheBusquedas;
+import com.biblioteca.busqueda.EstadisticasCache;
+import com.biblioteca.busqueda.IndiceTrigramas;
+import com.biblioteca.colecciones.MapaLongObjeto;
+import com.biblioteca.concurrencia.BloqueosSegmentados;
 import com.biblioteca.exception.LibroNoEncontradoException;
+import com.biblioteca.model.InventarioColumnar;
 import com.biblioteca.model.Libro;
+import com.biblioteca.model.ObservadorLibro;
+import com.biblioteca.model.RelojVersiones;
 
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
- * Servicio para gestión de libros
+ * Servicio para gestión de libros.
+ * El catálogo admite lecturas y registros concurrentes.
  */
 public class LibroService {
     
-    private final Map<String, Libro> libros;
+    // A partir de este tamaño de lote la validación se reparte entre núcleos
+    private static final int UMBRAL_VALIDACION_PARALELA = 10_000;
+    private static final int MAX_CONSULTAS_CACHE = 10_000;
+    private static final Duration TTL_CACHE = Duration.ofMinutes(5);
+    public static final int MAX_TAMANIO_PAGINA = 1_000;
+    
+    // Catálogo indexado por el ISBN codificado como long (ver CodecIsbn)
+    private final MapaLongObjeto<Libro> libros;
     private final ValidacionService validacionService;
+    private final IndiceTrigramas indiceTitulos;
+    private final IndiceTrigramas indiceAutores;
+    // Resultados de buscarPorTitulo/buscarPorAutor; null si la cache está desactivada
+    private final CacheBusquedas<List<Libro>> cacheTitulos;
+    private final CacheBusquedas<List<Libro>> cacheAutores;
+    private final ObservadorLibro reindexador;
+    private final List<ObservadorBiblioteca> observadores;
+    private volatile RegistroCambios registro = RegistroCambios.NINGUNO;
+    // Ordena los registros de un mismo ISBN: un duplicado se descarta antes de registrarse
+    private final BloqueosSegmentados bloqueosIsbn;
+    // Opcional: contadores de ejemplares en columnas para los reportes agregados
+    private final InventarioColumnar inventario;
+    // Versiones de disponibilidad para las instantáneas de los reportes
+    private final RelojVersiones reloj = new RelojVersiones();
     
     public LibroService() {
-        this.libros = new HashMap<>();
+        this(16);
+    }
+    
+    /**
+     * @param capacidadEsperada Cantidad de libros prevista, para dimensionar el catálogo
+     *                          de entrada y evitar redimensionamientos durante una importación
+     */
+    public LibroService(int capacidadEsperada) {
+        this(capacidadEsperada, false);
+    }
+    
+    /**
+     * @param capacidadEsperada Cantidad de libros prevista
+     * @param inventarioColumnar true para guardar los contadores de ejemplares en un
+     *                           InventarioColumnar (reportes agregados sin recorrer los libros)
+     */
+    public LibroService(int capacidadEsperada, boolean inventarioColumnar) {
+        this(capacidadEsperada, inventarioColumnar, MAX_CONSULTAS_CACHE, TTL_CACHE);
+    }
+    
+    /**
+     * @param capacidadEsperada Cantidad de libros prevista
+     * @param inventarioColumnar true para usar un InventarioColumnar
+     * @param maxConsultasCache Consultas por título y por autor que se guardan en cache; 0 la desactiva
+     * @param ttlCache Tiempo de vida de cada resultado en cache
+     */
+    public LibroService(int capacidadEsperada, boolean inventarioColumnar, int maxConsultasCache, Duration ttlCache) {
+        this.cacheTitulos = maxConsultasCache > 0 ? new CacheBusquedas<>(maxConsultasCache, ttlCache) : null;
+        this.cacheAutores = maxConsultasCache > 0 ? new CacheBusquedas<>(maxConsultasCache, ttlCache) : null;
+        this.inventario = inventarioColumnar ? new InventarioColumnar() : null;
+        this.libros = new MapaLongObjeto<>(capacidadEsperada);
         this.validacionService = new ValidacionService();
+        this.indiceTitulos = new IndiceTrigramas();
+        this.indiceAutores = new IndiceTrigramas();
+        this.reindexador = new Reindexador();
+        this.observadores = new CopyOnWriteArrayList<>();
+        this.bloqueosIsbn = new BloqueosSegmentados();
+    }
+    
+    /**
+     * Suscribe un observador a los cambios del catálogo
+     */
+    public void agregarObservador(ObservadorBiblioteca observador) {
+        observadores.add(observador);
+    }
+    
+    /**
+     * Fija el registro anticipado de los cambios del catálogo (reemplaza al anterior)
+     */
+    public void setRegistroCambios(RegistroCambios registro) {
+        this.registro = registro;
     }
     
     /**
@@ -29,6 +115,7 @@ public class LibroService {
      * @return El libro registrado
      * @throws IllegalArgumentException Si el ISBN es inválido o ya existe
      * @throws IllegalArgumentException Si la cantidad es negativa o cero
+     * @throws UncheckedIOException Si no se pudo registrar el cambio (el libro no se agrega)
      */
     public Libro registrarLibro(String isbn, String titulo, String autor, int cantidad) {
         // Validar ISBN
@@ -37,7 +124,7 @@ public class LibroService {
         }
         
         // Validar que no exista
-        if (libros.containsKey(isbn)) {
+        if (libros.containsKey(CodecIsbn.codificar(isbn))) {
             throw new IllegalArgumentException("Ya existe un libro con el ISBN: " + isbn);
         }
         
@@ -47,10 +134,109 @@ public class LibroService {
         }
         
         Libro libro = new Libro(isbn, titulo, autor, cantidad);
-        libros.put(isbn, libro);
+        if (!confirmarRegistro(libro)) {
+            throw new IllegalArgumentException("Ya existe un libro con el ISBN: " + isbn);
+        }
+        registro.confirmar();
         return libro;
     }
     
+    /**
+     * Registra un lote de libros (por ejemplo, una importación de catálogo).
+     * 
+     * Valida todo el lote en una pasada (en paralelo para lotes grandes) y registra
+     * los válidos. Un ítem inválido no detiene el lote: queda informado en el
+     * resultado con su motivo, sin lanzar ni construir excepciones.
+     * 
+     * @param nuevos Libros a registrar (se usan ISBN, título, autor y cantidad total)
+     * @return Un resultado por ítem, en el orden de entrada
+     */
+    public ResultadoLote<Libro> registrarLibros(Collection<Libro> nuevos) {
+        Libro[] entrada = nuevos.toArray(new Libro[0]);
+        MotivoRechazo[] motivos = new MotivoRechazo[entrada.length];
+        
+        // Validación de formato: sin estado compartido, se puede paralelizar
+        IntStream indices = IntStream.range(0, entrada.length);
+        if (entrada.length >= UMBRAL_VALIDACION_PARALELA) {
+            indices = indices.parallel();
+        }
+        indices.forEach(i -> motivos[i] = validarNuevo(entrada[i]));
+        
+        // Registro: un solo hilo, detecta duplicados contra el catálogo y dentro del lote
+        List<ResultadoItem<Libro>> resultados = new ArrayList<>(entrada.length);
+        for (int i = 0; i < entrada.length; i++) {
+            if (motivos[i] != null) {
+                resultados.add(ResultadoItem.rechazado(i, motivos[i]));
+                continue;
+            }
+            Libro origen = entrada[i];
+            Libro libro = new Libro(origen.getIsbn(), origen.getTitulo(), origen.getAutor(),
+                    origen.getCantidadTotal());
+            try {
+                resultados.add(confirmarRegistro(libro)
+                        ? ResultadoItem.exitoso(i, libro)
+                        : ResultadoItem.rechazado(i, MotivoRechazo.ISBN_DUPLICADO));
+            } catch (UncheckedIOException e) {
+                resultados.add(ResultadoItem.rechazado(i, MotivoRechazo.REGISTRO_FALLIDO));
+            }
+        }
+        // Una sola espera por todo el lote
+        registro.confirmar();
+        return new ResultadoLote<>(resultados);
+    }
+    
+    private MotivoRechazo validarNuevo(Libro libro) {
+        if (libro == null || !validacionService.validarISBN(libro.getIsbn())) {
+            return MotivoRechazo.ISBN_INVALIDO;
+        }
+        if (!validacionService.validarCantidadPositiva(libro.getCantidadTotal())) {
+            return MotivoRechazo.CANTIDAD_INVALIDA;
+        }
+        return null;
+    }
+    
+    /**
+     * Registra un libro ya validado, lo agrega al catálogo, lo indexa y avisa a los observadores
+     * 
+     * @return false si ya existía un libro con ese ISBN
+     * @throws UncheckedIOException Si falla el registro de cambios; el libro no se publica
+     */
+    private boolean confirmarRegistro(Libro libro) {
+        ReentrantLock bloqueo = bloqueosIsbn.bloqueoPara(libro.getIsbn());
+        bloqueo.lock();
+        try {
+            if (libros.containsKey(CodecIsbn.codificar(libro.getIsbn()))) {
+                return false;
+            }
+            // Primero el observador: todo setTitulo desde que el libro se publica pasa por
+            // el registro y reindexa, o ya está escrito cuando se lee el título abajo
+            libro.setObservador(reindexador);
+            registro.libroRegistrado(libro);
+            agregarAlCatalogo(libro);
+        } finally {
+            bloqueo.unlock();
+        }
+        indexarTitulo(libro, null);
+        indexarAutor(libro, null);
+        for (ObservadorBiblioteca o : observadores) {
+            o.libroRegistrado(libro);
+        }
+        return true;
+    }
+    
+    /**
+     * Publica un libro nuevo. Debe llamarse con el lock de su ISBN tomado, después de
+     * verificar que no existe: los registros del mismo ISBN no se pisan.
+     */
+    private void agregarAlCatalogo(Libro libro) {
+        libro.setRelojVersiones(reloj);
+        if (inventario != null) {
+            // El libro se vincula antes de publicarlo
+            inventario.vincular(libro);
+        }
+        libros.putIfAbsent(CodecIsbn.codificar(libro.getIsbn()), libro);
+    }
+    
     /**
      * Busca un libro por su ISBN
      * 
@@ -59,7 +245,7 @@ public class LibroService {
      * @throws LibroNoEncontradoException Si el libro no existe
      */
     public Libro buscarPorISBN(String isbn) {
-        Libro libro = libros.get(isbn);
+        Libro libro = libros.get(CodecIsbn.codificar(isbn));
         if (libro == null) {
             throw new LibroNoEncontradoException("Libro con ISBN " + isbn + " no encontrado.");
         }
@@ -67,46 +253,151 @@ public class LibroService {
     }
     
     /**
-     * Busca libros por título (búsqueda parcial, case-insensitive)
+     * Busca libros por título (búsqueda parcial, case-insensitive).
+     * Los resultados se guardan en cache por consulta normalizada.
      * 
      * @param titulo Título o parte del título a buscar
-     * @return Lista de libros que coinciden con el título
+     * @return Lista inmutable de libros que coinciden con el título
      */
     public List<Libro> buscarPorTitulo(String titulo) {
-        if (titulo == null || titulo.trim().isEmpty()) {
-            return new ArrayList<>();
-        }
-        
-        String tituloLower = titulo.toLowerCase().trim();
-        return libros.values().stream()
-                .filter(libro -> libro.getTitulo().toLowerCase().contains(tituloLower))
-                .collect(Collectors.toList());
+        return buscar(indiceTitulos, cacheTitulos, titulo);
     }
     
     /**
-     * Busca libros por autor (búsqueda parcial, case-insensitive)
+     * Busca libros por autor (búsqueda parcial, case-insensitive).
+     * Los resultados se guardan en cache por consulta normalizada.
      * 
      * @param autor Nombre del autor o parte del nombre
-     * @return Lista de libros del autor
+     * @return Lista inmutable de libros del autor
      */
     public List<Libro> buscarPorAutor(String autor) {
-        if (autor == null || autor.trim().isEmpty()) {
-            return new ArrayList<>();
-        }
-        
-        String autorLower = autor.toLowerCase().trim();
-        return libros.values().stream()
-                .filter(libro -> libro.getAutor().toLowerCase().contains(autorLower))
-                .collect(Collectors.toList());
+        return buscar(indiceAutores, cacheAutores, autor);
+    }
+    
+    /**
+     * @return Aciertos, fallos, desalojos e invalidaciones de la cache de búsquedas por título,
+     *         o null si la cache está desactivada
+     */
+    public EstadisticasCache getEstadisticasCacheTitulos() {
+        return cacheTitulos == null ? null : cacheTitulos.estadisticas();
+    }
+    
+    /**
+     * @return Estadísticas de la cache de búsquedas por autor, o null si está desactivada
+     */
+    public EstadisticasCache getEstadisticasCacheAutores() {
+        return cacheAutores == null ? null : cacheAutores.estadisticas();
     }
     
     /**
-     * Lista todos los libros registrados
+     * Lista todos los libros registrados.
+     * Copia el catálogo entero: para recorrerlo usar listarLibros o streamLibros.
      * 
      * @return Lista de todos los libros
      */
     public List<Libro> listarTodos() {
-        return new ArrayList<>(libros.values());
+        return libros.valores();
+    }
+    
+    /**
+     * Lista una página del catálogo en orden de registro. Como el catálogo no admite
+     * bajas, el cursor es la posición de registro: los libros registrados mientras se
+     * pagina aparecen al final y ninguno se repite ni se saltea.
+     * 
+     * @param cursor Cursor devuelto por la página anterior, o null para empezar
+     * @param limite Cantidad máxima de libros (entre 1 y MAX_TAMANIO_PAGINA)
+     * @return Los libros de la página y el cursor de la siguiente
+     * @throws IllegalArgumentException Si el cursor o el límite no son válidos
+     */
+    public Pagina<Libro> listarLibros(String cursor, int limite) {
+        validarLimite(limite);
+        int desde = 0;
+        if (cursor != null) {
+            try {
+                desde = Integer.parseInt(cursor);
+            } catch (NumberFormatException e) {
+                desde = -1;
+            }
+            if (desde < 0) {
+                throw new IllegalArgumentException("Cursor inválido: " + cursor);
+            }
+        }
+        List<Libro> pagina = libros.enOrdenDeInsercion(desde, limite);
+        int siguiente = desde + pagina.size();
+        return new Pagina<>(pagina, siguiente < libros.insertados() ? Integer.toString(siguiente) : null);
+    }
+    
+    /**
+     * Recorre el catálogo en orden de registro sin copiarlo. Ve los libros registrados
+     * hasta el momento de la llamada; admite parallel().
+     */
+    public Stream<Libro> streamLibros() {
+        return StreamSupport.stream(libros.spliterator(), false);
+    }
+    
+    static void validarLimite(int limite) {
+        if (limite < 1 || limite > MAX_TAMANIO_PAGINA) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + MAX_TAMANIO_PAGINA + ": " + limite);
+        }
+    }
+    
+    /**
+     * Recorre todos los libros registrados sin copiar el catálogo a una lista
+     * 
+     * @param accion Se invoca una vez por libro, en orden del catálogo (no de registro)
+     */
+    public void recorrerLibros(Consumer<? super Libro> accion) {
+        libros.paraCada(accion);
+    }
+    
+    /**
+     * Cuenta los ejemplares prestados en este momento en todo el catálogo
+     * 
+     * @return Suma de (cantidad total - cantidad disponible) de todos los libros
+     */
+    public long contarEjemplaresPrestados() {
+        if (inventario != null) {
+            return inventario.ejemplaresPrestados();
+        }
+        return streamLibros().mapToLong(libro -> libro.getCantidadTotal() - libro.getCantidadDisponible()).sum();
+    }
+    
+    /**
+     * Lista los libros que no tienen ejemplares disponibles
+     * 
+     * @return Lista de libros sin disponibilidad
+     */
+    public List<Libro> listarSinDisponibilidad() {
+        if (inventario != null) {
+            return inventario.listarSinDisponibilidad();
+        }
+        List<Libro> resultado = new ArrayList<>();
+        streamLibros().forEach(libro -> {
+            if (!libro.estaDisponible()) {
+                resultado.add(libro);
+            }
+        });
+        return resultado;
+    }
+    
+    /**
+     * Abre una instantánea del inventario para reportes largos: ve la disponibilidad
+     * de todos los libros en este instante sin bloquear los préstamos. Debe cerrarse.
+     * 
+     * @throws IllegalStateException Si el servicio usa un InventarioColumnar
+     */
+    public InstantaneaCatalogo abrirInstantanea() {
+        if (inventario != null) {
+            throw new IllegalStateException("Las instantáneas no admiten el inventario columnar");
+        }
+        return new InstantaneaCatalogo(reloj, libros);
+    }
+    
+    /**
+     * @return El inventario columnar, o null si este servicio no lo usa
+     */
+    public InventarioColumnar getInventario() {
+        return inventario;
     }
     
     /**
@@ -116,6 +407,7 @@ public class LibroService {
      * @param nuevaCantidad Nueva cantidad disponible
      * @throws LibroNoEncontradoException Si el libro no existe
      * @throws IllegalArgumentException Si la nueva cantidad es inválida
+     * @throws UncheckedIOException Si no se pudo registrar el cambio (la cantidad no cambia)
      */
     public void actualizarDisponibilidad(String isbn, int nuevaCantidad) {
         Libro libro = buscarPorISBN(isbn);
@@ -128,7 +420,19 @@ public class LibroService {
             throw new IllegalArgumentException("La cantidad disponible no puede ser mayor a la cantidad total.");
         }
         
-        libro.setCantidadDisponible(nuevaCantidad);
+        // Relativo: los préstamos y devoluciones concurrentes también se registran como
+        // diferencias, así el estado reconstruido no depende de cómo se intercalen
+        int anterior = libro.reemplazarDisponible(nuevaCantidad);
+        try {
+            registro.disponibilidadAjustada(libro, nuevaCantidad - anterior);
+        } catch (UncheckedIOException e) {
+            libro.ajustarDisponible(anterior - nuevaCantidad);
+            throw e;
+        }
+        for (ObservadorBiblioteca o : observadores) {
+            o.disponibilidadActualizada(libro);
+        }
+        registro.confirmar();
     }
     
     /**
@@ -138,7 +442,92 @@ public class LibroService {
      * @return true si existe, false en caso contrario
      */
     public boolean existeLibro(String isbn) {
-        return libros.containsKey(isbn);
+        return libros.containsKey(CodecIsbn.codificar(isbn));
+    }
+    
+    private List<Libro> buscar(IndiceTrigramas indice, CacheBusquedas<List<Libro>> cache, String consulta) {
+        if (cache == null || consulta == null || consulta.trim().isEmpty()) {
+            return Collections.unmodifiableList(resolver(indice.buscar(consulta)));
+        }
+        return cache.obtener(consulta, q -> Collections.unmodifiableList(resolver(indice.buscar(q))));
+    }
+    
+    /**
+     * Indexa el título actual del libro. Se lee con el índice bloqueado (el mismo monitor
+     * que usa indexar): de dos indexados del mismo libro, el último ve el último título
+     * escrito y el índice no queda atrás.
+     */
+    private void indexarTitulo(Libro libro, String tituloAnterior) {
+        String titulo;
+        synchronized (indiceTitulos) {
+            titulo = libro.getTitulo();
+            indiceTitulos.indexar(libro.getIsbn(), titulo);
+        }
+        invalidar(cacheTitulos, tituloAnterior, titulo);
+    }
+    
+    private void indexarAutor(Libro libro, String autorAnterior) {
+        String autor;
+        synchronized (indiceAutores) {
+            autor = libro.getAutor();
+            indiceAutores.indexar(libro.getIsbn(), autor);
+        }
+        invalidar(cacheAutores, autorAnterior, autor);
+    }
+    
+    private static void invalidar(CacheBusquedas<List<Libro>> cache, String textoAnterior, String textoNuevo) {
+        if (cache != null) {
+            cache.invalidar(textoAnterior, textoNuevo);
+        }
+    }
+    
+    /**
+     * Convierte los ISBN devueltos por un índice en libros
+     */
+    private List<Libro> resolver(List<String> isbns) {
+        List<Libro> resultado = new ArrayList<>(isbns.size());
+        for (String isbn : isbns) {
+            Libro libro = libros.get(CodecIsbn.codificar(isbn));
+            if (libro != null) {
+                resultado.add(libro);
+            }
+        }
+        return resultado;
+    }
+    
+    /**
+     * Registra los cambios de título o autor de un libro registrado antes de escribirlos;
+     * después mantiene los índices de búsqueda y avisa a los observadores
+     */
+    private class Reindexador implements ObservadorLibro {
+        
+        @Override
+        public void tituloPorCambiar(Libro libro, String titulo) {
+            registro.datosLibroActualizados(libro, titulo, libro.getAutor());
+        }
+        
+        @Override
+        public void tituloCambiado(Libro libro, String tituloAnterior) {
+            indexarTitulo(libro, tituloAnterior);
+            notificarDatosActualizados(libro);
+        }
+        
+        @Override
+        public void autorPorCambiar(Libro libro, String autor) {
+            registro.datosLibroActualizados(libro, libro.getTitulo(), autor);
+        }
+        
+        @Override
+        public void autorCambiado(Libro libro, String autorAnterior) {
+            indexarAutor(libro, autorAnterior);
+            notificarDatosActualizados(libro);
+        }
+        
+        private void notificarDatosActualizados(Libro libro) {
+            for (ObservadorBiblioteca o : observadores) {
+                o.datosLibroActualizados(libro);
+            }
+            registro.confirmar();
+        }
     }
 }
-
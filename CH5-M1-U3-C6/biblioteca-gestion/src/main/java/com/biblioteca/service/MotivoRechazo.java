@@ -0,0 +1,25 @@
+package com.biblioteca.service;
+
+/**
+ * Motivo por el que una operación de un lote no se aplicó.
+ * En los lotes se informa el motivo en lugar de lanzar una excepción por ítem.
+ */
+public enum MotivoRechazo {
+    ISBN_INVALIDO("ISBN inválido. Debe tener exactamente 13 dígitos numéricos."),
+    ISBN_DUPLICADO("Ya existe un libro con ese ISBN."),
+    CANTIDAD_INVALIDA("La cantidad debe ser mayor a cero."),
+    LIBRO_NO_ENCONTRADO("Libro no encontrado."),
+    LIBRO_NO_DISPONIBLE("El libro no está disponible."),
+    LIMITE_PRESTAMOS("El usuario alcanzó el máximo de préstamos activos."),
+    REGISTRO_FALLIDO("No se pudo registrar el cambio; no se aplicó.");
+
+    private final String descripcion;
+
+    MotivoRechazo(String descripcion) {
+        this.descripcion = descripcion;
+    }
+
+    public String getDescripcion() {
+        return descripcion;
+    }
+}
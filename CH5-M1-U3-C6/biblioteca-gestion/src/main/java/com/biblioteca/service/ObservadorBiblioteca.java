@@ -0,0 +1,71 @@
+package com.biblioteca.service;
+
+import com.biblioteca.model.Libro;
+import com.biblioteca.model.Prestamo;
+import com.biblioteca.model.Reserva;
+
+/**
+ * Recibe cada cambio de estado confirmado por LibroService y PrestamoService.
+ *
+ * Se invoca de forma sincrónica en el hilo que hizo el cambio (en los préstamos,
+ * con el lock del usuario tomado), así que las implementaciones deben ser rápidas
+ * y no bloquear.
+ *
+ * Las reservas se avisan al entrar en la cola y al salir de ella (cancelada,
+ * atendida o rechazada), así que con estos avisos se puede reconstruir la cola de
+ * espera de cada libro en el mismo orden.
+ */
+public interface ObservadorBiblioteca {
+
+    default void libroRegistrado(Libro libro) {
+    }
+
+    /**
+     * Cambió el título o el autor de un libro registrado
+     */
+    default void datosLibroActualizados(Libro libro) {
+    }
+
+    /**
+     * Se fijó a mano la cantidad disponible (LibroService.actualizarDisponibilidad)
+     */
+    default void disponibilidadActualizada(Libro libro) {
+    }
+
+    default void prestamoCreado(Prestamo prestamo) {
+    }
+
+    default void prestamoDevuelto(Prestamo prestamo) {
+    }
+
+    /**
+     * Se extendió la fecha de vencimiento de un préstamo activo
+     */
+    default void prestamoRenovado(Prestamo prestamo) {
+    }
+
+    /**
+     * La reserva entró en la cola de su libro. Se avisa mientras se encola: dos reservas
+     * del mismo libro se avisan en el orden en que quedan en la cola.
+     */
+    default void reservaCreada(Reserva reserva) {
+    }
+
+    /**
+     * El usuario canceló su primera reserva pendiente del libro
+     */
+    default void reservaCancelada(Reserva reserva) {
+    }
+
+    /**
+     * La reserva recibió un ejemplar; se avisa después de prestamoCreado de su préstamo
+     */
+    default void reservaAtendida(Reserva reserva) {
+    }
+
+    /**
+     * A la reserva le tocó el turno pero el usuario tenía el máximo de préstamos activos
+     */
+    default void reservaRechazada(Reserva reserva) {
+    }
+}
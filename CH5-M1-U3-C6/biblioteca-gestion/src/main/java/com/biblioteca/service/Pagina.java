@@ -0,0 +1,38 @@
+package com.biblioteca.service;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Una página de un listado por cursor.
+ *
+ * El cursor es opaco: se obtiene de la página anterior y se pasa tal cual para
+ * pedir la siguiente. Sigue siendo válido aunque el listado cambie entre pedidos.
+ *
+ * @param <T> Tipo de los elementos
+ */
+public class Pagina<T> {
+
+    private final List<T> elementos;
+    private final String siguienteCursor;
+
+    Pagina(List<T> elementos, String siguienteCursor) {
+        this.elementos = Collections.unmodifiableList(elementos);
+        this.siguienteCursor = siguienteCursor;
+    }
+
+    public List<T> getElementos() {
+        return elementos;
+    }
+
+    /**
+     * @return Cursor para pedir la página siguiente, o null si esta es la última
+     */
+    public String getSiguienteCursor() {
+        return siguienteCursor;
+    }
+
+    public boolean hayMas() {
+        return siguienteCursor != null;
+    }
+}
@@ -1,30 +1,121 @@
 package com.biblioteca.service;
 
+import com.biblioteca.concurrencia.BloqueosSegmentados;
 import com.biblioteca.exception.LibroNoDisponibleException;
 import com.biblioteca.exception.LibroNoEncontradoException;
 import com.biblioteca.exception.LimitePrestamosException;
 import com.biblioteca.exception.PrestamoNoEncontradoException;
+import com.biblioteca.exception.RenovacionNoPermitidaException;
+import com.biblioteca.historial.HistorialPrestamos;
+import com.biblioteca.model.Libro;
 import com.biblioteca.model.Prestamo;
+import com.biblioteca.model.Reserva;
+import com.biblioteca.model.SolicitudPrestamo;
+import com.biblioteca.reservas.ColaReservas;
+import com.biblioteca.vencimientos.ColaVencimientos;
 
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
- * Servicio para gestión de préstamos
+ * Servicio para gestión de préstamos.
+ *
+ * Es seguro para uso concurrente: el control del límite por usuario se hace bajo
+ * un lock segmentado por idUsuario y el stock de cada libro se descuenta con CAS,
+ * por lo que préstamos de usuarios y libros distintos no se bloquean entre sí.
+ *
+ * Solo los préstamos activos viven como objetos en memoria; al devolverse pasan
+ * a un HistorialPrestamos compacto, consultable por usuario y por fechas.
+ *
+ * Cada préstamo activo vence DIAS_PRESTAMO días después de tomarse (o de su última
+ * renovación) y está programado en una ColaVencimientos: detectar los vencidos
+ * cuesta O(vencidos), sin recorrer todos los préstamos.
+ *
+ * Cuando un libro no tiene ejemplares, el usuario puede reservarlo: las reservas
+ * forman una cola FIFO sin locks por ISBN y, mientras haya alguien esperando, cada
+ * ejemplar devuelto pasa directo al siguiente de la cola en lugar de volver al stock.
+ *
+ * Los listados completos se paginan por id de préstamo (activos e historial mezclados),
+ * con un cursor estable aunque haya préstamos y devoluciones entre página y página.
+ *
+ * Con un RegistroCambios, cada cambio se registra antes de publicarse y cada operación
+ * vuelve recién cuando el registro confirma lo suyo (ver RegistroCambios.confirmar).
  */
 public class PrestamoService {
     
     private static final int MAX_PRESTAMOS_POR_USUARIO = 3;
+    private static final int DIAS_PRESTAMO = 14;
+    private static final int MAX_RENOVACIONES = 2;
     
-    private final Map<String, Prestamo> prestamos;
+    // Solo préstamos activos, por número de id: los devueltos se mueven al historial
+    private final ConcurrentSkipListMap<Long, Prestamo> prestamos;
+    private final HistorialPrestamos historial;
+    // Índice secundario: idUsuario -> préstamos activos (como máximo MAX_PRESTAMOS_POR_USUARIO).
+    // Cada lista es inmutable y se reemplaza bajo el lock del usuario.
+    private final Map<String, List<Prestamo>> prestamosActivosPorUsuario;
+    private final BloqueosSegmentados bloqueosUsuario;
+    private final ColaVencimientos vencimientos;
+    private final ColaReservas reservas;
+    // Préstamos activos que ya vencieron, detectados por actualizarVencidos
+    private final Map<Long, Prestamo> vencidos;
     private final LibroService libroService;
-    private int contadorId;
+    private final GeneradorIdPrestamo generadorId;
+    private final CupoPrestamos cupo;
+    private final List<ObservadorBiblioteca> observadores;
+    private volatile RegistroCambios registro = RegistroCambios.NINGUNO;
+    // Toma del id y alta en prestamos de un préstamo nuevo, en un solo paso
+    private final Object monitorAltas = new Object();
+    // Mayor id publicado: todos los préstamos con id menor o igual ya están en prestamos
+    // o en el historial. Los listados por cursor no pasan de acá.
+    private volatile long publicadoHasta = -1;
     
     public PrestamoService(LibroService libroService) {
-        this.prestamos = new HashMap<>();
+        this(libroService, new GeneradorIdPrestamo());
+    }
+    
+    /**
+     * @param generadorId Generador de ids; uno por nodo cuando varios nodos prestan a la vez
+     */
+    public PrestamoService(LibroService libroService, GeneradorIdPrestamo generadorId) {
+        this(libroService, generadorId, CupoPrestamos.LOCAL);
+    }
+    
+    /**
+     * @param cupo Cupo por usuario compartido con otras instancias (catálogo particionado)
+     */
+    public PrestamoService(LibroService libroService, GeneradorIdPrestamo generadorId, CupoPrestamos cupo) {
+        this.prestamos = new ConcurrentSkipListMap<>();
+        this.historial = new HistorialPrestamos();
+        this.prestamosActivosPorUsuario = new ConcurrentHashMap<>();
+        this.bloqueosUsuario = new BloqueosSegmentados();
+        this.vencimientos = new ColaVencimientos();
+        this.reservas = new ColaReservas();
+        this.vencidos = new ConcurrentHashMap<>();
         this.libroService = libroService;
-        this.contadorId = 1;
+        this.generadorId = generadorId;
+        this.cupo = cupo;
+        this.observadores = new CopyOnWriteArrayList<>();
+    }
+    
+    /**
+     * Suscribe un observador a los préstamos y devoluciones
+     */
+    public void agregarObservador(ObservadorBiblioteca observador) {
+        observadores.add(observador);
+    }
+    
+    /**
+     * Fija el registro anticipado de los préstamos y las reservas (reemplaza al anterior)
+     */
+    public void setRegistroCambios(RegistroCambios registro) {
+        this.registro = registro;
     }
     
     /**
@@ -36,39 +127,97 @@ public class PrestamoService {
      * @throws LibroNoEncontradoException Si el libro no existe
      * @throws LibroNoDisponibleException Si el libro no está disponible
      * @throws LimitePrestamosException Si el usuario ya tiene el máximo de préstamos
+     * @throws UncheckedIOException Si no se pudo registrar el préstamo (no se presta)
      */
     public Prestamo prestarLibro(String isbn, String idUsuario) {
+        ResultadoItem<Prestamo> resultado = intentarPrestar(0, isbn, idUsuario);
+        if (resultado.esExitoso()) {
+            registro.confirmar();
+            return resultado.getValor();
+        }
+        switch (resultado.getMotivo()) {
+            case LIBRO_NO_ENCONTRADO:
+                throw new LibroNoEncontradoException("Libro con ISBN " + isbn + " no encontrado.");
+            case LIMITE_PRESTAMOS:
+                throw new LimitePrestamosException(
+                    "El usuario " + idUsuario + " ya tiene " + MAX_PRESTAMOS_POR_USUARIO + " préstamos activos. " +
+                    "No puede prestar más libros."
+                );
+            default:
+                throw new LibroNoDisponibleException("El libro con ISBN " + isbn + " no está disponible.");
+        }
+    }
+    
+    /**
+     * Procesa un lote de solicitudes de préstamo, en orden.
+     * 
+     * Aplica las mismas reglas que prestarLibro, pero una solicitud rechazada no
+     * detiene el lote: queda informada con su motivo, sin lanzar excepciones. Vuelve
+     * después de una sola confirmación del registro para todo el lote.
+     * 
+     * @param solicitudes Solicitudes a procesar
+     * @return Un resultado por solicitud, en el orden de entrada
+     */
+    public ResultadoLote<Prestamo> prestarLibros(List<SolicitudPrestamo> solicitudes) {
+        List<ResultadoItem<Prestamo>> resultados = new ArrayList<>(solicitudes.size());
+        int indice = 0;
+        for (SolicitudPrestamo solicitud : solicitudes) {
+            try {
+                resultados.add(intentarPrestar(indice, solicitud.getIsbn(), solicitud.getIdUsuario()));
+            } catch (UncheckedIOException e) {
+                resultados.add(ResultadoItem.rechazado(indice, MotivoRechazo.REGISTRO_FALLIDO));
+            }
+            indice++;
+        }
+        registro.confirmar();
+        return new ResultadoLote<>(resultados);
+    }
+    
+    /**
+     * Núcleo del préstamo: informa el rechazo como motivo en lugar de lanzar
+     * 
+     * @throws UncheckedIOException Si falla el registro; el stock y el cupo quedan como estaban
+     */
+    private ResultadoItem<Prestamo> intentarPrestar(int indice, String isbn, String idUsuario) {
         // Validar que el libro existe
         if (!libroService.existeLibro(isbn)) {
-            throw new LibroNoEncontradoException("Libro con ISBN " + isbn + " no encontrado.");
+            return ResultadoItem.rechazado(indice, MotivoRechazo.LIBRO_NO_ENCONTRADO);
         }
         
         // Obtener el libro
         var libro = libroService.buscarPorISBN(isbn);
         
-        // Validar disponibilidad
-        if (!libro.estaDisponible()) {
-            throw new LibroNoDisponibleException("El libro con ISBN " + isbn + " no está disponible.");
+        // Validar disponibilidad: si hay reservas, los ejemplares son de quienes esperan
+        if (!libro.estaDisponible() || reservas.hayPendientes(isbn)) {
+            return ResultadoItem.rechazado(indice, MotivoRechazo.LIBRO_NO_DISPONIBLE);
         }
         
-        // Validar límite de préstamos
-        int prestamosActivos = contarPrestamosActivos(idUsuario);
-        if (prestamosActivos >= MAX_PRESTAMOS_POR_USUARIO) {
-            throw new LimitePrestamosException(
-                "El usuario " + idUsuario + " ya tiene " + MAX_PRESTAMOS_POR_USUARIO + " préstamos activos. " +
-                "No puede prestar más libros."
-            );
+        // Límite por usuario, descuento de stock y alta del préstamo en un solo paso atómico
+        ReentrantLock bloqueo = bloqueosUsuario.bloqueoPara(idUsuario);
+        bloqueo.lock();
+        try {
+            // Validar límite de préstamos: el propio y, con particiones, el compartido
+            if (contarPrestamosActivos(idUsuario) >= MAX_PRESTAMOS_POR_USUARIO
+                    || !cupo.ocupar(idUsuario, MAX_PRESTAMOS_POR_USUARIO)) {
+                return ResultadoItem.rechazado(indice, MotivoRechazo.LIMITE_PRESTAMOS);
+            }
+            
+            // Actualizar disponibilidad del libro (CAS: otro hilo pudo llevarse el último ejemplar)
+            if (!libro.prestar()) {
+                cupo.liberar(idUsuario);
+                return ResultadoItem.rechazado(indice, MotivoRechazo.LIBRO_NO_DISPONIBLE);
+            }
+            
+            try {
+                return ResultadoItem.exitoso(indice, crearPrestamo(isbn, idUsuario, null));
+            } catch (UncheckedIOException e) {
+                libro.devolver();
+                cupo.liberar(idUsuario);
+                throw e;
+            }
+        } finally {
+            bloqueo.unlock();
         }
-        
-        // Crear el préstamo
-        String idPrestamo = generarIdPrestamo();
-        Prestamo prestamo = new Prestamo(idPrestamo, isbn, idUsuario, LocalDate.now());
-        prestamos.put(idPrestamo, prestamo);
-        
-        // Actualizar disponibilidad del libro
-        libro.prestar();
-        
-        return prestamo;
     }
     
     /**
@@ -77,23 +226,199 @@ public class PrestamoService {
      * @param isbn ISBN del libro a devolver
      * @param idUsuario ID del usuario que devuelve el libro
      * @throws PrestamoNoEncontradoException Si no existe un préstamo activo para ese libro y usuario
+     * @throws UncheckedIOException Si no se pudo registrar la devolución (el préstamo sigue activo).
+     *                              Si lo que falla es el préstamo a una reserva, la devolución
+     *                              ya quedó hecha y el ejemplar vuelve al stock.
      */
     public void devolverLibro(String isbn, String idUsuario) {
-        // Buscar el préstamo activo
-        Prestamo prestamo = buscarPrestamoActivo(isbn, idUsuario);
-        
-        if (prestamo == null) {
-            throw new PrestamoNoEncontradoException(
-                "No se encontró un préstamo activo del libro " + isbn + " para el usuario " + idUsuario
-            );
+        ReentrantLock bloqueo = bloqueosUsuario.bloqueoPara(idUsuario);
+        bloqueo.lock();
+        try {
+            // Buscar el préstamo activo
+            Prestamo prestamo = buscarPrestamoActivo(isbn, idUsuario);
+            
+            if (prestamo == null) {
+                throw new PrestamoNoEncontradoException(
+                    "No se encontró un préstamo activo del libro " + isbn + " para el usuario " + idUsuario
+                );
+            }
+            
+            // Marcar como devuelto y pasarlo de los activos al historial
+            LocalDate hoy = LocalDate.now();
+            registro.prestamoDevuelto(prestamo, hoy);
+            prestamo.devolver(hoy);
+            archivar(prestamo);
+            for (ObservadorBiblioteca o : observadores) {
+                o.prestamoDevuelto(prestamo);
+            }
+        } finally {
+            bloqueo.unlock();
         }
         
-        // Marcar como devuelto
-        prestamo.devolver(LocalDate.now());
-        
-        // Actualizar disponibilidad del libro
+        // El ejemplar pasa al siguiente en la cola de reservas o, si no hay nadie, vuelve al stock
         var libro = libroService.buscarPorISBN(isbn);
-        libro.devolver();
+        if (!entregarOReponer(libro)) {
+            libro.devolver();
+            atenderReservas(libro);
+        }
+        registro.confirmar();
+    }
+    
+    /**
+     * Pone al usuario en la cola de espera del libro.
+     * Si hay un ejemplar libre y nadie antes en la cola, la reserva se atiende en el acto.
+     * 
+     * @param isbn ISBN del libro a reservar
+     * @param idUsuario ID del usuario
+     * @return La reserva; pasa a ATENDIDA, con su préstamo, cuando le llega un ejemplar
+     * @throws LibroNoEncontradoException Si el libro no existe
+     * @throws UncheckedIOException Si no se pudo registrar la reserva (no se encola)
+     */
+    public Reserva reservarLibro(String isbn, String idUsuario) {
+        if (!libroService.existeLibro(isbn)) {
+            throw new LibroNoEncontradoException("Libro con ISBN " + isbn + " no encontrado.");
+        }
+        Reserva reserva = new Reserva(isbn, idUsuario, LocalDate.now());
+        reservas.encolar(reserva, r -> {
+            registro.reservaCreada(r);
+            for (ObservadorBiblioteca o : observadores) {
+                o.reservaCreada(r);
+            }
+        });
+        // Un ejemplar pudo volver al stock justo antes de encolar: se revisa después
+        atenderReservas(libroService.buscarPorISBN(isbn));
+        registro.confirmar();
+        return reserva;
+    }
+    
+    /**
+     * Cancela la reserva pendiente del usuario para un libro
+     * 
+     * @return true si había una reserva pendiente
+     * @throws UncheckedIOException Si no se pudo registrar la cancelación (la reserva sigue pendiente)
+     */
+    public boolean cancelarReserva(String isbn, String idUsuario) {
+        ReentrantLock bloqueo = bloqueosUsuario.bloqueoPara(idUsuario);
+        bloqueo.lock();
+        try {
+            Reserva reserva = buscarReservaPendiente(isbn, idUsuario);
+            if (reserva == null) {
+                return false;
+            }
+            registro.reservaCancelada(reserva);
+            reserva.cancelar();
+            for (ObservadorBiblioteca o : observadores) {
+                o.reservaCancelada(reserva);
+            }
+        } finally {
+            bloqueo.unlock();
+        }
+        registro.confirmar();
+        return true;
+    }
+    
+    /**
+     * @return Las reservas pendientes del libro, en orden de llegada
+     */
+    public List<Reserva> listarReservasPendientes(String isbn) {
+        return reservas.listarPendientes(isbn);
+    }
+    
+    /**
+     * @return Las reservas pendientes de todos los libros; las de un mismo libro, en orden de llegada
+     */
+    public List<Reserva> listarTodasLasReservasPendientes() {
+        return reservas.listarTodasPendientes();
+    }
+    
+    /**
+     * Renueva un préstamo activo por otros DIAS_PRESTAMO días a partir de hoy
+     * 
+     * @param isbn ISBN del libro prestado
+     * @param idUsuario ID del usuario
+     * @return El préstamo con su nueva fecha de vencimiento
+     * @throws PrestamoNoEncontradoException Si no existe un préstamo activo para ese libro y usuario
+     * @throws RenovacionNoPermitidaException Si el préstamo está vencido o ya se renovó MAX_RENOVACIONES veces
+     * @throws UncheckedIOException Si no se pudo registrar la renovación (el vencimiento no cambia)
+     */
+    public Prestamo renovarPrestamo(String isbn, String idUsuario) {
+        ReentrantLock bloqueo = bloqueosUsuario.bloqueoPara(idUsuario);
+        bloqueo.lock();
+        Prestamo prestamo;
+        try {
+            prestamo = buscarPrestamoActivo(isbn, idUsuario);
+            if (prestamo == null) {
+                throw new PrestamoNoEncontradoException(
+                    "No se encontró un préstamo activo del libro " + isbn + " para el usuario " + idUsuario
+                );
+            }
+            LocalDate hoy = LocalDate.now();
+            if (prestamo.estaVencido(hoy)) {
+                throw new RenovacionNoPermitidaException(
+                    "El préstamo " + prestamo.getId() + " está vencido desde " + prestamo.getFechaVencimiento()
+                );
+            }
+            if (prestamo.getRenovaciones() >= MAX_RENOVACIONES) {
+                throw new RenovacionNoPermitidaException(
+                    "El préstamo " + prestamo.getId() + " ya se renovó " + MAX_RENOVACIONES + " veces"
+                );
+            }
+            
+            LocalDate vencimiento = hoy.plusDays(DIAS_PRESTAMO);
+            registro.prestamoRenovado(prestamo, vencimiento);
+            // La clave de la cola depende de la fecha: cancelar antes de cambiarla
+            vencimientos.cancelar(prestamo);
+            prestamo.renovar(vencimiento);
+            vencimientos.programar(prestamo);
+            for (ObservadorBiblioteca o : observadores) {
+                o.prestamoRenovado(prestamo);
+            }
+        } finally {
+            bloqueo.unlock();
+        }
+        registro.confirmar();
+        return prestamo;
+    }
+    
+    /**
+     * Detecta los préstamos que vencieron desde la última llamada.
+     * Solo recorre los préstamos recién vencidos, no todos los activos.
+     * 
+     * @param hoy Fecha actual: vence todo préstamo con vencimiento anterior
+     * @return Los préstamos que pasaron a estar vencidos, del más antiguo al más reciente
+     */
+    public List<Prestamo> actualizarVencidos(LocalDate hoy) {
+        List<Prestamo> nuevos = new ArrayList<>();
+        for (Prestamo prestamo : vencimientos.extraerVencidos(hoy)) {
+            ReentrantLock bloqueo = bloqueosUsuario.bloqueoPara(prestamo.getIdUsuario());
+            bloqueo.lock();
+            try {
+                // Pudo devolverse entre la extracción y este punto
+                if (prestamos.containsKey(prestamo.getNumero())) {
+                    vencidos.put(prestamo.getNumero(), prestamo);
+                    nuevos.add(prestamo);
+                }
+            } finally {
+                bloqueo.unlock();
+            }
+        }
+        return nuevos;
+    }
+    
+    /**
+     * Lista los préstamos activos detectados como vencidos por actualizarVencidos
+     * 
+     * @return Préstamos vencidos sin devolver
+     */
+    public List<Prestamo> listarVencidos() {
+        return new ArrayList<>(vencidos.values());
+    }
+    
+    /**
+     * @return Fecha del próximo vencimiento entre los préstamos activos no vencidos, o null si no hay
+     */
+    public LocalDate proximoVencimiento() {
+        return vencimientos.proximoVencimiento();
     }
     
     /**
@@ -103,9 +428,8 @@ public class PrestamoService {
      * @return Lista de préstamos activos
      */
     public List<Prestamo> obtenerPrestamosActivos(String idUsuario) {
-        return prestamos.values().stream()
-                .filter(p -> p.getIdUsuario().equals(idUsuario) && p.isActivo())
-                .collect(Collectors.toList());
+        List<Prestamo> activos = prestamosActivosPorUsuario.get(idUsuario);
+        return activos == null ? new ArrayList<>() : new ArrayList<>(activos);
     }
     
     /**
@@ -115,37 +439,475 @@ public class PrestamoService {
      * @return Número de préstamos activos
      */
     public int contarPrestamosActivos(String idUsuario) {
-        return (int) prestamos.values().stream()
-                .filter(p -> p.getIdUsuario().equals(idUsuario) && p.isActivo())
-                .count();
+        List<Prestamo> activos = prestamosActivosPorUsuario.get(idUsuario);
+        return activos == null ? 0 : activos.size();
     }
     
     /**
-     * Lista todos los préstamos (activos e inactivos)
+     * Lista todos los préstamos (activos e inactivos).
+     * Los devueltos se reconstruyen desde el historial: para recorrer solo los
+     * vigentes usar listarPrestamosActivos, y para recorrerlos todos sin copiarlos,
+     * listarPrestamos o streamPrestamos.
      * 
      * @return Lista de todos los préstamos
      */
     public List<Prestamo> listarTodosLosPrestamos() {
+        List<Prestamo> todos = new ArrayList<>(prestamos.values());
+        todos.addAll(historial.listarTodos());
+        return todos;
+    }
+    
+    /**
+     * Lista una página de todos los préstamos (activos y devueltos), ordenados por id.
+     * 
+     * El cursor es el id del último préstamo de la página: los préstamos nuevos tienen
+     * ids mayores y aparecen al final, y una devolución no cambia el id, así que entre
+     * páginas ningún préstamo se repite ni se saltea. Un préstamo con id ya tomado pero
+     * todavía no dado de alta no se saltea: la página se corta antes de su id (ver
+     * publicadoHasta) y aparece en la siguiente.
+     * 
+     * @param cursor Cursor devuelto por la página anterior, o null para empezar
+     * @param limite Cantidad máxima de préstamos (entre 1 y LibroService.MAX_TAMANIO_PAGINA)
+     * @return Los préstamos de la página y el cursor de la siguiente
+     * @throws IllegalArgumentException Si el cursor o el límite no son válidos
+     */
+    public Pagina<Prestamo> listarPrestamos(String cursor, int limite) {
+        LibroService.validarLimite(limite);
+        long desde = -1;
+        if (cursor != null && (desde = Prestamo.numeroDeId(cursor)) < 0) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor);
+        }
+        // Se pide uno de más para saber si hay otra página
+        List<Prestamo> pagina = prestamosDesde(desde, limite + 1);
+        if (pagina.size() <= limite) {
+            return new Pagina<>(pagina, null);
+        }
+        pagina = pagina.subList(0, limite);
+        return new Pagina<>(pagina, pagina.get(limite - 1).getId());
+    }
+    
+    /**
+     * Recorre todos los préstamos (activos y devueltos) en orden de id, de a páginas,
+     * sin copiarlos todos a la vez. Los préstamos creados durante el recorrido aparecen
+     * si se crean antes de llegar al final.
+     */
+    public Stream<Prestamo> streamPrestamos() {
+        Iterator<Prestamo> recorrido = new Iterator<>() {
+            private long ultimo = -1;
+            private Iterator<Prestamo> pagina = Collections.emptyIterator();
+            private boolean agotado;
+            
+            @Override
+            public boolean hasNext() {
+                if (!pagina.hasNext() && !agotado) {
+                    List<Prestamo> siguientes = prestamosDesde(ultimo, LibroService.MAX_TAMANIO_PAGINA);
+                    agotado = siguientes.size() < LibroService.MAX_TAMANIO_PAGINA;
+                    pagina = siguientes.iterator();
+                }
+                return pagina.hasNext();
+            }
+            
+            @Override
+            public Prestamo next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Prestamo prestamo = pagina.next();
+                ultimo = prestamo.getNumero();
+                return prestamo;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(recorrido,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+    
+    /**
+     * Lista los préstamos activos de todos los usuarios
+     * 
+     * @return Lista de préstamos activos
+     */
+    public List<Prestamo> listarPrestamosActivos() {
         return new ArrayList<>(prestamos.values());
     }
     
     /**
-     * Busca un préstamo activo por ISBN y usuario
+     * Obtiene los préstamos ya devueltos de un usuario
+     * 
+     * @param idUsuario ID del usuario
+     * @return Préstamos devueltos, en el orden en que se devolvieron
+     */
+    public List<Prestamo> obtenerHistorial(String idUsuario) {
+        return historial.buscarPorUsuario(idUsuario);
+    }
+    
+    /**
+     * Obtiene los préstamos devueltos en un rango de fechas
+     * 
+     * @param desde Fecha inicial (inclusive)
+     * @param hasta Fecha final (inclusive)
+     * @return Préstamos devueltos entre ambas fechas
+     */
+    public List<Prestamo> obtenerDevolucionesEntre(LocalDate desde, LocalDate hasta) {
+        return historial.buscarPorFechaDevolucion(desde, hasta);
+    }
+    
+    /**
+     * Incorpora un préstamo ya existente (activo o devuelto) tal como fue guardado.
+     * No valida reglas de negocio, no modifica el stock ni avisa a los observadores:
+     * es para reconstruir el estado desde almacenamiento. Si no trae fecha de
+     * vencimiento se asume la estándar desde la fecha del préstamo.
+     * 
+     * @param prestamo Préstamo con su ID y fechas originales
+     */
+    public void restaurarPrestamo(Prestamo prestamo) {
+        if (prestamo.getNumero() < 0) {
+            throw new IllegalArgumentException("ID de préstamo inesperado: " + prestamo.getId());
+        }
+        ReentrantLock bloqueo = bloqueosUsuario.bloqueoPara(prestamo.getIdUsuario());
+        bloqueo.lock();
+        try {
+            if (prestamo.getFechaVencimiento() == null) {
+                prestamo.setFechaVencimiento(prestamo.getFechaPrestamo().plusDays(DIAS_PRESTAMO));
+            }
+            if (prestamo.isActivo()) {
+                prestamos.put(prestamo.getNumero(), prestamo);
+                agregarAActivos(prestamo);
+                // Lo restaurado ya estaba prestado: ocupa lugar aunque supere el máximo
+                cupo.ocupar(prestamo.getIdUsuario(), Integer.MAX_VALUE);
+                vencimientos.programar(prestamo);
+            } else {
+                historial.archivar(prestamo);
+            }
+        } finally {
+            bloqueo.unlock();
+        }
+        synchronized (monitorAltas) {
+            // Los IDs nuevos deben continuar después del mayor restaurado
+            generadorId.observar(prestamo.getNumero());
+            publicadoHasta = Math.max(publicadoHasta, prestamo.getNumero());
+        }
+    }
+    
+    /**
+     * Reaplica la devolución de un préstamo restaurado. Como restaurarPrestamo, no
+     * modifica el stock ni avisa a los observadores.
+     * 
+     * @param idPrestamo ID del préstamo
+     * @param fechaDevolucion Fecha original de la devolución
+     * @throws PrestamoNoEncontradoException Si el préstamo no existe o ya estaba devuelto
+     */
+    public void restaurarDevolucion(String idPrestamo, LocalDate fechaDevolucion) {
+        Prestamo prestamo = prestamos.get(Prestamo.numeroDeId(idPrestamo));
+        if (prestamo == null || !prestamo.isActivo()) {
+            throw new PrestamoNoEncontradoException("No se encontró el préstamo activo " + idPrestamo);
+        }
+        ReentrantLock bloqueo = bloqueosUsuario.bloqueoPara(prestamo.getIdUsuario());
+        bloqueo.lock();
+        try {
+            prestamo.devolver(fechaDevolucion);
+            archivar(prestamo);
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+    
+    /**
+     * Reaplica la renovación de un préstamo restaurado, sin validar el límite
+     * de renovaciones ni avisar a los observadores.
+     * 
+     * @param idPrestamo ID del préstamo
+     * @param fechaVencimiento Nueva fecha de vencimiento registrada en la renovación
+     * @throws PrestamoNoEncontradoException Si el préstamo no existe o ya estaba devuelto
+     */
+    public void restaurarRenovacion(String idPrestamo, LocalDate fechaVencimiento) {
+        Prestamo prestamo = prestamos.get(Prestamo.numeroDeId(idPrestamo));
+        if (prestamo == null || !prestamo.isActivo()) {
+            throw new PrestamoNoEncontradoException("No se encontró el préstamo activo " + idPrestamo);
+        }
+        ReentrantLock bloqueo = bloqueosUsuario.bloqueoPara(prestamo.getIdUsuario());
+        bloqueo.lock();
+        try {
+            vencimientos.cancelar(prestamo);
+            vencidos.remove(prestamo.getNumero());
+            prestamo.renovar(fechaVencimiento);
+            vencimientos.programar(prestamo);
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+    
+    /**
+     * Pone en la cola de su libro una reserva pendiente tal como fue guardada,
+     * sin atenderla ni avisar a los observadores
+     */
+    public void restaurarReserva(Reserva reserva) {
+        reservas.encolar(reserva);
+    }
+    
+    /**
+     * Reaplica la cancelación de la primera reserva pendiente del usuario para el libro.
+     * No avisa a los observadores.
+     */
+    public void restaurarCancelacionReserva(String isbn, String idUsuario) {
+        restaurarReservaPendiente(isbn, idUsuario).cancelar();
+    }
+    
+    /**
+     * Reaplica el rechazo de la primera reserva pendiente del usuario para el libro.
+     * No avisa a los observadores.
+     */
+    public void restaurarRechazoReserva(String isbn, String idUsuario) {
+        restaurarReservaPendiente(isbn, idUsuario).rechazar();
+    }
+    
+    /**
+     * Reaplica la atención de la primera reserva pendiente del usuario para el libro
+     * con un préstamo ya restaurado. No avisa a los observadores.
+     * 
+     * @throws PrestamoNoEncontradoException Si el préstamo no existe o ya estaba devuelto
+     */
+    public void restaurarAtencionReserva(String isbn, String idUsuario, String idPrestamo) {
+        Prestamo prestamo = prestamos.get(Prestamo.numeroDeId(idPrestamo));
+        if (prestamo == null || !prestamo.isActivo()) {
+            throw new PrestamoNoEncontradoException("No se encontró el préstamo activo " + idPrestamo);
+        }
+        restaurarReservaPendiente(isbn, idUsuario).atender(prestamo);
+    }
+    
+    private Reserva restaurarReservaPendiente(String isbn, String idUsuario) {
+        Reserva reserva = buscarReservaPendiente(isbn, idUsuario);
+        if (reserva == null) {
+            throw new IllegalStateException(
+                "No hay una reserva pendiente del libro " + isbn + " para el usuario " + idUsuario
+            );
+        }
+        return reserva;
+    }
+    
+    /**
+     * Primera reserva pendiente del usuario en la cola del libro. Cancelar, atender y
+     * rechazar siempre toman esa, así que al reaplicarlas se identifica igual.
+     */
+    private Reserva buscarReservaPendiente(String isbn, String idUsuario) {
+        for (Reserva reserva : reservas.listarPendientes(isbn)) {
+            if (reserva.getIdUsuario().equals(idUsuario) && reserva.estaPendiente()) {
+                return reserva;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Busca un préstamo activo por ISBN y usuario.
+     * Solo recorre los préstamos activos del usuario (a lo sumo MAX_PRESTAMOS_POR_USUARIO).
      */
     private Prestamo buscarPrestamoActivo(String isbn, String idUsuario) {
-        return prestamos.values().stream()
-                .filter(p -> p.getIsbnLibro().equals(isbn) 
-                        && p.getIdUsuario().equals(idUsuario) 
-                        && p.isActivo())
-                .findFirst()
-                .orElse(null);
+        List<Prestamo> activos = prestamosActivosPorUsuario.get(idUsuario);
+        if (activos == null) {
+            return null;
+        }
+        for (Prestamo p : activos) {
+            if (p.getIsbnLibro().equals(isbn)) {
+                return p;
+            }
+        }
+        return null;
     }
     
     /**
-     * Genera un ID único para un préstamo
+     * Crea y registra un préstamo para un ejemplar ya descontado del stock.
+     * Debe llamarse con el lock del usuario tomado.
+     * 
+     * @param reserva Reserva pendiente que recibe el préstamo, o null
+     * @throws UncheckedIOException Si falla el registro: el préstamo no se publica y el
+     *                              llamador debe reponer el ejemplar y el cupo
      */
-    private String generarIdPrestamo() {
-        return "PREST-" + contadorId++;
+    private Prestamo crearPrestamo(String isbn, String idUsuario, Reserva reserva) {
+        LocalDate hoy = LocalDate.now();
+        Prestamo prestamo;
+        // Con el id y el alta juntos, los ids entran a prestamos en orden y publicadoHasta
+        // nunca deja atrás a un préstamo con id menor que todavía no está
+        synchronized (monitorAltas) {
+            long numero = generadorId.siguiente();
+            prestamo = new Prestamo(numero, isbn, idUsuario, hoy);
+            prestamo.setFechaVencimiento(hoy.plusDays(DIAS_PRESTAMO));
+            registro.prestamoCreado(prestamo);
+            if (reserva != null) {
+                registro.reservaAtendida(reserva, prestamo);
+            }
+            prestamos.put(numero, prestamo);
+            publicadoHasta = numero;
+        }
+        agregarAActivos(prestamo);
+        vencimientos.programar(prestamo);
+        for (ObservadorBiblioteca o : observadores) {
+            o.prestamoCreado(prestamo);
+        }
+        if (reserva != null) {
+            reserva.atender(prestamo);
+            for (ObservadorBiblioteca o : observadores) {
+                o.reservaAtendida(reserva);
+            }
+        }
+        return prestamo;
+    }
+    
+    /**
+     * Entrega un ejemplar que se tiene en mano (fuera del stock) a la primera reserva
+     * pendiente del libro. Se saltean las canceladas y las de usuarios sin cupo.
+     * No debe llamarse con el lock de otro usuario tomado.
+     * 
+     * Si falla el registro, la reserva que salió de la cola ya no vuelve a ella en memoria;
+     * en el registro sigue pendiente y reaparece al reconstruir el estado.
+     * 
+     * @return true si el ejemplar quedó prestado; false si no había nadie esperando
+     * @throws UncheckedIOException Si falla el registro; el ejemplar sigue en mano del llamador
+     */
+    private boolean entregarAReserva(String isbn) {
+        Reserva reserva;
+        while ((reserva = reservas.siguiente(isbn)) != null) {
+            ReentrantLock bloqueo = bloqueosUsuario.bloqueoPara(reserva.getIdUsuario());
+            bloqueo.lock();
+            try {
+                // Pudo cancelarse entre que salió de la cola y este punto
+                if (!reserva.estaPendiente()) {
+                    continue;
+                }
+                if (contarPrestamosActivos(reserva.getIdUsuario()) >= MAX_PRESTAMOS_POR_USUARIO
+                        || !cupo.ocupar(reserva.getIdUsuario(), MAX_PRESTAMOS_POR_USUARIO)) {
+                    registro.reservaRechazada(reserva);
+                    reserva.rechazar();
+                    for (ObservadorBiblioteca o : observadores) {
+                        o.reservaRechazada(reserva);
+                    }
+                    continue;
+                }
+                try {
+                    crearPrestamo(isbn, reserva.getIdUsuario(), reserva);
+                } catch (UncheckedIOException e) {
+                    cupo.liberar(reserva.getIdUsuario());
+                    throw e;
+                }
+                return true;
+            } finally {
+                bloqueo.unlock();
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Entrega ejemplares del stock a las reservas pendientes mientras haya de ambos.
+     * Cierra la carrera entre una devolución que no vio reservas y una reserva que
+     * no vio ejemplares: ambas llaman a este método después de su propio cambio.
+     */
+    private void atenderReservas(Libro libro) {
+        while (reservas.hayPendientes(libro.getIsbn()) && libro.prestar()) {
+            if (!entregarOReponer(libro)) {
+                libro.devolver();
+                return;
+            }
+        }
+    }
+    
+    /**
+     * entregarAReserva con un ejemplar del libro en mano: si el registro falla, el
+     * ejemplar vuelve al stock antes de propagar el error
+     */
+    private boolean entregarOReponer(Libro libro) {
+        try {
+            return entregarAReserva(libro.getIsbn());
+        } catch (UncheckedIOException e) {
+            libro.devolver();
+            throw e;
+        }
+    }
+    
+    /**
+     * Agrega un préstamo al índice de activos de su usuario.
+     * Debe llamarse con el lock del usuario tomado.
+     */
+    private void agregarAActivos(Prestamo prestamo) {
+        List<Prestamo> activos = prestamosActivosPorUsuario.get(prestamo.getIdUsuario());
+        List<Prestamo> nuevos = new ArrayList<>(MAX_PRESTAMOS_POR_USUARIO);
+        if (activos != null) {
+            nuevos.addAll(activos);
+        }
+        nuevos.add(prestamo);
+        prestamosActivosPorUsuario.put(prestamo.getIdUsuario(), List.copyOf(nuevos));
+    }
+    
+    /**
+     * Quita un préstamo del índice de activos de su usuario.
+     * Debe llamarse con el lock del usuario tomado.
+     */
+    private void quitarDeActivos(Prestamo prestamo) {
+        List<Prestamo> activos = prestamosActivosPorUsuario.get(prestamo.getIdUsuario());
+        if (activos == null) {
+            return;
+        }
+        List<Prestamo> nuevos = new ArrayList<>(activos);
+        nuevos.remove(prestamo);
+        if (nuevos.isEmpty()) {
+            prestamosActivosPorUsuario.remove(prestamo.getIdUsuario());
+        } else {
+            prestamosActivosPorUsuario.put(prestamo.getIdUsuario(), List.copyOf(nuevos));
+        }
+    }
+    
+    /**
+     * Mueve un préstamo recién devuelto de los activos al historial.
+     * Debe llamarse con el lock del usuario tomado.
+     */
+    private void archivar(Prestamo prestamo) {
+        vencimientos.cancelar(prestamo);
+        vencidos.remove(prestamo.getNumero());
+        quitarDeActivos(prestamo);
+        historial.archivar(prestamo);
+        prestamos.remove(prestamo.getNumero());
+        cupo.liberar(prestamo.getIdUsuario());
+    }
+    
+    /**
+     * Préstamos con número de id mayor que el dado, ordenados por id (activos y devueltos)
+     */
+    private List<Prestamo> prestamosDesde(long desde, int maximo) {
+        // Se lee antes que los préstamos: lo que tenga id hasta acá ya está dado de alta
+        long hasta = publicadoHasta;
+        if (hasta <= desde) {
+            return new ArrayList<>();
+        }
+        // Activos primero: archivar agrega al historial antes de quitar de los activos,
+        // así un préstamo que se devuelve mientras tanto aparece en al menos uno de los dos
+        List<Prestamo> activos = new ArrayList<>(Math.min(maximo, 64));
+        for (Prestamo prestamo : prestamos.subMap(desde, false, hasta, true).values()) {
+            if (activos.size() == maximo) {
+                break;
+            }
+            activos.add(prestamo);
+        }
+        List<Prestamo> devueltos = historial.listarDesde(desde, maximo);
+        // Un préstamo creado y devuelto después de leer hasta quedaría delante de otros sin publicar
+        while (!devueltos.isEmpty() && devueltos.get(devueltos.size() - 1).getNumero() > hasta) {
+            devueltos.remove(devueltos.size() - 1);
+        }
+        
+        List<Prestamo> resultado = new ArrayList<>(Math.min(maximo, activos.size() + devueltos.size()));
+        int a = 0;
+        int d = 0;
+        while (resultado.size() < maximo && (a < activos.size() || d < devueltos.size())) {
+            long idActivo = a < activos.size() ? activos.get(a).getNumero() : Long.MAX_VALUE;
+            long idDevuelto = d < devueltos.size() ? devueltos.get(d).getNumero() : Long.MAX_VALUE;
+            if (idDevuelto <= idActivo) {
+                // Si está en ambos se devolvió durante la lectura: vale la versión archivada
+                resultado.add(devueltos.get(d++));
+                if (idDevuelto == idActivo) {
+                    a++;
+                }
+            } else {
+                resultado.add(activos.get(a++));
+            }
+        }
+        return resultado;
     }
 }
-
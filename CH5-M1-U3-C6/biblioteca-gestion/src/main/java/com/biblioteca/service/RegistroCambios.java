@@ -0,0 +1,86 @@
+package com.biblioteca.service;
+
+import com.biblioteca.model.Libro;
+import com.biblioteca.model.Prestamo;
+import com.biblioteca.model.Reserva;
+
+import java.time.LocalDate;
+
+/**
+ * Registro anticipado (write-ahead) de los cambios de LibroService y PrestamoService,
+ * por ejemplo el diario de la persistencia.
+ *
+ * A diferencia de ObservadorBiblioteca, cada cambio se registra antes de publicarse y
+ * con el lock que lo ordena tomado, así que el registro los ve en el mismo orden en que
+ * se aplican. Si un método lanza UncheckedIOException, el cambio no se aplica: la
+ * excepción llega al llamador o, en los lotes, el ítem queda rechazado con
+ * MotivoRechazo.REGISTRO_FALLIDO.
+ *
+ * Antes de volver al llamador, y ya sin locks tomados, el servicio llama a confirmar:
+ * ahí el registro puede esperar a que lo registrado por el hilo sea durable.
+ */
+public interface RegistroCambios {
+
+    /**
+     * Registro vacío: los cambios solo viven en memoria
+     */
+    RegistroCambios NINGUNO = new RegistroCambios() {
+    };
+
+    default void libroRegistrado(Libro libro) {
+    }
+
+    /**
+     * Se va a cambiar el título o el autor: recibe los dos datos como quedan
+     */
+    default void datosLibroActualizados(Libro libro, String titulo, String autor) {
+    }
+
+    /**
+     * Se fijó a mano la cantidad disponible (LibroService.actualizarDisponibilidad).
+     * Recibe la diferencia con la cantidad reemplazada, que se conoce recién al aplicar
+     * el cambio: es el único que se registra después. Si lanza, el servicio lo revierte
+     * sumando la diferencia opuesta, así no pisa los préstamos hechos mientras tanto.
+     */
+    default void disponibilidadAjustada(Libro libro, int diferencia) {
+    }
+
+    /**
+     * El préstamo ya tiene id y su ejemplar ya se descontó del stock, pero nadie lo ve todavía
+     */
+    default void prestamoCreado(Prestamo prestamo) {
+    }
+
+    default void prestamoDevuelto(Prestamo prestamo, LocalDate fechaDevolucion) {
+    }
+
+    default void prestamoRenovado(Prestamo prestamo, LocalDate fechaVencimiento) {
+    }
+
+    /**
+     * Se registra mientras se encola: las reservas del mismo libro, en el orden de la cola
+     */
+    default void reservaCreada(Reserva reserva) {
+    }
+
+    default void reservaCancelada(Reserva reserva) {
+    }
+
+    /**
+     * Se registra justo después de prestamoCreado del préstamo que recibe la reserva
+     */
+    default void reservaAtendida(Reserva reserva, Prestamo prestamo) {
+    }
+
+    default void reservaRechazada(Reserva reserva) {
+    }
+
+    /**
+     * Se llama al terminar cada operación, sin locks tomados. Vuelve cuando lo
+     * registrado por este hilo ya no puede perderse.
+     *
+     * @throws java.io.UncheckedIOException Si no se pudo garantizar; el cambio ya se aplicó en memoria
+     */
+    default void confirmar() {
+    }
+}
@@ -25,8 +25,38 @@ public class ValidacionService {
             return false;
         }
         
-        // Todos los caracteres deben ser dígitos
-        return isbn.matches("\\d{13}");
+        // Todos los caracteres deben ser dígitos (sin regex: se llama en cada alta y búsqueda)
+        for (int i = 0; i < ISBN_LENGTH; i++) {
+            char c = isbn.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Valida un ISBN-13 completo: 13 dígitos y dígito de control correcto
+     * (suma de los dígitos con pesos alternados 1 y 3 múltiplo de 10).
+     * No realiza asignaciones.
+     * 
+     * @param isbn El ISBN a validar
+     * @return true si el ISBN es un ISBN-13 válido, false en caso contrario
+     */
+    public boolean validarISBN13(String isbn) {
+        if (isbn == null || isbn.length() != ISBN_LENGTH) {
+            return false;
+        }
+        
+        int suma = 0;
+        for (int i = 0; i < ISBN_LENGTH; i++) {
+            int digito = isbn.charAt(i) - '0';
+            if (digito < 0 || digito > 9) {
+                return false;
+            }
+            suma += (i & 1) == 0 ? digito : digito * 3;
+        }
+        return suma % 10 == 0;
     }
     
     /**
@@ -0,0 +1,95 @@
+package com.biblioteca.vencimientos;
+
+import com.biblioteca.model.Prestamo;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Préstamos activos ordenados por fecha de vencimiento.
+ *
+ * Es un ConcurrentSkipListMap ordenado por (día de vencimiento, número de id):
+ * programar, cancelar y reprogramar cuestan O(log n) sin locks globales, y
+ * extraer los vencidos recorre solo el principio del mapa, O(vencidos), sin
+ * mirar los préstamos que todavía no vencen.
+ *
+ * Quien programa un préstamo debe cancelarlo antes de cambiar su fecha de
+ * vencimiento: la clave se calcula a partir de esa fecha.
+ */
+public class ColaVencimientos {
+
+    /**
+     * Clave de orden: primero el día, después el id para desempatar
+     */
+    private static final class Clave implements Comparable<Clave> {
+        final long dia;
+        final long idPrestamo;
+
+        Clave(long dia, long idPrestamo) {
+            this.dia = dia;
+            this.idPrestamo = idPrestamo;
+        }
+
+        @Override
+        public int compareTo(Clave otra) {
+            int porDia = Long.compare(dia, otra.dia);
+            return porDia != 0 ? porDia : Long.compare(idPrestamo, otra.idPrestamo);
+        }
+    }
+
+    private final ConcurrentSkipListMap<Clave, Prestamo> cola = new ConcurrentSkipListMap<>();
+
+    /**
+     * Agrega un préstamo según su fecha de vencimiento actual
+     */
+    public void programar(Prestamo prestamo) {
+        cola.put(clave(prestamo), prestamo);
+    }
+
+    /**
+     * Quita un préstamo de la cola (por devolución o antes de reprogramarlo)
+     *
+     * @return true si el préstamo estaba programado
+     */
+    public boolean cancelar(Prestamo prestamo) {
+        return cola.remove(clave(prestamo)) != null;
+    }
+
+    /**
+     * Quita de la cola y devuelve los préstamos que vencieron antes de la fecha dada
+     *
+     * @param hoy Fecha actual: vence todo lo que tenía vencimiento anterior a este día
+     * @return Los préstamos vencidos desde la última extracción, del más antiguo al más reciente
+     */
+    public List<Prestamo> extraerVencidos(LocalDate hoy) {
+        long limite = hoy.toEpochDay();
+        List<Prestamo> vencidos = new ArrayList<>();
+        Map.Entry<Clave, Prestamo> primero;
+        while ((primero = cola.firstEntry()) != null && primero.getKey().dia < limite) {
+            // remove(clave, valor): si otro hilo lo canceló o ya lo extrajo, no se cuenta dos veces
+            if (cola.remove(primero.getKey(), primero.getValue())) {
+                vencidos.add(primero.getValue());
+            }
+        }
+        return vencidos;
+    }
+
+    /**
+     * @return Fecha del próximo vencimiento, o null si la cola está vacía
+     */
+    public LocalDate proximoVencimiento() {
+        Map.Entry<Clave, Prestamo> primero = cola.firstEntry();
+        return primero == null ? null : LocalDate.ofEpochDay(primero.getKey().dia);
+    }
+
+    public int tamanio() {
+        return cola.size();
+    }
+
+    private static Clave clave(Prestamo prestamo) {
+        return new Clave(prestamo.getFechaVencimiento().toEpochDay(), prestamo.getNumero());
+    }
+}
@@ -0,0 +1,31 @@
+package com.biblioteca.api;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistogramaLatenciaTest {
+
+    @Test
+    void testPercentil_ErrorRelativoAcotado() {
+        HistogramaLatencia histograma = new HistogramaLatencia();
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histograma.registrar(micros * 1_000);
+        }
+
+        assertEquals(10_000, histograma.getCantidad());
+        assertEquals(10_000_000, histograma.getMaximo());
+        assertEquals(5_000_000, histograma.percentil(50), 5_000_000 * 0.0625);
+        assertEquals(9_900_000, histograma.percentil(99), 9_900_000 * 0.0625);
+        assertEquals(10_000_000, histograma.percentil(100));
+    }
+
+    @Test
+    void testIndice_CotaSuperiorContieneAlValor() {
+        for (long valor : new long[]{0, 1, 15, 16, 17, 31, 32, 1_000, 123_456_789, Long.MAX_VALUE}) {
+            int indice = HistogramaLatencia.indice(valor);
+            assertTrue(HistogramaLatencia.cotaSuperior(indice) >= valor, "valor " + valor);
+            assertTrue(indice == 0 || HistogramaLatencia.cotaSuperior(indice - 1) < valor, "valor " + valor);
+        }
+    }
+}
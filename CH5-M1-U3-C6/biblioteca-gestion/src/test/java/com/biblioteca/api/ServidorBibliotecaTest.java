@@ -0,0 +1,195 @@
+package com.biblioteca.api;
+
+import com.biblioteca.concurrencia.Ejecutores;
+import com.biblioteca.service.LibroService;
+import com.biblioteca.service.PrestamoService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServidorBibliotecaTest {
+
+    private static final int CLIENTES = 2_000;
+    private static final int PETICIONES_POR_CLIENTE = 10;
+    private static final int LIBROS = 500;
+
+    LibroService libroService;
+    PrestamoService prestamoService;
+    ServidorBiblioteca servidor;
+    HttpClient cliente;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        libroService = new LibroService();
+        prestamoService = new PrestamoService(libroService);
+        servidor = new ServidorBiblioteca(libroService, prestamoService, 0).iniciar();
+        cliente = HttpClient.newBuilder().executor(Ejecutores.unHiloPorTarea("cliente-http")).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        servidor.close();
+    }
+
+    @Test
+    void testRegistrarBuscarPrestarYDevolver() throws Exception {
+        HttpResponse<String> alta = post("/libros", "isbn=1234567890123&titulo=El+Quijote&autor=Cervantes&cantidad=1");
+        assertEquals(201, alta.statusCode());
+        assertTrue(alta.body().contains("\"titulo\":\"El Quijote\""));
+
+        assertEquals(200, get("/libros/1234567890123").statusCode());
+        assertTrue(get("/libros?titulo=quijote").body().contains("1234567890123"));
+        assertEquals("[]", get("/libros?autor=borges").body());
+        assertTrue(get("/libros?limite=10").body().startsWith("{\"elementos\":[{\"isbn\":\"1234567890123\""));
+        assertEquals(400, get("/libros?cursor=x").statusCode());
+
+        assertEquals(201, post("/prestamos", "isbn=1234567890123&idUsuario=USR-001").statusCode());
+        assertEquals(409, post("/prestamos", "isbn=1234567890123&idUsuario=USR-002").statusCode());
+        assertTrue(get("/prestamos?idUsuario=USR-001").body().contains("\"activo\":true"));
+        assertTrue(post("/renovaciones", "isbn=1234567890123&idUsuario=USR-001").body().contains("\"renovaciones\":1"));
+
+        assertTrue(post("/reservas", "isbn=1234567890123&idUsuario=USR-002").body().contains("\"estado\":\"PENDIENTE\""));
+        assertEquals(204, post("/devoluciones", "isbn=1234567890123&idUsuario=USR-001").statusCode());
+        assertTrue(get("/prestamos?idUsuario=USR-002").body().contains("\"activo\":true"));
+        assertTrue(get("/prestamos").body().endsWith("\"siguienteCursor\":null}"));
+        assertEquals(404, post("/devoluciones", "isbn=1234567890123&idUsuario=USR-001").statusCode());
+    }
+
+    @Test
+    void testErrores_CodigosHttp() throws Exception {
+        assertEquals(400, post("/libros", "isbn=123&titulo=X&autor=Y&cantidad=1").statusCode());
+        assertEquals(400, post("/libros", "isbn=1234567890123&titulo=X&autor=Y&cantidad=muchos").statusCode());
+        assertEquals(400, post("/prestamos", "isbn=1234567890123").statusCode());
+        assertEquals(404, get("/libros/9999999999999").statusCode());
+        assertEquals(404, post("/prestamos", "isbn=9999999999999&idUsuario=USR-001").statusCode());
+        assertEquals(405, get("/devoluciones").statusCode());
+    }
+
+    @Test
+    void testMetricas_PorEndpoint() throws Exception {
+        post("/libros", "isbn=1234567890123&titulo=El+Quijote&autor=Cervantes&cantidad=1");
+        get("/libros/1234567890123");
+        get("/libros/9999999999999");
+
+        MetricasServidor.Endpoint porIsbn = servidor.getMetricas().getEndpoint("GET /libros/{isbn}");
+        assertEquals(2, porIsbn.getPeticiones());
+        assertEquals(1, porIsbn.getRechazos());
+        assertTrue(porIsbn.getLatencias().percentil(99) > 0);
+        String json = get("/metricas").body();
+        assertTrue(json.contains("\"POST /libros\":{\"peticiones\":1"));
+        assertTrue(json.contains("\"p99\""));
+    }
+
+    @Test
+    void testEstadisticas_MasPrestadosYPorcentaje() throws Exception {
+        post("/libros", "isbn=1234567890123&titulo=El+Quijote&autor=Cervantes&cantidad=2");
+        post("/prestamos", "isbn=1234567890123&idUsuario=USR-001");
+
+        String json = get("/estadisticas?top=5").body();
+        assertTrue(json.startsWith("{\"prestamosTotales\":1,\"prestamosActivos\":1,\"ejemplares\":2,"));
+        assertTrue(json.contains("\"porcentajeEnPrestamo\":50.0"));
+        assertTrue(json.contains("\"masPrestados\":[{\"clave\":\"1234567890123\",\"prestamos\":1,\"errorMaximo\":0}]"));
+        assertTrue(json.contains("\"autoresMasPrestados\":[{\"clave\":\"Cervantes\""));
+        assertEquals(400, get("/estadisticas?top=0").statusCode());
+    }
+
+    /**
+     * Generador de carga: miles de clientes concurrentes (hilos virtuales en Java 21+)
+     * mezclando búsquedas, préstamos y devoluciones
+     */
+    @Test
+    void testCarga_MilesDeClientesConcurrentes() throws Exception {
+        for (int i = 0; i < LIBROS; i++) {
+            libroService.registrarLibro(isbn(i), "Titulo " + i, "Autor " + (i % 50), 5);
+        }
+
+        LongAdder respuestas = new LongAdder();
+        LongAdder errores = new LongAdder();
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<?>> clientes = new ArrayList<>(CLIENTES);
+        ExecutorService ejecutor = Ejecutores.unHiloPorTarea("carga");
+        for (int c = 0; c < CLIENTES; c++) {
+            String usuario = "USR-" + c;
+            clientes.add(ejecutor.submit(() -> {
+                largada.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < PETICIONES_POR_CLIENTE; i++) {
+                    String libro = isbn(random.nextInt(LIBROS));
+                    HttpResponse<String> r;
+                    switch (random.nextInt(4)) {
+                        case 0:
+                            r = get("/libros/" + libro);
+                            break;
+                        case 1:
+                            r = get("/libros?autor=autor+" + random.nextInt(50));
+                            break;
+                        case 2:
+                            r = post("/prestamos", "isbn=" + libro + "&idUsuario=" + usuario);
+                            break;
+                        default:
+                            r = post("/devoluciones", "isbn=" + libro + "&idUsuario=" + usuario);
+                    }
+                    respuestas.increment();
+                    if (r.statusCode() >= 500) {
+                        errores.increment();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long inicio = System.nanoTime();
+        largada.countDown();
+        for (Future<?> f : clientes) {
+            f.get();
+        }
+        double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+        ejecutor.shutdown();
+
+        MetricasServidor metricas = servidor.getMetricas();
+        System.out.printf("clientes=%d peticiones=%d peticiones/seg=%.0f hilosVirtuales=%b%n",
+                CLIENTES, respuestas.sum(), respuestas.sum() / segundos, Ejecutores.hilosVirtualesDisponibles());
+        System.out.println(metricas.aJson());
+
+        assertEquals((long) CLIENTES * PETICIONES_POR_CLIENTE, respuestas.sum());
+        assertEquals(0, errores.sum());
+        long prestamosActivos = libroService.contarEjemplaresPrestados();
+        assertEquals(prestamosActivos, prestamoService.listarTodosLosPrestamos().stream()
+                .filter(p -> p.isActivo()).count());
+    }
+
+    private HttpResponse<String> get(String ruta) throws IOException, InterruptedException {
+        return cliente.send(HttpRequest.newBuilder(uri(ruta)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String ruta, String formulario) throws IOException, InterruptedException {
+        HttpRequest peticion = HttpRequest.newBuilder(uri(ruta))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(formulario))
+                .build();
+        return cliente.send(peticion, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String ruta) {
+        return URI.create("http://localhost:" + servidor.getPuerto() + ruta);
+    }
+
+    private static String isbn(int i) {
+        return String.format("978%010d", i);
+    }
+}
@@ -0,0 +1,164 @@
+package com.biblioteca.busqueda;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheBusquedasTest {
+
+    private final AtomicLong reloj = new AtomicLong();
+    private final AtomicInteger cargas = new AtomicInteger();
+
+    @Test
+    void testObtener_ClaveNormalizadaYCargaUnaVez() {
+        CacheBusquedas<String> cache = new CacheBusquedas<>(100, Duration.ofMinutes(1), reloj::get);
+
+        assertEquals("quijote", cache.obtener("Quijote", this::cargar));
+        assertEquals("quijote", cache.obtener("  QUIJOTE ", this::cargar));
+
+        assertEquals(1, cargas.get());
+        assertEquals(1, cache.estadisticas().getAciertos());
+        assertEquals(1, cache.estadisticas().getFallos());
+    }
+
+    @Test
+    void testObtener_VenceConTtl() {
+        CacheBusquedas<String> cache = new CacheBusquedas<>(100, Duration.ofSeconds(10), reloj::get);
+        cache.obtener("quijote", this::cargar);
+
+        reloj.addAndGet(Duration.ofSeconds(11).toNanos());
+        cache.obtener("quijote", this::cargar);
+
+        assertEquals(2, cargas.get());
+        assertEquals(1, cache.estadisticas().getExpiraciones());
+    }
+
+    @Test
+    void testObtener_DesalojaLaMenosUsada() {
+        // 16 entradas: una por segmento
+        CacheBusquedas<String> cache = new CacheBusquedas<>(16, Duration.ofMinutes(1), reloj::get);
+        for (int i = 0; i < 1_000; i++) {
+            cache.obtener("consulta " + i, this::cargar);
+        }
+
+        assertTrue(cache.tamanio() <= 16);
+        assertEquals(1_000 - cache.tamanio(), cache.estadisticas().getDesalojos());
+    }
+
+    @Test
+    void testInvalidar_SoloConsultasContenidasEnLosTextos() {
+        CacheBusquedas<String> cache = new CacheBusquedas<>(100, Duration.ofMinutes(1), reloj::get);
+        cache.obtener("quijote", this::cargar);
+        cache.obtener("mancha", this::cargar);
+        cache.obtener("el", this::cargar);
+        cache.obtener("rayuela", this::cargar);
+
+        cache.invalidar("El Quijote", "El ingenioso hidalgo de la Mancha");
+
+        assertEquals(3, cache.estadisticas().getInvalidaciones());
+        assertEquals(1, cache.tamanio());
+        cache.obtener("rayuela", this::cargar);
+        assertEquals(1, cache.estadisticas().getAciertos());
+    }
+
+    @Test
+    void testObtener_InvalidacionDuranteLaCargaNoQuedaEnCache() {
+        CacheBusquedas<String> cache = new CacheBusquedas<>(100, Duration.ofMinutes(1), reloj::get);
+
+        cache.obtener("quijote", q -> {
+            // Un alta concurrente cambia el resultado mientras se calcula
+            cache.invalidar(null, "Don Quijote");
+            return cargar(q);
+        });
+
+        assertEquals(0, cache.tamanio());
+    }
+
+    @Test
+    void testInvalidar_ConsultaIndexadaMientrasSeQuitaOtraDelMismoTrigrama() throws Exception {
+        // Justo antes de que "quijote" se quite del índice, otro hilo cachea "quixote"
+        // (mismo primer trigrama, otro segmento)
+        AtomicReference<CacheBusquedas<String>> referencia = new AtomicReference<>();
+        AtomicBoolean interferir = new AtomicBoolean();
+        ConcurrentHashMap<Long, Set<String>> indice = new ConcurrentHashMap<>() {
+            @Override
+            public boolean remove(Object clave, Object valor) {
+                interferencia();
+                return super.remove(clave, valor);
+            }
+
+            @Override
+            public Set<String> computeIfPresent(Long clave,
+                    BiFunction<? super Long, ? super Set<String>, ? extends Set<String>> funcion) {
+                interferencia();
+                return super.computeIfPresent(clave, funcion);
+            }
+
+            private void interferencia() {
+                if (interferir.compareAndSet(true, false)) {
+                    Thread otra = new Thread(() -> referencia.get().obtener("quixote", q -> q));
+                    otra.start();
+                    try {
+                        otra.join();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        };
+        CacheBusquedas<String> cache = new CacheBusquedas<>(100, Duration.ofMinutes(1), reloj::get, indice);
+        referencia.set(cache);
+        cache.obtener("quijote", this::cargar);
+
+        interferir.set(true);
+        cache.invalidar(null, "quijote");
+        cache.invalidar(null, "quixote");
+
+        assertEquals(0, cache.tamanio());
+        assertTrue(indice.isEmpty());
+    }
+
+    @Test
+    void testInvalidar_ConsultaConElMismoTrigramaEnOtroSegmento() throws Exception {
+        // "quijote" y "quixote" comparten el primer trigrama pero caen en segmentos distintos
+        CacheBusquedas<String> cache = new CacheBusquedas<>(100, Duration.ofMinutes(1), reloj::get);
+        AtomicBoolean seguir = new AtomicBoolean(true);
+        Thread otra = new Thread(() -> {
+            while (seguir.get()) {
+                cache.obtener("quijote", q -> q);
+                cache.invalidar(null, "quijote");
+            }
+        });
+        otra.start();
+        try {
+            long fin = System.nanoTime() + Duration.ofSeconds(1).toNanos();
+            AtomicInteger cargasQuixote = new AtomicInteger();
+            while (System.nanoTime() < fin) {
+                cache.obtener("quixote", q -> q + cargasQuixote.incrementAndGet());
+                cache.invalidar(null, "quixote");
+                int antes = cargasQuixote.get();
+                // Si "quixote" perdió su lugar en el índice, invalidar no la encontró y sigue en cache
+                cache.obtener("quixote", q -> q + cargasQuixote.incrementAndGet());
+                assertEquals(antes + 1, cargasQuixote.get());
+                cache.invalidar(null, "quixote");
+            }
+        } finally {
+            seguir.set(false);
+            otra.join();
+        }
+    }
+
+    private String cargar(String consulta) {
+        cargas.incrementAndGet();
+        return consulta.trim().toLowerCase();
+    }
+}
@@ -0,0 +1,89 @@
+package com.biblioteca.colecciones;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MapaLongObjetoTest {
+
+    @Test
+    void testPutIfAbsent_CreceYConservaEntradas() {
+        MapaLongObjeto<String> mapa = new MapaLongObjeto<>();
+        for (long i = 0; i < 10_000; i++) {
+            assertNull(mapa.putIfAbsent(9_780_000_000_000L + i, "v" + i));
+        }
+
+        assertEquals(10_000, mapa.size());
+        for (long i = 0; i < 10_000; i++) {
+            assertEquals("v" + i, mapa.get(9_780_000_000_000L + i));
+        }
+        assertNull(mapa.get(9_780_000_010_000L));
+        assertEquals(10_000, new HashSet<>(mapa.valores()).size());
+    }
+
+    @Test
+    void testPutIfAbsent_ClaveExistenteNoReemplaza() {
+        MapaLongObjeto<String> mapa = new MapaLongObjeto<>();
+        mapa.putIfAbsent(0L, "primero");
+
+        assertEquals("primero", mapa.putIfAbsent(0L, "segundo"));
+        assertEquals("primero", mapa.get(0L));
+        assertNull(mapa.get(-1L));
+        assertThrows(IllegalArgumentException.class, () -> mapa.putIfAbsent(-1L, "x"));
+    }
+
+    @Test
+    void testGet_ConcurrenteConEscrituras_NuncaVeEntradaIncompleta() throws InterruptedException {
+        MapaLongObjeto<Long> mapa = new MapaLongObjeto<>();
+        int entradas = 200_000;
+        AtomicInteger errores = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        executor.submit(() -> {
+            for (long i = 0; i < entradas; i++) {
+                mapa.putIfAbsent(i, i);
+            }
+        });
+        for (int h = 0; h < 3; h++) {
+            executor.submit(() -> {
+                for (long i = 0; i < entradas; i++) {
+                    Long valor = mapa.get(i);
+                    if (valor != null && valor != i) {
+                        errores.incrementAndGet();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(0, errores.get());
+        Set<Long> valores = new HashSet<>(mapa.valores());
+        assertEquals(entradas, valores.size());
+    }
+
+    @Test
+    void testEnOrdenDeInsercion_PaginasYSpliterator() {
+        MapaLongObjeto<Long> mapa = new MapaLongObjeto<>();
+        int entradas = 10_000;
+        for (long i = entradas - 1; i >= 0; i--) {
+            mapa.putIfAbsent(i, i);
+        }
+        mapa.putIfAbsent(5L, 5L);
+
+        assertEquals(entradas, mapa.insertados());
+        assertEquals(List.of(9_999L, 9_998L, 9_997L), mapa.enOrdenDeInsercion(0, 3));
+        assertEquals(List.of(1L, 0L), mapa.enOrdenDeInsercion(entradas - 2, 100));
+        assertTrue(mapa.enOrdenDeInsercion(entradas, 100).isEmpty());
+        assertEquals(entradas * (entradas - 1L) / 2,
+                StreamSupport.stream(mapa.spliterator(), true).mapToLong(Long::longValue).sum());
+    }
+}
@@ -0,0 +1,75 @@
+package com.biblioteca.estadisticas;
+
+import com.biblioteca.service.LibroService;
+import com.biblioteca.service.PrestamoService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EstadisticasCirculacionTest {
+
+    @Test
+    void testPrestarYDevolver_ActualizaContadores() {
+        LibroService libroService = new LibroService();
+        libroService.registrarLibro("1234567890123", "El Quijote", "Cervantes", 2);
+        PrestamoService prestamoService = new PrestamoService(libroService);
+        prestamoService.prestarLibro("1234567890123", "USR-001");
+
+        // Parte del estado existente: un préstamo activo de dos ejemplares
+        EstadisticasCirculacion estadisticas = EstadisticasCirculacion.conectar(libroService, prestamoService);
+        assertEquals(50.0, estadisticas.porcentajeEnPrestamo());
+
+        libroService.registrarLibro("9876543210987", "Ficciones", "Borges", 2);
+        prestamoService.prestarLibro("9876543210987", "USR-002");
+        prestamoService.prestarLibro("9876543210987", "USR-003");
+        prestamoService.devolverLibro("9876543210987", "USR-002");
+        prestamoService.prestarLibro("1234567890123", "USR-002");
+
+        assertEquals(3, estadisticas.getPrestamosTotales());
+        assertEquals(3, estadisticas.getPrestamosActivos());
+        assertEquals(4, estadisticas.getEjemplaresTotales());
+        assertEquals(75.0, estadisticas.porcentajeEnPrestamo());
+        assertEquals(2, estadisticas.prestamosDeAutor("Borges"));
+        assertEquals(0, estadisticas.prestamosDeAutor("Cortázar"));
+        assertEquals("9876543210987", estadisticas.masPrestados(1).get(0).getClave());
+        assertEquals(List.of("Borges", "Cervantes"),
+                estadisticas.autoresMasPrestados(5).stream().map(Frecuencia::getClave).toList());
+    }
+
+    @Test
+    void testTopFrecuentes_EncuentraLosFrecuentesEntreMuchasClavesRaras() {
+        TopFrecuentes top = new TopFrecuentes(16, 4);
+        for (int i = 0; i < 10_000; i++) {
+            // Tres claves frecuentes mezcladas con miles que aparecen una sola vez
+            top.registrar("A");
+            if (i % 2 == 0) {
+                top.registrar("B");
+            }
+            if (i % 4 == 0) {
+                top.registrar("C");
+            }
+            top.registrar("raro-" + i);
+        }
+
+        List<Frecuencia> resultado = top.top(3);
+        assertEquals(List.of("A", "B", "C"), resultado.stream().map(Frecuencia::getClave).toList());
+        for (Frecuencia frecuencia : resultado) {
+            // Space-Saving nunca subestima y el error queda acotado
+            long real = switch (frecuencia.getClave()) {
+                case "A" -> 10_000;
+                case "B" -> 5_000;
+                default -> 2_500;
+            };
+            assertTrue(frecuencia.getCantidad() >= real);
+            assertTrue(frecuencia.getCantidad() - frecuencia.getErrorMaximo() <= real);
+        }
+    }
+
+    @Test
+    void testTopFrecuentes_FranjasInvalidas() {
+        assertThrows(IllegalArgumentException.class, () -> new TopFrecuentes(16, 3));
+        assertThrows(IllegalArgumentException.class, () -> new TopFrecuentes(0, 4));
+    }
+}
@@ -0,0 +1,122 @@
+package com.biblioteca.eventos;
+
+import com.biblioteca.model.Libro;
+import com.biblioteca.service.LibroService;
+import com.biblioteca.service.PrestamoService;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BusEventosTest {
+
+    @Test
+    void testServicios_PublicanCambiosEnOrden() throws Exception {
+        LibroService libroService = new LibroService();
+        PrestamoService prestamoService = new PrestamoService(libroService);
+        Recolector recolector = new Recolector(Long.MAX_VALUE, 4);
+        try (BusEventos bus = new BusEventos()) {
+            libroService.agregarObservador(bus);
+            prestamoService.agregarObservador(bus);
+            bus.subscribe(recolector);
+
+            libroService.registrarLibro("1234567890123", "El Quijote", "Cervantes", 2);
+            prestamoService.prestarLibro("1234567890123", "USR-001");
+            prestamoService.devolverLibro("1234567890123", "USR-001");
+            libroService.actualizarDisponibilidad("1234567890123", 1);
+
+            assertTrue(recolector.completos.await(5, TimeUnit.SECONDS));
+            assertEquals(4, bus.getLatencias().getCantidad());
+        }
+
+        List<EventoCambio> eventos = recolector.eventos;
+        assertEquals(List.of(TipoCambio.LIBRO_REGISTRADO, TipoCambio.PRESTAMO_CREADO,
+                TipoCambio.PRESTAMO_DEVUELTO, TipoCambio.DISPONIBILIDAD_CAMBIADA),
+                eventos.stream().map(EventoCambio::getTipo).toList());
+        assertEquals("PREST-1", eventos.get(1).getIdPrestamo());
+        assertEquals("USR-001", eventos.get(2).getIdUsuario());
+        assertEquals(1, eventos.get(3).getCantidad());
+        for (int i = 0; i < eventos.size(); i++) {
+            assertEquals(i + 1, eventos.get(i).getSecuencia());
+        }
+    }
+
+    @Test
+    void testSuscriptorLento_NoBloqueaAlPublicar_YAlCerrarSeCuentanLosDescartes() throws Exception {
+        Libro libro = new Libro("1234567890123", "El Quijote", "Cervantes", 1);
+        // Pide un solo lote: el despachador lo espera y, al cerrar, el resto se descarta para él
+        Recolector lento = new Recolector(1, 1);
+        try (BusEventos bus = new BusEventos(1 << 10, 1, 1)) {
+            bus.subscribe(lento);
+            for (int i = 0; i < 200; i++) {
+                assertTrue(bus.publicar(EventoCambio.deLibro(TipoCambio.LIBRO_ACTUALIZADO, libro)));
+            }
+            bus.close();
+
+            assertTrue(lento.completos.await(5, TimeUnit.SECONDS));
+            assertEquals(200, bus.getDespachados());
+            assertEquals(200, bus.getLotes());
+            // Uno entregado y a lo sumo dos en su buffer (la capacidad se redondea a potencia de 2)
+            assertTrue(bus.getDescartadosPorSuscriptores() >= 197);
+            assertEquals(1, lento.eventos.size());
+            assertFalse(bus.publicar(EventoCambio.deLibro(TipoCambio.LIBRO_ACTUALIZADO, libro)));
+            assertEquals(1, bus.getDescartados());
+        }
+    }
+
+    @Test
+    void testAnillo_LlenoRechazaSinBloquear() {
+        AnilloEventos<Integer> anillo = new AnilloEventos<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(anillo.ofrecer(i));
+        }
+        assertFalse(anillo.ofrecer(4));
+
+        List<Integer> drenados = new ArrayList<>();
+        assertEquals(3, anillo.drenar(drenados, 3));
+        assertTrue(anillo.ofrecer(5));
+        assertEquals(2, anillo.drenar(drenados, 10));
+        assertEquals(List.of(0, 1, 2, 3, 5), drenados);
+    }
+
+    /**
+     * Pide una cantidad fija de lotes y avisa al recibir los eventos esperados
+     */
+    private static final class Recolector implements Flow.Subscriber<List<EventoCambio>> {
+        final List<EventoCambio> eventos = new ArrayList<>();
+        final CountDownLatch completos;
+        private final long pedido;
+
+        Recolector(long pedido, int esperados) {
+            this.pedido = pedido;
+            this.completos = new CountDownLatch(esperados);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription suscripcion) {
+            suscripcion.request(pedido);
+        }
+
+        @Override
+        public void onNext(List<EventoCambio> lote) {
+            eventos.addAll(lote);
+            lote.forEach(e -> completos.countDown());
+        }
+
+        @Override
+        public void onError(Throwable error) {
+        }
+
+        @Override
+        public void onComplete() {
+            while (completos.getCount() > 0) {
+                completos.countDown();
+            }
+        }
+    }
+}
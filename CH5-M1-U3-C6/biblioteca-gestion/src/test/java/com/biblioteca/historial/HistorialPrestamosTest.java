@@ -0,0 +1,91 @@
+package com.biblioteca.historial;
+
+import com.biblioteca.model.Prestamo;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistorialPrestamosTest {
+
+    private static final LocalDate INICIO = LocalDate.of(2024, 1, 1);
+
+    @Test
+    void testArchivar_ReconstruyePrestamo() {
+        HistorialPrestamos historial = new HistorialPrestamos();
+        historial.archivar(devuelto(7, "0012345678901", "USR-001", INICIO, INICIO.plusDays(10)));
+
+        Prestamo prestamo = historial.buscarPorUsuario("USR-001").get(0);
+
+        assertEquals("PREST-7", prestamo.getId());
+        assertEquals("0012345678901", prestamo.getIsbnLibro());
+        assertEquals("USR-001", prestamo.getIdUsuario());
+        assertEquals(INICIO, prestamo.getFechaPrestamo());
+        assertEquals(INICIO.plusDays(10), prestamo.getFechaDevolucion());
+        assertFalse(prestamo.isActivo());
+    }
+
+    @Test
+    void testArchivar_PrestamoActivo() {
+        HistorialPrestamos historial = new HistorialPrestamos();
+        Prestamo activo = new Prestamo("PREST-1", "1234567890123", "USR-001", INICIO);
+
+        assertThrows(IllegalArgumentException.class, () -> historial.archivar(activo));
+        assertEquals(0, historial.tamanio());
+    }
+
+    @Test
+    void testBuscar_PorUsuarioYPorFechas_VariasPaginas() {
+        HistorialPrestamos historial = new HistorialPrestamos();
+        int cantidad = 50_000;
+        for (int i = 0; i < cantidad; i++) {
+            // Un día de devolución por cada 100 préstamos, como en un archivo real
+            LocalDate devolucion = INICIO.plusDays(i / 100);
+            historial.archivar(devuelto(i, String.format("978%010d", i % 1_000), "USR-" + (i % 250),
+                    devolucion.minusDays(14), devolucion));
+        }
+
+        assertEquals(cantidad, historial.tamanio());
+        List<Prestamo> deUnUsuario = historial.buscarPorUsuario("USR-3");
+        assertEquals(cantidad / 250, deUnUsuario.size());
+        assertTrue(deUnUsuario.stream().allMatch(p -> p.getIdUsuario().equals("USR-3")));
+        assertEquals(cantidad / 250, historial.contarPorUsuario("USR-3"));
+        assertTrue(historial.buscarPorUsuario("USR-999").isEmpty());
+
+        List<Prestamo> semana = historial.buscarPorFechaDevolucion(INICIO.plusDays(200), INICIO.plusDays(206));
+        assertEquals(700, semana.size());
+        assertEquals(100, historial.buscarPorFechaPrestamo(INICIO.minusDays(14), INICIO.minusDays(14)).size());
+        assertTrue(historial.buscarPorFechaDevolucion(INICIO.minusDays(30), INICIO.minusDays(1)).isEmpty());
+    }
+
+    @Test
+    void testListarDesde_IdsDesordenadosEnVariasPaginas_OrdenPorId() {
+        HistorialPrestamos historial = new HistorialPrestamos();
+        int cantidad = 40_000;
+        // Se devuelven en orden distinto al de creación: ids desordenados dentro y entre páginas
+        for (int i = 0; i < cantidad; i++) {
+            long id = (i * 7_919L) % cantidad;
+            historial.archivar(devuelto(id, "9780000000001", "USR-1", INICIO, INICIO.plusDays(1)));
+        }
+
+        List<Prestamo> primeros = historial.listarDesde(-1, 5);
+        assertEquals(List.of("PREST-0", "PREST-1", "PREST-2", "PREST-3", "PREST-4"),
+                primeros.stream().map(Prestamo::getId).toList());
+        long anterior = 19_999;
+        List<Prestamo> pagina = historial.listarDesde(anterior, 1_000);
+        assertEquals(1_000, pagina.size());
+        for (Prestamo p : pagina) {
+            assertEquals("PREST-" + (++anterior), p.getId());
+        }
+        assertEquals(1, historial.listarDesde(cantidad - 2, 10).size());
+        assertTrue(historial.listarDesde(cantidad - 1, 10).isEmpty());
+    }
+
+    private static Prestamo devuelto(long id, String isbn, String usuario, LocalDate prestamo, LocalDate devolucion) {
+        Prestamo p = new Prestamo("PREST-" + id, isbn, usuario, prestamo);
+        p.devolver(devolucion);
+        return p;
+    }
+}
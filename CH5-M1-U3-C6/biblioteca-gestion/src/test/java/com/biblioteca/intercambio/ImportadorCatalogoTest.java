@@ -0,0 +1,151 @@
+package com.biblioteca.intercambio;
+
+import com.biblioteca.model.Libro;
+import com.biblioteca.service.LibroService;
+import com.biblioteca.service.MotivoRechazo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImportadorCatalogoTest {
+
+    @TempDir
+    Path directorio;
+
+    @ParameterizedTest
+    @EnumSource(FormatoCatalogo.class)
+    void testExportarEImportar_IdaYVuelta_MismoCatalogo(FormatoCatalogo formato) throws IOException {
+        LibroService origen = new LibroService();
+        origen.registrarLibro("9780000000001", "Cien años de soledad", "García Márquez", 3);
+        origen.registrarLibro("9780000000002", "Título, con \"comillas\"", "Autor \\ raro", 1);
+        origen.registrarLibro("9780000000003", "Emoji 📚 y ñandú", "Anónimo", 7);
+        Path archivo = directorio.resolve("catalogo");
+
+        assertEquals(3, new ExportadorCatalogo(origen).exportar(archivo, formato));
+        LibroService destino = new LibroService();
+        ResumenImportacion resumen = new ImportadorCatalogo(destino, 2).importar(archivo, formato);
+
+        assertEquals(3, resumen.getFilasLeidas());
+        assertEquals(3, resumen.getImportados());
+        assertTrue(resumen.getPrimerosErrores().isEmpty());
+        for (Libro libro : origen.listarTodos()) {
+            Libro copia = destino.buscarPorISBN(libro.getIsbn());
+            assertEquals(libro.getTitulo(), copia.getTitulo());
+            assertEquals(libro.getAutor(), copia.getAutor());
+            assertEquals(libro.getCantidadTotal(), copia.getCantidadTotal());
+        }
+    }
+
+    @Test
+    void testImportar_FilasInvalidasYRechazadas_InformaLinea() throws IOException {
+        String csv = "isbn,titulo,autor,cantidad\r\n"
+                + "9780000000001,Uno,Autor,2\r\n"
+                + "\r\n"
+                + "9780000000002,\"Sin cerrar,Autor,2\r\n"
+                + "123,Corto,Autor,1\r\n"
+                + "9780000000001,Repetido,Autor,1\r\n"
+                + "9780000000003,Tres,Autor,x\r\n"
+                + "9780000000004,\"Cuatro, con coma\",Autor,4";
+        LibroService libroService = new LibroService();
+
+        ResumenImportacion resumen = importar(libroService, csv, FormatoCatalogo.CSV);
+
+        assertEquals(6, resumen.getFilasLeidas());
+        assertEquals(2, resumen.getImportados());
+        assertEquals(2, resumen.getFilasInvalidas());
+        assertEquals(2, resumen.getRechazados());
+        assertEquals(4, resumen.getPrimerosErrores().size());
+        assertTrue(resumen.getPrimerosErrores().get(0).startsWith("línea 4: "));
+        assertTrue(resumen.getPrimerosErrores().contains("línea 7: cantidad inválida: x"));
+        assertTrue(resumen.getPrimerosErrores().stream().anyMatch(e -> e.startsWith("línea 5: ")));
+        assertTrue(resumen.getPrimerosErrores().stream().anyMatch(e -> e.startsWith("línea 6: ")));
+        assertEquals("Cuatro, con coma", libroService.buscarPorISBN("9780000000004").getTitulo());
+    }
+
+    @Test
+    void testImportar_JsonLines_IgnoraClavesDesconocidasYDecodificaEscapes() throws IOException {
+        String jsonl = "{\"isbn\":\"9780000000001\",\"titulo\":\"Caf\\u00e9 \\\"negro\\\"\",\"autor\":null,"
+                + "\"extra\":true,\"cantidad\":5}\n"
+                + "{\"isbn\":\"9780000000002\",\"cantidad\":2} basura\n"
+                + "  { \"cantidad\" : 1 , \"isbn\" : \"9780000000003\" }  \n";
+        LibroService libroService = new LibroService();
+
+        ResumenImportacion resumen = importar(libroService, jsonl, FormatoCatalogo.JSON_LINES);
+
+        assertEquals(2, resumen.getImportados());
+        assertEquals(1, resumen.getFilasInvalidas());
+        assertEquals("línea 2: contenido después del objeto", resumen.getPrimerosErrores().get(0));
+        Libro libro = libroService.buscarPorISBN("9780000000001");
+        assertEquals("Café \"negro\"", libro.getTitulo());
+        assertNull(libro.getAutor());
+        assertEquals(5, libro.getCantidadTotal());
+    }
+
+    @Test
+    void testImportar_ArchivoDeVariosBloques_RespetaOrdenYNumeroDeLinea() throws IOException {
+        int filas = 120_000;
+        Path archivo = directorio.resolve("grande.csv");
+        try (Writer escritor = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < filas; i++) {
+                // Cada 10.000 filas, un ISBN repetido que debe quedar rechazado
+                long isbn = i % 10_000 == 9_999 ? 9780000000000L : 9780000000000L + i;
+                escritor.write(isbn + ",Título número " + i + ",Autor " + (i % 97) + ",1\n");
+            }
+        }
+        LibroService libroService = new LibroService();
+
+        ResumenImportacion resumen = new ImportadorCatalogo(libroService, 4)
+                .importar(archivo, FormatoCatalogo.CSV);
+
+        assertEquals(filas, resumen.getFilasLeidas());
+        assertEquals(filas - 12, resumen.getImportados());
+        assertEquals(12, resumen.getRechazados());
+        assertEquals("línea 10000: " + MotivoRechazo.ISBN_DUPLICADO.getDescripcion(),
+                resumen.getPrimerosErrores().get(0));
+        assertTrue(resumen.getPrimerosErrores().get(11).startsWith("línea 120000: "));
+        assertEquals("Título número 119998", libroService.buscarPorISBN("9780000119998").getTitulo());
+    }
+
+    @Test
+    void testImportar_LineaMasLargaQueElBuffer_SeLeeEntera() throws IOException {
+        String titulo = "x".repeat(3 << 20);
+        String csv = "9780000000001,Corto,Autor,1\n9780000000002," + titulo + ",Autor,1\n9780000000003,Otro,Autor,1\n";
+        LibroService libroService = new LibroService();
+
+        ResumenImportacion resumen = importar(libroService, csv, FormatoCatalogo.CSV);
+
+        assertEquals(3, resumen.getImportados());
+        assertEquals(titulo, libroService.buscarPorISBN("9780000000002").getTitulo());
+    }
+
+    @Test
+    void testExportar_Csv_EncabezadoYCamposEntreComillas() throws IOException {
+        LibroService libroService = new LibroService();
+        libroService.registrarLibro("9780000000001", "Uno, dos", "Autor", 2);
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        new ExportadorCatalogo(libroService).exportar(Channels.newChannel(salida), FormatoCatalogo.CSV);
+
+        assertEquals("isbn,titulo,autor,cantidad\n9780000000001,\"Uno, dos\",Autor,2\n",
+                salida.toString(StandardCharsets.UTF_8));
+    }
+
+    private static ResumenImportacion importar(LibroService libroService, String contenido,
+                                               FormatoCatalogo formato) throws IOException {
+        byte[] bytes = contenido.getBytes(StandardCharsets.UTF_8);
+        return new ImportadorCatalogo(libroService, 2)
+                .importar(Channels.newChannel(new ByteArrayInputStream(bytes)), formato);
+    }
+}
@@ -0,0 +1,50 @@
+package com.biblioteca.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InventarioColumnarTest {
+
+    @Test
+    void testVincular_LibroPasaASerVista() {
+        InventarioColumnar inventario = new InventarioColumnar();
+        Libro libro = new Libro("1234567890123", "El Quijote", "Cervantes", 2);
+        inventario.vincular(libro);
+
+        assertTrue(libro.prestar());
+        assertTrue(libro.prestar());
+        assertFalse(libro.prestar());
+        assertEquals(0, libro.getCantidadDisponible());
+        assertEquals(List.of(libro), inventario.listarSinDisponibilidad());
+
+        assertTrue(libro.devolver());
+        assertTrue(libro.devolver());
+        assertFalse(libro.devolver());
+        assertEquals(2, inventario.ejemplaresDisponibles());
+        assertThrows(IllegalStateException.class, () -> new InventarioColumnar().vincular(libro));
+    }
+
+    @Test
+    void testAgregados_VariasPaginas() {
+        InventarioColumnar inventario = new InventarioColumnar();
+        int cantidad = 40_000;
+        for (int i = 0; i < cantidad; i++) {
+            Libro libro = new Libro(String.format("978%010d", i), "Titulo " + i, "Autor", 3);
+            inventario.vincular(libro);
+            if (i % 4 == 0) {
+                libro.setCantidadDisponible(0);
+            } else if (i % 4 == 1) {
+                libro.prestar();
+            }
+        }
+
+        assertEquals(cantidad, inventario.tamanio());
+        assertEquals(3L * cantidad, inventario.totalEjemplares());
+        assertEquals(3L * cantidad / 4 + cantidad / 4, inventario.ejemplaresPrestados());
+        assertEquals(cantidad / 4, inventario.contarSinDisponibilidad());
+        assertEquals(cantidad / 4, inventario.listarSinDisponibilidad().size());
+    }
+}
@@ -0,0 +1,114 @@
+package com.biblioteca.particionado;
+
+import com.biblioteca.exception.LimitePrestamosException;
+import com.biblioteca.model.Libro;
+import com.biblioteca.model.Prestamo;
+import com.biblioteca.service.GeneradorIdPrestamo;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BibliotecaParticionadaTest {
+
+    private static final int PARTICIONES = 4;
+
+    @Test
+    void testPrestarLibro_LimiteContadoEnTodasLasParticiones() {
+        BibliotecaParticionada biblioteca = new BibliotecaParticionada(PARTICIONES);
+        List<String> isbns = unLibroPorParticion(biblioteca);
+
+        for (int i = 0; i < 3; i++) {
+            biblioteca.prestarLibro(isbns.get(i), "USR-001");
+        }
+
+        assertThrows(LimitePrestamosException.class, () -> biblioteca.prestarLibro(isbns.get(3), "USR-001"));
+        assertEquals(3, biblioteca.contarPrestamosActivos("USR-001"));
+        // Cada partición solo ve su propio préstamo
+        assertEquals(1, biblioteca.getPrestamoService(biblioteca.particionDe(isbns.get(0)))
+                .contarPrestamosActivos("USR-001"));
+
+        biblioteca.devolverLibro(isbns.get(0), "USR-001");
+        biblioteca.prestarLibro(isbns.get(3), "USR-001");
+        assertEquals(3, biblioteca.obtenerPrestamosActivos("USR-001").size());
+    }
+
+    @Test
+    void testPrestarLibro_Concurrente_NuncaSuperaElLimite() throws Exception {
+        BibliotecaParticionada biblioteca = new BibliotecaParticionada(PARTICIONES);
+        List<String> isbns = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            String isbn = String.format("978%010d", i);
+            biblioteca.registrarLibro(isbn, "Libro " + i, "Autor", 1);
+            isbns.add(isbn);
+        }
+        ExecutorService hilos = Executors.newFixedThreadPool(8);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<Boolean>> intentos = new ArrayList<>();
+        for (String isbn : isbns) {
+            intentos.add(hilos.submit(() -> {
+                largada.await();
+                try {
+                    biblioteca.prestarLibro(isbn, "USR-001");
+                    return true;
+                } catch (LimitePrestamosException e) {
+                    return false;
+                }
+            }));
+        }
+        largada.countDown();
+        int exitosos = 0;
+        for (Future<Boolean> intento : intentos) {
+            exitosos += intento.get() ? 1 : 0;
+        }
+        hilos.shutdown();
+
+        assertEquals(3, exitosos);
+        assertEquals(3, biblioteca.contarPrestamosActivos("USR-001"));
+        assertEquals(3, biblioteca.obtenerPrestamosActivos("USR-001").size());
+    }
+
+    @Test
+    void testBuscarPorAutor_ReuneTodasLasParticiones_IdsSinRepetir() {
+        BibliotecaParticionada biblioteca = new BibliotecaParticionada(PARTICIONES);
+        List<String> isbns = unLibroPorParticion(biblioteca);
+
+        List<Libro> encontrados = biblioteca.buscarPorAutor("borges");
+
+        assertEquals(PARTICIONES, encontrados.size());
+        Set<Long> ids = new HashSet<>();
+        Set<Integer> nodos = new HashSet<>();
+        for (int i = 0; i < PARTICIONES; i++) {
+            Prestamo prestamo = biblioteca.prestarLibro(isbns.get(i), "USR-" + i);
+            assertTrue(ids.add(prestamo.getNumero()));
+            nodos.add(GeneradorIdPrestamo.nodo(prestamo.getNumero()));
+        }
+        assertEquals(PARTICIONES, nodos.size());
+    }
+
+    /**
+     * Registra libros de Borges hasta tener uno en cada partición
+     */
+    private static List<String> unLibroPorParticion(BibliotecaParticionada biblioteca) {
+        String[] porParticion = new String[PARTICIONES];
+        int encontrados = 0;
+        for (int i = 0; encontrados < PARTICIONES; i++) {
+            String isbn = String.format("978%010d", i);
+            int particion = biblioteca.particionDe(isbn);
+            if (porParticion[particion] == null) {
+                porParticion[particion] = isbn;
+                biblioteca.registrarLibro(isbn, "Ficciones " + i, "Jorge Luis Borges", 1);
+                encontrados++;
+            }
+        }
+        return List.of(porParticion);
+    }
+}
@@ -0,0 +1,321 @@
+package com.biblioteca.persistencia;
+
+import com.biblioteca.model.Libro;
+import com.biblioteca.model.EstadoReserva;
+import com.biblioteca.model.Prestamo;
+import com.biblioteca.model.Reserva;
+import com.biblioteca.service.LibroService;
+import com.biblioteca.service.PrestamoService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistenciaBibliotecaTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void testReabrir_RecuperaLibrosYPrestamosDelDiario() throws IOException {
+        try (PersistenciaBiblioteca persistencia = abrir()) {
+            LibroService libros = persistencia.getLibroService();
+            PrestamoService prestamos = persistencia.getPrestamoService();
+            libros.registrarLibro("1234567890123", "El Quijote", "Cervantes", 3);
+            libros.registrarLibro("1234567890124", "Rayuela", "Cortazar", 2);
+            prestamos.prestarLibro("1234567890123", "USR-001");
+            prestamos.prestarLibro("1234567890124", "USR-001");
+            prestamos.prestarLibro("1234567890123", "USR-002");
+            prestamos.devolverLibro("1234567890124", "USR-001");
+            libros.buscarPorISBN("1234567890124").setTitulo("Rayuela (edicion critica)");
+            libros.actualizarDisponibilidad("1234567890124", 1);
+        }
+
+        try (PersistenciaBiblioteca persistencia = abrir()) {
+            LibroService libros = persistencia.getLibroService();
+            PrestamoService prestamos = persistencia.getPrestamoService();
+
+            assertEquals(1, libros.buscarPorISBN("1234567890123").getCantidadDisponible());
+            Libro rayuela = libros.buscarPorISBN("1234567890124");
+            assertEquals("Rayuela (edicion critica)", rayuela.getTitulo());
+            assertEquals(1, rayuela.getCantidadDisponible());
+            assertEquals(1, libros.buscarPorTitulo("critica").size());
+            assertEquals(3, prestamos.listarTodosLosPrestamos().size());
+            assertEquals(1, prestamos.contarPrestamosActivos("USR-001"));
+            assertEquals(1, prestamos.contarPrestamosActivos("USR-002"));
+
+            // Los IDs continúan después de los recuperados
+            Prestamo nuevo = prestamos.prestarLibro("1234567890124", "USR-003");
+            assertEquals("PREST-4", nuevo.getId());
+        }
+    }
+
+    @Test
+    void testTomarInstantanea_CompactaDiarioYRecupera() throws IOException {
+        try (PersistenciaBiblioteca persistencia = abrir()) {
+            LibroService libros = persistencia.getLibroService();
+            PrestamoService prestamos = persistencia.getPrestamoService();
+            libros.registrarLibro("1234567890123", "El Quijote", "Cervantes", 5);
+            prestamos.prestarLibro("1234567890123", "USR-001");
+
+            persistencia.tomarInstantanea();
+
+            prestamos.prestarLibro("1234567890123", "USR-002");
+            prestamos.devolverLibro("1234567890123", "USR-001");
+        }
+
+        assertEquals(1, contarArchivos(Instantanea.PREFIJO_ARCHIVO));
+
+        try (PersistenciaBiblioteca persistencia = abrir()) {
+            LibroService libros = persistencia.getLibroService();
+            PrestamoService prestamos = persistencia.getPrestamoService();
+
+            assertEquals(4, libros.buscarPorISBN("1234567890123").getCantidadDisponible());
+            assertEquals(0, prestamos.contarPrestamosActivos("USR-001"));
+            assertEquals(1, prestamos.contarPrestamosActivos("USR-002"));
+            assertEquals(2, prestamos.listarTodosLosPrestamos().size());
+
+            persistencia.tomarInstantanea();
+        }
+
+        try (PersistenciaBiblioteca persistencia = abrir()) {
+            assertEquals(4, persistencia.getLibroService().buscarPorISBN("1234567890123").getCantidadDisponible());
+            assertEquals(2, persistencia.getPrestamoService().listarTodosLosPrestamos().size());
+        }
+    }
+
+    @Test
+    void testReabrir_RecuperaRenovaciones() throws IOException {
+        try (PersistenciaBiblioteca persistencia = abrir()) {
+            persistencia.getLibroService().registrarLibro("1234567890123", "El Quijote", "Cervantes", 3);
+            PrestamoService prestamos = persistencia.getPrestamoService();
+            prestamos.prestarLibro("1234567890123", "USR-001");
+            prestamos.prestarLibro("1234567890123", "USR-002");
+            prestamos.renovarPrestamo("1234567890123", "USR-001");
+            persistencia.tomarInstantanea();
+            prestamos.renovarPrestamo("1234567890123", "USR-002");
+        }
+
+        try (PersistenciaBiblioteca persistencia = abrir()) {
+            PrestamoService prestamos = persistencia.getPrestamoService();
+            for (String usuario : new String[] {"USR-001", "USR-002"}) {
+                Prestamo prestamo = prestamos.obtenerPrestamosActivos(usuario).get(0);
+                assertEquals(1, prestamo.getRenovaciones());
+                assertEquals(LocalDate.now().plusDays(14), prestamo.getFechaVencimiento());
+            }
+            assertEquals(LocalDate.now().plusDays(14), prestamos.proximoVencimiento());
+        }
+    }
+
+    @Test
+    void testReabrir_RecuperaColasDeReservasDelDiario() throws IOException {
+        String quijote = "1234567890123";
+        try (PersistenciaBiblioteca persistencia = abrir()) {
+            LibroService libros = persistencia.getLibroService();
+            PrestamoService prestamos = persistencia.getPrestamoService();
+            libros.registrarLibro(quijote, "El Quijote", "Cervantes", 1);
+            for (int i = 4; i <= 6; i++) {
+                libros.registrarLibro("123456789012" + i, "Libro " + i, "Autor", 1);
+                prestamos.prestarLibro("123456789012" + i, "USR-004");
+            }
+            prestamos.prestarLibro(quijote, "USR-001");
+            prestamos.reservarLibro(quijote, "USR-002");
+            prestamos.reservarLibro(quijote, "USR-003");
+            prestamos.reservarLibro(quijote, "USR-004");
+            prestamos.cancelarReserva(quijote, "USR-003");
+            // Atiende a USR-002
+            prestamos.devolverLibro(quijote, "USR-001");
+            prestamos.reservarLibro(quijote, "USR-005");
+            // USR-004 ya tiene 3 préstamos: se rechaza y se atiende a USR-005
+            prestamos.devolverLibro(quijote, "USR-002");
+            prestamos.reservarLibro(quijote, "USR-006");
+        }
+
+        try (PersistenciaBiblioteca persistencia = abrir()) {
+            LibroService libros = persistencia.getLibroService();
+            PrestamoService prestamos = persistencia.getPrestamoService();
+
+            assertEquals(List.of("USR-006"), usuariosEnEspera(prestamos, quijote));
+            assertEquals(0, libros.buscarPorISBN(quijote).getCantidadDisponible());
+            assertEquals(1, prestamos.contarPrestamosActivos("USR-005"));
+            assertEquals(0, prestamos.contarPrestamosActivos("USR-002"));
+
+            // El ejemplar devuelto sigue yendo a la cola, no al stock
+            prestamos.devolverLibro(quijote, "USR-005");
+            assertEquals(1, prestamos.contarPrestamosActivos("USR-006"));
+            assertTrue(prestamos.listarReservasPendientes(quijote).isEmpty());
+            assertEquals(0, libros.buscarPorISBN(quijote).getCantidadDisponible());
+        }
+    }
+
+    @Test
+    void testTomarInstantanea_ConservaReservasPendientes() throws IOException {
+        String quijote = "1234567890123";
+        try (PersistenciaBiblioteca persistencia = abrir()) {
+            PrestamoService prestamos = persistencia.getPrestamoService();
+            persistencia.getLibroService().registrarLibro(quijote, "El Quijote", "Cervantes", 1);
+            prestamos.prestarLibro(quijote, "USR-001");
+            prestamos.reservarLibro(quijote, "USR-002");
+            prestamos.reservarLibro(quijote, "USR-003");
+
+            persistencia.tomarInstantanea();
+
+            prestamos.reservarLibro(quijote, "USR-004");
+            prestamos.cancelarReserva(quijote, "USR-002");
+        }
+
+        try (PersistenciaBiblioteca persistencia = abrir()) {
+            assertEquals(List.of("USR-003", "USR-004"), usuariosEnEspera(persistencia.getPrestamoService(), quijote));
+            persistencia.tomarInstantanea();
+        }
+
+        try (PersistenciaBiblioteca persistencia = abrir()) {
+            PrestamoService prestamos = persistencia.getPrestamoService();
+            assertEquals(List.of("USR-003", "USR-004"), usuariosEnEspera(prestamos, quijote));
+            Reserva primera = prestamos.listarReservasPendientes(quijote).get(0);
+            assertEquals(LocalDate.now(), primera.getFechaReserva());
+
+            prestamos.devolverLibro(quijote, "USR-001");
+            assertEquals(EstadoReserva.ATENDIDA, primera.getEstado());
+            assertEquals(List.of("USR-004"), usuariosEnEspera(prestamos, quijote));
+        }
+    }
+
+    @Test
+    void testReabrir_IgnoraColaTruncadaDelDiario() throws IOException {
+        try (PersistenciaBiblioteca persistencia = abrir()) {
+            persistencia.getLibroService().registrarLibro("1234567890123", "El Quijote", "Cervantes", 5);
+            persistencia.getPrestamoService().prestarLibro("1234567890123", "USR-001");
+        }
+
+        // Simula una escritura interrumpida al final del último segmento
+        Path ultimo;
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            ultimo = archivos.filter(p -> p.getFileName().toString().startsWith(Diario.PREFIJO_ARCHIVO))
+                    .sorted().reduce((a, b) -> b).orElseThrow();
+        }
+        Files.write(ultimo, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        try (PersistenciaBiblioteca persistencia = abrir()) {
+            assertEquals(4, persistencia.getLibroService().buscarPorISBN("1234567890123").getCantidadDisponible());
+            persistencia.getPrestamoService().prestarLibro("1234567890123", "USR-002");
+        }
+
+        try (PersistenciaBiblioteca persistencia = abrir()) {
+            assertEquals(3, persistencia.getLibroService().buscarPorISBN("1234567890123").getCantidadDisponible());
+        }
+    }
+
+    @Test
+    void testInstantaneaPeriodicaFallida_SeReintentaEnLaProximaVuelta() throws Exception {
+        Path movido = directorio.resolveSibling(directorio.getFileName() + "-movido");
+        try (PersistenciaBiblioteca persistencia =
+                     PersistenciaBiblioteca.abrir(directorio, Duration.ofMillis(5), Duration.ofMillis(20))) {
+            persistencia.getLibroService().registrarLibro("1234567890123", "El Quijote", "Cervantes", 5);
+
+            // Sin el directorio, cada instantánea falla al rotar el diario
+            Files.move(directorio, movido);
+            Thread.sleep(100);
+            Files.move(movido, directorio);
+            persistencia.getPrestamoService().prestarLibro("1234567890123", "USR-001");
+
+            long limite = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (contarArchivos(Instantanea.PREFIJO_ARCHIVO) == 0 && System.nanoTime() < limite) {
+                Thread.sleep(10);
+            }
+            assertTrue(contarArchivos(Instantanea.PREFIJO_ARCHIVO) > 0);
+        }
+
+        try (PersistenciaBiblioteca persistencia = abrir()) {
+            assertEquals(4, persistencia.getLibroService().buscarPorISBN("1234567890123").getCantidadDisponible());
+        }
+    }
+
+    @Test
+    void testInstantaneaPeriodicaFallida_SeInformaAlCerrar() throws Exception {
+        Path movido = directorio.resolveSibling(directorio.getFileName() + "-movido");
+        PersistenciaBiblioteca persistencia =
+                PersistenciaBiblioteca.abrir(directorio, Duration.ofMillis(5), Duration.ofMillis(20));
+        persistencia.getLibroService().registrarLibro("1234567890123", "El Quijote", "Cervantes", 5);
+        Files.move(directorio, movido);
+        try {
+            Thread.sleep(100);
+            IOException error = assertThrows(IOException.class, persistencia::close);
+            assertNotNull(error.getCause());
+        } finally {
+            Files.move(movido, directorio);
+        }
+    }
+
+    @Test
+    void testReabrir_StockNoDependeDelOrdenEnQueSeCruzanLosCambios() throws IOException {
+        String isbn = "1234567890123";
+        // En memoria: préstamo 1 (queda 0), ajuste manual a 1 (+1) y préstamo 2 (queda 0).
+        // Cada hilo registra después de su cambio, así que el diario puede quedar en otro orden.
+        try (Diario diario = new Diario(directorio, 1, 0)) {
+            diario.libroRegistrado(new Libro(isbn, "El Quijote", "Cervantes", 1));
+            diario.prestamoCreado(new Prestamo("PREST-2", isbn, "USR-002", LocalDate.now()));
+            diario.prestamoCreado(new Prestamo("PREST-1", isbn, "USR-001", LocalDate.now()));
+            diario.disponibilidadAjustada(isbn, 1);
+        }
+
+        try (PersistenciaBiblioteca persistencia = abrir()) {
+            assertEquals(0, persistencia.getLibroService().buscarPorISBN(isbn).getCantidadDisponible());
+            assertEquals(2, persistencia.getPrestamoService().listarPrestamosActivos().size());
+
+            persistencia.tomarInstantanea();
+        }
+
+        try (PersistenciaBiblioteca persistencia = abrir()) {
+            assertEquals(0, persistencia.getLibroService().buscarPorISBN(isbn).getCantidadDisponible());
+        }
+    }
+
+    @Test
+    void testOperacionConfirmada_YaEstaEnDiscoAlVolver() throws IOException {
+        Path caida = directorio.resolve("caida");
+        Files.createDirectories(caida);
+        // Sin fsync periódico en la ventana del test: solo la confirmación de cada operación escribe
+        try (PersistenciaBiblioteca persistencia =
+                     PersistenciaBiblioteca.abrir(directorio, Duration.ofHours(1), Duration.ZERO)) {
+            persistencia.getLibroService().registrarLibro("1234567890123", "El Quijote", "Cervantes", 5);
+            persistencia.getPrestamoService().prestarLibro("1234567890123", "USR-001");
+
+            // Lo que está en los archivos ahora es lo que queda si el proceso cae acá
+            try (Stream<Path> archivos = Files.list(directorio)) {
+                for (Path archivo : archivos.filter(Files::isRegularFile).toList()) {
+                    Files.copy(archivo, caida.resolve(archivo.getFileName()));
+                }
+            }
+        }
+
+        try (PersistenciaBiblioteca persistencia = PersistenciaBiblioteca.abrir(caida, Duration.ofMillis(5),
+                Duration.ZERO)) {
+            assertEquals(4, persistencia.getLibroService().buscarPorISBN("1234567890123").getCantidadDisponible());
+            assertEquals(1, persistencia.getPrestamoService().contarPrestamosActivos("USR-001"));
+        }
+    }
+
+    private PersistenciaBiblioteca abrir() throws IOException {
+        return PersistenciaBiblioteca.abrir(directorio, Duration.ofMillis(5), Duration.ZERO);
+    }
+
+    private static List<String> usuariosEnEspera(PrestamoService prestamos, String isbn) {
+        return prestamos.listarReservasPendientes(isbn).stream().map(Reserva::getIdUsuario).toList();
+    }
+
+    private long contarArchivos(String prefijo) throws IOException {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            return archivos.filter(p -> p.getFileName().toString().startsWith(prefijo)).count();
+        }
+    }
+}
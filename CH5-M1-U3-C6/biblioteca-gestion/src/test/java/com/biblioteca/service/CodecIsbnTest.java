@@ -0,0 +1,25 @@
+package com.biblioteca.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CodecIsbnTest {
+
+    @Test
+    void testCodificar_IdaYVuelta_ConservaCerosIniciales() {
+        long valor = CodecIsbn.codificar("0012345678901");
+
+        assertEquals(12345678901L, valor);
+        assertEquals("0012345678901", CodecIsbn.decodificar(valor));
+        assertEquals("9999999999999", CodecIsbn.decodificar(CodecIsbn.codificar("9999999999999")));
+    }
+
+    @Test
+    void testCodificar_MalFormado() {
+        assertEquals(CodecIsbn.INVALIDO, CodecIsbn.codificar("97803064061"));
+        assertEquals(CodecIsbn.INVALIDO, CodecIsbn.codificar("978030640615-"));
+        assertEquals(CodecIsbn.INVALIDO, CodecIsbn.codificar(null));
+        assertThrows(IllegalArgumentException.class, () -> CodecIsbn.decodificar(-1));
+    }
+}
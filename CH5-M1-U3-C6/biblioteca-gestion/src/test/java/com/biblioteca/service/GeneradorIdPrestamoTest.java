@@ -0,0 +1,51 @@
+package com.biblioteca.service;
+
+import com.biblioteca.model.Prestamo;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeneradorIdPrestamoTest {
+
+    private static final long AHORA = GeneradorIdPrestamo.EPOCA + 1_000;
+
+    @Test
+    void testSiguiente_PorNodo_SecuenciaAgotadaSigueCreciendo() {
+        GeneradorIdPrestamo generador = new GeneradorIdPrestamo(7, () -> AHORA);
+
+        long anterior = -1;
+        // Más ids que la secuencia de un milisegundo, con el reloj detenido
+        for (int i = 0; i < 10_000; i++) {
+            long id = generador.siguiente();
+            assertTrue(id > anterior);
+            assertEquals(7, GeneradorIdPrestamo.nodo(id));
+            anterior = id;
+        }
+    }
+
+    @Test
+    void testObservar_IdDeOtroNodo_LosSiguientesSonMayores() {
+        GeneradorIdPrestamo otroNodo = new GeneradorIdPrestamo(900, () -> AHORA);
+        GeneradorIdPrestamo generador = new GeneradorIdPrestamo(3, () -> AHORA);
+        long ajeno = otroNodo.siguiente();
+
+        generador.observar(ajeno);
+
+        assertTrue(generador.siguiente() > ajeno);
+        assertThrows(IllegalArgumentException.class, () -> new GeneradorIdPrestamo(GeneradorIdPrestamo.MAX_NODO + 1));
+    }
+
+    @Test
+    void testPrestamo_IdNumericoSeFormateaAlPedirlo() {
+        GeneradorIdPrestamo generador = new GeneradorIdPrestamo();
+        generador.observar(41);
+
+        Prestamo prestamo = new Prestamo(generador.siguiente(), "1234567890123", "USR-001", null);
+
+        assertEquals(42, prestamo.getNumero());
+        assertEquals("PREST-42", prestamo.getId());
+        assertEquals(Long.MAX_VALUE, Prestamo.numeroDeId("PREST-" + Long.MAX_VALUE));
+        assertEquals(-1, Prestamo.numeroDeId("PREST-9223372036854775808"));
+        assertEquals(-1, Prestamo.numeroDeId("PREST-1a"));
+    }
+}
@@ -0,0 +1,116 @@
+package com.biblioteca.service;
+
+import com.biblioteca.model.Libro;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstantaneaCatalogoTest {
+
+    private static final String QUIJOTE = "1234567890123";
+    private static final String FICCIONES = "9876543210987";
+
+    @Test
+    void testInstantanea_VeElInventarioAlAbrirse() {
+        LibroService libroService = new LibroService();
+        Libro quijote = libroService.registrarLibro(QUIJOTE, "El Quijote", "Cervantes", 3);
+        Libro ficciones = libroService.registrarLibro(FICCIONES, "Ficciones", "Borges", 1);
+        quijote.prestar();
+
+        try (InstantaneaCatalogo instantanea = libroService.abrirInstantanea()) {
+            quijote.prestar();
+            ficciones.prestar();
+            libroService.registrarLibro("1111111111111", "Rayuela", "Cortázar", 1);
+
+            assertEquals(2, instantanea.disponibles(quijote));
+            assertEquals(1, instantanea.disponibles(ficciones));
+            assertEquals(1, instantanea.contarEjemplaresPrestados());
+            assertEquals(List.of(), instantanea.listarSinDisponibilidad());
+            assertEquals(2, instantanea.tamanio());
+            // El catálogo vivo sí ve los cambios
+            assertEquals(1, quijote.getCantidadDisponible());
+            assertEquals(List.of(ficciones), libroService.listarSinDisponibilidad());
+        }
+    }
+
+    @Test
+    void testInstantaneasAnidadas_CadaUnaVeSuVersion() {
+        LibroService libroService = new LibroService();
+        Libro libro = libroService.registrarLibro(QUIJOTE, "El Quijote", "Cervantes", 5);
+
+        InstantaneaCatalogo primera = libroService.abrirInstantanea();
+        libro.prestar();
+        InstantaneaCatalogo segunda = libroService.abrirInstantanea();
+        libro.prestar();
+        libroService.actualizarDisponibilidad(QUIJOTE, 0);
+
+        assertEquals(5, primera.disponibles(libro));
+        assertEquals(4, segunda.disponibles(libro));
+        primera.close();
+        libro.devolver();
+        assertEquals(4, segunda.disponibles(libro));
+        segunda.close();
+        assertEquals(1, libro.getCantidadDisponible());
+        assertThrows(IllegalStateException.class, () -> segunda.disponibles(libro));
+    }
+
+    @Test
+    void testInstantanea_LecturasRepetiblesConPrestamosConcurrentes() throws Exception {
+        LibroService libroService = new LibroService();
+        List<Libro> libros = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            libros.add(libroService.registrarLibro(String.format("978%010d", i), "Titulo " + i, "Autor", 3));
+        }
+        AtomicBoolean seguir = new AtomicBoolean(true);
+        ExecutorService hilos = Executors.newFixedThreadPool(4);
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int h = 0; h < 4; h++) {
+            tareas.add(hilos.submit(() -> {
+                ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+                while (seguir.get()) {
+                    Libro libro = libros.get(aleatorio.nextInt(libros.size()));
+                    if (aleatorio.nextBoolean()) {
+                        libro.prestar();
+                    } else {
+                        libro.devolver();
+                    }
+                }
+            }));
+        }
+        try {
+            for (int ronda = 0; ronda < 20; ronda++) {
+                try (InstantaneaCatalogo instantanea = libroService.abrirInstantanea()) {
+                    // Se recorre en orden de registro, el mismo de la lista
+                    int[] primera = new int[libros.size()];
+                    int[] posicion = new int[1];
+                    instantanea.recorrer((libro, disponibles) -> primera[posicion[0]++] = disponibles);
+                    Thread.yield();
+                    for (int i = 0; i < libros.size(); i++) {
+                        assertEquals(primera[i], instantanea.disponibles(libros.get(i)));
+                        assertTrue(primera[i] >= 0 && primera[i] <= 3);
+                    }
+                }
+            }
+        } finally {
+            seguir.set(false);
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+            hilos.shutdown();
+        }
+    }
+
+    @Test
+    void testInventarioColumnar_NoAdmiteInstantaneas() {
+        LibroService libroService = new LibroService(16, true);
+        assertThrows(IllegalStateException.class, libroService::abrirInstantanea);
+    }
+}
@@ -0,0 +1,275 @@
+package com.biblioteca.service;
+
+import com.biblioteca.busqueda.EstadisticasCache;
+import com.biblioteca.exception.LibroNoEncontradoException;
+import com.biblioteca.model.Libro;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LibroServiceTest {
+
+    LibroService libroService;
+
+    @BeforeEach
+    void setUp() {
+        libroService = new LibroService();
+        libroService.registrarLibro("1234567890123", "El Quijote de la Mancha", "Miguel de Cervantes", 5);
+        libroService.registrarLibro("1234567890124", "Rayuela", "Julio Cortazar", 2);
+        libroService.registrarLibro("1234567890125", "El Aleph", "Jorge Luis Borges", 3);
+    }
+
+    @Test
+    void testRegistrarLibro_ISBNDuplicado() {
+        assertThrows(IllegalArgumentException.class,
+                () -> libroService.registrarLibro("1234567890123", "Otro", "Otro", 1));
+    }
+
+    @Test
+    void testBuscarPorISBN_NoEncontrado() {
+        assertThrows(LibroNoEncontradoException.class, () -> libroService.buscarPorISBN("9999999999999"));
+    }
+
+    @Test
+    void testBuscarPorTitulo_ParcialCaseInsensitive() {
+        List<Libro> resultado = libroService.buscarPorTitulo("  QUIJOTE ");
+
+        assertEquals(1, resultado.size());
+        assertEquals("1234567890123", resultado.get(0).getIsbn());
+    }
+
+    @Test
+    void testBuscarPorTitulo_ConsultaCorta() {
+        assertEquals(3, libroService.buscarPorTitulo("el").size());
+        assertEquals(1, libroService.buscarPorTitulo("AL").size());
+    }
+
+    @Test
+    void testBuscarPorTitulo_SinCoincidencias() {
+        assertTrue(libroService.buscarPorTitulo("Ficciones").isEmpty());
+        assertTrue(libroService.buscarPorTitulo("   ").isEmpty());
+        assertTrue(libroService.buscarPorTitulo(null).isEmpty());
+    }
+
+    @Test
+    void testBuscarPorAutor_ParcialCaseInsensitive() {
+        List<Libro> resultado = libroService.buscarPorAutor("borg");
+
+        assertEquals(1, resultado.size());
+        assertEquals("El Aleph", resultado.get(0).getTitulo());
+    }
+
+    @Test
+    void testSetTitulo_ActualizaBusqueda() {
+        Libro libro = libroService.buscarPorISBN("1234567890124");
+
+        libro.setTitulo("Bestiario");
+
+        assertTrue(libroService.buscarPorTitulo("rayuela").isEmpty());
+        assertEquals(1, libroService.buscarPorTitulo("bestia").size());
+    }
+
+    @Test
+    void testSetAutor_ActualizaBusqueda() {
+        Libro libro = libroService.buscarPorISBN("1234567890125");
+
+        libro.setAutor("J. L. B.");
+
+        assertTrue(libroService.buscarPorAutor("borges").isEmpty());
+        assertEquals(1, libroService.buscarPorAutor("l. b").size());
+    }
+
+    @Test
+    void testBuscarPorTitulo_CacheSeInvalidaAlCambiarElCatalogo() {
+        assertEquals(1, libroService.buscarPorTitulo("rayuela").size());
+        assertEquals(1, libroService.buscarPorTitulo("RAYUELA ").size());
+        assertTrue(libroService.buscarPorTitulo("bestia").isEmpty());
+
+        libroService.buscarPorISBN("1234567890124").setTitulo("Bestiario");
+        libroService.registrarLibro("9780000000001", "Bestias y fieras", "Autor", 1);
+
+        assertTrue(libroService.buscarPorTitulo("rayuela").isEmpty());
+        assertEquals(2, libroService.buscarPorTitulo("bestia").size());
+        EstadisticasCache estadisticas = libroService.getEstadisticasCacheTitulos();
+        assertEquals(1, estadisticas.getAciertos());
+        assertEquals(4, estadisticas.getFallos());
+        assertEquals(2, estadisticas.getInvalidaciones());
+    }
+
+    @Test
+    void testActualizarDisponibilidad_MayorAlTotal() {
+        assertThrows(IllegalArgumentException.class,
+                () -> libroService.actualizarDisponibilidad("1234567890124", 3));
+    }
+
+    @Test
+    void testRegistrarLibros_LoteConRechazos() {
+        List<Libro> lote = List.of(
+                new Libro("9780000000001", "Ficciones", "Jorge Luis Borges", 4),
+                new Libro("97800000000", "ISBN corto", "Autor", 1),
+                new Libro("1234567890123", "Duplicado del catálogo", "Autor", 1),
+                new Libro("9780000000002", "Sin ejemplares", "Autor", 0),
+                new Libro("9780000000001", "Duplicado del lote", "Autor", 1));
+
+        ResultadoLote<Libro> resultado = libroService.registrarLibros(lote);
+
+        assertEquals(1, resultado.getExitosos());
+        assertEquals(4, resultado.getRechazados());
+        List<ResultadoItem<Libro>> items = resultado.getItems();
+        assertTrue(items.get(0).esExitoso());
+        assertEquals(MotivoRechazo.ISBN_INVALIDO, items.get(1).getMotivo());
+        assertEquals(MotivoRechazo.ISBN_DUPLICADO, items.get(2).getMotivo());
+        assertEquals(MotivoRechazo.CANTIDAD_INVALIDA, items.get(3).getMotivo());
+        assertEquals(MotivoRechazo.ISBN_DUPLICADO, items.get(4).getMotivo());
+        assertEquals("Ficciones", libroService.buscarPorISBN("9780000000001").getTitulo());
+        assertEquals(2, libroService.buscarPorAutor("Borges").size());
+    }
+
+    @Test
+    void testRegistrarLibros_LoteGrande_ValidacionParalela() {
+        LibroService service = new LibroService(50_000);
+        List<Libro> lote = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            lote.add(new Libro(String.format("978%010d", i), "Titulo " + i, "Autor " + i, 1));
+        }
+        lote.add(new Libro("no-es-isbn", "Titulo", "Autor", 1));
+
+        ResultadoLote<Libro> resultado = service.registrarLibros(lote);
+
+        assertEquals(50_000, resultado.getExitosos());
+        assertEquals(50_000, resultado.getRechazos().get(0).getIndice());
+        assertEquals(50_000, service.listarTodos().size());
+        assertEquals(1, service.buscarPorTitulo("Titulo 49999").size());
+    }
+
+    @Test
+    void testReportes_InventarioColumnarCoincideConRecorrido() {
+        LibroService columnar = new LibroService(16, true);
+        for (Libro libro : libroService.listarTodos()) {
+            columnar.registrarLibro(libro.getIsbn(), libro.getTitulo(), libro.getAutor(), libro.getCantidadTotal());
+        }
+        for (LibroService service : List.of(libroService, columnar)) {
+            service.actualizarDisponibilidad("1234567890124", 0);
+            service.buscarPorISBN("1234567890123").prestar();
+        }
+
+        assertEquals(3, libroService.contarEjemplaresPrestados());
+        assertEquals(3, columnar.contarEjemplaresPrestados());
+        assertEquals(1, columnar.listarSinDisponibilidad().size());
+        assertEquals(libroService.listarSinDisponibilidad(), columnar.listarSinDisponibilidad());
+        assertThrows(IllegalArgumentException.class,
+                () -> columnar.registrarLibro("1234567890124", "Otro", "Otro", 1));
+        assertEquals(3, columnar.getInventario().tamanio());
+    }
+
+    @Test
+    void testListarLibros_PorCursor_RegistrosDuranteLaPaginacionAlFinal() {
+        Pagina<Libro> primera = libroService.listarLibros(null, 2);
+        assertEquals(List.of("1234567890123", "1234567890124"),
+                primera.getElementos().stream().map(Libro::getIsbn).toList());
+        assertTrue(primera.hayMas());
+
+        libroService.registrarLibro("1234567890126", "Ficciones", "Jorge Luis Borges", 1);
+        Pagina<Libro> segunda = libroService.listarLibros(primera.getSiguienteCursor(), 2);
+        assertEquals(List.of("1234567890125", "1234567890126"),
+                segunda.getElementos().stream().map(Libro::getIsbn).toList());
+        assertFalse(segunda.hayMas());
+
+        assertEquals(4, libroService.streamLibros().count());
+        assertThrows(IllegalArgumentException.class, () -> libroService.listarLibros("x", 2));
+        assertThrows(IllegalArgumentException.class, () -> libroService.listarLibros(null, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> libroService.listarLibros(null, LibroService.MAX_TAMANIO_PAGINA + 1));
+    }
+
+    @Test
+    void testRegistrarLibro_CambioDeTituloAlPublicarseQuedaIndexado() throws Exception {
+        LibroService servicio = new LibroService();
+        int cantidad = 500;
+        // Cambia el título de cada libro apenas aparece en el catálogo, mientras se registra
+        Thread cambios = new Thread(() -> {
+            for (int i = 0; i < cantidad; i++) {
+                String isbn = String.valueOf(9780000000000L + i);
+                while (!servicio.existeLibro(isbn)) {
+                    Thread.onSpinWait();
+                }
+                servicio.buscarPorISBN(isbn).setTitulo("Segunda edicion " + i);
+            }
+        });
+        cambios.start();
+        for (int i = 0; i < cantidad; i++) {
+            servicio.registrarLibro(String.valueOf(9780000000000L + i), "Primera edicion " + i, "Autor", 1);
+        }
+        cambios.join();
+
+        for (int i = 0; i < cantidad; i++) {
+            String isbn = String.valueOf(9780000000000L + i);
+            assertEquals(List.of(isbn), servicio.buscarPorTitulo("Segunda edicion " + i).stream()
+                    .map(Libro::getIsbn).filter(isbn::equals).toList(), "Libro " + i);
+            assertTrue(servicio.buscarPorTitulo("Primera edicion " + i).stream()
+                    .noneMatch(l -> l.getIsbn().equals(isbn)), "Libro " + i);
+        }
+    }
+
+    @Test
+    void testSetTitulo_RegistroFallidoNoCambiaElTitulo() {
+        libroService.setRegistroCambios(new RegistroCambios() {
+            @Override
+            public void datosLibroActualizados(Libro libro, String titulo, String autor) {
+                throw new UncheckedIOException(new IOException("Disco lleno"));
+            }
+        });
+        Libro rayuela = libroService.buscarPorISBN("1234567890124");
+
+        assertThrows(UncheckedIOException.class, () -> rayuela.setTitulo("Rayuela (edicion critica)"));
+        assertEquals("Rayuela", rayuela.getTitulo());
+        assertTrue(libroService.buscarPorTitulo("critica").isEmpty());
+    }
+
+    @Test
+    void testRegistrarLibros_RegistroFallidoSeInformaPorItem() {
+        libroService.setRegistroCambios(new RegistroCambios() {
+            @Override
+            public void libroRegistrado(Libro libro) {
+                if (libro.getIsbn().equals("1234567890127")) {
+                    throw new UncheckedIOException(new IOException("Disco lleno"));
+                }
+            }
+        });
+
+        ResultadoLote<Libro> resultado = libroService.registrarLibros(List.of(
+                new Libro("1234567890126", "Ficciones", "Borges", 1),
+                new Libro("1234567890127", "Pedro Paramo", "Rulfo", 1)));
+
+        assertEquals(MotivoRechazo.REGISTRO_FALLIDO, resultado.getItems().get(1).getMotivo());
+        assertTrue(libroService.existeLibro("1234567890126"));
+        assertFalse(libroService.existeLibro("1234567890127"));
+        assertTrue(libroService.buscarPorTitulo("Paramo").isEmpty());
+    }
+
+    @Test
+    void testActualizarDisponibilidad_RegistroFallidoRevierteElCambio() {
+        List<Integer> diferencias = new ArrayList<>();
+        libroService.setRegistroCambios(new RegistroCambios() {
+            @Override
+            public void disponibilidadAjustada(Libro libro, int diferencia) {
+                diferencias.add(diferencia);
+                if (diferencia > 0) {
+                    throw new UncheckedIOException(new IOException("Disco lleno"));
+                }
+            }
+        });
+
+        libroService.actualizarDisponibilidad("1234567890123", 2);
+        assertEquals(List.of(-3), diferencias);
+
+        assertThrows(UncheckedIOException.class, () -> libroService.actualizarDisponibilidad("1234567890123", 4));
+        assertEquals(2, libroService.buscarPorISBN("1234567890123").getCantidadDisponible());
+    }
+}
@@ -0,0 +1,222 @@
+package com.biblioteca.service;
+
+import com.biblioteca.exception.LibroNoDisponibleException;
+import com.biblioteca.exception.LimitePrestamosException;
+import com.biblioteca.exception.PrestamoNoEncontradoException;
+import com.biblioteca.model.EstadoReserva;
+import com.biblioteca.model.Libro;
+import com.biblioteca.model.Prestamo;
+import com.biblioteca.model.Reserva;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de estrés del préstamo concurrente: sin sobreventa de ejemplares,
+ * sin IDs duplicados y respetando el límite por usuario.
+ */
+class PrestamoServiceConcurrenciaTest {
+
+    private static final int LIBROS = 200;
+    private static final int EJEMPLARES_POR_LIBRO = 5;
+    private static final int USUARIOS = 2_000;
+    private static final int OPERACIONES_POR_HILO = 20_000;
+
+    @Test
+    void testPrestarLibro_UltimoEjemplar_SinSobreventa() throws InterruptedException {
+        LibroService libroService = new LibroService();
+        libroService.registrarLibro("1234567890123", "El Quijote", "Cervantes", 100);
+        PrestamoService prestamoService = new PrestamoService(libroService);
+
+        int hilos = 16;
+        AtomicInteger exitosos = new AtomicInteger();
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        for (int h = 0; h < hilos; h++) {
+            int hilo = h;
+            executor.submit(() -> {
+                largada.await();
+                for (int i = 0; i < 50; i++) {
+                    try {
+                        prestamoService.prestarLibro("1234567890123", "USR-" + hilo + "-" + i);
+                        exitosos.incrementAndGet();
+                    } catch (LibroNoDisponibleException e) {
+                        // esperado una vez agotado el stock
+                    }
+                }
+                return null;
+            });
+        }
+        largada.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(100, exitosos.get());
+        assertEquals(0, libroService.buscarPorISBN("1234567890123").getCantidadDisponible());
+        assertEquals(100, prestamoService.listarTodosLosPrestamos().size());
+    }
+
+    @Test
+    void testPrestarLibro_MismoUsuarioConcurrente_RespetaLimite() throws InterruptedException {
+        LibroService libroService = new LibroService();
+        for (int i = 0; i < 20; i++) {
+            libroService.registrarLibro(isbn(i), "Titulo " + i, "Autor " + i, 10);
+        }
+        PrestamoService prestamoService = new PrestamoService(libroService);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch largada = new CountDownLatch(1);
+        for (int i = 0; i < 20; i++) {
+            String isbn = isbn(i);
+            executor.submit(() -> {
+                largada.await();
+                try {
+                    prestamoService.prestarLibro(isbn, "USR-001");
+                } catch (LimitePrestamosException e) {
+                    // esperado
+                }
+                return null;
+            });
+        }
+        largada.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(3, prestamoService.contarPrestamosActivos("USR-001"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 4, 8})
+    void testPrestarYDevolver_CargaMixta_InvariantesDeStock(int hilos) throws InterruptedException {
+        LibroService libroService = new LibroService();
+        for (int i = 0; i < LIBROS; i++) {
+            libroService.registrarLibro(isbn(i), "Titulo " + i, "Autor " + i, EJEMPLARES_POR_LIBRO);
+        }
+        PrestamoService prestamoService = new PrestamoService(libroService);
+
+        LongAdder prestamosRealizados = new LongAdder();
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        for (int h = 0; h < hilos; h++) {
+            executor.submit(() -> {
+                largada.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < OPERACIONES_POR_HILO; i++) {
+                    String usuario = "USR-" + random.nextInt(USUARIOS);
+                    List<Prestamo> activos = prestamoService.obtenerPrestamosActivos(usuario);
+                    try {
+                        if (!activos.isEmpty() && random.nextBoolean()) {
+                            prestamoService.devolverLibro(activos.get(0).getIsbnLibro(), usuario);
+                        } else {
+                            prestamoService.prestarLibro(isbn(random.nextInt(LIBROS)), usuario);
+                            prestamosRealizados.increment();
+                        }
+                    } catch (LibroNoDisponibleException | LimitePrestamosException
+                             | PrestamoNoEncontradoException e) {
+                        // rechazos de negocio esperados bajo carga
+                    }
+                }
+                return null;
+            });
+        }
+
+        long inicio = System.nanoTime();
+        largada.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+        double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+
+        System.out.printf("hilos=%d prestamos=%d prestamos/seg=%.0f%n",
+                hilos, prestamosRealizados.sum(), prestamosRealizados.sum() / segundos);
+
+        List<Prestamo> todos = prestamoService.listarTodosLosPrestamos();
+        Set<String> ids = new HashSet<>();
+        Map<String, Integer> activosPorIsbn = new HashMap<>();
+        Map<String, Integer> activosPorUsuario = new HashMap<>();
+        for (Prestamo p : todos) {
+            assertTrue(ids.add(p.getId()), "ID de préstamo duplicado: " + p.getId());
+            if (p.isActivo()) {
+                activosPorIsbn.merge(p.getIsbnLibro(), 1, Integer::sum);
+                activosPorUsuario.merge(p.getIdUsuario(), 1, Integer::sum);
+            }
+        }
+        assertEquals(prestamosRealizados.sum(), todos.size());
+
+        for (Libro libro : libroService.listarTodos()) {
+            int activos = activosPorIsbn.getOrDefault(libro.getIsbn(), 0);
+            assertTrue(libro.getCantidadDisponible() >= 0);
+            assertEquals(EJEMPLARES_POR_LIBRO, libro.getCantidadDisponible() + activos,
+                    "Stock inconsistente para " + libro.getIsbn());
+        }
+        activosPorUsuario.forEach((usuario, activos) -> {
+            assertTrue(activos <= 3);
+            assertEquals(activos, prestamoService.contarPrestamosActivos(usuario));
+        });
+    }
+
+    @Test
+    void testReservas_MuchosEnEsperaDeUnTitulo_CadaEjemplarSeEntregaUnaVez() throws InterruptedException {
+        LibroService libroService = new LibroService();
+        libroService.registrarLibro("1234567890123", "El Quijote", "Cervantes", 4);
+        PrestamoService prestamoService = new PrestamoService(libroService);
+
+        // Cada hilo es un usuario: reserva, espera su ejemplar, lo devuelve y vuelve a reservar
+        int hilos = 16;
+        int vueltas = 500;
+        List<List<Reserva>> reservasPorHilo = new ArrayList<>();
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        for (int h = 0; h < hilos; h++) {
+            String usuario = "USR-" + h;
+            List<Reserva> propias = new ArrayList<>();
+            reservasPorHilo.add(propias);
+            executor.submit(() -> {
+                largada.await();
+                for (int i = 0; i < vueltas; i++) {
+                    Reserva reserva = prestamoService.reservarLibro("1234567890123", usuario);
+                    propias.add(reserva);
+                    while (reserva.estaPendiente()) {
+                        Thread.yield();
+                    }
+                    prestamoService.devolverLibro("1234567890123", usuario);
+                }
+                return null;
+            });
+        }
+        largada.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+
+        Set<String> ids = new HashSet<>();
+        for (List<Reserva> propias : reservasPorHilo) {
+            assertEquals(vueltas, propias.size());
+            for (Reserva reserva : propias) {
+                assertEquals(EstadoReserva.ATENDIDA, reserva.getEstado());
+                assertTrue(ids.add(reserva.getPrestamo().getId()));
+            }
+        }
+        assertEquals(4, libroService.buscarPorISBN("1234567890123").getCantidadDisponible());
+        assertTrue(prestamoService.listarPrestamosActivos().isEmpty());
+        assertTrue(prestamoService.listarReservasPendientes("1234567890123").isEmpty());
+    }
+
+    private static String isbn(int i) {
+        return String.format("978%010d", i);
+    }
+}
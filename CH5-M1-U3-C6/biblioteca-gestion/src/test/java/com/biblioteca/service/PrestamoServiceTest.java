@@ -0,0 +1,411 @@
+package com.biblioteca.service;
+
+import com.biblioteca.exception.LibroNoDisponibleException;
+import com.biblioteca.exception.LimitePrestamosException;
+import com.biblioteca.exception.PrestamoNoEncontradoException;
+import com.biblioteca.exception.RenovacionNoPermitidaException;
+import com.biblioteca.model.EstadoReserva;
+import com.biblioteca.model.Prestamo;
+import com.biblioteca.model.Reserva;
+import com.biblioteca.model.SolicitudPrestamo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrestamoServiceTest {
+
+    LibroService libroService;
+    PrestamoService prestamoService;
+
+    @BeforeEach
+    void setUp() {
+        libroService = new LibroService();
+        libroService.registrarLibro("1234567890123", "El Quijote", "Cervantes", 5);
+        libroService.registrarLibro("1234567890124", "Rayuela", "Cortazar", 5);
+        libroService.registrarLibro("1234567890125", "Ficciones", "Borges", 5);
+        libroService.registrarLibro("1234567890126", "Pedro Paramo", "Rulfo", 5);
+        prestamoService = new PrestamoService(libroService);
+    }
+
+    @Test
+    void testPrestarLibro_IncrementaPrestamosActivos() {
+        prestamoService.prestarLibro("1234567890123", "USR-001");
+        prestamoService.prestarLibro("1234567890124", "USR-001");
+
+        assertEquals(2, prestamoService.contarPrestamosActivos("USR-001"));
+        assertEquals(0, prestamoService.contarPrestamosActivos("USR-002"));
+        assertEquals(4, libroService.buscarPorISBN("1234567890123").getCantidadDisponible());
+    }
+
+    @Test
+    void testPrestarLibro_LimiteAlcanzado() {
+        prestamoService.prestarLibro("1234567890123", "USR-001");
+        prestamoService.prestarLibro("1234567890124", "USR-001");
+        prestamoService.prestarLibro("1234567890125", "USR-001");
+
+        assertThrows(LimitePrestamosException.class,
+                () -> prestamoService.prestarLibro("1234567890126", "USR-001"));
+    }
+
+    @Test
+    void testDevolverLibro_LiberaCupoDelUsuario() {
+        prestamoService.prestarLibro("1234567890123", "USR-001");
+        prestamoService.prestarLibro("1234567890124", "USR-001");
+        prestamoService.prestarLibro("1234567890125", "USR-001");
+
+        prestamoService.devolverLibro("1234567890124", "USR-001");
+
+        assertEquals(2, prestamoService.contarPrestamosActivos("USR-001"));
+        assertDoesNotThrow(() -> prestamoService.prestarLibro("1234567890126", "USR-001"));
+    }
+
+    @Test
+    void testDevolverLibro_SinPrestamoActivo() {
+        prestamoService.prestarLibro("1234567890123", "USR-001");
+        prestamoService.devolverLibro("1234567890123", "USR-001");
+
+        assertThrows(PrestamoNoEncontradoException.class,
+                () -> prestamoService.devolverLibro("1234567890123", "USR-001"));
+        assertThrows(PrestamoNoEncontradoException.class,
+                () -> prestamoService.devolverLibro("1234567890123", "USR-002"));
+    }
+
+    @Test
+    void testObtenerPrestamosActivos_SoloActivosDelUsuario() {
+        prestamoService.prestarLibro("1234567890123", "USR-001");
+        prestamoService.prestarLibro("1234567890124", "USR-001");
+        prestamoService.prestarLibro("1234567890125", "USR-002");
+        prestamoService.devolverLibro("1234567890123", "USR-001");
+
+        List<Prestamo> activos = prestamoService.obtenerPrestamosActivos("USR-001");
+
+        assertEquals(1, activos.size());
+        assertEquals("1234567890124", activos.get(0).getIsbnLibro());
+        assertEquals(3, prestamoService.listarTodosLosPrestamos().size());
+    }
+
+    @Test
+    void testPrestarLibros_LoteConRechazos() {
+        libroService.registrarLibro("1234567890127", "Cien Anios de Soledad", "Garcia Marquez", 1);
+
+        ResultadoLote<Prestamo> resultado = prestamoService.prestarLibros(List.of(
+                new SolicitudPrestamo("1234567890123", "USR-001"),
+                new SolicitudPrestamo("1234567890124", "USR-001"),
+                new SolicitudPrestamo("1234567890125", "USR-001"),
+                new SolicitudPrestamo("1234567890126", "USR-001"),
+                new SolicitudPrestamo("9999999999999", "USR-002"),
+                new SolicitudPrestamo("1234567890127", "USR-002"),
+                new SolicitudPrestamo("1234567890127", "USR-003")));
+
+        assertEquals(4, resultado.getExitosos());
+        List<ResultadoItem<Prestamo>> items = resultado.getItems();
+        assertEquals(MotivoRechazo.LIMITE_PRESTAMOS, items.get(3).getMotivo());
+        assertEquals(MotivoRechazo.LIBRO_NO_ENCONTRADO, items.get(4).getMotivo());
+        assertEquals(MotivoRechazo.LIBRO_NO_DISPONIBLE, items.get(6).getMotivo());
+        assertEquals("USR-002", items.get(5).getValor().getIdUsuario());
+        assertEquals(3, prestamoService.contarPrestamosActivos("USR-001"));
+        assertEquals(0, libroService.buscarPorISBN("1234567890127").getCantidadDisponible());
+    }
+
+    @Test
+    void testDevolverLibro_PasaAlHistorial() {
+        prestamoService.prestarLibro("1234567890123", "USR-001");
+        prestamoService.prestarLibro("1234567890124", "USR-001");
+        prestamoService.devolverLibro("1234567890123", "USR-001");
+
+        assertEquals(1, prestamoService.listarPrestamosActivos().size());
+        List<Prestamo> historial = prestamoService.obtenerHistorial("USR-001");
+        assertEquals(1, historial.size());
+        assertEquals("1234567890123", historial.get(0).getIsbnLibro());
+        assertFalse(historial.get(0).isActivo());
+        assertEquals(1, prestamoService.obtenerDevolucionesEntre(LocalDate.now(), LocalDate.now()).size());
+        assertTrue(prestamoService.obtenerHistorial("USR-002").isEmpty());
+    }
+
+    @Test
+    void testListarPrestamos_DevolucionesEntrePaginas_NiRepiteNiSaltea() {
+        String[] isbns = {"1234567890123", "1234567890124", "1234567890125"};
+        for (int u = 0; u < 5; u++) {
+            for (String isbn : isbns) {
+                prestamoService.prestarLibro(isbn, "USR-" + u);
+            }
+            if (u % 2 == 0) {
+                prestamoService.devolverLibro(isbns[1], "USR-" + u);
+                prestamoService.prestarLibro(isbns[1], "USR-" + u);
+            }
+        }
+        int total = prestamoService.listarTodosLosPrestamos().size();
+
+        List<String> vistos = new ArrayList<>();
+        Pagina<Prestamo> pagina = prestamoService.listarPrestamos(null, 4);
+        vistos.addAll(pagina.getElementos().stream().map(Prestamo::getId).toList());
+        // Entre páginas se devuelven préstamos ya listados y otros todavía no listados
+        prestamoService.devolverLibro(isbns[0], "USR-0");
+        prestamoService.devolverLibro(isbns[2], "USR-4");
+        while (pagina.hayMas()) {
+            pagina = prestamoService.listarPrestamos(pagina.getSiguienteCursor(), 4);
+            vistos.addAll(pagina.getElementos().stream().map(Prestamo::getId).toList());
+        }
+
+        assertEquals(total, vistos.size());
+        assertEquals(total, new HashSet<>(vistos).size());
+        for (int i = 0; i < total; i++) {
+            assertEquals("PREST-" + (i + 1), vistos.get(i));
+        }
+        assertEquals(vistos, prestamoService.streamPrestamos().map(Prestamo::getId).toList());
+        assertFalse(prestamoService.streamPrestamos()
+                .filter(p -> p.getId().equals("PREST-1")).findFirst().orElseThrow().isActivo());
+        assertThrows(IllegalArgumentException.class, () -> prestamoService.listarPrestamos("OTRO-1", 5));
+    }
+
+    @Test
+    void testListarPrestamos_IdTomadoAntesQueOtroMayorNoSeSaltea() throws Exception {
+        List<String> vistos = new ArrayList<>();
+        Thread[] otro = new Thread[1];
+        // Al tomar el primer id, otro hilo presta dos libros y recorre todas las páginas
+        GeneradorIdPrestamo generador = new GeneradorIdPrestamo() {
+            @Override
+            public long siguiente() {
+                long id = super.siguiente();
+                if (id == 1) {
+                    otro[0] = new Thread(() -> {
+                        prestamoService.prestarLibro("1234567890124", "USR-002");
+                        prestamoService.prestarLibro("1234567890125", "USR-003");
+                        Pagina<Prestamo> pagina = prestamoService.listarPrestamos(null, 1);
+                        vistos.addAll(pagina.getElementos().stream().map(Prestamo::getId).toList());
+                        while (pagina.hayMas()) {
+                            pagina = prestamoService.listarPrestamos(pagina.getSiguienteCursor(), 1);
+                            vistos.addAll(pagina.getElementos().stream().map(Prestamo::getId).toList());
+                        }
+                    });
+                    otro[0].start();
+                    // Hasta que termine o quede esperando el alta de este préstamo
+                    long limite = System.nanoTime() + 1_000_000_000L;
+                    while (otro[0].getState() != Thread.State.TERMINATED
+                            && otro[0].getState() != Thread.State.BLOCKED && System.nanoTime() < limite) {
+                        Thread.onSpinWait();
+                    }
+                }
+                return id;
+            }
+        };
+        prestamoService = new PrestamoService(libroService, generador);
+
+        prestamoService.prestarLibro("1234567890123", "USR-001");
+        otro[0].join();
+
+        assertEquals(List.of("PREST-1", "PREST-2", "PREST-3"), vistos);
+    }
+
+    @Test
+    void testActualizarVencidos_SoloLosQueVencieron() {
+        Prestamo prestamo = prestamoService.prestarLibro("1234567890123", "USR-001");
+        prestamoService.prestarLibro("1234567890124", "USR-002");
+        prestamoService.devolverLibro("1234567890124", "USR-002");
+
+        assertEquals(LocalDate.now().plusDays(14), prestamo.getFechaVencimiento());
+        assertTrue(prestamoService.actualizarVencidos(LocalDate.now().plusDays(14)).isEmpty());
+
+        List<Prestamo> vencidos = prestamoService.actualizarVencidos(LocalDate.now().plusDays(15));
+        assertEquals(List.of(prestamo), vencidos);
+        assertEquals(1, prestamoService.listarVencidos().size());
+        // Ya informados: la siguiente pasada no los repite
+        assertTrue(prestamoService.actualizarVencidos(LocalDate.now().plusDays(16)).isEmpty());
+
+        prestamoService.devolverLibro("1234567890123", "USR-001");
+        assertTrue(prestamoService.listarVencidos().isEmpty());
+    }
+
+    @Test
+    void testRenovarPrestamo_ReprogramaVencimiento() {
+        // Préstamo de hace 13 días: vence mañana
+        Prestamo prestamo = new Prestamo("PREST-50", "1234567890123", "USR-001", LocalDate.now().minusDays(13));
+        prestamoService.restaurarPrestamo(prestamo);
+        assertEquals(LocalDate.now().plusDays(1), prestamoService.proximoVencimiento());
+
+        prestamoService.renovarPrestamo("1234567890123", "USR-001");
+
+        assertEquals(1, prestamo.getRenovaciones());
+        assertEquals(LocalDate.now().plusDays(14), prestamo.getFechaVencimiento());
+        assertEquals(LocalDate.now().plusDays(14), prestamoService.proximoVencimiento());
+        assertTrue(prestamoService.actualizarVencidos(LocalDate.now().plusDays(2)).isEmpty());
+    }
+
+    @Test
+    void testRenovarPrestamo_LimiteDeRenovaciones() {
+        prestamoService.prestarLibro("1234567890123", "USR-001");
+        prestamoService.renovarPrestamo("1234567890123", "USR-001");
+        prestamoService.renovarPrestamo("1234567890123", "USR-001");
+
+        assertThrows(RenovacionNoPermitidaException.class,
+                () -> prestamoService.renovarPrestamo("1234567890123", "USR-001"));
+        assertThrows(PrestamoNoEncontradoException.class,
+                () -> prestamoService.renovarPrestamo("1234567890124", "USR-001"));
+    }
+
+    @Test
+    void testReservarLibro_DevolucionPasaAlSiguienteEnOrden() {
+        libroService.registrarLibro("1234567890127", "Aleph", "Borges", 1);
+        prestamoService.prestarLibro("1234567890127", "USR-001");
+
+        Reserva primera = prestamoService.reservarLibro("1234567890127", "USR-002");
+        Reserva segunda = prestamoService.reservarLibro("1234567890127", "USR-003");
+        assertEquals(EstadoReserva.PENDIENTE, primera.getEstado());
+        // Con gente esperando, un pedido directo no se adelanta
+        assertThrows(LibroNoDisponibleException.class,
+                () -> prestamoService.prestarLibro("1234567890127", "USR-004"));
+
+        prestamoService.devolverLibro("1234567890127", "USR-001");
+
+        assertEquals(EstadoReserva.ATENDIDA, primera.getEstado());
+        assertEquals("USR-002", primera.getPrestamo().getIdUsuario());
+        assertEquals(1, prestamoService.contarPrestamosActivos("USR-002"));
+        assertEquals(EstadoReserva.PENDIENTE, segunda.getEstado());
+        assertEquals(0, libroService.buscarPorISBN("1234567890127").getCantidadDisponible());
+    }
+
+    @Test
+    void testReservarLibro_SaltaCanceladasYUsuariosSinCupo() {
+        libroService.registrarLibro("1234567890127", "Aleph", "Borges", 1);
+        prestamoService.prestarLibro("1234567890127", "USR-001");
+        prestamoService.prestarLibro("1234567890123", "USR-003");
+        prestamoService.prestarLibro("1234567890124", "USR-003");
+        prestamoService.prestarLibro("1234567890125", "USR-003");
+
+        Reserva cancelada = prestamoService.reservarLibro("1234567890127", "USR-002");
+        Reserva sinCupo = prestamoService.reservarLibro("1234567890127", "USR-003");
+        Reserva atendida = prestamoService.reservarLibro("1234567890127", "USR-004");
+        assertTrue(prestamoService.cancelarReserva("1234567890127", "USR-002"));
+        assertFalse(prestamoService.cancelarReserva("1234567890127", "USR-002"));
+
+        prestamoService.devolverLibro("1234567890127", "USR-001");
+
+        assertEquals(EstadoReserva.CANCELADA, cancelada.getEstado());
+        assertEquals(EstadoReserva.RECHAZADA, sinCupo.getEstado());
+        assertEquals(EstadoReserva.ATENDIDA, atendida.getEstado());
+        assertTrue(prestamoService.listarReservasPendientes("1234567890127").isEmpty());
+    }
+
+    @Test
+    void testReservarLibro_ConEjemplarLibreSeAtiendeEnElActo() {
+        Reserva reserva = prestamoService.reservarLibro("1234567890123", "USR-001");
+
+        assertEquals(EstadoReserva.ATENDIDA, reserva.getEstado());
+        assertEquals(4, libroService.buscarPorISBN("1234567890123").getCantidadDisponible());
+    }
+
+    @Test
+    void testPrestarLibro_RegistroFallidoNoDejaPrestamo() {
+        RegistroQueFalla registro = new RegistroQueFalla();
+        prestamoService.setRegistroCambios(registro);
+
+        registro.fallar = true;
+        assertThrows(UncheckedIOException.class, () -> prestamoService.prestarLibro("1234567890123", "USR-001"));
+        assertEquals(0, prestamoService.contarPrestamosActivos("USR-001"));
+        assertTrue(prestamoService.listarTodosLosPrestamos().isEmpty());
+        assertEquals(5, libroService.buscarPorISBN("1234567890123").getCantidadDisponible());
+        assertEquals(0, registro.confirmaciones);
+
+        // No quedó nada a medias: reintentar no choca con un duplicado
+        registro.fallar = false;
+        prestamoService.prestarLibro("1234567890123", "USR-001");
+        assertEquals(1, prestamoService.contarPrestamosActivos("USR-001"));
+        assertEquals(1, registro.confirmaciones);
+    }
+
+    @Test
+    void testPrestarLibros_RegistroFallidoSeInformaPorItem() {
+        RegistroQueFalla registro = new RegistroQueFalla();
+        registro.isbnQueFalla = "1234567890124";
+        prestamoService.setRegistroCambios(registro);
+
+        ResultadoLote<Prestamo> resultado = prestamoService.prestarLibros(List.of(
+                new SolicitudPrestamo("1234567890123", "USR-001"),
+                new SolicitudPrestamo("1234567890124", "USR-001"),
+                new SolicitudPrestamo("1234567890125", "USR-001")));
+
+        assertEquals(2, resultado.getExitosos());
+        assertEquals(MotivoRechazo.REGISTRO_FALLIDO, resultado.getItems().get(1).getMotivo());
+        assertEquals(2, prestamoService.contarPrestamosActivos("USR-001"));
+        assertEquals(5, libroService.buscarPorISBN("1234567890124").getCantidadDisponible());
+        // Una sola confirmación para todo el lote
+        assertEquals(1, registro.confirmaciones);
+    }
+
+    @Test
+    void testDevolverLibro_RegistroFallidoDejaPrestamoActivo() {
+        RegistroQueFalla registro = new RegistroQueFalla();
+        prestamoService.setRegistroCambios(registro);
+        prestamoService.prestarLibro("1234567890123", "USR-001");
+
+        registro.fallar = true;
+        assertThrows(UncheckedIOException.class, () -> prestamoService.devolverLibro("1234567890123", "USR-001"));
+        assertEquals(1, prestamoService.contarPrestamosActivos("USR-001"));
+        assertTrue(prestamoService.obtenerHistorial("USR-001").isEmpty());
+        assertEquals(4, libroService.buscarPorISBN("1234567890123").getCantidadDisponible());
+
+        registro.fallar = false;
+        prestamoService.devolverLibro("1234567890123", "USR-001");
+        assertEquals(5, libroService.buscarPorISBN("1234567890123").getCantidadDisponible());
+    }
+
+    @Test
+    void testDevolverLibro_RegistroFallidoAlAtenderReservaReponeElEjemplar() {
+        RegistroQueFalla registro = new RegistroQueFalla();
+        prestamoService.setRegistroCambios(registro);
+        libroService.registrarLibro("1234567890127", "Aleph", "Borges", 1);
+        prestamoService.prestarLibro("1234567890127", "USR-001");
+        prestamoService.reservarLibro("1234567890127", "USR-002");
+
+        registro.fallarAlAtender = true;
+        assertThrows(UncheckedIOException.class, () -> prestamoService.devolverLibro("1234567890127", "USR-001"));
+
+        assertEquals(0, prestamoService.contarPrestamosActivos("USR-001"));
+        assertEquals(0, prestamoService.contarPrestamosActivos("USR-002"));
+        assertEquals(1, libroService.buscarPorISBN("1234567890127").getCantidadDisponible());
+    }
+
+    /**
+     * Registro en memoria que puede fallar como un diario sin disco
+     */
+    private static class RegistroQueFalla implements RegistroCambios {
+        volatile boolean fallar;
+        volatile boolean fallarAlAtender;
+        volatile String isbnQueFalla;
+        int confirmaciones;
+
+        @Override
+        public void prestamoCreado(Prestamo prestamo) {
+            if (fallar || prestamo.getIsbnLibro().equals(isbnQueFalla)) {
+                throw new UncheckedIOException(new IOException("Disco lleno"));
+            }
+        }
+
+        @Override
+        public void prestamoDevuelto(Prestamo prestamo, LocalDate fechaDevolucion) {
+            if (fallar) {
+                throw new UncheckedIOException(new IOException("Disco lleno"));
+            }
+        }
+
+        @Override
+        public void reservaAtendida(Reserva reserva, Prestamo prestamo) {
+            if (fallarAlAtender) {
+                throw new UncheckedIOException(new IOException("Disco lleno"));
+            }
+        }
+
+        @Override
+        public void confirmar() {
+            confirmaciones++;
+        }
+    }
+}
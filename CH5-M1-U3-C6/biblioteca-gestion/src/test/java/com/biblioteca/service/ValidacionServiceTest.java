@@ -2,6 +2,7 @@ package com.biblioteca.service;
 
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ValidacionServiceTest {
@@ -14,4 +15,24 @@ class ValidacionServiceTest {
 
         assertTrue(isValid);
     }
+
+    @Test
+    void testValidarISBN_NoNumerico() {
+        ValidacionService vs = new ValidacionService();
+
+        assertFalse(vs.validarISBN("123456789012X"));
+        assertFalse(vs.validarISBN("123456789012"));
+        assertFalse(vs.validarISBN(null));
+    }
+
+    @Test
+    void testValidarISBN13_DigitoDeControl() {
+        ValidacionService vs = new ValidacionService();
+
+        assertTrue(vs.validarISBN13("9780306406157"));
+        assertTrue(vs.validarISBN13("9788437604947"));
+        assertFalse(vs.validarISBN13("9780306406158"));
+        assertFalse(vs.validarISBN13("1234567890123"));
+        assertFalse(vs.validarISBN13("978030640615X"));
+    }
 }
@@ -0,0 +1,53 @@
+package com.biblioteca.vencimientos;
+
+import com.biblioteca.model.Prestamo;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColaVencimientosTest {
+
+    private static final LocalDate HOY = LocalDate.of(2024, 3, 1);
+
+    @Test
+    void testExtraerVencidos_EnOrdenYSoloUnaVez() {
+        ColaVencimientos cola = new ColaVencimientos();
+        Prestamo tardio = prestamo("PREST-1", HOY.minusDays(1));
+        Prestamo antiguo = prestamo("PREST-2", HOY.minusDays(5));
+        Prestamo vigente = prestamo("PREST-3", HOY);
+        cola.programar(tardio);
+        cola.programar(antiguo);
+        cola.programar(vigente);
+
+        assertEquals(List.of(antiguo, tardio), cola.extraerVencidos(HOY));
+        assertTrue(cola.extraerVencidos(HOY).isEmpty());
+        assertEquals(1, cola.tamanio());
+        assertEquals(HOY, cola.proximoVencimiento());
+    }
+
+    @Test
+    void testCancelar_ReprogramarConNuevaFecha() {
+        ColaVencimientos cola = new ColaVencimientos();
+        Prestamo prestamo = prestamo("PREST-1", HOY.minusDays(1));
+        cola.programar(prestamo);
+
+        assertTrue(cola.cancelar(prestamo));
+        prestamo.renovar(HOY.plusDays(14));
+        cola.programar(prestamo);
+
+        assertTrue(cola.extraerVencidos(HOY).isEmpty());
+        assertEquals(HOY.plusDays(14), cola.proximoVencimiento());
+        assertTrue(cola.cancelar(prestamo));
+        assertFalse(cola.cancelar(prestamo));
+        assertNull(cola.proximoVencimiento());
+    }
+
+    private static Prestamo prestamo(String id, LocalDate vencimiento) {
+        Prestamo prestamo = new Prestamo(id, "1234567890123", "USR-001", vencimiento.minusDays(14));
+        prestamo.setFechaVencimiento(vencimiento);
+        return prestamo;
+    }
+}
@@ -0,0 +1,93 @@
+package com.biblioteca.benchmark;
+
+import com.biblioteca.api.HistogramaLatencia;
+import com.biblioteca.eventos.BusEventos;
+import com.biblioteca.eventos.EventoCambio;
+import com.biblioteca.eventos.TipoCambio;
+import com.biblioteca.model.Prestamo;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BusEventos de punta a punta: publicar 1M eventos de préstamo y esperar a que un
+ * suscriptor los reciba todos. El tiempo por operación (ms) da los eventos por segundo
+ * sostenidos; con lotes de 1 se ve el costo de entregar evento por evento.
+ *
+ * Si el buffer se llena, el productor reintenta (no se descarta nada). Al terminar
+ * imprime los eventos por segundo y la latencia de entrega.
+ *
+ * Ejecutar: java -jar target/benchmarks.jar BusEventosBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class BusEventosBenchmark {
+
+    private static final int EVENTOS = 1_000_000;
+
+    @Param({"1", "1024"})
+    public int tamanioLote;
+
+    private BusEventos bus;
+    private final AtomicLong recibidos = new AtomicLong();
+    private Prestamo prestamo;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        bus = new BusEventos(1 << 16, tamanioLote, Flow.defaultBufferSize());
+        bus.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription suscripcion) {
+                suscripcion.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(List<EventoCambio> lote) {
+                recibidos.addAndGet(lote.size());
+            }
+
+            @Override
+            public void onError(Throwable error) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        prestamo = new Prestamo(1, DatosBenchmark.isbn(1), "USR-1", LocalDate.of(2024, 1, 1));
+        prestamo.setFechaVencimiento(LocalDate.of(2024, 1, 15));
+    }
+
+    @TearDown(Level.Trial)
+    public void informar() {
+        HistogramaLatencia latencias = bus.getLatencias();
+        // Aquí los rechazos por buffer lleno se reintentan: miden cuánto esperó el productor
+        System.out.printf("%n%,.0f eventos/s, latencia p50=%dus p99=%dus max=%dus, buffer lleno=%d, perdidos=%d%n",
+                bus.throughput(), latencias.percentil(50) / 1_000, latencias.percentil(99) / 1_000,
+                latencias.getMaximo() / 1_000, bus.getDescartados(), bus.getDescartadosPorSuscriptores());
+        bus.close();
+    }
+
+    @Benchmark
+    public long publicarYEntregar_1M() {
+        long objetivo = recibidos.get() + EVENTOS;
+        for (int i = 0; i < EVENTOS; i++) {
+            EventoCambio evento = EventoCambio.dePrestamo(TipoCambio.PRESTAMO_CREADO, prestamo);
+            while (!bus.publicar(evento)) {
+                Thread.yield();
+            }
+        }
+        while (recibidos.get() < objetivo) {
+            Thread.yield();
+        }
+        return objetivo;
+    }
+}
@@ -0,0 +1,102 @@
+package com.biblioteca.benchmark;
+
+import com.biblioteca.model.Libro;
+import com.biblioteca.service.LibroService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Búsqueda por título con y sin cache de resultados, con consultas de popularidad
+ * Zipf (s = 1): pocas consultas concentran la mayoría de los pedidos.
+ *
+ * El universo son 10.000 consultas: las 576 combinaciones "palabra de la palabra"
+ * (cientos o miles de resultados cada una) y títulos completos (un resultado).
+ * La cache admite 1.000 consultas, así que la cola de la distribución falla.
+ *
+ * Ejecutar: java -jar target/benchmarks.jar CacheBusquedasBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class CacheBusquedasBenchmark {
+
+    private static final int CONSULTAS = 10_000;
+    private static final int MAX_CONSULTAS_CACHE = 1_000;
+    private static final int MUESTRAS = 1 << 16;
+
+    @Param({"100000", "1000000"})
+    public int tamanioCatalogo;
+
+    @Param({"false", "true"})
+    public boolean conCache;
+
+    private LibroService libroService;
+    private String[] muestras;
+    private int siguiente;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        libroService = new LibroService(tamanioCatalogo, false, conCache ? MAX_CONSULTAS_CACHE : 0,
+                Duration.ofMinutes(5));
+        for (int i = 0; i < tamanioCatalogo; i++) {
+            libroService.registrarLibro(DatosBenchmark.isbn(i), DatosBenchmark.titulo(i),
+                    DatosBenchmark.autor(i), 5);
+        }
+
+        String[] consultas = new String[CONSULTAS];
+        for (int k = 0; k < CONSULTAS; k++) {
+            // titulo(k) = "El X de la Y k": las primeras 576 consultas son "X de la Y"
+            String titulo = DatosBenchmark.titulo(k);
+            consultas[k] = k < 576 ? titulo.substring(3, titulo.lastIndexOf(' ')) : titulo;
+        }
+        // Orden de popularidad mezclado para que no coincida con el tamaño del resultado
+        SplittableRandom random = new SplittableRandom(42);
+        for (int k = CONSULTAS - 1; k > 0; k--) {
+            int j = random.nextInt(k + 1);
+            String t = consultas[k];
+            consultas[k] = consultas[j];
+            consultas[j] = t;
+        }
+        muestras = new String[MUESTRAS];
+        double[] acumulada = zipfAcumulada(CONSULTAS, 1.0);
+        for (int m = 0; m < MUESTRAS; m++) {
+            int posicion = Arrays.binarySearch(acumulada, random.nextDouble());
+            muestras[m] = consultas[posicion >= 0 ? posicion : -posicion - 1];
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void informar() {
+        if (conCache) {
+            System.out.println(libroService.getEstadisticasCacheTitulos());
+        }
+    }
+
+    @Benchmark
+    public List<Libro> buscarPorTitulo_Zipf() {
+        String consulta = muestras[siguiente];
+        siguiente = (siguiente + 1) & (MUESTRAS - 1);
+        return libroService.buscarPorTitulo(consulta);
+    }
+
+    private static double[] zipfAcumulada(int n, double s) {
+        double[] acumulada = new double[n];
+        double total = 0;
+        for (int k = 0; k < n; k++) {
+            total += 1 / Math.pow(k + 1, s);
+            acumulada[k] = total;
+        }
+        for (int k = 0; k < n; k++) {
+            acumulada[k] /= total;
+        }
+        return acumulada;
+    }
+}
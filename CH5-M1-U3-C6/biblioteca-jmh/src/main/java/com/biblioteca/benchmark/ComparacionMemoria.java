@@ -0,0 +1,83 @@
+package com.biblioteca.benchmark;
+
+import com.biblioteca.colecciones.MapaLongObjeto;
+import com.biblioteca.model.Libro;
+import com.biblioteca.service.CodecIsbn;
+
+import java.lang.ref.Reference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+
+/**
+ * Compara la memoria que ocupa el índice del catálogo por ISBN:
+ * ConcurrentHashMap&lt;String, Libro&gt; contra MapaLongObjeto&lt;Libro&gt;.
+ *
+ * Los libros se crean una sola vez y se excluyen de la medición: solo se cuenta
+ * lo que agrega cada índice (nodos, tablas y, si no se comparten, las claves).
+ *
+ * Ejecutar: java -Xmx4g -cp target/benchmarks.jar com.biblioteca.benchmark.ComparacionMemoria [libros]
+ */
+public class ComparacionMemoria {
+
+    public static void main(String[] args) {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Libro[] libros = new Libro[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            libros[i] = new Libro(DatosBenchmark.isbn(i), DatosBenchmark.titulo(i), DatosBenchmark.autor(i), 3);
+        }
+
+        System.out.printf("Índice por ISBN con %,d libros (bytes retenidos por el índice)%n", cantidad);
+        medir("ConcurrentHashMap<String, Libro>, clave = libro.getIsbn()", cantidad, n -> {
+            Map<String, Libro> mapa = new ConcurrentHashMap<>(n);
+            for (int i = 0; i < n; i++) {
+                mapa.put(libros[i].getIsbn(), libros[i]);
+            }
+            return mapa;
+        });
+        medir("ConcurrentHashMap<String, Libro>, clave propia", cantidad, n -> {
+            Map<String, Libro> mapa = new ConcurrentHashMap<>(n);
+            for (int i = 0; i < n; i++) {
+                // Clave leída de otra fuente (p. ej. una importación): no comparte el String del libro
+                mapa.put(new String(libros[i].getIsbn().toCharArray()), libros[i]);
+            }
+            return mapa;
+        });
+        medir("MapaLongObjeto<Libro>, clave = CodecIsbn.codificar", cantidad, n -> {
+            MapaLongObjeto<Libro> mapa = new MapaLongObjeto<>(n);
+            for (int i = 0; i < n; i++) {
+                mapa.putIfAbsent(CodecIsbn.codificar(libros[i].getIsbn()), libros[i]);
+            }
+            return mapa;
+        });
+
+        // Mantener los libros vivos hasta el final de la medición
+        Reference.reachabilityFence(libros);
+    }
+
+    private static void medir(String nombre, int cantidad, IntFunction<Object> construir) {
+        long antes = heapUsado();
+        Object indice = construir.apply(cantidad);
+        long despues = heapUsado();
+        long bytes = despues - antes;
+        System.out.printf("  %-58s %,14d bytes  %6.1f bytes/libro%n", nombre, bytes, (double) bytes / cantidad);
+        // Que el índice no se recolecte antes de medir
+        Reference.reachabilityFence(indice);
+    }
+
+    private static long heapUsado() {
+        Runtime runtime = Runtime.getRuntime();
+        long usado = Long.MAX_VALUE;
+        // Varias pasadas: System.gc() es solo una sugerencia
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            usado = Math.min(usado, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return usado;
+    }
+}
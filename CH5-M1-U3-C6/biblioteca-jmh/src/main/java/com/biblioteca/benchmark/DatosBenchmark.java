@@ -0,0 +1,61 @@
+package com.biblioteca.benchmark;
+
+import com.biblioteca.service.LibroService;
+
+/**
+ * Generación determinística de datos de catálogo para los benchmarks
+ */
+final class DatosBenchmark {
+
+    private static final String[] PALABRAS = {
+            "sombra", "viento", "ciudad", "noche", "camino", "memoria", "fuego", "mar",
+            "silencio", "tiempo", "jardin", "espejo", "laberinto", "rio", "sol", "piedra",
+            "invierno", "casa", "puerta", "historia", "sueño", "tierra", "luz", "ceniza"
+    };
+
+    private static final String[] APELLIDOS = {
+            "Garcia", "Borges", "Cortazar", "Neruda", "Mistral", "Rulfo", "Allende", "Paz",
+            "Onetti", "Sabato", "Bolaño", "Fuentes", "Vargas", "Storni", "Quiroga", "Arlt"
+    };
+
+    private DatosBenchmark() {
+    }
+
+    /**
+     * 978 + 10 dígitos: siempre 13 dígitos numéricos (sin String.format, que domina el costo)
+     */
+    static String isbn(long i) {
+        char[] digitos = {'9', '7', '8', '0', '0', '0', '0', '0', '0', '0', '0', '0', '0'};
+        for (int pos = 12; pos >= 3 && i > 0; pos--) {
+            digitos[pos] = (char) ('0' + (i % 10));
+            i /= 10;
+        }
+        return new String(digitos);
+    }
+
+    static String[] isbns(int cantidad) {
+        String[] isbns = new String[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            isbns[i] = isbn(i);
+        }
+        return isbns;
+    }
+
+    static String titulo(long i) {
+        return "El " + PALABRAS[(int) (i % PALABRAS.length)] + " de la "
+                + PALABRAS[(int) ((i / PALABRAS.length) % PALABRAS.length)] + " " + i;
+    }
+
+    static String autor(long i) {
+        return APELLIDOS[(int) (i % APELLIDOS.length)] + " "
+                + APELLIDOS[(int) ((i / 7) % APELLIDOS.length)] + " " + (i % 5_000);
+    }
+
+    static LibroService catalogo(int tamanio, int ejemplares) {
+        LibroService libroService = new LibroService();
+        for (int i = 0; i < tamanio; i++) {
+            libroService.registrarLibro(isbn(i), titulo(i), autor(i), ejemplares);
+        }
+        return libroService;
+    }
+}
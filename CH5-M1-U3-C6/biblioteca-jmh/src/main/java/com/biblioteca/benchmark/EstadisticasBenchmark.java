@@ -0,0 +1,122 @@
+package com.biblioteca.benchmark;
+
+import com.biblioteca.estadisticas.EstadisticasCirculacion;
+import com.biblioteca.estadisticas.Frecuencia;
+import com.biblioteca.model.Prestamo;
+import com.biblioteca.service.LibroService;
+import com.biblioteca.service.PrestamoService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Tablero de circulación sobre 100k libros y 1M préstamos en el historial:
+ * <ul>
+ *   <li>Leer el top 10 y el porcentaje en préstamo de EstadisticasCirculacion contra
+ *   calcularlos recorriendo listarTodosLosPrestamos y el catálogo en cada refresco.</li>
+ *   <li>Préstamo + devolución desde 4 hilos con y sin estadísticas conectadas: lo que
+ *   cuesta mantenerlas al día.</li>
+ * </ul>
+ *
+ * Ejecutar: java -jar target/benchmarks.jar EstadisticasBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class EstadisticasBenchmark {
+
+    private static final int LIBROS = 100_000;
+    private static final int HISTORIAL = 1_000_000;
+
+    @State(Scope.Benchmark)
+    public static class Biblioteca {
+
+        @Param({"false", "true"})
+        public boolean conEstadisticas;
+
+        LibroService libroService;
+        PrestamoService prestamoService;
+        EstadisticasCirculacion estadisticas;
+        String[] isbns;
+        final AtomicInteger hilos = new AtomicInteger();
+
+        @Setup(Level.Trial)
+        public void preparar() {
+            libroService = DatosBenchmark.catalogo(LIBROS, 1_000);
+            prestamoService = new PrestamoService(libroService);
+            isbns = DatosBenchmark.isbns(LIBROS);
+            // Se conectan antes de generar el historial para que lo cuenten
+            if (conEstadisticas) {
+                estadisticas = EstadisticasCirculacion.conectar(libroService, prestamoService);
+            }
+            ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+            for (int i = 0; i < HISTORIAL; i++) {
+                // Popularidad sesgada: pocos libros concentran la mayoría de los préstamos
+                String isbn = isbns[(int) (LIBROS * Math.pow(aleatorio.nextDouble(), 4))];
+                prestamoService.prestarLibro(isbn, "USR-" + i % 1_000);
+                prestamoService.devolverLibro(isbn, "USR-" + i % 1_000);
+            }
+        }
+    }
+
+    /**
+     * Cada hilo opera con su propio usuario para no chocar con el límite por usuario
+     */
+    @State(Scope.Thread)
+    public static class Hilo {
+
+        String usuario;
+
+        @Setup(Level.Trial)
+        public void preparar(Biblioteca biblioteca) {
+            usuario = "BENCH-" + biblioteca.hilos.incrementAndGet();
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Prestamo prestarYDevolver_4Hilos(Biblioteca b, Hilo h) {
+        String isbn = b.isbns[ThreadLocalRandom.current().nextInt(LIBROS)];
+        Prestamo prestamo = b.prestamoService.prestarLibro(isbn, h.usuario);
+        b.prestamoService.devolverLibro(isbn, h.usuario);
+        return prestamo;
+    }
+
+    @Benchmark
+    public List<Frecuencia> top10_Estadisticas(Biblioteca b) {
+        return b.estadisticas == null ? List.of() : b.estadisticas.masPrestados(10);
+    }
+
+    @Benchmark
+    public List<Map.Entry<String, Long>> top10_RecorriendoHistorial(Biblioteca b) {
+        return b.prestamoService.listarTodosLosPrestamos().stream()
+                .collect(Collectors.groupingBy(Prestamo::getIsbnLibro, Collectors.counting()))
+                .entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(10)
+                .toList();
+    }
+
+    @Benchmark
+    public double porcentaje_Estadisticas(Biblioteca b) {
+        return b.estadisticas == null ? 0 : b.estadisticas.porcentajeEnPrestamo();
+    }
+
+    @Benchmark
+    public double porcentaje_RecorriendoCatalogo(Biblioteca b) {
+        long[] ejemplares = new long[2];
+        b.libroService.streamLibros().forEach(libro -> {
+            ejemplares[0] += libro.getCantidadTotal();
+            ejemplares[1] += libro.getCantidadTotal() - libro.getCantidadDisponible();
+        });
+        return 100.0 * ejemplares[1] / ejemplares[0];
+    }
+}
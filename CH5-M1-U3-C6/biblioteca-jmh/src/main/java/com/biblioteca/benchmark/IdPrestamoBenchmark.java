@@ -0,0 +1,60 @@
+package com.biblioteca.benchmark;
+
+import com.biblioteca.service.GeneradorIdPrestamo;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generación de ids de préstamo con 1 y 4 hilos compitiendo por el mismo generador:
+ * el id de texto de antes ("PREST-" + contador) contra GeneradorIdPrestamo secuencial
+ * y por nodo (Snowflake), que devuelven un long sin asignar memoria.
+ *
+ * Ejecutar: java -jar target/benchmarks.jar IdPrestamoBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+public class IdPrestamoBenchmark {
+
+    private final AtomicLong contador = new AtomicLong(1);
+    private final GeneradorIdPrestamo secuencial = new GeneradorIdPrestamo();
+    private final GeneradorIdPrestamo porNodo = new GeneradorIdPrestamo(1);
+
+    @Benchmark
+    public String texto_1Hilo() {
+        return "PREST-" + contador.getAndIncrement();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String texto_4Hilos() {
+        return "PREST-" + contador.getAndIncrement();
+    }
+
+    @Benchmark
+    public long secuencial_1Hilo() {
+        return secuencial.siguiente();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long secuencial_4Hilos() {
+        return secuencial.siguiente();
+    }
+
+    @Benchmark
+    public long porNodo_1Hilo() {
+        return porNodo.siguiente();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long porNodo_4Hilos() {
+        return porNodo.siguiente();
+    }
+}
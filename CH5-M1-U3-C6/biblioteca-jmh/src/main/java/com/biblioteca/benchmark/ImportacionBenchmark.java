@@ -0,0 +1,106 @@
+package com.biblioteca.benchmark;
+
+import com.biblioteca.intercambio.ExportadorCatalogo;
+import com.biblioteca.intercambio.FormatoCatalogo;
+import com.biblioteca.intercambio.ImportadorCatalogo;
+import com.biblioteca.intercambio.ResumenImportacion;
+import com.biblioteca.service.LibroService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Importación y exportación del catálogo completo en CSV y JSON Lines.
+ *
+ * Compara el importador en streaming (1 hilo de parseo y todos los procesadores)
+ * contra el enfoque ingenuo: BufferedReader, String.split y registrarLibro por fila.
+ * El archivo se genera una vez con el exportador; cada invocación importa a un
+ * catálogo vacío nuevo, por eso se mide en SingleShotTime.
+ *
+ * Filas por segundo = tamanioCatalogo / tiempo de la invocación.
+ *
+ * Ejecutar: java -jar target/benchmarks.jar ImportacionBenchmark
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ImportacionBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int tamanioCatalogo;
+
+    @Param({"CSV", "JSON_LINES"})
+    public FormatoCatalogo formato;
+
+    private LibroService catalogo;
+    private Path archivo;
+    private Path salida;
+    private LibroService destino;
+
+    @Setup(Level.Trial)
+    public void prepararArchivo() throws IOException {
+        catalogo = DatosBenchmark.catalogo(tamanioCatalogo, 3);
+        archivo = Files.createTempFile("catalogo", ".txt");
+        salida = Files.createTempFile("exportado", ".txt");
+        new ExportadorCatalogo(catalogo).exportar(archivo, formato);
+    }
+
+    @Setup(Level.Invocation)
+    public void prepararDestino() {
+        destino = new LibroService(tamanioCatalogo);
+    }
+
+    @TearDown(Level.Trial)
+    public void borrarArchivos() throws IOException {
+        Files.deleteIfExists(archivo);
+        Files.deleteIfExists(salida);
+    }
+
+    @Benchmark
+    public ResumenImportacion importarUnHilo() throws IOException {
+        return new ImportadorCatalogo(destino, 1).importar(archivo, formato);
+    }
+
+    @Benchmark
+    public ResumenImportacion importarParalelo() throws IOException {
+        return new ImportadorCatalogo(destino).importar(archivo, formato);
+    }
+
+    /**
+     * Referencia: lectura por líneas, split y alta de a un libro (solo CSV sin comillas; en JSON Lines no hace nada)
+     */
+    @Benchmark
+    public int importarIngenuo() throws IOException {
+        if (formato != FormatoCatalogo.CSV) {
+            return 0;
+        }
+        int importados = 0;
+        try (BufferedReader lector = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            lector.readLine();
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                String[] campos = linea.split(",");
+                try {
+                    destino.registrarLibro(campos[0], campos[1], campos[2], Integer.parseInt(campos[3]));
+                    importados++;
+                } catch (RuntimeException e) {
+                    // fila rechazada
+                }
+            }
+        }
+        return importados;
+    }
+
+    @Benchmark
+    public long exportar() throws IOException {
+        return new ExportadorCatalogo(catalogo).exportar(salida, formato);
+    }
+}
@@ -0,0 +1,115 @@
+package com.biblioteca.benchmark;
+
+import com.biblioteca.model.Prestamo;
+import com.biblioteca.service.InstantaneaCatalogo;
+import com.biblioteca.service.LibroService;
+import com.biblioteca.service.PrestamoService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Latencia de préstamo + devolución (3 hilos, percentiles en modo SampleTime)
+ * mientras otro hilo recorre en bucle el catálogo de 1M libros para un reporte:
+ * <ul>
+ *   <li>sinReporte: el hilo de reporte duerme (referencia).</li>
+ *   <li>recorrido: contarEjemplaresPrestados sobre los libros vivos; no bloquea pero
+ *   el total mezcla instantes distintos.</li>
+ *   <li>bloqueante: el mismo recorrido con los préstamos detenidos por un lock de
+ *   lectura/escritura, la forma directa de obtener un total consistente.</li>
+ *   <li>instantanea: InstantaneaCatalogo, consistente y sin detener préstamos.</li>
+ * </ul>
+ *
+ * Ejecutar: java -jar target/benchmarks.jar InstantaneaBenchmark
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class InstantaneaBenchmark {
+
+    private static final int LIBROS = 1_000_000;
+
+    @State(Scope.Group)
+    public static class Biblioteca {
+
+        @Param({"sinReporte", "recorrido", "bloqueante", "instantanea"})
+        public String reporte;
+
+        LibroService libroService;
+        PrestamoService prestamoService;
+        String[] isbns;
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        final AtomicInteger hilos = new AtomicInteger();
+
+        @Setup(Level.Trial)
+        public void preparar() {
+            libroService = DatosBenchmark.catalogo(LIBROS, 1_000);
+            prestamoService = new PrestamoService(libroService);
+            isbns = DatosBenchmark.isbns(LIBROS);
+        }
+    }
+
+    /**
+     * Cada hilo opera con su propio usuario para no chocar con el límite por usuario
+     */
+    @State(Scope.Thread)
+    public static class Hilo {
+
+        String usuario;
+
+        @Setup(Level.Trial)
+        public void preparar(Biblioteca biblioteca) {
+            usuario = "BENCH-" + biblioteca.hilos.incrementAndGet();
+        }
+    }
+
+    @Benchmark
+    @Group("prestamosConReporte")
+    @GroupThreads(3)
+    public Prestamo prestarYDevolver(Biblioteca b, Hilo h) {
+        String isbn = b.isbns[ThreadLocalRandom.current().nextInt(LIBROS)];
+        boolean bloqueante = b.reporte.equals("bloqueante");
+        if (bloqueante) {
+            b.lock.readLock().lock();
+        }
+        try {
+            Prestamo prestamo = b.prestamoService.prestarLibro(isbn, h.usuario);
+            b.prestamoService.devolverLibro(isbn, h.usuario);
+            return prestamo;
+        } finally {
+            if (bloqueante) {
+                b.lock.readLock().unlock();
+            }
+        }
+    }
+
+    @Benchmark
+    @Group("prestamosConReporte")
+    @GroupThreads(1)
+    public long reporte(Biblioteca b) {
+        switch (b.reporte) {
+            case "recorrido":
+                return b.libroService.contarEjemplaresPrestados();
+            case "bloqueante":
+                b.lock.writeLock().lock();
+                try {
+                    return b.libroService.contarEjemplaresPrestados();
+                } finally {
+                    b.lock.writeLock().unlock();
+                }
+            case "instantanea":
+                try (InstantaneaCatalogo instantanea = b.libroService.abrirInstantanea()) {
+                    return instantanea.contarEjemplaresPrestados();
+                }
+            default:
+                LockSupport.parkNanos(1_000_000);
+                return 0;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.biblioteca.benchmark;
+
+import com.biblioteca.model.InventarioColumnar;
+import com.biblioteca.model.Libro;
+import com.biblioteca.service.LibroService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Reportes agregados del inventario ("ejemplares prestados", "libros sin
+ * disponibilidad"): stream sobre listarTodos() contra el InventarioColumnar.
+ *
+ * Ejecutar: java -jar target/benchmarks.jar InventarioBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class InventarioBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int tamanioCatalogo;
+
+    private LibroService porObjetos;
+    private InventarioColumnar inventario;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        porObjetos = new LibroService(tamanioCatalogo);
+        LibroService columnar = new LibroService(tamanioCatalogo, true);
+        for (int i = 0; i < tamanioCatalogo; i++) {
+            String isbn = DatosBenchmark.isbn(i);
+            for (LibroService service : List.of(porObjetos, columnar)) {
+                service.registrarLibro(isbn, DatosBenchmark.titulo(i), DatosBenchmark.autor(i), 3);
+                // ~1 de cada 10 libros agotado, el resto con algún préstamo
+                if (i % 10 == 0) {
+                    service.actualizarDisponibilidad(isbn, 0);
+                } else {
+                    service.buscarPorISBN(isbn).prestar();
+                }
+            }
+        }
+        inventario = columnar.getInventario();
+    }
+
+    @Benchmark
+    public long ejemplaresPrestados_StreamListarTodos() {
+        return porObjetos.listarTodos().stream()
+                .mapToLong(l -> l.getCantidadTotal() - l.getCantidadDisponible())
+                .sum();
+    }
+
+    @Benchmark
+    public long ejemplaresPrestados_Columnar() {
+        return inventario.ejemplaresPrestados();
+    }
+
+    @Benchmark
+    public List<Libro> sinDisponibilidad_StreamListarTodos() {
+        return porObjetos.listarTodos().stream()
+                .filter(l -> !l.estaDisponible())
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Libro> sinDisponibilidad_Columnar() {
+        return inventario.listarSinDisponibilidad();
+    }
+
+    @Benchmark
+    public int contarSinDisponibilidad_Columnar() {
+        return inventario.contarSinDisponibilidad();
+    }
+}
@@ -0,0 +1,78 @@
+package com.biblioteca.benchmark;
+
+import com.biblioteca.colecciones.MapaLongObjeto;
+import com.biblioteca.model.Libro;
+import com.biblioteca.service.CodecIsbn;
+import com.biblioteca.service.ValidacionService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validación de ISBN (regex contra recorrido manual, con y sin dígito de control)
+ * y búsqueda por ISBN en ConcurrentHashMap&lt;String, Libro&gt; contra MapaLongObjeto&lt;Libro&gt;.
+ *
+ * Ejecutar: java -jar target/benchmarks.jar IsbnBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class IsbnBenchmark {
+
+    @Param({"1000000"})
+    public int tamanioCatalogo;
+
+    private final ValidacionService validacionService = new ValidacionService();
+    private String[] isbns;
+    private Map<String, Libro> porString;
+    private MapaLongObjeto<Libro> porLong;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        isbns = new String[tamanioCatalogo];
+        porString = new ConcurrentHashMap<>(tamanioCatalogo);
+        porLong = new MapaLongObjeto<>(tamanioCatalogo);
+        for (int i = 0; i < tamanioCatalogo; i++) {
+            // Copia del String: la búsqueda llega con una clave distinta de la almacenada
+            Libro libro = new Libro(DatosBenchmark.isbn(i), DatosBenchmark.titulo(i), DatosBenchmark.autor(i), 1);
+            isbns[i] = new String(libro.getIsbn().toCharArray());
+            porString.put(libro.getIsbn(), libro);
+            porLong.putIfAbsent(CodecIsbn.codificar(libro.getIsbn()), libro);
+        }
+    }
+
+    @Benchmark
+    public boolean validarISBN_Regex() {
+        return isbns[aleatorio()].matches("\\d{13}");
+    }
+
+    @Benchmark
+    public boolean validarISBN() {
+        return validacionService.validarISBN(isbns[aleatorio()]);
+    }
+
+    @Benchmark
+    public boolean validarISBN13_DigitoDeControl() {
+        return validacionService.validarISBN13(isbns[aleatorio()]);
+    }
+
+    @Benchmark
+    public Libro buscar_ConcurrentHashMapString() {
+        return porString.get(isbns[aleatorio()]);
+    }
+
+    @Benchmark
+    public Libro buscar_MapaLongObjeto() {
+        return porLong.get(CodecIsbn.codificar(isbns[aleatorio()]));
+    }
+
+    private int aleatorio() {
+        return ThreadLocalRandom.current().nextInt(tamanioCatalogo);
+    }
+}
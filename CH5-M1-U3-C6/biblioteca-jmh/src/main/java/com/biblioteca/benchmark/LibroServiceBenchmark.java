@@ -0,0 +1,112 @@
+package com.biblioteca.benchmark;
+
+import com.biblioteca.model.Libro;
+import com.biblioteca.service.LibroService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmarks de LibroService: registro, búsqueda por ISBN y búsqueda parcial
+ * por título/autor, con catálogos de 1k a 1M libros.
+ *
+ * Ejecutar: java -jar target/benchmarks.jar LibroServiceBenchmark
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class LibroServiceBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int tamanioCatalogo;
+
+    private LibroService libroService;
+    private String[] isbns;
+    private String[] titulos;
+    private String[] autores;
+
+    @Setup(Level.Trial)
+    public void prepararCatalogo() {
+        libroService = DatosBenchmark.catalogo(tamanioCatalogo, 5);
+        isbns = DatosBenchmark.isbns(tamanioCatalogo);
+        titulos = new String[tamanioCatalogo];
+        autores = new String[tamanioCatalogo];
+        for (int i = 0; i < tamanioCatalogo; i++) {
+            titulos[i] = DatosBenchmark.titulo(i);
+            autores[i] = DatosBenchmark.autor(i);
+        }
+    }
+
+    /**
+     * El registro necesita un catálogo propio que se recrea en cada iteración,
+     * para que su tamaño no crezca sin límite durante la medición.
+     */
+    @State(Scope.Benchmark)
+    public static class Registro {
+
+        LibroService libroService;
+        AtomicLong siguienteIsbn;
+
+        @Setup(Level.Iteration)
+        public void preparar(LibroServiceBenchmark base) {
+            libroService = DatosBenchmark.catalogo(base.tamanioCatalogo, 5);
+            siguienteIsbn = new AtomicLong(base.tamanioCatalogo);
+        }
+    }
+
+    @Benchmark
+    public Libro registrarLibro(Registro r) {
+        long i = r.siguienteIsbn.getAndIncrement();
+        return r.libroService.registrarLibro(DatosBenchmark.isbn(i), DatosBenchmark.titulo(i),
+                DatosBenchmark.autor(i), 3);
+    }
+
+    @Benchmark
+    public Libro buscarPorISBN() {
+        return libroService.buscarPorISBN(isbns[aleatorio()]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Libro buscarPorISBN_4Hilos() {
+        return libroService.buscarPorISBN(isbns[aleatorio()]);
+    }
+
+    @Benchmark
+    public List<Libro> buscarPorTitulo_Selectiva() {
+        // Título completo: una sola coincidencia
+        return libroService.buscarPorTitulo(titulos[aleatorio()]);
+    }
+
+    @Benchmark
+    public List<Libro> buscarPorTitulo_Frecuente() {
+        // Palabra presente en ~1/24 del catálogo
+        return libroService.buscarPorTitulo("LABERINTO");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public List<Libro> buscarPorTitulo_Selectiva_4Hilos() {
+        return libroService.buscarPorTitulo(titulos[aleatorio()]);
+    }
+
+    @Benchmark
+    public List<Libro> buscarPorAutor_Selectiva() {
+        return libroService.buscarPorAutor(autores[aleatorio()]);
+    }
+
+    @Benchmark
+    public List<Libro> buscarPorAutor_Frecuente() {
+        return libroService.buscarPorAutor("borges");
+    }
+
+    private int aleatorio() {
+        return ThreadLocalRandom.current().nextInt(tamanioCatalogo);
+    }
+}
@@ -0,0 +1,108 @@
+package com.biblioteca.benchmark;
+
+import com.biblioteca.model.Libro;
+import com.biblioteca.model.Prestamo;
+import com.biblioteca.service.LibroService;
+import com.biblioteca.service.Pagina;
+import com.biblioteca.service.PrestamoService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listados de administración sobre catálogo e historial grandes: la copia completa
+ * (listarTodos, listarTodosLosPrestamos) contra una página por cursor y contra el
+ * recorrido en streaming. Con el profiler de GC, gc.alloc.rate.norm muestra los
+ * bytes asignados por listado.
+ *
+ * Los préstamos son 95% devueltos (en el historial) y 5% activos.
+ *
+ * Ejecutar: java -jar target/benchmarks.jar ListadoBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ListadoBenchmark {
+
+    private static final int TAMANIO_PAGINA = 100;
+    private static final int LIBROS_PRESTADOS = 50_000;
+
+    @Param({"1000000"})
+    public int tamanio;
+
+    private LibroService libroService;
+    private PrestamoService prestamoService;
+    private String cursorLibros;
+    private String cursorPrestamos;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        libroService = DatosBenchmark.catalogo(tamanio, 3);
+        prestamoService = new PrestamoService(libroService);
+        LocalDate inicio = LocalDate.of(2024, 1, 1);
+        for (int i = 1; i <= tamanio; i++) {
+            LocalDate fecha = inicio.plusDays(i / 1_000);
+            Prestamo prestamo = new Prestamo("PREST-" + i, DatosBenchmark.isbn(i % LIBROS_PRESTADOS),
+                    "USR-" + (i % 100_000), fecha);
+            if (i % 20 != 0) {
+                prestamo.devolver(fecha.plusDays(10));
+            }
+            prestamoService.restaurarPrestamo(prestamo);
+        }
+        // Cursores a mitad del listado: el costo de una página no depende de dónde empieza
+        cursorLibros = libroService.listarLibros(null, LibroService.MAX_TAMANIO_PAGINA).getSiguienteCursor();
+        for (int i = 0; i < tamanio / 2 / LibroService.MAX_TAMANIO_PAGINA; i++) {
+            cursorLibros = libroService.listarLibros(cursorLibros, LibroService.MAX_TAMANIO_PAGINA)
+                    .getSiguienteCursor();
+        }
+        cursorPrestamos = "PREST-" + tamanio / 2;
+    }
+
+    @Benchmark
+    public List<Libro> libros_ListarTodos() {
+        return libroService.listarTodos();
+    }
+
+    /**
+     * El mismo recorrido que libros_Stream, pero sobre la copia
+     */
+    @Benchmark
+    public long libros_ListarTodosYRecorrer() {
+        return libroService.listarTodos().stream().mapToLong(Libro::getCantidadDisponible).sum();
+    }
+
+    @Benchmark
+    public Pagina<Libro> libros_Pagina() {
+        return libroService.listarLibros(cursorLibros, TAMANIO_PAGINA);
+    }
+
+    @Benchmark
+    public long libros_Stream() {
+        return libroService.streamLibros().mapToLong(Libro::getCantidadDisponible).sum();
+    }
+
+    @Benchmark
+    public List<Prestamo> prestamos_ListarTodos() {
+        return prestamoService.listarTodosLosPrestamos();
+    }
+
+    @Benchmark
+    public long prestamos_ListarTodosYRecorrer() {
+        return prestamoService.listarTodosLosPrestamos().stream().filter(Prestamo::isActivo).count();
+    }
+
+    @Benchmark
+    public Pagina<Prestamo> prestamos_Pagina() {
+        return prestamoService.listarPrestamos(cursorPrestamos, TAMANIO_PAGINA);
+    }
+
+    @Benchmark
+    public long prestamos_Stream() {
+        return prestamoService.streamPrestamos().filter(Prestamo::isActivo).count();
+    }
+}
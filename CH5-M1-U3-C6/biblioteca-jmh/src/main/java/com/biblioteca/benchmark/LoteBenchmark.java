@@ -0,0 +1,123 @@
+package com.biblioteca.benchmark;
+
+import com.biblioteca.exception.LibroNoDisponibleException;
+import com.biblioteca.exception.LimitePrestamosException;
+import com.biblioteca.model.Libro;
+import com.biblioteca.model.Prestamo;
+import com.biblioteca.model.SolicitudPrestamo;
+import com.biblioteca.service.LibroService;
+import com.biblioteca.service.PrestamoService;
+import com.biblioteca.service.ResultadoLote;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el registro y el préstamo por lotes contra el bucle ítem por ítem,
+ * con un 5% de ítems inválidos (que en el bucle cuestan una excepción cada uno).
+ *
+ * Cada invocación parte de servicios nuevos, por eso se mide en SingleShotTime.
+ *
+ * Ejecutar: java -jar target/benchmarks.jar LoteBenchmark
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class LoteBenchmark {
+
+    private static final int CADA_CUANTOS_INVALIDO = 20;
+
+    @Param({"100000", "1000000"})
+    public int tamanioLote;
+
+    private List<Libro> libros;
+    private List<SolicitudPrestamo> solicitudes;
+
+    @Setup(Level.Trial)
+    public void prepararDatos() {
+        libros = new ArrayList<>(tamanioLote);
+        solicitudes = new ArrayList<>(tamanioLote);
+        for (int i = 0; i < tamanioLote; i++) {
+            String isbn = DatosBenchmark.isbn(i);
+            if (i % CADA_CUANTOS_INVALIDO == 0) {
+                // ISBN de 12 dígitos: rechazado por validación
+                isbn = isbn.substring(1);
+            }
+            libros.add(new Libro(isbn, DatosBenchmark.titulo(i), DatosBenchmark.autor(i), 2));
+            // Cada libro (un ejemplar) se pide dos veces: el segundo pedido se rechaza
+            solicitudes.add(new SolicitudPrestamo(DatosBenchmark.isbn(i % (tamanioLote / 2)), "USR-" + i));
+        }
+    }
+
+    /**
+     * Catálogo vacío, nuevo en cada invocación
+     */
+    @State(Scope.Benchmark)
+    public static class Registro {
+
+        LibroService libroService;
+
+        @Setup(Level.Invocation)
+        public void preparar(LoteBenchmark base) {
+            libroService = new LibroService(base.tamanioLote);
+        }
+    }
+
+    /**
+     * Catálogo de tamanioLote / 2 libros con un ejemplar cada uno, sin préstamos
+     */
+    @State(Scope.Benchmark)
+    public static class Prestamos {
+
+        PrestamoService prestamoService;
+
+        @Setup(Level.Invocation)
+        public void preparar(LoteBenchmark base) {
+            prestamoService = new PrestamoService(DatosBenchmark.catalogo(base.tamanioLote / 2, 1));
+        }
+    }
+
+    @Benchmark
+    public ResultadoLote<Libro> registrarLibros_Lote(Registro r) {
+        return r.libroService.registrarLibros(libros);
+    }
+
+    @Benchmark
+    public int registrarLibros_Bucle(Registro r) {
+        int registrados = 0;
+        for (Libro libro : libros) {
+            try {
+                r.libroService.registrarLibro(libro.getIsbn(), libro.getTitulo(), libro.getAutor(),
+                        libro.getCantidadTotal());
+                registrados++;
+            } catch (IllegalArgumentException e) {
+                // ítem inválido
+            }
+        }
+        return registrados;
+    }
+
+    @Benchmark
+    public ResultadoLote<Prestamo> prestarLibros_Lote(Prestamos p) {
+        return p.prestamoService.prestarLibros(solicitudes);
+    }
+
+    @Benchmark
+    public int prestarLibros_Bucle(Prestamos p) {
+        int prestados = 0;
+        for (SolicitudPrestamo solicitud : solicitudes) {
+            try {
+                p.prestamoService.prestarLibro(solicitud.getIsbn(), solicitud.getIdUsuario());
+                prestados++;
+            } catch (LibroNoDisponibleException | LimitePrestamosException e) {
+                // pedido rechazado
+            }
+        }
+        return prestados;
+    }
+}
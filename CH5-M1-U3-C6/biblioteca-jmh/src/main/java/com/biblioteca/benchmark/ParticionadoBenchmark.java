@@ -0,0 +1,78 @@
+package com.biblioteca.benchmark;
+
+import com.biblioteca.model.Libro;
+import com.biblioteca.model.Prestamo;
+import com.biblioteca.particionado.BibliotecaParticionada;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BibliotecaParticionada con 1 a 8 particiones: préstamo + devolución desde 4 hilos
+ * (throughput total) y búsqueda por autor repartida entre las particiones.
+ *
+ * El escalado depende de los núcleos: con un solo procesador las particiones solo
+ * reducen la contención, no suman capacidad.
+ *
+ * Ejecutar: java -jar target/benchmarks.jar ParticionadoBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ParticionadoBenchmark {
+
+    private static final int LIBROS = 100_000;
+
+    @State(Scope.Benchmark)
+    public static class Biblioteca {
+
+        @Param({"1", "2", "4", "8"})
+        public int particiones;
+
+        BibliotecaParticionada biblioteca;
+        String[] isbns;
+        final AtomicInteger hilos = new AtomicInteger();
+
+        @Setup(Level.Trial)
+        public void preparar() {
+            biblioteca = new BibliotecaParticionada(particiones, LIBROS / particiones);
+            isbns = DatosBenchmark.isbns(LIBROS);
+            for (int i = 0; i < LIBROS; i++) {
+                biblioteca.registrarLibro(isbns[i], DatosBenchmark.titulo(i), DatosBenchmark.autor(i), 1_000);
+            }
+        }
+    }
+
+    /**
+     * Cada hilo opera con su propio usuario para no chocar con el límite por usuario
+     */
+    @State(Scope.Thread)
+    public static class Hilo {
+
+        String usuario;
+
+        @Setup(Level.Trial)
+        public void preparar(Biblioteca biblioteca) {
+            usuario = "BENCH-" + biblioteca.hilos.incrementAndGet();
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Prestamo prestarYDevolver_4Hilos(Biblioteca b, Hilo h) {
+        String isbn = b.isbns[ThreadLocalRandom.current().nextInt(LIBROS)];
+        Prestamo prestamo = b.biblioteca.prestarLibro(isbn, h.usuario);
+        b.biblioteca.devolverLibro(isbn, h.usuario);
+        return prestamo;
+    }
+
+    @Benchmark
+    public List<Libro> buscarPorAutor(Biblioteca b) {
+        return b.biblioteca.buscarPorAutor(DatosBenchmark.autor(ThreadLocalRandom.current().nextInt(LIBROS)));
+    }
+}
@@ -0,0 +1,152 @@
+package com.biblioteca.benchmark;
+
+import com.biblioteca.persistencia.PersistenciaBiblioteca;
+import com.biblioteca.service.LibroService;
+import com.biblioteca.service.PrestamoService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks de la persistencia por diario:
+ * eventos por segundo con el diario activo y tiempo de reinicio (recuperación)
+ * según la cantidad de eventos, con y sin instantánea previa.
+ *
+ * Ejecutar: java -jar target/benchmarks.jar PersistenciaBenchmark
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class PersistenciaBenchmark {
+
+    private static final int LIBROS = 10_000;
+
+    /**
+     * Servicios con el diario activo; cada préstamo + devolución agrega 2 eventos
+     */
+    @State(Scope.Benchmark)
+    public static class Escritura {
+
+        Path directorio;
+        PersistenciaBiblioteca persistencia;
+        PrestamoService prestamoService;
+        String[] isbns;
+        final AtomicInteger hilos = new AtomicInteger();
+
+        @Setup(Level.Trial)
+        public void abrir() throws IOException {
+            directorio = Files.createTempDirectory("bench-diario");
+            persistencia = PersistenciaBiblioteca.abrir(directorio, Duration.ofMillis(10), Duration.ZERO);
+            LibroService libros = persistencia.getLibroService();
+            isbns = DatosBenchmark.isbns(LIBROS);
+            for (int i = 0; i < LIBROS; i++) {
+                libros.registrarLibro(isbns[i], DatosBenchmark.titulo(i), DatosBenchmark.autor(i), 1_000);
+            }
+            prestamoService = persistencia.getPrestamoService();
+        }
+
+        @TearDown(Level.Trial)
+        public void cerrar() throws IOException {
+            persistencia.close();
+            borrar(directorio);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Hilo {
+        String usuario;
+
+        @Setup(Level.Trial)
+        public void preparar(Escritura escritura) {
+            usuario = "BENCH-" + escritura.hilos.incrementAndGet();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 2, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    @OperationsPerInvocation(2)
+    public void eventosPorSegundo(Escritura e, Hilo h) {
+        String isbn = e.isbns[ThreadLocalRandom.current().nextInt(LIBROS)];
+        e.prestamoService.prestarLibro(isbn, h.usuario);
+        e.prestamoService.devolverLibro(isbn, h.usuario);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 2, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    @OperationsPerInvocation(2)
+    @Threads(4)
+    public void eventosPorSegundo_4Hilos(Escritura e, Hilo h) {
+        eventosPorSegundo(e, h);
+    }
+
+    /**
+     * Directorio con un diario de N eventos ya escritos
+     */
+    @State(Scope.Benchmark)
+    public static class Reinicio {
+
+        @Param({"1000000", "10000000"})
+        public int eventos;
+
+        @Param({"false", "true"})
+        public boolean conInstantanea;
+
+        Path directorio;
+
+        @Setup(Level.Trial)
+        public void generarDiario() throws IOException {
+            directorio = Files.createTempDirectory("bench-reinicio");
+            try (PersistenciaBiblioteca p = PersistenciaBiblioteca.abrir(directorio, Duration.ofMillis(50), Duration.ZERO)) {
+                LibroService libros = p.getLibroService();
+                PrestamoService prestamos = p.getPrestamoService();
+                String[] isbns = DatosBenchmark.isbns(LIBROS);
+                for (int i = 0; i < LIBROS; i++) {
+                    libros.registrarLibro(isbns[i], DatosBenchmark.titulo(i), DatosBenchmark.autor(i), 1_000_000);
+                }
+                for (int i = LIBROS; i < eventos; i += 2) {
+                    String usuario = "USR-" + (i % 50_000);
+                    String isbn = isbns[i % LIBROS];
+                    prestamos.prestarLibro(isbn, usuario);
+                    prestamos.devolverLibro(isbn, usuario);
+                }
+                if (conInstantanea) {
+                    p.tomarInstantanea();
+                }
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void borrarDiario() throws IOException {
+            borrar(directorio);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public int tiempoDeReinicio(Reinicio r) throws IOException {
+        try (PersistenciaBiblioteca p = PersistenciaBiblioteca.abrir(r.directorio, Duration.ofMillis(50), Duration.ZERO)) {
+            return p.getPrestamoService().listarTodosLosPrestamos().size();
+        }
+    }
+
+    private static void borrar(Path directorio) throws IOException {
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            archivos.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+}
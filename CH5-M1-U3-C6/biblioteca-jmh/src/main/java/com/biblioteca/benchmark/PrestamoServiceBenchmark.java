@@ -0,0 +1,102 @@
+package com.biblioteca.benchmark;
+
+import com.biblioteca.model.Prestamo;
+import com.biblioteca.service.LibroService;
+import com.biblioteca.service.PrestamoService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Benchmarks de PrestamoService: préstamo + devolución y conteo de préstamos
+ * activos, sobre historiales de 1k a 1M préstamos ya devueltos.
+ *
+ * Ejecutar: java -jar target/benchmarks.jar PrestamoServiceBenchmark
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class PrestamoServiceBenchmark {
+
+    private static final int LIBROS = 10_000;
+    private static final int USUARIOS = 100_000;
+
+    @State(Scope.Benchmark)
+    public static class Biblioteca {
+
+        @Param({"1000", "10000", "100000", "1000000"})
+        public int tamanioHistorial;
+
+        LibroService libroService;
+        PrestamoService prestamoService;
+        String[] isbns;
+        final AtomicInteger hilos = new AtomicInteger();
+
+        @Setup(Level.Trial)
+        public void preparar() {
+            libroService = DatosBenchmark.catalogo(LIBROS, 1_000);
+            prestamoService = new PrestamoService(libroService);
+            isbns = DatosBenchmark.isbns(LIBROS);
+            // Historial de préstamos ya devueltos
+            for (int i = 0; i < tamanioHistorial; i++) {
+                String isbn = isbns[i % LIBROS];
+                String usuario = "USR-" + (i % USUARIOS);
+                prestamoService.prestarLibro(isbn, usuario);
+                prestamoService.devolverLibro(isbn, usuario);
+            }
+        }
+    }
+
+    /**
+     * Cada hilo opera con su propio usuario para no chocar con el límite por usuario
+     */
+    @State(Scope.Thread)
+    public static class Hilo {
+
+        String usuario;
+
+        @Setup(Level.Trial)
+        public void preparar(Biblioteca biblioteca) {
+            usuario = "BENCH-" + biblioteca.hilos.incrementAndGet();
+        }
+    }
+
+    @Benchmark
+    public Prestamo prestarYDevolver(Biblioteca b, Hilo h) {
+        return ciclo(b, h);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Prestamo prestarYDevolver_4Hilos(Biblioteca b, Hilo h) {
+        return ciclo(b, h);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Prestamo prestarYDevolver_MaxHilos(Biblioteca b, Hilo h) {
+        return ciclo(b, h);
+    }
+
+    @Benchmark
+    public int contarPrestamosActivos(Biblioteca b) {
+        return b.prestamoService.contarPrestamosActivos("USR-" + ThreadLocalRandom.current().nextInt(USUARIOS));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int contarPrestamosActivos_4Hilos(Biblioteca b) {
+        return b.prestamoService.contarPrestamosActivos("USR-" + ThreadLocalRandom.current().nextInt(USUARIOS));
+    }
+
+    private static Prestamo ciclo(Biblioteca b, Hilo h) {
+        String isbn = b.isbns[ThreadLocalRandom.current().nextInt(LIBROS)];
+        Prestamo prestamo = b.prestamoService.prestarLibro(isbn, h.usuario);
+        b.prestamoService.devolverLibro(isbn, h.usuario);
+        return prestamo;
+    }
+}
@@ -0,0 +1,109 @@
+package com.biblioteca.benchmark;
+
+import com.biblioteca.exception.LibroNoDisponibleException;
+import com.biblioteca.model.EstadoReserva;
+import com.biblioteca.model.Reserva;
+import com.biblioteca.service.LibroService;
+import com.biblioteca.service.PrestamoService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Contención sobre un único título muy pedido: más hilos (usuarios) que ejemplares.
+ *
+ * <ul>
+ *   <li>reintentos: cada usuario llama a prestarLibro hasta conseguir el libro
+ *   (una LibroNoDisponibleException por intento fallido) y lo devuelve.</li>
+ *   <li>reservas: cada usuario se pone en la cola de espera, consulta su reserva
+ *   hasta que lo atienden y lo devuelve; la devolución entrega el ejemplar al
+ *   siguiente de la cola.</li>
+ * </ul>
+ *
+ * Tras un intento fallido el hilo cede la CPU (Thread.yield), como haría un
+ * cliente que espera antes de volver a intentar; sin eso, con pocos núcleos los
+ * hilos en espera no dejan correr al que tiene el libro.
+ *
+ * Los contadores auxiliares informan entregas (préstamos completados) e intentos
+ * fallidos por segundo; la comparación relevante es entregas/seg.
+ *
+ * Ejecutar: java -jar target/benchmarks.jar ReservaBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Threads(16)
+public class ReservaBenchmark {
+
+    private static final String ISBN = DatosBenchmark.isbn(0);
+
+    @State(Scope.Benchmark)
+    public static class Biblioteca {
+
+        @Param({"1", "4"})
+        public int ejemplares;
+
+        PrestamoService prestamoService;
+        final AtomicInteger hilos = new AtomicInteger();
+
+        @Setup(Level.Trial)
+        public void preparar() {
+            LibroService libroService = new LibroService();
+            libroService.registrarLibro(ISBN, DatosBenchmark.titulo(0), DatosBenchmark.autor(0), ejemplares);
+            prestamoService = new PrestamoService(libroService);
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Hilo {
+
+        public long entregas;
+        public long intentosFallidos;
+
+        String usuario;
+        Reserva reserva;
+
+        @Setup(Level.Trial)
+        public void preparar(Biblioteca biblioteca) {
+            usuario = "BENCH-" + biblioteca.hilos.incrementAndGet();
+        }
+
+        @Setup(Level.Iteration)
+        public void reiniciarContadores() {
+            entregas = 0;
+            intentosFallidos = 0;
+        }
+    }
+
+    @Benchmark
+    public void reintentos(Biblioteca b, Hilo h) {
+        try {
+            b.prestamoService.prestarLibro(ISBN, h.usuario);
+        } catch (LibroNoDisponibleException e) {
+            h.intentosFallidos++;
+            Thread.yield();
+            return;
+        }
+        b.prestamoService.devolverLibro(ISBN, h.usuario);
+        h.entregas++;
+    }
+
+    @Benchmark
+    public void reservas(Biblioteca b, Hilo h) {
+        if (h.reserva == null) {
+            h.reserva = b.prestamoService.reservarLibro(ISBN, h.usuario);
+        }
+        if (h.reserva.getEstado() != EstadoReserva.ATENDIDA) {
+            h.intentosFallidos++;
+            Thread.yield();
+            return;
+        }
+        b.prestamoService.devolverLibro(ISBN, h.usuario);
+        h.reserva = null;
+        h.entregas++;
+    }
+}
@@ -0,0 +1,125 @@
+package org.example.repository;
+
+import org.example.model.Cita;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Almacén de citas en memoria, seguro para llamadas concurrentes.
+ *
+ * Las citas se guardan por id en un ConcurrentHashMap (búsqueda O(1)) y las activas
+ * con fecha también en un índice ordenado por fecha (ConcurrentSkipListMap, O(log n))
+ * para recorrerlas por rango horario. Los cambios de una misma cita se hacen dentro de
+ * compute sobre su id, así el índice por fecha nunca queda desfasado de la cita.
+ */
+public class CitaRepository {
+
+    private final ConcurrentHashMap<Integer, Cita> porId = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<ClaveFecha, Cita> porFecha = new ConcurrentSkipListMap<>();
+
+    /**
+     * @return false si ya había una cita con ese id (no se reemplaza)
+     */
+    public boolean agregar(Cita cita) {
+        boolean[] agregada = new boolean[1];
+        porId.computeIfAbsent(cita.getId(), id -> {
+            if (cita.isActivo()) {
+                indexar(cita);
+            }
+            agregada[0] = true;
+            return cita;
+        });
+        return agregada[0];
+    }
+
+    /**
+     * @return La cita con ese id, o null si no existe
+     */
+    public Cita buscar(int id) {
+        return porId.get(id);
+    }
+
+    /**
+     * Reemplaza los datos de una cita existente y la reubica en el índice por fecha
+     *
+     * @return La cita actualizada, o null si no existe
+     */
+    public Cita actualizar(int id, String nombre, String telefono, LocalDateTime fecha) {
+        return porId.computeIfPresent(id, (clave, cita) -> {
+            if (cita.isActivo()) {
+                desindexar(cita);
+            }
+            cita.setNombre(nombre);
+            cita.setTelefono(telefono);
+            cita.setFecha(fecha);
+            if (cita.isActivo()) {
+                indexar(cita);
+            }
+            return cita;
+        });
+    }
+
+    /**
+     * Marca la cita como cancelada y la saca del índice por fecha
+     *
+     * @return false si no existe o ya estaba cancelada
+     */
+    public boolean cancelar(int id) {
+        boolean[] cancelada = new boolean[1];
+        porId.computeIfPresent(id, (clave, cita) -> {
+            if (cita.isActivo()) {
+                cita.setActivo(false);
+                desindexar(cita);
+                cancelada[0] = true;
+            }
+            return cita;
+        });
+        return cancelada[0];
+    }
+
+    /**
+     * @return Citas activas con fecha en [desde, hasta), ordenadas por fecha
+     */
+    public List<Cita> listarEntre(LocalDateTime desde, LocalDateTime hasta) {
+        return new ArrayList<>(porFecha.subMap(ClaveFecha.desde(desde), ClaveFecha.desde(hasta)).values());
+    }
+
+    /**
+     * @return Cantidad de citas guardadas, activas o canceladas
+     */
+    public int tamanio() {
+        return porId.size();
+    }
+
+    private void indexar(Cita cita) {
+        if (cita.getFecha() != null) {
+            porFecha.put(new ClaveFecha(cita.getFecha(), cita.getId()), cita);
+        }
+    }
+
+    private void desindexar(Cita cita) {
+        if (cita.getFecha() != null) {
+            porFecha.remove(new ClaveFecha(cita.getFecha(), cita.getId()));
+        }
+    }
+
+    /**
+     * Orden del índice: por fecha y, para la misma fecha, por id
+     */
+    private record ClaveFecha(LocalDateTime fecha, int id) implements Comparable<ClaveFecha> {
+
+        static ClaveFecha desde(LocalDateTime fecha) {
+            return new ClaveFecha(fecha, Integer.MIN_VALUE);
+        }
+
+        @Override
+        public int compareTo(ClaveFecha otra) {
+            int porFecha = fecha.compareTo(otra.fecha);
+            return porFecha != 0 ? porFecha : Integer.compare(id, otra.id);
+        }
+    }
+}
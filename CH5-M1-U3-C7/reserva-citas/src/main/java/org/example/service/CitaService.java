@@ -2,7 +2,9 @@ package org.example.service;
 
 import org.example.exception.CitaNoEncontradaException;
 import org.example.exception.CitaYaCanceladaException;
+import org.example.exception.DatosInvalidosException;
 import org.example.model.Cita;
+import org.example.repository.CitaRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,35 +14,43 @@ import java.time.LocalDateTime;
 public class CitaService {
 
     private static final Logger log = LoggerFactory.getLogger(CitaService.class);
-    private Cita citaActual;
+    private final CitaRepository citas;
     private final ValidacionService validacionService = new ValidacionService();
 
+    public CitaService() {
+        this(new CitaRepository());
+    }
+
+    public CitaService(CitaRepository citas) {
+        this.citas = citas;
+    }
+
     public void registrarCita(int id, String nombre, String telefono, LocalDateTime fecha) {
 
         validacionService.validarNombrePaciente(nombre);
         validacionService.validarTelefonoPaciente(telefono);
 
-        citaActual = new Cita(id, nombre, telefono, fecha);
-        log.info("Cita registrada con exito");
+        if (!citas.agregar(new Cita(id, nombre, telefono, fecha))) {
+            throw new DatosInvalidosException("Ya existe una cita con el ID: " + id);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Cita registrada {}", id);
+        }
     }
 
 
     public void cancelarCita(int id) {
-        Cita cita = getCitaById(id);
-        if (cita != null) {
-            if (cita.isActivo()) {
-                cita.setActivo(false);
-            } else {
-                throw new CitaYaCanceladaException("La cita ya fue cancelada");
-            }
+        getCitaById(id);
+        if (!citas.cancelar(id)) {
+            throw new CitaYaCanceladaException("La cita ya fue cancelada");
         }
     }
 
     public Cita getCitaById(int id) {
-        if (citaActual != null && citaActual.getId() == id) {
-            return citaActual;
-        } else {
+        Cita cita = citas.buscar(id);
+        if (cita == null) {
             throw new CitaNoEncontradaException("La cita no existe");
         }
+        return cita;
     }
 }
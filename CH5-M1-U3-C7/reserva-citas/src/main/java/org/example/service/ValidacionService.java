@@ -9,6 +9,8 @@ public class ValidacionService {
 
     public static final Logger log = LoggerFactory.getLogger(ValidacionService.class);
 
+    private static final int DIGITOS_MINIMOS_TELEFONO = 8;
+
     public void validarNombrePaciente(String nombre) {
         if (nombre == null || nombre.isEmpty()) {
             throw new DatosInvalidosException("El nombre no puede ser nulo o estar vacio");
@@ -20,16 +22,28 @@ public class ValidacionService {
             throw new DatosInvalidosException("El telefono no puede ser nulo o estar vacio");
         }
 
-        String soloDigitos = telefono.replaceAll("[\\s\\-]", "");
-        boolean siTieneSoloDigitos = soloDigitos.matches("\\d+");
+        // Una pasada: equivale a quitar [\s\-] y pedir \d+ sobre lo que queda
+        int digitos = 0;
+        for (int i = 0; i < telefono.length(); i++) {
+            char c = telefono.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digitos++;
+            } else if (!esSeparador(c)) {
+                throw new DatosInvalidosException("El telefono no tiene el formato esperado");
+            }
+        }
 
-        if (!siTieneSoloDigitos) {
+        if (digitos == 0) {
             throw new DatosInvalidosException("El telefono no tiene el formato esperado");
         }
 
-        if (soloDigitos.length() < 8) {
-            log.error("El telefono no tiene la cantidad de digitos esperada");
+        if (digitos < DIGITOS_MINIMOS_TELEFONO) {
             throw new DatosInvalidosException("El telefono no tiene la cantidad de digitos esperada");
         }
     }
+
+    // Los mismos caracteres que \s en una regex de Java, más el guion
+    private static boolean esSeparador(char c) {
+        return c == ' ' || c == '-' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
 }
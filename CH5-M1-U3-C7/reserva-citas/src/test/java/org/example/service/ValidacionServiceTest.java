@@ -5,7 +5,10 @@ import org.example.exception.DatosInvalidosException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class ValidacionServiceTest {
@@ -32,4 +35,22 @@ class ValidacionServiceTest {
         String nombrePaciente = "Paciente";
         assertDoesNotThrow(() -> vs.validarNombrePaciente(nombrePaciente));
     }
+
+    @Test
+    void testvalidarTelefonoPaciente_igual_que_la_regex() {
+        List<String> telefonos = List.of("318456789", "318-456-789", "318 456\t789", "3184567", "318-45a-789",
+                "----", " ", "+57 318456789", "１２３４５６７８９", "318_456_789", "12345678");
+        for (String telefono : telefonos) {
+            String soloDigitos = telefono.replaceAll("[\\s\\-]", "");
+            String esperado = !soloDigitos.matches("\\d+") ? "El telefono no tiene el formato esperado"
+                    : soloDigitos.length() < 8 ? "El telefono no tiene la cantidad de digitos esperada" : null;
+            if (esperado == null) {
+                assertDoesNotThrow(() -> vs.validarTelefonoPaciente(telefono), telefono);
+            } else {
+                DatosInvalidosException e = assertThrows(DatosInvalidosException.class,
+                        () -> vs.validarTelefonoPaciente(telefono), telefono);
+                assertEquals(esperado, e.getMessage(), telefono);
+            }
+        }
+    }
 }
@@ -0,0 +1,126 @@
+package org.example.benchmark;
+
+import org.example.repository.AgendaTurnos;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reservas por turno en AgendaTurnos (un CAS por turno) contra un HashMap
+ * protegido por un lock global:
+ * <ul>
+ *   <li>reservarYLiberar: turnos al azar dentro de un año (casi sin choques).</li>
+ *   <li>turnoDisputado: todos los hilos piden los mismos 8 turnos; la mayoría de
+ *   los pedidos se rechazan por turno ocupado.</li>
+ * </ul>
+ *
+ * Ejecutar: java -jar target/benchmarks.jar AgendaBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class AgendaBenchmark {
+
+    private static final int TURNOS_EN_UN_ANIO = 365 * AgendaTurnos.TURNOS_POR_DIA;
+    private static final int TURNOS_DISPUTADOS = 8;
+
+    @State(Scope.Benchmark)
+    public static class Agenda {
+
+        AgendaTurnos agenda;
+        final Map<LocalDateTime, Integer> agendaConLock = new HashMap<>();
+        LocalDateTime[] turnos;
+        final AtomicInteger hilos = new AtomicInteger();
+
+        @Setup(Level.Trial)
+        public void preparar() {
+            agenda = new AgendaTurnos();
+            LocalDateTime inicio = LocalDateTime.now().plusDays(1).toLocalDate().atStartOfDay();
+            turnos = new LocalDateTime[TURNOS_EN_UN_ANIO];
+            for (int i = 0; i < TURNOS_EN_UN_ANIO; i++) {
+                turnos[i] = inicio.plusMinutes((long) i * AgendaTurnos.MINUTOS_POR_TURNO);
+            }
+        }
+
+        boolean reservarConLock(LocalDateTime turno, int id) {
+            synchronized (agendaConLock) {
+                return agendaConLock.putIfAbsent(turno, id) == null;
+            }
+        }
+
+        void liberarConLock(LocalDateTime turno, int id) {
+            synchronized (agendaConLock) {
+                agendaConLock.remove(turno, id);
+            }
+        }
+    }
+
+    /**
+     * Cada hilo reserva con su propio id de cita
+     */
+    @State(Scope.Thread)
+    public static class Hilo {
+
+        int id;
+
+        @Setup(Level.Trial)
+        public void preparar(Agenda agenda) {
+            id = agenda.hilos.incrementAndGet();
+        }
+    }
+
+    @Benchmark
+    public boolean reservarYLiberar(Agenda a, Hilo h) {
+        return reservarYLiberar(a, h, ThreadLocalRandom.current().nextInt(TURNOS_EN_UN_ANIO));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean reservarYLiberar_4Hilos(Agenda a, Hilo h) {
+        return reservarYLiberar(a, h, ThreadLocalRandom.current().nextInt(TURNOS_EN_UN_ANIO));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean reservarYLiberar_LockGlobal_4Hilos(Agenda a, Hilo h) {
+        LocalDateTime turno = a.turnos[ThreadLocalRandom.current().nextInt(TURNOS_EN_UN_ANIO)];
+        if (a.reservarConLock(turno, h.id)) {
+            a.liberarConLock(turno, h.id);
+            return true;
+        }
+        return false;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean turnoDisputado_4Hilos(Agenda a, Hilo h) {
+        return reservarYLiberar(a, h, ThreadLocalRandom.current().nextInt(TURNOS_DISPUTADOS));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean turnoDisputado_LockGlobal_4Hilos(Agenda a, Hilo h) {
+        LocalDateTime turno = a.turnos[ThreadLocalRandom.current().nextInt(TURNOS_DISPUTADOS)];
+        if (a.reservarConLock(turno, h.id)) {
+            a.liberarConLock(turno, h.id);
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean reservarYLiberar(Agenda a, Hilo h, int indice) {
+        LocalDateTime turno = a.turnos[indice];
+        if (a.agenda.reservar(turno, h.id)) {
+            a.agenda.liberar(turno, h.id);
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.benchmark;
+
+import org.example.model.Cita;
+import org.example.repository.AgendaTurnos;
+import org.example.repository.CitaRepository;
+import org.example.service.CitaService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas de recepción con 1M de citas reservadas (la mitad de los turnos de unos
+ * 57 años, al azar):
+ * <ul>
+ *   <li>listarCitasEntre: las citas de 9:00 a 12:00 de un día, por el índice por fecha,
+ *   contra recorrer la lista de todas las citas (recorrido).</li>
+ *   <li>buscarTurnosLibres: los próximos N turnos libres desde un turno al azar, por los
+ *   arreglos por día de AgendaTurnos.</li>
+ * </ul>
+ *
+ * Ejecutar: java -jar target/benchmarks.jar ConsultaAgendaBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class ConsultaAgendaBenchmark {
+
+    private static final int CITAS = 1_000_000;
+    private static final int DIAS = 2 * CITAS / AgendaTurnos.TURNOS_POR_DIA;
+
+    @Param({"10", "100"})
+    public int cantidad;
+
+    CitaService citaService;
+    List<Cita> todas;
+    LocalDate primerDia;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        CitaRepository citas = new CitaRepository();
+        AgendaTurnos agenda = new AgendaTurnos();
+        todas = new ArrayList<>(CITAS);
+        primerDia = LocalDate.now().plusDays(1);
+        Random aleatorio = new Random(42);
+        int id = 1;
+        // Se carga directo en el repositorio y la agenda: registrarCita escribe varias líneas de log por cita
+        while (id <= CITAS) {
+            LocalDateTime fecha = primerDia.atStartOfDay()
+                    .plusMinutes((long) aleatorio.nextInt(DIAS * AgendaTurnos.TURNOS_POR_DIA) * AgendaTurnos.MINUTOS_POR_TURNO);
+            if (agenda.reservar(fecha, id)) {
+                Cita cita = new Cita(id, "PACIENTE " + id, "318456789", fecha);
+                citas.agregar(cita);
+                todas.add(cita);
+                id++;
+            }
+        }
+        citaService = new CitaService(citas, agenda);
+    }
+
+    @Benchmark
+    public List<Cita> listarCitasEntre() {
+        LocalDate dia = diaAlAzar();
+        return citaService.listarCitasEntre(dia.atTime(9, 0), dia.atTime(12, 0));
+    }
+
+    @Benchmark
+    public List<Cita> listarCitasEntre_recorrido() {
+        LocalDate dia = diaAlAzar();
+        LocalDateTime desde = dia.atTime(9, 0);
+        LocalDateTime hasta = dia.atTime(12, 0);
+        List<Cita> resultado = new ArrayList<>();
+        for (Cita cita : todas) {
+            if (cita.isActivo() && !cita.getFecha().isBefore(desde) && cita.getFecha().isBefore(hasta)) {
+                resultado.add(cita);
+            }
+        }
+        return resultado;
+    }
+
+    @Benchmark
+    public List<LocalDateTime> buscarTurnosLibres() {
+        return citaService.buscarTurnosLibres(diaAlAzar().atTime(9, 0), cantidad);
+    }
+
+    private LocalDate diaAlAzar() {
+        return primerDia.plusDays(ThreadLocalRandom.current().nextInt(DIAS));
+    }
+}
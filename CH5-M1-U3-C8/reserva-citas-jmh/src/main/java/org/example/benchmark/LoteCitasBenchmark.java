@@ -0,0 +1,136 @@
+package org.example.benchmark;
+
+import org.example.exception.DatosInvalidosException;
+import org.example.exception.TurnoOcupadoException;
+import org.example.model.Cita;
+import org.example.repository.AgendaTurnos;
+import org.example.service.CitaService;
+import org.example.service.ResultadoLote;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara las operaciones por lotes de CitaService contra el bucle cita por cita:
+ * <ul>
+ *   <li>importar: importarCitas contra split + registrarCita por línea, con un 5% de
+ *   líneas inválidas (que en el bucle cuestan una excepción cada una).</li>
+ *   <li>reprogramar: reprogramarCitas corriendo un turno todas las citas de una agenda de
+ *   turnos seguidos, contra actualizarCita de la última a la primera.</li>
+ * </ul>
+ *
+ * Cada invocación parte de servicios nuevos, por eso se mide en SingleShotTime.
+ *
+ * Ejecutar: java -jar target/benchmarks.jar LoteCitasBenchmark
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class LoteCitasBenchmark {
+
+    private static final int CADA_CUANTOS_INVALIDO = 20;
+
+    @Param({"100000"})
+    public int tamanioLote;
+
+    private List<String> lineas;
+    private List<Cita> agendaCompleta;
+    private LocalDateTime primerTurno;
+
+    @Setup(Level.Trial)
+    public void prepararDatos() {
+        primerTurno = LocalDateTime.now().plusDays(1).toLocalDate().atStartOfDay();
+        lineas = new ArrayList<>(tamanioLote);
+        agendaCompleta = new ArrayList<>(tamanioLote);
+        for (int i = 0; i < tamanioLote; i++) {
+            LocalDateTime fecha = turno(i);
+            // Teléfono de 7 dígitos: rechazado por validación
+            String telefono = i % CADA_CUANTOS_INVALIDO == 0 ? "3184567" : "318456789";
+            lineas.add((i + 1) + ";PACIENTE " + i + ";" + telefono + ";" + fecha);
+            agendaCompleta.add(new Cita(i + 1, "PACIENTE " + i, "318456789", fecha));
+        }
+    }
+
+    private LocalDateTime turno(int i) {
+        return primerTurno.plusMinutes((long) i * AgendaTurnos.MINUTOS_POR_TURNO);
+    }
+
+    /**
+     * Servicio vacío, nuevo en cada invocación
+     */
+    @State(Scope.Benchmark)
+    public static class Vacio {
+
+        CitaService citaService;
+
+        @Setup(Level.Invocation)
+        public void preparar() {
+            citaService = new CitaService();
+        }
+    }
+
+    /**
+     * Servicio con tamanioLote citas en turnos seguidos, nuevo en cada invocación
+     */
+    @State(Scope.Benchmark)
+    public static class Agenda {
+
+        CitaService citaService;
+
+        @Setup(Level.Invocation)
+        public void preparar(LoteCitasBenchmark base) {
+            citaService = new CitaService();
+            citaService.registrarCitas(base.agendaCompleta);
+        }
+    }
+
+    @Benchmark
+    public ResultadoLote<Cita> importar_lote(LoteCitasBenchmark base, Vacio vacio) {
+        return vacio.citaService.importarCitas(base.lineas);
+    }
+
+    @Benchmark
+    public int importar_bucle(LoteCitasBenchmark base, Vacio vacio) {
+        int registradas = 0;
+        for (String linea : base.lineas) {
+            String[] campos = linea.split(";");
+            try {
+                vacio.citaService.registrarCita(Integer.parseInt(campos[0]), campos[1], campos[2],
+                        LocalDateTime.parse(campos[3]));
+                registradas++;
+            } catch (DatosInvalidosException | TurnoOcupadoException e) {
+                // Se cuenta como rechazada
+            }
+        }
+        return registradas;
+    }
+
+    @Benchmark
+    public ResultadoLote<Cita> reprogramar_lote(LoteCitasBenchmark base, Agenda agenda) {
+        return agenda.citaService.reprogramarCitas(base.turno(0), base.turno(base.tamanioLote),
+                Duration.ofMinutes(AgendaTurnos.MINUTOS_POR_TURNO));
+    }
+
+    @Benchmark
+    public int reprogramar_bucle(LoteCitasBenchmark base, Agenda agenda) {
+        int movidas = 0;
+        for (int i = base.tamanioLote - 1; i >= 0; i--) {
+            Cita cita = base.agendaCompleta.get(i);
+            try {
+                agenda.citaService.actualizarCita(new Cita(cita.getId(), cita.getNombre(), cita.getTelefono(),
+                        base.turno(i + 1)));
+                movidas++;
+            } catch (DatosInvalidosException | TurnoOcupadoException e) {
+                // Se cuenta como rechazada
+            }
+        }
+        return movidas;
+    }
+}
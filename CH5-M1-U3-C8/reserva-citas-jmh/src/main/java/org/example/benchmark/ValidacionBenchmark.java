@@ -0,0 +1,67 @@
+package org.example.benchmark;
+
+import org.example.exception.DatosInvalidosException;
+import org.example.service.ResultadoValidacion;
+import org.example.service.ValidacionService;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validaciones por segundo de los datos de una cita:
+ * <ul>
+ *   <li>antes: la validación anterior, con dos líneas INFO por llamada (a logs/validacion.log)
+ *   y el teléfono limpiado con replaceAll + matches.</li>
+ *   <li>antes_sinLog: lo mismo sin las líneas de log, para separar el costo de la regex.</li>
+ *   <li>verificarCita: ValidacionService.verificarCita, una pasada sin crear objetos.</li>
+ * </ul>
+ * Los telefonos alternan entre válidos y rechazados por formato y por cantidad de dígitos.
+ *
+ * Ejecutar: java -jar target/benchmarks.jar ValidacionBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class ValidacionBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(ValidacionService.class);
+    private static final String[] TELEFONOS = {"318456789", "318-456-789", "318 456 7890", "3184567", "318-45a-789"};
+
+    final ValidacionService validacionService = new ValidacionService();
+    final LocalDateTime manana = LocalDateTime.now().plusDays(1);
+    int siguiente;
+
+    @Benchmark
+    public boolean antes() {
+        String telefono = TELEFONOS[siguiente++ % TELEFONOS.length];
+        log.info("Validando nombre de paciente");
+        log.info("Validando el telefono del Paciente");
+        return telefonoConRegex(telefono);
+    }
+
+    @Benchmark
+    public boolean antes_sinLog() {
+        return telefonoConRegex(TELEFONOS[siguiente++ % TELEFONOS.length]);
+    }
+
+    @Benchmark
+    public ResultadoValidacion verificarCita() {
+        String telefono = TELEFONOS[siguiente++ % TELEFONOS.length];
+        return validacionService.verificarCita(1, manana, "PACIENTE", telefono, manana);
+    }
+
+    // La validación de teléfono anterior, devolviendo false en lugar de lanzar
+    private static boolean telefonoConRegex(String telefono) {
+        if (telefono == null || telefono.isEmpty()) {
+            throw new DatosInvalidosException("El telefono no puede ser nulo o estar vacio");
+        }
+        String soloDigitos = telefono.replaceAll("[\\s\\-]", "");
+        return soloDigitos.matches("\\d+") && soloDigitos.length() >= 8;
+    }
+}
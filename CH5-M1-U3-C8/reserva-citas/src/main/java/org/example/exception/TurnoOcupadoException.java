@@ -0,0 +1,12 @@
+package org.example.exception;
+
+/**
+ * Excepción de negocio cuando se intenta reservar un turno
+ * que ya tiene otra cita.
+ */
+public class TurnoOcupadoException extends RuntimeException {
+
+    public TurnoOcupadoException(String mensaje) {
+        super(mensaje);
+    }
+}
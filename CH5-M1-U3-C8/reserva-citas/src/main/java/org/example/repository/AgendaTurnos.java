@@ -0,0 +1,124 @@
+package org.example.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Ocupación de la agenda en turnos fijos de MINUTOS_POR_TURNO minutos.
+ *
+ * Cada día es un AtomicIntegerArray con un casillero por turno que guarda el id de la
+ * cita que lo ocupa (0 si está libre). Reservar es un único compareAndSet de 0 al id:
+ * de dos pedidos concurrentes por el mismo turno gana exactamente uno, sin locks y
+ * sin que turnos distintos compitan entre sí. Los días se crean al reservar el primer
+ * turno (computeIfAbsent) y después solo se leen.
+ *
+ * Una cita ocupa el turno que contiene su fecha: 10:05 y 10:10 caen en el de las 10:00.
+ *
+ * Buscar turnos libres recorre los casilleros en orden desde la fecha pedida; un día sin
+ * arreglo no tiene reservas y se toma completo sin leer nada. El costo es proporcional a
+ * los turnos devueltos más los ocupados que se saltean (como mucho TURNOS_POR_DIA por día
+ * lleno), sin importar cuántas citas haya en total.
+ */
+public class AgendaTurnos {
+
+    public static final int MINUTOS_POR_TURNO = 15;
+    public static final int TURNOS_POR_DIA = 24 * 60 / MINUTOS_POR_TURNO;
+    // Tope de turnos por búsqueda: 30 días de agenda libre
+    public static final int MAX_TURNOS_LIBRES = 30 * TURNOS_POR_DIA;
+
+    private static final int LIBRE = 0;
+
+    private final ConcurrentHashMap<Long, AtomicIntegerArray> dias = new ConcurrentHashMap<>();
+
+    /**
+     * Ocupa el turno de la fecha para la cita
+     *
+     * @param idCita Id de la cita (distinto de 0)
+     * @return false si el turno ya estaba ocupado
+     */
+    public boolean reservar(LocalDateTime fecha, int idCita) {
+        if (idCita == LIBRE) {
+            throw new IllegalArgumentException("El id de la cita no puede ser 0");
+        }
+        AtomicIntegerArray turnos = dias.computeIfAbsent(fecha.toLocalDate().toEpochDay(),
+                dia -> new AtomicIntegerArray(TURNOS_POR_DIA));
+        return turnos.compareAndSet(turno(fecha), LIBRE, idCita);
+    }
+
+    /**
+     * Libera el turno de la fecha si lo ocupa esa cita
+     *
+     * @return false si el turno estaba libre u ocupado por otra cita
+     */
+    public boolean liberar(LocalDateTime fecha, int idCita) {
+        AtomicIntegerArray turnos = dias.get(fecha.toLocalDate().toEpochDay());
+        return turnos != null && turnos.compareAndSet(turno(fecha), idCita, LIBRE);
+    }
+
+    /**
+     * @return Id de la cita que ocupa el turno de la fecha, o 0 si está libre
+     */
+    public int ocupante(LocalDateTime fecha) {
+        AtomicIntegerArray turnos = dias.get(fecha.toLocalDate().toEpochDay());
+        return turnos == null ? LIBRE : turnos.get(turno(fecha));
+    }
+
+    /**
+     * Próximos turnos libres que empiezan en la fecha o después. Como los iteradores de
+     * ConcurrentHashMap, no es una foto: una reserva concurrente puede o no reflejarse.
+     *
+     * @param cantidad Cantidad de turnos a devolver (entre 1 y MAX_TURNOS_LIBRES)
+     * @return Inicios de los turnos libres, en orden
+     */
+    public List<LocalDateTime> turnosLibres(LocalDateTime desde, int cantidad) {
+        if (cantidad <= 0 || cantidad > MAX_TURNOS_LIBRES) {
+            throw new IllegalArgumentException(
+                    "La cantidad de turnos debe estar entre 1 y " + MAX_TURNOS_LIBRES + ": " + cantidad);
+        }
+        LocalDate dia = desde.toLocalDate();
+        int turno = turno(desde);
+        if (!inicio(dia, turno).equals(desde)) {
+            // El turno que contiene la fecha ya empezó
+            turno++;
+        }
+        // Capacidad inicial: lo que queda del primer día; la lista crece si hacen falta más días
+        List<LocalDateTime> libres = new ArrayList<>(Math.min(cantidad, TURNOS_POR_DIA - turno));
+        while (libres.size() < cantidad) {
+            AtomicIntegerArray turnos = dias.get(dia.toEpochDay());
+            for (; turno < TURNOS_POR_DIA && libres.size() < cantidad; turno++) {
+                if (turnos == null || turnos.get(turno) == LIBRE) {
+                    libres.add(inicio(dia, turno));
+                }
+            }
+            dia = dia.plusDays(1);
+            turno = 0;
+        }
+        return libres;
+    }
+
+    /**
+     * @return true si las dos fechas caen en el mismo turno
+     */
+    public static boolean mismoTurno(LocalDateTime una, LocalDateTime otra) {
+        return una.toLocalDate().equals(otra.toLocalDate()) && turno(una) == turno(otra);
+    }
+
+    /**
+     * @return Inicio del turno que contiene la fecha
+     */
+    public static LocalDateTime inicioTurno(LocalDateTime fecha) {
+        return inicio(fecha.toLocalDate(), turno(fecha));
+    }
+
+    static int turno(LocalDateTime fecha) {
+        return (fecha.getHour() * 60 + fecha.getMinute()) / MINUTOS_POR_TURNO;
+    }
+
+    static LocalDateTime inicio(LocalDate dia, int turno) {
+        return dia.atStartOfDay().plusMinutes((long) turno * MINUTOS_POR_TURNO);
+    }
+}
@@ -2,60 +2,325 @@ package org.example.service;
 
 import org.example.exception.CitaNoEncontradaException;
 import org.example.exception.CitaYaCanceladaException;
+import org.example.exception.DatosInvalidosException;
+import org.example.exception.TurnoOcupadoException;
 import org.example.model.Cita;
+import org.example.repository.AgendaTurnos;
+import org.example.repository.CitaRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
 
 
 public class CitaService {
 
     private static final Logger log = LoggerFactory.getLogger(CitaService.class);
-    private Cita citaActual;
+    // A partir de este tamaño de lote el parseo y la validación se reparten entre núcleos
+    private static final int UMBRAL_VALIDACION_PARALELA = 10_000;
+    private final CitaRepository citas;
+    // Turnos ocupados por las citas activas: dos citas nunca comparten turno
+    private final AgendaTurnos agenda;
     private final ValidacionService validacionService = new ValidacionService();
 
+    public CitaService() {
+        this(new CitaRepository(), new AgendaTurnos());
+    }
+
+    public CitaService(CitaRepository citas, AgendaTurnos agenda) {
+        this.citas = citas;
+        this.agenda = agenda;
+    }
+
     public void registrarCita(int id, String nombre, String telefono, LocalDateTime fecha) {
-        log.info("Cita registrada {} {} {} {}", id, nombre, telefono, fecha);
         validaciones(id, fecha, nombre, telefono);
-        citaActual = new Cita(id, nombre, telefono, fecha);
-        log.info("Cita registrada con exito");
+        MotivoRechazo motivo = confirmarRegistro(new Cita(id, nombre, telefono, fecha));
+        if (motivo == MotivoRechazo.TURNO_OCUPADO) {
+            throw new TurnoOcupadoException(mensajeTurnoOcupado(fecha));
+        }
+        if (motivo == MotivoRechazo.ID_DUPLICADO) {
+            throw new DatosInvalidosException("Ya existe una cita con el ID: " + id);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Cita {} registrada para {}", id, fecha);
+        }
     }
 
 
     public void cancelarCita(int id) throws CitaYaCanceladaException {
-        log.error("Cita cancelada {}", id);
-        Cita cita = getCitaById(id);
-        if (cita.isActivo()) {
-            cita.setActivo(false);
-        } else {
+        getCitaById(id);
+        // El turno se suelta con la fecha que tiene la cita al cancelarse, no con una leída antes
+        if (!citas.cancelar(id, cita -> agenda.liberar(cita.getFecha(), id))) {
             throw new CitaYaCanceladaException("La cita ya fue cancelada");
         }
     }
 
     public Cita getCitaById(int id) {
-        log.info("Cita getById {}", id);
-        if (citaActual != null && citaActual.getId() == id) {
-            return citaActual;
-        } else {
+        Cita cita = citas.buscar(id);
+        if (cita == null) {
             throw new CitaNoEncontradaException("La cita no existe");
         }
+        return cita;
     }
 
     public Cita actualizarCita(Cita cita) {
-        Cita cita2 = getCitaById(cita.getId());
+        getCitaById(cita.getId());
         validaciones(cita.getId(), cita.getFecha(), cita.getNombre(), cita.getTelefono());
-        cita2.setNombre(cita.getNombre());
-        cita2.setTelefono(cita.getTelefono());
-        cita2.setFecha(cita.getFecha());
-        citaActual = cita2;
-        return citaActual;
+        boolean[] ocupado = new boolean[1];
+        Cita actualizada = citas.actualizar(cita.getId(), cita.getNombre(), cita.getTelefono(), cita.getFecha(),
+                actual -> {
+                    // El turno nuevo se toma antes de soltar el anterior: si está ocupado, la cita no cambia
+                    if (moverTurno(actual, cita.getFecha())) {
+                        return true;
+                    }
+                    ocupado[0] = true;
+                    return false;
+                });
+        if (ocupado[0]) {
+            throw new TurnoOcupadoException(mensajeTurnoOcupado(cita.getFecha()));
+        }
+        return actualizada;
+    }
+
+    /**
+     * @return Citas activas con fecha en [desde, hasta), ordenadas por fecha
+     */
+    public List<Cita> listarCitasEntre(LocalDateTime desde, LocalDateTime hasta) {
+        if (desde == null || hasta == null || hasta.isBefore(desde)) {
+            throw new DatosInvalidosException("El rango de fechas no es valido");
+        }
+        return citas.listarEntre(desde, hasta);
+    }
+
+    /**
+     * Próximos turnos libres a partir de la fecha; nunca devuelve turnos en el pasado
+     *
+     * @param cantidad Entre 1 y AgendaTurnos.MAX_TURNOS_LIBRES
+     * @return Inicios de los turnos libres, en orden
+     */
+    public List<LocalDateTime> buscarTurnosLibres(LocalDateTime desde, int cantidad) {
+        if (desde == null) {
+            throw new DatosInvalidosException("La fecha es obligatoria");
+        }
+        if (cantidad <= 0 || cantidad > AgendaTurnos.MAX_TURNOS_LIBRES) {
+            throw new DatosInvalidosException(
+                    "La cantidad de turnos debe estar entre 1 y " + AgendaTurnos.MAX_TURNOS_LIBRES);
+        }
+        LocalDateTime ahora = LocalDateTime.now();
+        return agenda.turnosLibres(desde.isBefore(ahora) ? ahora : desde, cantidad);
+    }
+
+    /**
+     * Importa citas desde líneas con el formato id;nombre;telefono;fecha (fecha ISO, p. ej.
+     * 2030-05-20T10:15). Cada línea se parsea y valida por separado (en paralelo en lotes
+     * grandes) y después las válidas se confirman en orden, cada una con la reserva
+     * atómica de su turno: una línea rechazada no afecta al resto.
+     *
+     * @return Un resultado por línea, con la cita registrada o el motivo del rechazo
+     */
+    public ResultadoLote<Cita> importarCitas(Collection<String> lineas) {
+        String[] entrada = lineas.toArray(new String[0]);
+        Cita[] nuevas = new Cita[entrada.length];
+        List<ResultadoItem<Cita>> rechazos = nuevosResultados(entrada.length);
+        LocalDateTime ahora = LocalDateTime.now();
+        indices(entrada.length).forEach(i -> {
+            nuevas[i] = parsear(entrada[i]);
+            rechazos.set(i, nuevas[i] == null
+                    ? ResultadoItem.rechazado(i, MotivoRechazo.FORMATO_INVALIDO, "Se esperaba id;nombre;telefono;fecha")
+                    : validarNueva(i, nuevas[i], ahora));
+        });
+        return confirmarRegistros(nuevas, rechazos);
+    }
+
+    /**
+     * Registra un lote de citas: valida todas (en paralelo en lotes grandes) y confirma
+     * en orden las válidas. Las citas de la entrada se copian, no se guardan.
+     *
+     * @return Un resultado por cita, con la cita registrada o el motivo del rechazo
+     */
+    public ResultadoLote<Cita> registrarCitas(Collection<Cita> lote) {
+        Cita[] entrada = lote.toArray(new Cita[0]);
+        Cita[] nuevas = new Cita[entrada.length];
+        List<ResultadoItem<Cita>> rechazos = nuevosResultados(entrada.length);
+        LocalDateTime ahora = LocalDateTime.now();
+        indices(entrada.length).forEach(i -> {
+            Cita origen = entrada[i];
+            if (origen == null) {
+                rechazos.set(i, ResultadoItem.rechazado(i, MotivoRechazo.DATOS_INVALIDOS, "La cita es obligatoria"));
+                return;
+            }
+            nuevas[i] = new Cita(origen.getId(), origen.getNombre(), origen.getTelefono(), origen.getFecha());
+            rechazos.set(i, validarNueva(i, nuevas[i], ahora));
+        });
+        return confirmarRegistros(nuevas, rechazos);
+    }
+
+    /**
+     * Mueve todas las citas activas con fecha en [desde, hasta) el mismo desplazamiento,
+     * por ejemplo para correr la agenda de un día. Cada cita toma su turno nuevo antes de
+     * soltar el anterior, y se procesan empezando por el extremo hacia el que se mueven:
+     * así un bloque de turnos seguidos se puede correr aunque los turnos destino estén
+     * ocupados por citas del mismo bloque.
+     *
+     * @return Un resultado por cita del rango, en orden de fecha original; las rechazadas no cambian
+     */
+    public ResultadoLote<Cita> reprogramarCitas(LocalDateTime desde, LocalDateTime hasta, Duration desplazamiento) {
+        if (desplazamiento == null) {
+            throw new DatosInvalidosException("El desplazamiento es obligatorio");
+        }
+        List<Cita> aMover = listarCitasEntre(desde, hasta);
+        List<ResultadoItem<Cita>> resultados = nuevosResultados(aMover.size());
+        LocalDateTime ahora = LocalDateTime.now();
+        boolean haciaAtras = desplazamiento.isNegative();
+        for (int paso = 0; paso < aMover.size(); paso++) {
+            int i = haciaAtras ? paso : aMover.size() - 1 - paso;
+            Cita cita = aMover.get(i);
+            LocalDateTime nuevaFecha = cita.getFecha().plus(desplazamiento);
+            ResultadoValidacion validacion = validacionService.verificarFechaHora(nuevaFecha, ahora);
+            if (!validacion.esValido()) {
+                resultados.set(i, ResultadoItem.rechazado(i, MotivoRechazo.FECHA_PASADA, validacion.getMensaje()));
+                continue;
+            }
+            // Solo cambia la fecha: el nombre y el teléfono se toman de la cita bloqueada
+            Cita movida = citas.cambiarFecha(cita.getId(), nuevaFecha,
+                    actual -> actual.isActivo() && moverTurno(actual, nuevaFecha));
+            if (movida != null) {
+                resultados.set(i, ResultadoItem.exitoso(i, movida));
+            } else {
+                // Sin turno libre, o la cita se canceló desde que se listó
+                resultados.set(i, cita.isActivo()
+                        ? ResultadoItem.rechazado(i, MotivoRechazo.TURNO_OCUPADO, mensajeTurnoOcupado(nuevaFecha))
+                        : ResultadoItem.rechazado(i, MotivoRechazo.CITA_CANCELADA, "La cita ya fue cancelada"));
+            }
+        }
+        ResultadoLote<Cita> resultado = new ResultadoLote<>(resultados);
+        if (log.isDebugEnabled()) {
+            log.debug("Reprogramadas {} de {} citas entre {} y {}", resultado.getExitosos(), aMover.size(), desde, hasta);
+        }
+        return resultado;
+    }
+
+    private ResultadoLote<Cita> confirmarRegistros(Cita[] nuevas, List<ResultadoItem<Cita>> rechazos) {
+        List<ResultadoItem<Cita>> resultados = new ArrayList<>(nuevas.length);
+        for (int i = 0; i < nuevas.length; i++) {
+            if (rechazos.get(i) != null) {
+                resultados.add(rechazos.get(i));
+                continue;
+            }
+            MotivoRechazo motivo = confirmarRegistro(nuevas[i]);
+            if (motivo == null) {
+                resultados.add(ResultadoItem.exitoso(i, nuevas[i]));
+            } else if (motivo == MotivoRechazo.TURNO_OCUPADO) {
+                resultados.add(ResultadoItem.rechazado(i, motivo, mensajeTurnoOcupado(nuevas[i].getFecha())));
+            } else {
+                resultados.add(ResultadoItem.rechazado(i, motivo, "Ya existe una cita con el ID: " + nuevas[i].getId()));
+            }
+        }
+        ResultadoLote<Cita> resultado = new ResultadoLote<>(resultados);
+        if (log.isDebugEnabled()) {
+            log.debug("Lote registrado: {} citas, {} rechazadas", resultado.getExitosos(), resultado.getRechazados());
+        }
+        return resultado;
+    }
+
+    /**
+     * Guarda una cita ya validada y ocupa su turno
+     *
+     * @return null si se registró, o el motivo por el que no
+     */
+    private MotivoRechazo confirmarRegistro(Cita cita) {
+        if (citas.buscar(cita.getId()) != null) {
+            return MotivoRechazo.ID_DUPLICADO;
+        }
+        if (!agenda.reservar(cita.getFecha(), cita.getId())) {
+            return MotivoRechazo.TURNO_OCUPADO;
+        }
+        if (!citas.agregar(cita)) {
+            // Otro registro concurrente con el mismo id ganó la carrera
+            agenda.liberar(cita.getFecha(), cita.getId());
+            return MotivoRechazo.ID_DUPLICADO;
+        }
+        return null;
+    }
+
+    /**
+     * Pasa el turno de una cita activa al de la nueva fecha: toma el nuevo y suelta el
+     * anterior. Corre dentro de CitaRepository.actualizar, con la cita bloqueada, así una
+     * cancelación concurrente ve la fecha vieja con su turno o la nueva con el suyo.
+     * Una cita cancelada no tiene turno y no se toca.
+     *
+     * @return false si el turno nuevo está ocupado (no se reservó nada)
+     */
+    private boolean moverTurno(Cita actual, LocalDateTime nuevaFecha) {
+        if (!actual.isActivo() || AgendaTurnos.mismoTurno(actual.getFecha(), nuevaFecha)) {
+            return true;
+        }
+        if (!agenda.reservar(nuevaFecha, actual.getId())) {
+            return false;
+        }
+        agenda.liberar(actual.getFecha(), actual.getId());
+        return true;
+    }
+
+    private ResultadoItem<Cita> validarNueva(int indice, Cita cita, LocalDateTime ahora) {
+        ResultadoValidacion validacion = validacionService.verificarCita(
+                cita.getId(), cita.getFecha(), cita.getNombre(), cita.getTelefono(), ahora);
+        if (validacion.esValido()) {
+            return null;
+        }
+        MotivoRechazo motivo = validacion == ResultadoValidacion.FECHA_PASADA
+                ? MotivoRechazo.FECHA_PASADA : MotivoRechazo.DATOS_INVALIDOS;
+        return ResultadoItem.rechazado(indice, motivo, validacion.getMensaje());
+    }
+
+    /**
+     * @return La cita de una línea id;nombre;telefono;fecha, o null si no tiene ese formato
+     */
+    private static Cita parsear(String linea) {
+        if (linea == null) {
+            return null;
+        }
+        int primero = linea.indexOf(';');
+        int segundo = linea.indexOf(';', primero + 1);
+        int tercero = linea.indexOf(';', segundo + 1);
+        if (primero < 0 || segundo < 0 || tercero < 0 || linea.indexOf(';', tercero + 1) >= 0) {
+            return null;
+        }
+        try {
+            int id = Integer.parseInt(linea, 0, primero, 10);
+            LocalDateTime fecha = LocalDateTime.parse(linea.substring(tercero + 1).trim());
+            return new Cita(id, linea.substring(primero + 1, segundo), linea.substring(segundo + 1, tercero), fecha);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static IntStream indices(int cantidad) {
+        IntStream indices = IntStream.range(0, cantidad);
+        return cantidad >= UMBRAL_VALIDACION_PARALELA ? indices.parallel() : indices;
+    }
+
+    /**
+     * Lista de tamaño fijo con un lugar vacío por ítem. Los hilos del stream paralelo
+     * escriben cada uno en índices distintos con set, que no cambia la estructura.
+     */
+    private static List<ResultadoItem<Cita>> nuevosResultados(int cantidad) {
+        return new ArrayList<>(Collections.nCopies(cantidad, null));
+    }
+
+    private static String mensajeTurnoOcupado(LocalDateTime fecha) {
+        return "El turno de las " + AgendaTurnos.inicioTurno(fecha) + " ya está reservado";
     }
 
     public void validaciones(int id, LocalDateTime fecha, String nombre, String telefono) {
-        validacionService.validarId(id);
-        validacionService.validarFechaHoraNoPasada(fecha);
-        validacionService.validarNombrePaciente(nombre);
-        validacionService.validarTelefonoPaciente(telefono);
+        validacionService.lanzarSiInvalido(
+                validacionService.verificarCita(id, fecha, nombre, telefono, LocalDateTime.now()));
     }
 }
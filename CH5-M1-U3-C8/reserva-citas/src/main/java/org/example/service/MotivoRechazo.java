@@ -0,0 +1,17 @@
+package org.example.service;
+
+/**
+ * Por qué no se aplicó un ítem de una operación por lotes
+ */
+public enum MotivoRechazo {
+
+    /** La línea importada no tiene el formato id;nombre;telefono;fecha */
+    FORMATO_INVALIDO,
+    /** Algún dato de la cita no pasa las validaciones (el mensaje dice cuál) */
+    DATOS_INVALIDOS,
+    FECHA_PASADA,
+    ID_DUPLICADO,
+    TURNO_OCUPADO,
+    /** La cita se canceló antes de poder aplicarle el cambio */
+    CITA_CANCELADA
+}
@@ -0,0 +1,71 @@
+package org.example.service;
+
+/**
+ * Resultado de un ítem dentro de una operación por lotes
+ *
+ * @param <T> Tipo del valor producido cuando el ítem se aplica
+ */
+public class ResultadoItem<T> {
+
+    private final int indice;
+    private final T valor;
+    private final MotivoRechazo motivo;
+    private final String mensaje;
+
+    private ResultadoItem(int indice, T valor, MotivoRechazo motivo, String mensaje) {
+        this.indice = indice;
+        this.valor = valor;
+        this.motivo = motivo;
+        this.mensaje = mensaje;
+    }
+
+    static <T> ResultadoItem<T> exitoso(int indice, T valor) {
+        return new ResultadoItem<>(indice, valor, null, null);
+    }
+
+    static <T> ResultadoItem<T> rechazado(int indice, MotivoRechazo motivo, String mensaje) {
+        return new ResultadoItem<>(indice, null, motivo, mensaje);
+    }
+
+    /**
+     * Posición del ítem en la entrada
+     */
+    public int getIndice() {
+        return indice;
+    }
+
+    public boolean esExitoso() {
+        return motivo == null;
+    }
+
+    /**
+     * @return El valor producido, o null si el ítem fue rechazado
+     */
+    public T getValor() {
+        return valor;
+    }
+
+    /**
+     * @return El motivo del rechazo, o null si el ítem se aplicó
+     */
+    public MotivoRechazo getMotivo() {
+        return motivo;
+    }
+
+    /**
+     * @return Detalle del rechazo para el usuario, o null si el ítem se aplicó
+     */
+    public String getMensaje() {
+        return mensaje;
+    }
+
+    @Override
+    public String toString() {
+        return "ResultadoItem{" +
+                "indice=" + indice +
+                ", valor=" + valor +
+                ", motivo=" + motivo +
+                ", mensaje='" + mensaje + '\'' +
+                '}';
+    }
+}
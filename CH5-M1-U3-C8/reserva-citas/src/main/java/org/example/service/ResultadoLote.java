@@ -0,0 +1,53 @@
+package org.example.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de una operación por lotes: un ResultadoItem por cada ítem de entrada,
+ * en el orden de la entrada
+ *
+ * @param <T> Tipo del valor producido por cada ítem exitoso
+ */
+public class ResultadoLote<T> {
+
+    private final List<ResultadoItem<T>> items;
+    private final int exitosos;
+
+    ResultadoLote(List<ResultadoItem<T>> items) {
+        this.items = Collections.unmodifiableList(items);
+        int cuenta = 0;
+        for (ResultadoItem<T> item : items) {
+            if (item.esExitoso()) {
+                cuenta++;
+            }
+        }
+        this.exitosos = cuenta;
+    }
+
+    public List<ResultadoItem<T>> getItems() {
+        return items;
+    }
+
+    public int getExitosos() {
+        return exitosos;
+    }
+
+    public int getRechazados() {
+        return items.size() - exitosos;
+    }
+
+    /**
+     * @return Los ítems rechazados, con su índice y motivo
+     */
+    public List<ResultadoItem<T>> getRechazos() {
+        List<ResultadoItem<T>> rechazos = new ArrayList<>(getRechazados());
+        for (ResultadoItem<T> item : items) {
+            if (!item.esExitoso()) {
+                rechazos.add(item);
+            }
+        }
+        return rechazos;
+    }
+}
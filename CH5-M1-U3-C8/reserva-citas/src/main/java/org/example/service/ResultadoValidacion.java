@@ -0,0 +1,34 @@
+package org.example.service;
+
+/**
+ * Resultado de validar un dato de la cita. Son constantes: verificar no crea objetos
+ * ni lanza excepciones, y el que llama decide si corta, junta errores o lanza.
+ */
+public enum ResultadoValidacion {
+
+    VALIDO(null),
+    ID_VACIO("El ID de la cita no puede estar vacío."),
+    FECHA_OBLIGATORIA("La fecha y hora de la cita son obligatorias."),
+    FECHA_PASADA("La fecha y hora de la cita no pueden ser en el pasado."),
+    NOMBRE_VACIO("El nombre no puede ser nulo o estar vacio"),
+    TELEFONO_VACIO("El telefono no puede ser nulo o estar vacio"),
+    TELEFONO_FORMATO("El telefono no tiene el formato esperado"),
+    TELEFONO_DIGITOS("El telefono no tiene la cantidad de digitos esperada");
+
+    private final String mensaje;
+
+    ResultadoValidacion(String mensaje) {
+        this.mensaje = mensaje;
+    }
+
+    public boolean esValido() {
+        return this == VALIDO;
+    }
+
+    /**
+     * @return Mensaje para el usuario, o null si es VALIDO
+     */
+    public String getMensaje() {
+        return mensaje;
+    }
+}
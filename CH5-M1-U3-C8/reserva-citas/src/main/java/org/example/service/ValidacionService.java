@@ -8,50 +8,114 @@ import org.slf4j.LoggerFactory;
 
 import java.time.LocalDateTime;
 
+/**
+ * Validaciones de los datos de una cita.
+ *
+ * Los métodos verificar* devuelven un ResultadoValidacion sin crear objetos ni lanzar
+ * excepciones: el teléfono se revisa en una sola pasada, sin regex ni String intermedio.
+ * Los validar* son la forma anterior, que lanza la excepción del resultado. Solo se
+ * registran los rechazos, en WARN, así validar una cita correcta no escribe en el log.
+ */
 public class ValidacionService {
 
     public static final Logger log = LoggerFactory.getLogger(ValidacionService.class);
 
-    public void validarNombrePaciente(String nombre) {
-        log.info("Validando nombre de paciente");
-        if (nombre == null || nombre.isEmpty()) {
-            throw new DatosInvalidosException("El nombre no puede ser nulo o estar vacio");
+    private static final int DIGITOS_MINIMOS_TELEFONO = 8;
+
+    /**
+     * Verifica todos los datos de la cita y devuelve la primera falla, en el mismo
+     * orden que validarId, validarFechaHoraNoPasada, validarNombrePaciente y
+     * validarTelefonoPaciente
+     *
+     * @param ahora Instante contra el que se comparan las fechas (se puede reutilizar en un lote)
+     */
+    public ResultadoValidacion verificarCita(int id, LocalDateTime fecha, String nombre, String telefono,
+                                             LocalDateTime ahora) {
+        ResultadoValidacion resultado = verificarId(id);
+        if (resultado.esValido()) {
+            resultado = verificarFechaHora(fecha, ahora);
+        }
+        if (resultado.esValido()) {
+            resultado = verificarNombre(nombre);
+        }
+        if (resultado.esValido()) {
+            resultado = verificarTelefono(telefono);
         }
+        return resultado;
     }
 
-    public void validarTelefonoPaciente(String telefono) {
-        log.info("Validando el telefono del Paciente");
-        if (telefono == null || telefono.isEmpty()) {
-            throw new DatosInvalidosException("El telefono no puede ser nulo o estar vacio");
+    public ResultadoValidacion verificarId(int id) {
+        return id == 0 ? ResultadoValidacion.ID_VACIO : ResultadoValidacion.VALIDO;
+    }
+
+    public ResultadoValidacion verificarFechaHora(LocalDateTime fechaHora, LocalDateTime ahora) {
+        if (fechaHora == null) {
+            return ResultadoValidacion.FECHA_OBLIGATORIA;
         }
+        return fechaHora.isBefore(ahora) ? ResultadoValidacion.FECHA_PASADA : ResultadoValidacion.VALIDO;
+    }
 
-        String soloDigitos = telefono.replaceAll("[\\s\\-]", "");
-        boolean siTieneSoloDigitos = soloDigitos.matches("\\d+");
+    public ResultadoValidacion verificarNombre(String nombre) {
+        return nombre == null || nombre.isEmpty() ? ResultadoValidacion.NOMBRE_VACIO : ResultadoValidacion.VALIDO;
+    }
 
-        if (!siTieneSoloDigitos) {
-            throw new DatosInvalidosException("El telefono no tiene el formato esperado");
+    /**
+     * Acepta dígitos separados por espacios o guiones, con al menos DIGITOS_MINIMOS_TELEFONO
+     * dígitos. Equivale a quitar [\s\-] y pedir \d+ sobre lo que queda.
+     */
+    public ResultadoValidacion verificarTelefono(String telefono) {
+        if (telefono == null || telefono.isEmpty()) {
+            return ResultadoValidacion.TELEFONO_VACIO;
         }
-
-        if (soloDigitos.length() < 8) {
-            throw new DatosInvalidosException("El telefono no tiene la cantidad de digitos esperada");
+        int digitos = 0;
+        for (int i = 0; i < telefono.length(); i++) {
+            char c = telefono.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digitos++;
+            } else if (!esSeparador(c)) {
+                return ResultadoValidacion.TELEFONO_FORMATO;
+            }
+        }
+        if (digitos == 0) {
+            return ResultadoValidacion.TELEFONO_FORMATO;
         }
+        return digitos < DIGITOS_MINIMOS_TELEFONO ? ResultadoValidacion.TELEFONO_DIGITOS : ResultadoValidacion.VALIDO;
     }
 
-    public void validarFechaHoraNoPasada(LocalDateTime fechaHora) {
-        if (fechaHora == null) {
-            log.warn("Validación fallida: fechaHora null");
-            throw new DatosInvalidosException("La fecha y hora de la cita son obligatorias.");
+    /**
+     * Lanza la excepción que corresponde al resultado, si no es válido
+     */
+    public void lanzarSiInvalido(ResultadoValidacion resultado) {
+        if (resultado.esValido()) {
+            return;
+        }
+        if (log.isWarnEnabled()) {
+            log.warn("Validación fallida: {}", resultado);
         }
-        if (fechaHora.isBefore(LocalDateTime.now())) {
-            log.warn("Validación fallida: fecha/hora en el pasado: {}", fechaHora);
-            throw new CitaEnFechaPasadaException("La fecha y hora de la cita no pueden ser en el pasado.");
+        if (resultado == ResultadoValidacion.FECHA_PASADA) {
+            throw new CitaEnFechaPasadaException(resultado.getMensaje());
         }
+        throw new DatosInvalidosException(resultado.getMensaje());
+    }
+
+    public void validarNombrePaciente(String nombre) {
+        lanzarSiInvalido(verificarNombre(nombre));
+    }
+
+    public void validarTelefonoPaciente(String telefono) {
+        lanzarSiInvalido(verificarTelefono(telefono));
+    }
+
+    public void validarFechaHoraNoPasada(LocalDateTime fechaHora) {
+        lanzarSiInvalido(verificarFechaHora(fechaHora, LocalDateTime.now()));
     }
 
     public void validarId(Integer id) {
-        if (id == null || id == 0) {
-            log.warn("Validación fallida: id vacío o null");
-            throw new DatosInvalidosException("El ID de la cita no puede estar vacío.");
-        }
+        lanzarSiInvalido(id == null ? ResultadoValidacion.ID_VACIO : verificarId(id));
+    }
+
+    // Los mismos caracteres que \s en una regex de Java, más el guion
+    private static boolean esSeparador(char c) {
+        return c == ' ' || c == '-' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
     }
 }
@@ -0,0 +1,101 @@
+package org.example.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AgendaTurnosTest {
+
+    AgendaTurnos agenda;
+    LocalDateTime manana;
+
+    @BeforeEach
+    void init() {
+        agenda = new AgendaTurnos();
+        manana = LocalDateTime.now().plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+    }
+
+    @Test
+    void testReservar_turno_ocupado() {
+        assertTrue(agenda.reservar(manana, 1));
+        assertFalse(agenda.reservar(manana.plusMinutes(10), 2));
+        assertTrue(agenda.reservar(manana.plusMinutes(15), 2));
+
+        assertEquals(1, agenda.ocupante(manana.plusMinutes(14)));
+        assertEquals(2, agenda.ocupante(manana.plusMinutes(15)));
+        assertEquals(0, agenda.ocupante(manana.plusDays(3)));
+        assertEquals(manana, AgendaTurnos.inicioTurno(manana.plusMinutes(7)));
+    }
+
+    @Test
+    void testLiberar_solo_la_cita_que_lo_ocupa() {
+        agenda.reservar(manana, 1);
+
+        assertFalse(agenda.liberar(manana, 2));
+        assertTrue(agenda.liberar(manana, 1));
+        assertFalse(agenda.liberar(manana, 1));
+        assertTrue(agenda.reservar(manana, 2));
+    }
+
+    @Test
+    void testReservar_hilos_virtuales_compiten_por_los_mismos_turnos() throws Exception {
+        int turnos = 100;
+        int hilos = 10_000;
+        CountDownLatch largada = new CountDownLatch(1);
+        ConcurrentLinkedQueue<Integer> ganadores = new ConcurrentLinkedQueue<>();
+        List<Thread> virtuales = new ArrayList<>();
+        for (int i = 1; i <= hilos; i++) {
+            int id = i;
+            LocalDateTime fecha = manana.plusMinutes((long) (id % turnos) * AgendaTurnos.MINUTOS_POR_TURNO);
+            virtuales.add(Thread.ofVirtual().start(() -> {
+                try {
+                    largada.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (agenda.reservar(fecha, id)) {
+                    ganadores.add(id);
+                }
+            }));
+        }
+        largada.countDown();
+        for (Thread hilo : virtuales) {
+            hilo.join();
+        }
+
+        // Exactamente un ganador por turno, y es el que quedó registrado en la agenda
+        assertEquals(turnos, ganadores.size());
+        Set<Integer> turnosGanados = new HashSet<>();
+        for (int id : ganadores) {
+            LocalDateTime fecha = manana.plusMinutes((long) (id % turnos) * AgendaTurnos.MINUTOS_POR_TURNO);
+            assertTrue(turnosGanados.add(id % turnos));
+            assertEquals(id, agenda.ocupante(fecha));
+        }
+    }
+
+    @Test
+    void testTurnosLibres_saltea_ocupados_y_sigue_al_dia_siguiente() {
+        LocalDateTime ultimoTurno = manana.withHour(23).withMinute(30);
+        agenda.reservar(ultimoTurno, 1);
+        agenda.reservar(ultimoTurno.plusMinutes(15), 2);
+        agenda.reservar(ultimoTurno.plusMinutes(45), 3);
+
+        // 23:20 ya empezó: se arranca en el turno siguiente
+        List<LocalDateTime> libres = agenda.turnosLibres(ultimoTurno.minusMinutes(10), 3);
+
+        assertEquals(List.of(ultimoTurno.plusMinutes(30), ultimoTurno.plusMinutes(60), ultimoTurno.plusMinutes(75)), libres);
+        assertEquals(List.of(manana), agenda.turnosLibres(manana, 1));
+        assertThrows(IllegalArgumentException.class, () -> agenda.turnosLibres(manana, 0));
+        assertThrows(IllegalArgumentException.class, () -> agenda.turnosLibres(manana, Integer.MAX_VALUE));
+    }
+}
@@ -0,0 +1,105 @@
+package org.example.repository;
+
+import org.example.model.Cita;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CitaRepositoryTest {
+
+    CitaRepository repositorio;
+    LocalDateTime manana;
+
+    @BeforeEach
+    void init() {
+        repositorio = new CitaRepository();
+        manana = LocalDateTime.now().plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+    }
+
+    @Test
+    void testAgregar_varias_citas() {
+        assertTrue(repositorio.agregar(new Cita(1, "JORGE", "132456789", manana)));
+        assertTrue(repositorio.agregar(new Cita(2, "JUAN", "318456789", manana.plusHours(1))));
+        assertFalse(repositorio.agregar(new Cita(1, "OTRO", "318456789", manana)));
+
+        assertEquals("JORGE", repositorio.buscar(1).getNombre());
+        assertEquals("JUAN", repositorio.buscar(2).getNombre());
+        assertNull(repositorio.buscar(3));
+        assertEquals(2, repositorio.tamanio());
+    }
+
+    @Test
+    void testListarEntre_ordenado_por_fecha() {
+        repositorio.agregar(new Cita(1, "A", "132456789", manana.plusHours(2)));
+        repositorio.agregar(new Cita(2, "B", "132456789", manana));
+        repositorio.agregar(new Cita(3, "C", "132456789", manana.plusHours(1)));
+        repositorio.agregar(new Cita(4, "D", "132456789", manana.plusHours(5)));
+
+        assertEquals(List.of(2, 3, 1), ids(repositorio.listarEntre(manana, manana.plusHours(3))));
+    }
+
+    @Test
+    void testActualizar_y_cancelar_mueven_el_indice() {
+        repositorio.agregar(new Cita(1, "A", "132456789", manana));
+        repositorio.agregar(new Cita(2, "B", "132456789", manana.plusHours(1)));
+
+        repositorio.actualizar(1, "A", "132456789", manana.plusHours(2));
+        assertEquals(List.of(2, 1), ids(repositorio.listarEntre(manana, manana.plusDays(1))));
+
+        assertTrue(repositorio.cancelar(2));
+        assertFalse(repositorio.cancelar(2));
+        assertFalse(repositorio.cancelar(9));
+        assertEquals(List.of(1), ids(repositorio.listarEntre(manana, manana.plusDays(1))));
+        assertFalse(repositorio.buscar(2).isActivo());
+    }
+
+    @Test
+    void testActualizar_y_cancelar_corren_la_accion_con_la_cita_sin_cambios() {
+        repositorio.agregar(new Cita(1, "A", "132456789", manana));
+        List<LocalDateTime> vistas = new ArrayList<>();
+
+        assertNull(repositorio.actualizar(1, "A", "132456789", manana.plusHours(2), cita -> false));
+        assertEquals(manana, repositorio.buscar(1).getFecha());
+        assertNotNull(repositorio.actualizar(1, "A", "132456789", manana.plusHours(2),
+                cita -> vistas.add(cita.getFecha())));
+        assertTrue(repositorio.cancelar(1, cita -> vistas.add(cita.getFecha())));
+        assertFalse(repositorio.cancelar(1, cita -> vistas.add(cita.getFecha())));
+
+        assertEquals(List.of(manana, manana.plusHours(2)), vistas);
+    }
+
+    @Test
+    void testAgregar_concurrente_no_pierde_citas() throws Exception {
+        int hilos = 8;
+        int porHilo = 10_000;
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int h = 0; h < hilos; h++) {
+            int base = h * porHilo;
+            tareas.add(ejecutor.submit(() -> {
+                for (int i = 1; i <= porHilo; i++) {
+                    repositorio.agregar(new Cita(base + i, "P", "132456789", manana.plusMinutes(base + i)));
+                }
+            }));
+        }
+        for (Future<?> tarea : tareas) {
+            tarea.get();
+        }
+        ejecutor.shutdown();
+
+        assertEquals(hilos * porHilo, repositorio.tamanio());
+        assertEquals(hilos * porHilo, repositorio.listarEntre(manana, manana.plusYears(1)).size());
+    }
+
+    private static List<Integer> ids(List<Cita> citas) {
+        return citas.stream().map(Cita::getId).toList();
+    }
+}
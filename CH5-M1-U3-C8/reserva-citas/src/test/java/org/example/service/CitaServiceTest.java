@@ -1,14 +1,27 @@
 package org.example.service;
 
 import org.example.exception.CitaNoEncontradaException;
+import org.example.exception.CitaYaCanceladaException;
+import org.example.exception.DatosInvalidosException;
+import org.example.exception.TurnoOcupadoException;
 import org.example.model.Cita;
+import org.example.repository.AgendaTurnos;
+import org.example.repository.CitaRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class CitaServiceTest {
 
@@ -60,4 +73,245 @@ class CitaServiceTest {
         assertEquals(cita.getTelefono(), citaActualizada.getTelefono());
         assertEquals(cita.getFecha(), citaActualizada.getFecha());
     }
+
+    @Test
+    void testRegistrarCita_varias_citas() {
+        citaService.registrarCita(2, "JUAN", "318456789", manana.plusHours(1));
+
+        assertEquals("JORGE", citaService.getCitaById(1).getNombre());
+        assertEquals("JUAN", citaService.getCitaById(2).getNombre());
+        assertThrows(CitaNoEncontradaException.class, () -> citaService.getCitaById(3));
+    }
+
+    @Test
+    void testRegistrarCita_id_repetido() {
+        assertThrows(DatosInvalidosException.class,
+                () -> citaService.registrarCita(1, "JUAN", "318456789", manana.plusHours(1)));
+        assertEquals("JORGE", citaService.getCitaById(1).getNombre());
+    }
+
+    @Test
+    void testCancelarCita_no_afecta_otras() throws Exception {
+        citaService.registrarCita(2, "JUAN", "318456789", manana.plusHours(1));
+
+        citaService.cancelarCita(1);
+
+        assertFalse(citaService.getCitaById(1).isActivo());
+        assertTrue(citaService.getCitaById(2).isActivo());
+        assertThrows(CitaYaCanceladaException.class, () -> citaService.cancelarCita(1));
+    }
+
+    @Test
+    void testRegistrarCita_turno_ocupado() {
+        assertThrows(TurnoOcupadoException.class,
+                () -> citaService.registrarCita(2, "JUAN", "318456789", manana.plusMinutes(5)));
+        assertThrows(CitaNoEncontradaException.class, () -> citaService.getCitaById(2));
+    }
+
+    @Test
+    void testCancelarCita_libera_turno() throws Exception {
+        citaService.cancelarCita(1);
+
+        citaService.registrarCita(2, "JUAN", "318456789", manana);
+        assertEquals("JUAN", citaService.getCitaById(2).getNombre());
+    }
+
+    @Test
+    void testActualizarCita_turno_ocupado_no_cambia_la_cita() {
+        citaService.registrarCita(2, "JUAN", "318456789", manana.plusHours(1));
+
+        Cita cita = new Cita(2, "JUAN", "318456789", manana);
+        assertThrows(TurnoOcupadoException.class, () -> citaService.actualizarCita(cita));
+        assertEquals(manana.plusHours(1), citaService.getCitaById(2).getFecha());
+    }
+
+    @Test
+    void testListarCitasEntre_solo_activas_del_rango() throws Exception {
+        citaService.registrarCita(2, "JUAN", "318456789", manana.plusHours(1));
+        citaService.registrarCita(3, "ANA", "318456789", manana.plusHours(3));
+        citaService.registrarCita(4, "LUIS", "318456789", manana.minusHours(1));
+        citaService.cancelarCita(4);
+
+        List<Cita> deNueveADoce = citaService.listarCitasEntre(
+                manana.toLocalDate().atTime(9, 0), manana.toLocalDate().atTime(12, 0));
+
+        assertEquals(List.of(1, 2), deNueveADoce.stream().map(Cita::getId).toList());
+        assertThrows(DatosInvalidosException.class, () -> citaService.listarCitasEntre(manana, manana.minusHours(1)));
+    }
+
+    @Test
+    void testBuscarTurnosLibres_saltea_turnos_ocupados() {
+        LocalDateTime diezEnPunto = manana.toLocalDate().atTime(10, 0);
+        citaService.registrarCita(2, "JUAN", "318456789", diezEnPunto.plusMinutes(30));
+
+        List<LocalDateTime> libres = citaService.buscarTurnosLibres(diezEnPunto, 2);
+
+        assertEquals(List.of(diezEnPunto.plusMinutes(15), diezEnPunto.plusMinutes(45)), libres);
+        assertTrue(citaService.buscarTurnosLibres(manana.minusYears(1), 1).get(0).isAfter(LocalDateTime.now()));
+        assertThrows(DatosInvalidosException.class, () -> citaService.buscarTurnosLibres(diezEnPunto, 0));
+        assertThrows(DatosInvalidosException.class, () -> citaService.buscarTurnosLibres(diezEnPunto, -1));
+        assertThrows(DatosInvalidosException.class,
+                () -> citaService.buscarTurnosLibres(diezEnPunto, Integer.MAX_VALUE));
+        assertEquals(AgendaTurnos.MAX_TURNOS_LIBRES,
+                citaService.buscarTurnosLibres(diezEnPunto, AgendaTurnos.MAX_TURNOS_LIBRES).size());
+    }
+
+    @Test
+    void testImportarCitas_resultado_por_linea() {
+        ResultadoLote<Cita> resultado = citaService.importarCitas(List.of(
+                "2;JUAN;318456789;" + manana.plusHours(1),
+                "sin formato",
+                "3;ANA;318;" + manana.plusHours(2),
+                "4;LUIS;318456789;" + manana.plusMinutes(5),
+                "1;JORGE;318456789;" + manana.plusHours(3),
+                "5;SOFIA;318456789;" + manana.plusHours(1).plusMinutes(10),
+                "6;PEDRO;318456789;" + manana.minusDays(2)));
+
+        List<MotivoRechazo> motivos = resultado.getItems().stream().map(ResultadoItem::getMotivo).toList();
+        assertEquals(Arrays.asList(null, MotivoRechazo.FORMATO_INVALIDO, MotivoRechazo.DATOS_INVALIDOS,
+                MotivoRechazo.TURNO_OCUPADO, MotivoRechazo.ID_DUPLICADO, MotivoRechazo.TURNO_OCUPADO,
+                MotivoRechazo.FECHA_PASADA), motivos);
+        assertEquals("El telefono no tiene la cantidad de digitos esperada", resultado.getItems().get(2).getMensaje());
+        assertEquals(1, resultado.getExitosos());
+        assertEquals("JUAN", citaService.getCitaById(2).getNombre());
+        assertThrows(CitaNoEncontradaException.class, () -> citaService.getCitaById(5));
+    }
+
+    @Test
+    void testRegistrarCitas_lote_grande() {
+        List<Cita> lote = new ArrayList<>();
+        for (int i = 0; i < 12_000; i++) {
+            lote.add(new Cita(100 + i, "PACIENTE", "318456789", manana.plusDays(1).plusMinutes(15L * i)));
+        }
+
+        assertEquals(12_000, citaService.registrarCitas(lote).getExitosos());
+        ResultadoLote<Cita> repetido = citaService.registrarCitas(lote);
+        assertEquals(0, repetido.getExitosos());
+        assertTrue(repetido.getItems().stream().allMatch(item -> item.getMotivo() == MotivoRechazo.ID_DUPLICADO));
+    }
+
+    @Test
+    void testReprogramarCitas_corre_un_bloque_de_turnos_seguidos() {
+        for (int id = 2; id <= 5; id++) {
+            citaService.registrarCita(id, "PACIENTE", "318456789", manana.plusMinutes(15L * (id - 1)));
+        }
+
+        ResultadoLote<Cita> resultado = citaService.reprogramarCitas(manana, manana.plusHours(1).plusMinutes(15),
+                Duration.ofMinutes(15));
+
+        assertEquals(5, resultado.getExitosos());
+        for (int id = 1; id <= 5; id++) {
+            assertEquals(manana.plusMinutes(15L * id), citaService.getCitaById(id).getFecha());
+        }
+    }
+
+    @Test
+    void testReprogramarCitas_turno_ocupado_fuera_del_rango() {
+        for (int id = 2; id <= 5; id++) {
+            citaService.registrarCita(id, "PACIENTE", "318456789", manana.plusMinutes(15L * (id - 1)));
+        }
+        citaService.registrarCita(6, "PACIENTE", "318456789", manana.plusHours(2));
+
+        ResultadoLote<Cita> resultado = citaService.reprogramarCitas(manana, manana.plusHours(1).plusMinutes(15),
+                Duration.ofHours(1));
+
+        // La cita 5 choca con la 6 y no se mueve; entonces la 1 choca con la 5
+        assertEquals(List.of(0, 4), resultado.getRechazos().stream().map(ResultadoItem::getIndice).toList());
+        assertEquals(manana, citaService.getCitaById(1).getFecha());
+        assertEquals(manana.plusMinutes(75), citaService.getCitaById(2).getFecha());
+        assertEquals(manana.plusHours(1), citaService.getCitaById(5).getFecha());
+        assertEquals(MotivoRechazo.FECHA_PASADA, citaService.reprogramarCitas(manana, manana.plusHours(1),
+                Duration.ofDays(-30)).getItems().get(0).getMotivo());
+    }
+
+    @Test
+    void testActualizarCita_cancelacion_concurrente_no_deja_turnos_tomados() throws Exception {
+        AgendaTurnos agenda = agendaQueCancelaAlReservar(1);
+        CitaService servicio = new CitaService(new CitaRepository(), agenda);
+        servicio.registrarCita(1, "JORGE", "318456789", manana);
+        cancelarAlReservar.set(servicio);
+
+        Cita cambio = new Cita(1, "JORGE", "318456789", manana.plusHours(1));
+        servicio.actualizarCita(cambio);
+        cancelacion.join();
+
+        assertFalse(servicio.getCitaById(1).isActivo());
+        assertEquals(0, agenda.ocupante(manana));
+        assertEquals(0, agenda.ocupante(manana.plusHours(1)));
+    }
+
+    @Test
+    void testReprogramarCitas_cancelacion_concurrente_no_deja_turnos_tomados() throws Exception {
+        AgendaTurnos agenda = agendaQueCancelaAlReservar(1);
+        CitaService servicio = new CitaService(new CitaRepository(), agenda);
+        servicio.registrarCita(1, "JORGE", "318456789", manana);
+        cancelarAlReservar.set(servicio);
+
+        servicio.reprogramarCitas(manana.minusMinutes(1), manana.plusMinutes(1), Duration.ofHours(1));
+        cancelacion.join();
+
+        assertFalse(servicio.getCitaById(1).isActivo());
+        assertEquals(0, agenda.ocupante(manana));
+        assertEquals(0, agenda.ocupante(manana.plusHours(1)));
+    }
+
+    @Test
+    void testReprogramarCitas_no_pisa_datos_cambiados_en_paralelo() {
+        // Otra actualización cambia nombre y teléfono justo antes de que reprogramar bloquee la cita
+        CitaRepository repositorio = new CitaRepository() {
+            boolean cambiada;
+
+            @Override
+            public Cita cambiarFecha(int id, LocalDateTime fecha, Predicate<Cita> puedeCambiar) {
+                if (!cambiada) {
+                    cambiada = true;
+                    Cita actual = buscar(id);
+                    actualizar(id, "JORGE ACTUALIZADO", "300000000", actual.getFecha());
+                }
+                return super.cambiarFecha(id, fecha, puedeCambiar);
+            }
+        };
+        CitaService servicio = new CitaService(repositorio, new AgendaTurnos());
+        servicio.registrarCita(1, "JORGE", "318456789", manana);
+
+        ResultadoLote<Cita> resultado = servicio.reprogramarCitas(manana, manana.plusMinutes(1), Duration.ofHours(1));
+
+        assertEquals(1, resultado.getExitosos());
+        Cita cita = servicio.getCitaById(1);
+        assertEquals("JORGE ACTUALIZADO", cita.getNombre());
+        assertEquals("300000000", cita.getTelefono());
+        assertEquals(manana.plusHours(1), cita.getFecha());
+    }
+
+    private final AtomicReference<CitaService> cancelarAlReservar = new AtomicReference<>();
+    private Thread cancelacion;
+
+    /**
+     * Agenda que, al reservar el turno nuevo de una cita ya registrada, cancela esa cita
+     * desde otro hilo y espera a que la cancelación termine o quede bloqueada
+     */
+    private AgendaTurnos agendaQueCancelaAlReservar(int idCita) {
+        return new AgendaTurnos() {
+            @Override
+            public boolean reservar(LocalDateTime fecha, int id) {
+                CitaService servicio = cancelarAlReservar.getAndSet(null);
+                if (servicio != null && id == idCita) {
+                    cancelacion = new Thread(() -> {
+                        try {
+                            servicio.cancelarCita(idCita);
+                        } catch (CitaYaCanceladaException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    });
+                    cancelacion.start();
+                    long limite = System.nanoTime() + 1_000_000_000L;
+                    while (cancelacion.getState() != Thread.State.TERMINATED
+                            && cancelacion.getState() != Thread.State.BLOCKED && System.nanoTime() < limite) {
+                        Thread.onSpinWait();
+                    }
+                }
+                return super.reservar(fecha, id);
+            }
+        };
+    }
 }
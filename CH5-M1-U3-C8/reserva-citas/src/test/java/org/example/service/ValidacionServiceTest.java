@@ -3,9 +3,14 @@ package org.example.service;
 
 import org.example.exception.DatosInvalidosException;
 import org.junit.jupiter.api.BeforeEach;
+import org.example.exception.CitaEnFechaPasadaException;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class ValidacionServiceTest {
@@ -32,4 +37,31 @@ class ValidacionServiceTest {
         String nombrePaciente = "Paciente";
         assertDoesNotThrow(() -> vs.validarNombrePaciente(nombrePaciente));
     }
+
+    @Test
+    void testverificarTelefono_igual_que_la_regex() {
+        List<String> telefonos = List.of("318456789", "318-456-789", "318 456\t789", "3184567", "318-45a-789",
+                "----", " ", "+57 318456789", "１２３４５６７８９", "318_456_789", "12345678");
+        for (String telefono : telefonos) {
+            String soloDigitos = telefono.replaceAll("[\\s\\-]", "");
+            ResultadoValidacion esperado = !soloDigitos.matches("\\d+") ? ResultadoValidacion.TELEFONO_FORMATO
+                    : soloDigitos.length() < 8 ? ResultadoValidacion.TELEFONO_DIGITOS : ResultadoValidacion.VALIDO;
+            assertEquals(esperado, vs.verificarTelefono(telefono), telefono);
+        }
+        assertEquals(ResultadoValidacion.TELEFONO_VACIO, vs.verificarTelefono(""));
+    }
+
+    @Test
+    void testverificarCita_devuelve_la_primera_falla() {
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDateTime manana = ahora.plusDays(1);
+
+        assertEquals(ResultadoValidacion.VALIDO, vs.verificarCita(1, manana, "Paciente", "318456789", ahora));
+        assertEquals(ResultadoValidacion.ID_VACIO, vs.verificarCita(0, null, "", "", ahora));
+        assertEquals(ResultadoValidacion.FECHA_PASADA, vs.verificarCita(1, ahora.minusDays(1), "", "", ahora));
+        assertEquals(ResultadoValidacion.NOMBRE_VACIO, vs.verificarCita(1, manana, "", "", ahora));
+        assertEquals(ResultadoValidacion.TELEFONO_DIGITOS, vs.verificarCita(1, manana, "Paciente", "318", ahora));
+        assertThrows(CitaEnFechaPasadaException.class, () -> vs.validarFechaHoraNoPasada(ahora.minusDays(1)));
+        assertThrows(DatosInvalidosException.class, () -> vs.validarId(null));
+    }
 }